@@ -25,6 +25,7 @@ import org.gradle.api.plugins.antlr.internal.AntlrSourceGenerationException;
 import org.gradle.api.plugins.antlr.internal.AntlrSpec;
 import org.gradle.api.plugins.antlr.internal.AntlrSpecFactory;
 import org.gradle.api.plugins.antlr.internal.AntlrWorkerManager;
+import org.gradle.api.plugins.antlr.internal.GrammarDependencyGraph;
 import org.gradle.api.tasks.Classpath;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputFiles;
@@ -35,19 +36,29 @@ import org.gradle.api.tasks.SourceTask;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.api.tasks.incremental.InputFileDetails;
+import org.gradle.internal.operations.BuildOperationProcessor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
 import org.gradle.util.GFileUtils;
 
 import javax.inject.Inject;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Generates parsers from Antlr grammars.
+ *
+ * <p>When only some of the grammars have changed, only those grammars and the grammars that import them are generated again.
+ * Grammars that do not depend on each other are generated in parallel, using up to {@code --max-workers} worker processes.</p>
  */
 public class AntlrTask extends SourceTask {
 
@@ -183,9 +194,14 @@ public class AntlrTask extends SourceTask {
         throw new UnsupportedOperationException();
     }
 
+    @Inject
+    protected BuildOperationProcessor getBuildOperationProcessor() {
+        throw new UnsupportedOperationException();
+    }
+
     @TaskAction
     public void execute(IncrementalTaskInputs inputs) {
-        final Set<File> grammarFiles = new HashSet<File>();
+        final Set<File> changedGrammarFiles = new HashSet<File>();
         final Set<File> sourceFiles = getSource().getFiles();
         final AtomicBoolean cleanRebuild = new AtomicBoolean();
         inputs.outOfDate(
@@ -193,7 +209,7 @@ public class AntlrTask extends SourceTask {
                 public void execute(InputFileDetails details) {
                     File input = details.getFile();
                     if (sourceFiles.contains(input)) {
-                        grammarFiles.add(input);
+                        changedGrammarFiles.add(input);
                     } else {
                         // classpath change?
                         cleanRebuild.set(true);
@@ -209,15 +225,95 @@ public class AntlrTask extends SourceTask {
                 }
             }
         });
+        GrammarDependencyGraph dependencyGraph = new GrammarDependencyGraph(sourceFiles);
+        Set<File> grammarFiles;
         if (cleanRebuild.get()) {
             GFileUtils.cleanDirectory(outputDirectory);
-            grammarFiles.addAll(sourceFiles);
+            grammarFiles = sourceFiles;
+        } else {
+            // grammars importing a changed grammar need to be generated again as well
+            grammarFiles = dependencyGraph.withDependents(changedGrammarFiles);
+        }
+        if (grammarFiles.isEmpty()) {
+            return;
+        }
+
+        int maxWorkers = getProject().getGradle().getStartParameter().getMaxWorkerCount();
+        final List<Set<File>> batches = toBatches(dependencyGraph.partition(grammarFiles), maxWorkers);
+        final List<AntlrResult> results = new CopyOnWriteArrayList<AntlrResult>();
+        getBuildOperationProcessor().run(new Action<BuildOperationQueue<GenerateGrammars>>() {
+            @Override
+            public void execute(BuildOperationQueue<GenerateGrammars> queue) {
+                for (Set<File> batch : batches) {
+                    queue.add(new GenerateGrammars(new AntlrSpecFactory().create(AntlrTask.this, batch, sourceDirectorySet), results));
+                }
+            }
+        });
+        evaluate(results);
+    }
+
+    /**
+     * Combines independent groups of grammars into at most the given number of batches, each generated by one worker process.
+     */
+    private static List<Set<File>> toBatches(List<Set<File>> groups, int maxBatches) {
+        List<Set<File>> sortedGroups = new ArrayList<Set<File>>(groups);
+        Collections.sort(sortedGroups, new Comparator<Set<File>>() {
+            @Override
+            public int compare(Set<File> left, Set<File> right) {
+                return right.size() - left.size();
+            }
+        });
+        List<Set<File>> batches = new ArrayList<Set<File>>();
+        for (Set<File> group : sortedGroups) {
+            if (batches.size() < maxBatches) {
+                batches.add(new LinkedHashSet<File>(group));
+                continue;
+            }
+            Set<File> smallestBatch = batches.get(0);
+            for (Set<File> batch : batches) {
+                if (batch.size() < smallestBatch.size()) {
+                    smallestBatch = batch;
+                }
+            }
+            smallestBatch.addAll(group);
+        }
+        return batches;
+    }
+
+    private class GenerateGrammars implements RunnableBuildOperation {
+        private final AntlrSpec spec;
+        private final List<AntlrResult> results;
+
+        GenerateGrammars(AntlrSpec spec, List<AntlrResult> results) {
+            this.spec = spec;
+            this.results = results;
         }
 
-        AntlrWorkerManager manager = new AntlrWorkerManager();
-        AntlrSpec spec = new AntlrSpecFactory().create(this, grammarFiles, sourceDirectorySet);
-        AntlrResult result = manager.runWorker(getProject().getProjectDir(), getWorkerProcessBuilderFactory(), getAntlrClasspath(), spec);
-        evaluate(result);
+        @Override
+        public void run() {
+            AntlrWorkerManager manager = new AntlrWorkerManager();
+            results.add(manager.runWorker(getProject().getProjectDir(), getWorkerProcessBuilderFactory(), getAntlrClasspath(), spec));
+        }
+
+        @Override
+        public String getDescription() {
+            return "Generate " + spec.getGrammarFiles().size() + " grammar(s) for " + getPath();
+        }
+    }
+
+    private void evaluate(List<AntlrResult> results) {
+        int errorCount = 0;
+        Exception exception = null;
+        for (AntlrResult result : results) {
+            if (result.getErrorCount() < 0) {
+                evaluate(result);
+            }
+            errorCount += result.getErrorCount();
+            if (exception == null) {
+                exception = result.getException();
+            }
+        }
+        evaluate(new AntlrResult(errorCount, exception));
     }
 
     private void evaluate(AntlrResult result) {
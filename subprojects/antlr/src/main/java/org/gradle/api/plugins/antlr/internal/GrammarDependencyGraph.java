@@ -0,0 +1,170 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.plugins.antlr.internal;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import com.google.common.io.Files;
+import org.gradle.api.UncheckedIOException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The dependencies between a set of grammar files, as declared by grammar imports, token vocabularies and super grammars.
+ *
+ * The grammar files are scanned textually, so that the graph can be built without ANTLR being available. This may detect
+ * more dependencies than there actually are, which only results in more grammars being generated than necessary.
+ */
+public class GrammarDependencyGraph {
+    private static final Pattern COMMENT = Pattern.compile("//[^\\n]*|/\\*.*?\\*/", Pattern.DOTALL);
+    // ANTLR 3 and 4: [lexer|parser|tree] grammar Name;
+    private static final Pattern GRAMMAR_DECLARATION = Pattern.compile("\\bgrammar\\s+(\\w+)\\s*;");
+    // ANTLR 2: class Name extends SuperGrammar;
+    private static final Pattern CLASS_DECLARATION = Pattern.compile("\\bclass\\s+(\\w+)\\s+extends\\s+(\\w+)");
+    private static final Pattern EXPORT_VOCAB = Pattern.compile("\\bexportVocab\\s*=\\s*(\\w+)");
+    // ANTLR 3 and 4: import A, B = C;
+    private static final Pattern IMPORT = Pattern.compile("\\bimport\\s+([\\w\\s,=]+);");
+    private static final Pattern VOCAB_REFERENCE = Pattern.compile("\\b(?:tokenVocab|importVocab)\\s*=\\s*(\\w+)");
+
+    private final Set<File> grammarFiles;
+    private final Multimap<String, File> declaringFiles = HashMultimap.create();
+    private final Multimap<File, String> references = HashMultimap.create();
+
+    public GrammarDependencyGraph(Set<File> grammarFiles) {
+        this.grammarFiles = grammarFiles;
+        for (File grammarFile : grammarFiles) {
+            scan(grammarFile);
+        }
+    }
+
+    private void scan(File grammarFile) {
+        String text = COMMENT.matcher(read(grammarFile)).replaceAll(" ");
+        declaringFiles.put(Files.getNameWithoutExtension(grammarFile.getName()), grammarFile);
+        Matcher matcher = GRAMMAR_DECLARATION.matcher(text);
+        while (matcher.find()) {
+            declaringFiles.put(matcher.group(1), grammarFile);
+        }
+        matcher = CLASS_DECLARATION.matcher(text);
+        while (matcher.find()) {
+            declaringFiles.put(matcher.group(1), grammarFile);
+            references.put(grammarFile, matcher.group(2));
+        }
+        matcher = EXPORT_VOCAB.matcher(text);
+        while (matcher.find()) {
+            declaringFiles.put(matcher.group(1), grammarFile);
+        }
+        matcher = IMPORT.matcher(text);
+        while (matcher.find()) {
+            for (String imported : matcher.group(1).split(",")) {
+                // an import may be of the form 'alias = GrammarName'
+                String[] parts = imported.split("=");
+                references.put(grammarFile, parts[parts.length - 1].trim());
+            }
+        }
+        matcher = VOCAB_REFERENCE.matcher(text);
+        while (matcher.find()) {
+            references.put(grammarFile, matcher.group(1));
+        }
+    }
+
+    private static String read(File grammarFile) {
+        try {
+            return Files.toString(grammarFile, Charset.defaultCharset());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read antlr grammar file " + grammarFile, e);
+        }
+    }
+
+    /**
+     * Returns the grammar files the given grammar file depends on.
+     */
+    public Set<File> getDependencies(File grammarFile) {
+        Set<File> dependencies = new LinkedHashSet<File>();
+        for (String reference : references.get(grammarFile)) {
+            dependencies.addAll(declaringFiles.get(reference));
+        }
+        dependencies.remove(grammarFile);
+        return dependencies;
+    }
+
+    /**
+     * Returns the given grammar files, together with all grammar files that directly or transitively depend on them.
+     */
+    public Set<File> withDependents(Set<File> changedGrammarFiles) {
+        Set<File> result = new LinkedHashSet<File>(changedGrammarFiles);
+        boolean added = true;
+        while (added) {
+            added = false;
+            for (File grammarFile : grammarFiles) {
+                if (!result.contains(grammarFile) && !Sets.intersection(getDependencies(grammarFile), result).isEmpty()) {
+                    result.add(grammarFile);
+                    added = true;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Splits the given grammar files into groups that can be generated independently of each other.
+     * Grammar files that depend on each other, directly or through other grammars of the given set, end up in the same group.
+     */
+    public List<Set<File>> partition(Set<File> grammarFilesToGenerate) {
+        Multimap<File, File> edges = HashMultimap.create();
+        for (File grammarFile : grammarFilesToGenerate) {
+            for (File dependency : getDependencies(grammarFile)) {
+                if (grammarFilesToGenerate.contains(dependency)) {
+                    edges.put(grammarFile, dependency);
+                    edges.put(dependency, grammarFile);
+                }
+            }
+        }
+
+        List<Set<File>> groups = Lists.newArrayList();
+        Set<File> visited = Sets.newHashSet();
+        for (File grammarFile : grammarFilesToGenerate) {
+            if (!visited.add(grammarFile)) {
+                continue;
+            }
+            Set<File> group = new LinkedHashSet<File>();
+            Deque<File> queue = new ArrayDeque<File>();
+            queue.add(grammarFile);
+            while (!queue.isEmpty()) {
+                File current = queue.removeFirst();
+                group.add(current);
+                for (File connected : edges.get(current)) {
+                    if (visited.add(connected)) {
+                        queue.add(connected);
+                    }
+                }
+            }
+            groups.add(group);
+        }
+        return groups;
+    }
+}
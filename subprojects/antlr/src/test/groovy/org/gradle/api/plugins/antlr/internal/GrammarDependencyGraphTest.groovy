@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.plugins.antlr.internal
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class GrammarDependencyGraphTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+
+    def common = grammar("Common.g4", "grammar Common;\nid : ID ;")
+    def lexer = grammar("SqlLexer.g4", "lexer grammar SqlLexer;\nID : [a-z]+ ;")
+    def parser = grammar("SqlParser.g4", """
+        parser grammar SqlParser;
+        options { tokenVocab = SqlLexer; }
+        @header { import java.util.List; }
+        import Common;
+        stmt : id ;
+    """)
+    def unrelated = grammar("Json.g4", "// import Common;\ngrammar Json;\nvalue : STRING ;")
+
+    def graph = new GrammarDependencyGraph([common, lexer, parser, unrelated] as Set)
+
+    def "finds imported grammars and token vocabularies"() {
+        expect:
+        graph.getDependencies(parser) == [common, lexer] as Set
+        graph.getDependencies(common).empty
+        graph.getDependencies(unrelated).empty
+    }
+
+    def "includes dependents of changed grammars"() {
+        expect:
+        graph.withDependents([lexer] as Set) == [lexer, parser] as Set
+        graph.withDependents([parser] as Set) == [parser] as Set
+        graph.withDependents([unrelated] as Set) == [unrelated] as Set
+    }
+
+    def "partitions grammars into independent groups"() {
+        expect:
+        graph.partition([common, lexer, parser, unrelated] as Set) as Set == [[common, lexer, parser] as Set, [unrelated] as Set] as Set
+        graph.partition([common, lexer] as Set) as Set == [[common] as Set, [lexer] as Set] as Set
+    }
+
+    def "finds super grammars and import vocabularies of ANTLR 2 grammars"() {
+        def base = grammar("base.g", "class BaseParser extends Parser;\noptions { exportVocab = Base; }")
+        def derived = grammar("derived.g", "class DerivedParser extends BaseParser;")
+        def walker = grammar("walker.g", "class Walker extends TreeParser;\noptions { importVocab = Base; }")
+        def antlr2Graph = new GrammarDependencyGraph([base, derived, walker] as Set)
+
+        expect:
+        antlr2Graph.getDependencies(derived) == [base] as Set
+        antlr2Graph.getDependencies(walker) == [base] as Set
+        antlr2Graph.withDependents([base] as Set) == [base, derived, walker] as Set
+    }
+
+    private File grammar(String name, String text) {
+        def file = temp.file(name)
+        file.text = text
+        return file
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.tasks
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import org.gradle.test.fixtures.file.TestFile
+
+class CopyCachedFilesIntegrationTest extends AbstractIntegrationSpec {
+    def setup() {
+        mavenRepo.module("org", "lib", "1.0").publish()
+        buildFile << """
+            repositories { maven { url '${mavenRepo.uri}' } }
+            configurations { libs }
+            dependencies { libs 'org:lib:1.0' }
+
+            task copyLibs(type: Copy) {
+                from configurations.libs
+                into 'build/copied'
+                if (project.hasProperty('modify')) {
+                    filter { it + ' modified' }
+                }
+            }
+            task syncLibs(type: Sync) {
+                from configurations.libs
+                into 'build/synced'
+                if (project.hasProperty('modify')) {
+                    filter { it + ' modified' }
+                }
+            }
+            task recordCachedFile {
+                doLast {
+                    file('cached.txt').text = configurations.libs.singleFile.absolutePath
+                }
+            }
+        """
+    }
+
+    def "replaces linked files without modifying the cached file"() {
+        when:
+        executer.withArgument("-Dorg.gradle.copy.linkCachedFiles=true")
+        succeeds "copyLibs", "syncLibs", "recordCachedFile"
+
+        then:
+        def cached = cachedFile()
+        def original = cached.text
+        file("build/copied/lib-1.0.jar").text == original
+        file("build/synced/lib-1.0.jar").text == original
+
+        when:
+        executer.withArgument("-Dorg.gradle.copy.linkCachedFiles=true")
+        succeeds "copyLibs", "syncLibs", "-Pmodify"
+
+        then:
+        file("build/copied/lib-1.0.jar").text == "$original modified"
+        file("build/synced/lib-1.0.jar").text == "$original modified"
+        cached.text == original
+    }
+
+    def "does not link cached files by default"() {
+        when:
+        succeeds "copyLibs", "syncLibs", "recordCachedFile"
+
+        then:
+        def cached = cachedFile()
+        def original = cached.text
+
+        when:
+        file("build/copied/lib-1.0.jar") << " modified in place"
+        file("build/synced/lib-1.0.jar") << " modified in place"
+
+        then:
+        cached.text == original
+    }
+
+    def "copies a file onto itself"() {
+        given:
+        file("dir/a.txt").text = "content"
+        buildFile << """
+            task copyInPlace(type: Copy) {
+                from 'dir'
+                into 'dir'
+                filter { it.toUpperCase() }
+            }
+        """
+
+        when:
+        succeeds "copyInPlace"
+
+        then:
+        file("dir/a.txt").text == "CONTENT"
+    }
+
+    private TestFile cachedFile() {
+        return new TestFile(file("cached.txt").text)
+    }
+}
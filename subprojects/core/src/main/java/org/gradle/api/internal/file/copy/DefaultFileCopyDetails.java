@@ -23,6 +23,7 @@ import org.gradle.api.file.DuplicatesStrategy;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.file.AbstractFileTreeElement;
+import org.gradle.api.internal.file.DefaultFileVisitDetails;
 import org.gradle.internal.nativeintegration.filesystem.Chmod;
 
 import java.io.*;
@@ -69,6 +70,20 @@ public class DefaultFileCopyDetails extends AbstractFileTreeElement implements F
         return fileDetails.isDirectory();
     }
 
+    public File getUnmodifiedSourceFile() {
+        if (filterChain.hasFilters() || getMode() != fileDetails.getMode()) {
+            return null;
+        }
+        return getSourceFile();
+    }
+
+    public File getSourceFile() {
+        if (fileDetails.isDirectory() || !(fileDetails instanceof DefaultFileVisitDetails)) {
+            return null;
+        }
+        return fileDetails.getFile();
+    }
+
     public long getLastModified() {
         return fileDetails.getLastModified();
     }
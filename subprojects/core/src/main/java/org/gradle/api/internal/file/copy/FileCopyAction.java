@@ -15,19 +15,34 @@
  */
 package org.gradle.api.internal.file.copy;
 
+import org.gradle.api.Nullable;
+import org.gradle.api.UncheckedIOException;
 import org.gradle.api.internal.file.CopyActionProcessingStreamAction;
 import org.gradle.api.internal.tasks.SimpleWorkResult;
 import org.gradle.api.tasks.WorkResult;
+import org.gradle.internal.FileUtils;
+import org.gradle.internal.file.FileMaterializer;
 import org.gradle.internal.file.PathToFileResolver;
+import org.gradle.util.GFileUtils;
 
 import java.io.File;
+import java.io.IOException;
 
 public class FileCopyAction implements CopyAction {
 
     private final PathToFileResolver fileResolver;
+    private final FileMaterializer fileMaterializer;
 
     public FileCopyAction(PathToFileResolver fileResolver) {
+        this(fileResolver, null);
+    }
+
+    /**
+     * Creates an action that uses the given materializer for files that are copied without changes, and copies all other files.
+     */
+    public FileCopyAction(PathToFileResolver fileResolver, @Nullable FileMaterializer fileMaterializer) {
         this.fileResolver = fileResolver;
+        this.fileMaterializer = fileMaterializer;
     }
 
     public WorkResult execute(CopyActionProcessingStream stream) {
@@ -41,10 +56,58 @@ public class FileCopyAction implements CopyAction {
 
         public void processFile(FileCopyDetailsInternal details) {
             File target = fileResolver.resolve(details.getRelativePath().getPathString());
+            if (target.isFile() && !details.isDirectory()) {
+                File source = details.getSourceFile();
+                if (source != null && isSameFile(source, target)) {
+                    copyOntoSource(details, target);
+                    didWork = true;
+                    return;
+                }
+                if (fileMaterializer != null) {
+                    // Replace the target rather than write into it, as it may be a link to a cached file
+                    GFileUtils.forceDelete(target);
+                }
+            }
+            if (fileMaterializer != null && !details.isDirectory() && materialize(details, target)) {
+                didWork = true;
+                return;
+            }
             boolean copied = details.copyTo(target);
             if (copied) {
                 didWork = true;
             }
         }
+
+        private boolean materialize(FileCopyDetailsInternal details, File target) {
+            File source = details.getUnmodifiedSourceFile();
+            return source != null && fileMaterializer.materialize(source, target);
+        }
+
+        private boolean isSameFile(File source, File target) {
+            // Only canonicalize the paths of files that have the same length and modification time, as the same file always does
+            return source.length() == target.length()
+                && source.lastModified() == target.lastModified()
+                && FileUtils.canonicalize(source).equals(FileUtils.canonicalize(target));
+        }
+
+        /**
+         * Copies a file onto itself. The content is written to a temporary file first, as writing to the target would truncate the source.
+         */
+        private void copyOntoSource(FileCopyDetailsInternal details, File target) {
+            File tempFile;
+            try {
+                tempFile = File.createTempFile("." + target.getName() + "-", ".tmp", target.getParentFile());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            try {
+                GFileUtils.forceDelete(tempFile);
+                details.copyTo(tempFile);
+                GFileUtils.forceDelete(target);
+                GFileUtils.moveFile(tempFile, target);
+            } finally {
+                GFileUtils.deleteQuietly(tempFile);
+            }
+        }
     }
 }
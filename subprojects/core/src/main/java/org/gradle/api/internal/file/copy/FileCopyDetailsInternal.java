@@ -16,10 +16,26 @@
 
 package org.gradle.api.internal.file.copy;
 
+import org.gradle.api.Nullable;
 import org.gradle.api.file.FileCopyDetails;
 
+import java.io.File;
+
 public interface FileCopyDetailsInternal extends FileCopyDetails {
 
     boolean isIncludeEmptyDirs();
 
+    /**
+     * Returns the source file of this element, when the element is a regular file that is copied without any change to its content or permissions.
+     * Returns null otherwise.
+     */
+    @Nullable
+    File getUnmodifiedSourceFile();
+
+    /**
+     * Returns the file in the file system that the content of this element is read from, or null when the element is not read from such a file.
+     */
+    @Nullable
+    File getSourceFile();
+
 }
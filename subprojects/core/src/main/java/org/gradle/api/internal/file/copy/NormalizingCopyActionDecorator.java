@@ -127,6 +127,14 @@ public class NormalizingCopyActionDecorator implements CopyAction {
             throw new UnsupportedOperationException();
         }
 
+        public File getUnmodifiedSourceFile() {
+            return null;
+        }
+
+        public File getSourceFile() {
+            return null;
+        }
+
         public boolean isDirectory() {
             return !path.isFile();
         }
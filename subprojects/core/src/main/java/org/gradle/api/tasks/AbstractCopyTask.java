@@ -38,6 +38,7 @@ import org.gradle.api.internal.file.copy.CopySpecResolver;
 import org.gradle.api.internal.file.copy.CopySpecSource;
 import org.gradle.api.internal.file.copy.DefaultCopySpec;
 import org.gradle.api.specs.Spec;
+import org.gradle.internal.file.FileMaterializer;
 import org.gradle.internal.nativeplatform.filesystem.FileSystem;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.util.DeprecationLogger;
@@ -172,6 +173,11 @@ public abstract class AbstractCopyTask extends ConventionTask implements CopySpe
         throw new UnsupportedOperationException();
     }
 
+    @Inject
+    protected FileMaterializer getFileMaterializer() {
+        throw new UnsupportedOperationException();
+    }
+
     @TaskAction
     protected void copy() {
         Instantiator instantiator = getInstantiator();
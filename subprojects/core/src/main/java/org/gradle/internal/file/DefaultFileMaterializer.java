@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.file;
+
+import org.gradle.api.JavaVersion;
+import org.gradle.api.Nullable;
+import org.gradle.internal.classpath.CachedJarFileStore;
+import org.gradle.internal.file.jdk7.HardLinkFileLinker;
+import org.gradle.util.GFileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hard links files from the given file stores, whose content is never changed in place once added. Files from anywhere else are never linked.
+ *
+ * <p>Linking is disabled by default, and is enabled by setting the {@value #LINK_CACHED_FILES_PROPERTY} system property to {@code true}. The property is
+ * read on each use, as this service outlives the build that set it. Hard links require Java 7 or later.</p>
+ */
+public class DefaultFileMaterializer implements FileMaterializer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultFileMaterializer.class);
+    public static final String LINK_CACHED_FILES_PROPERTY = "org.gradle.copy.linkCachedFiles";
+
+    private final List<String> prefixes;
+    private final FileLinker linker;
+
+    public DefaultFileMaterializer(List<CachedJarFileStore> fileStores) {
+        this(fileStores, createLinker());
+    }
+
+    DefaultFileMaterializer(List<CachedJarFileStore> fileStores, @Nullable FileLinker linker) {
+        this.linker = linker;
+        prefixes = new ArrayList<String>(fileStores.size());
+        for (CachedJarFileStore fileStore : fileStores) {
+            prefixes.add(fileStore.getJarFileStoreDirectory().getAbsolutePath() + File.separator);
+        }
+    }
+
+    @Nullable
+    private static FileLinker createLinker() {
+        if (!JavaVersion.current().isJava7Compatible()) {
+            return null;
+        }
+        return new HardLinkFileLinker();
+    }
+
+    @Override
+    public boolean materialize(File source, File target) {
+        if (linker == null || !Boolean.getBoolean(LINK_CACHED_FILES_PROPERTY) || !isCachedFile(source) || target.exists()) {
+            return false;
+        }
+        GFileUtils.mkdirs(target.getParentFile());
+        if (!linker.link(source, target)) {
+            return false;
+        }
+        LOGGER.debug("Linked {} to {}.", target, source);
+        return true;
+    }
+
+    private boolean isCachedFile(File file) {
+        if (!file.isFile()) {
+            return false;
+        }
+        String path = file.getAbsolutePath();
+        for (String prefix : prefixes) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
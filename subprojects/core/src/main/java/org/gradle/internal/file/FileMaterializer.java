@@ -0,0 +1,33 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.file;
+
+import java.io.File;
+
+/**
+ * Makes the content of cached, immutable files available at other locations without copying it, where possible.
+ */
+public interface FileMaterializer {
+    /**
+     * Attempts to create the given target file as a link to the given source file. The target file must not exist.
+     *
+     * @return true if the target file was created. Returns false when the source file is not an immutable cached file, or when it cannot be linked to
+     * the target location, for example because the target is on a different file system. The caller should copy the file in this case.
+     */
+    boolean materialize(File source, File target);
+}
@@ -22,6 +22,8 @@ import org.gradle.initialization.GradleUserHomeDirProvider;
 import org.gradle.internal.classpath.CachedClasspathTransformer;
 import org.gradle.internal.classpath.CachedJarFileStore;
 import org.gradle.internal.classpath.DefaultCachedClasspathTransformer;
+import org.gradle.internal.file.DefaultFileMaterializer;
+import org.gradle.internal.file.FileMaterializer;
 import org.gradle.internal.file.JarCache;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.ServiceRegistry;
@@ -46,4 +48,8 @@ public class GradleUserHomeScopeServices {
     CachedClasspathTransformer createCachedClasspathTransformer(CacheRepository cacheRepository, ServiceRegistry serviceRegistry) {
         return new DefaultCachedClasspathTransformer(cacheRepository, new JarCache(), serviceRegistry.getAll(CachedJarFileStore.class));
     }
+
+    FileMaterializer createFileMaterializer(ServiceRegistry serviceRegistry) {
+        return new DefaultFileMaterializer(serviceRegistry.getAll(CachedJarFileStore.class));
+    }
 }
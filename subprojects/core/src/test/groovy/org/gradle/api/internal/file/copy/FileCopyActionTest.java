@@ -18,10 +18,14 @@ package org.gradle.api.internal.file.copy;
 
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.file.TestFiles;
+import org.gradle.internal.file.FileMaterializer;
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider;
+import org.gradle.util.GFileUtils;
 import org.jmock.Expectations;
+import org.jmock.api.Invocation;
 import org.jmock.integration.junit4.JMock;
 import org.jmock.integration.junit4.JUnit4Mockery;
+import org.jmock.lib.action.CustomAction;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -31,6 +35,10 @@ import java.io.File;
 import java.io.IOException;
 
 import static org.gradle.api.internal.file.copy.CopyActionExecuterUtil.visit;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 @RunWith(JMock.class)
 public class FileCopyActionTest {
@@ -54,6 +62,64 @@ public class FileCopyActionTest {
         );
     }
 
+    @Test
+    public void usesMaterializerForUnmodifiedFiles() throws IOException {
+        final FileMaterializer materializer = context.mock(FileMaterializer.class);
+        final File source = tmpDir.getTestDirectory().createFile("source.jar");
+        final File linkedTarget = new File(destDir, "linked.jar");
+        final File copiedTarget = tmpDir.getTestDirectory().createFile("dest/copied.jar");
+        final FileCopyDetailsInternal linked = unmodifiedFile(new RelativePath(true, "linked.jar"), source);
+        final FileCopyDetailsInternal copied = unmodifiedFile(new RelativePath(true, "copied.jar"), source);
+        context.checking(new Expectations() {{
+            one(materializer).materialize(source, linkedTarget);
+            will(returnValue(true));
+            one(materializer).materialize(source, copiedTarget);
+            will(returnValue(false));
+            one(copied).copyTo(copiedTarget);
+            will(returnValue(true));
+        }});
+
+        FileCopyAction visitor = new FileCopyAction(TestFiles.resolver(destDir), materializer);
+        visit(visitor, linked, copied);
+        // The existing target is replaced, not written into
+        assertFalse(copiedTarget.exists());
+    }
+
+    @Test
+    public void copiesFileOntoItselfWithoutTruncatingIt() throws IOException {
+        final File target = tmpDir.getTestDirectory().file("dest/file.txt").write("content");
+        final FileCopyDetailsInternal details = unmodifiedFile(new RelativePath(true, "file.txt"), target);
+        context.checking(new Expectations() {{
+            one(details).copyTo(with(not(equalTo(target))));
+            will(new CustomAction("copy content") {
+                public Object invoke(Invocation invocation) throws Throwable {
+                    GFileUtils.writeFile(GFileUtils.readFile(target).toUpperCase(), (File) invocation.getParameter(0));
+                    return true;
+                }
+            });
+        }});
+
+        FileCopyAction visitor = new FileCopyAction(TestFiles.resolver(destDir));
+        visit(visitor, details);
+        assertEquals("CONTENT", GFileUtils.readFile(target));
+        assertEquals(1, destDir.list().length);
+    }
+
+    private FileCopyDetailsInternal unmodifiedFile(final RelativePath relativePath, final File source) {
+        final FileCopyDetailsInternal details = context.mock(FileCopyDetailsInternal.class, relativePath.getPathString());
+        context.checking(new Expectations() {{
+            allowing(details).getRelativePath();
+            will(returnValue(relativePath));
+            allowing(details).isDirectory();
+            will(returnValue(false));
+            allowing(details).getUnmodifiedSourceFile();
+            will(returnValue(source));
+            allowing(details).getSourceFile();
+            will(returnValue(source));
+        }});
+        return details;
+    }
+
     private FileCopyDetailsInternal file(final RelativePath relativePath, final File targetFile) {
         final FileCopyDetailsInternal details = context.mock(FileCopyDetailsInternal.class, relativePath.getPathString());
         context.checking(new Expectations() {{
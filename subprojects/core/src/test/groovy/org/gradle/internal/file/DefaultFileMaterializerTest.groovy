@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.file
+
+import org.gradle.internal.classpath.CachedJarFileStore
+import org.gradle.internal.file.jdk7.HardLinkFileLinker
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.nio.file.Files
+
+class DefaultFileMaterializerTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    @Rule SetSystemProperties systemProperties = new SetSystemProperties((DefaultFileMaterializer.LINK_CACHED_FILES_PROPERTY): "true")
+    def storeDir = tmpDir.createDir("store")
+    def fileStore = Stub(CachedJarFileStore) {
+        getJarFileStoreDirectory() >> storeDir
+    }
+    def linker = Mock(FileLinker)
+    def materializer = new DefaultFileMaterializer([fileStore], linker)
+
+    def "links file from a cached file store"() {
+        def source = storeDir.createFile("group/abc/lib.jar")
+        def target = tmpDir.file("out/lib.jar")
+
+        when:
+        def linked = materializer.materialize(source, target)
+
+        then:
+        linked
+        target.parentFile.directory
+        1 * linker.link(source, target) >> true
+    }
+
+    def "does not link file from outside the cached file stores"() {
+        def source = tmpDir.createFile("store-other/lib.jar")
+
+        expect:
+        !materializer.materialize(source, tmpDir.file("out/lib.jar"))
+        0 * linker._
+    }
+
+    def "does not replace an existing target"() {
+        def source = storeDir.createFile("group/abc/lib.jar")
+        def target = tmpDir.createFile("out/lib.jar")
+
+        expect:
+        !materializer.materialize(source, target)
+        0 * linker._
+    }
+
+    def "does not link when the file cannot be linked"() {
+        def source = storeDir.createFile("group/abc/lib.jar")
+
+        when:
+        def linked = materializer.materialize(source, tmpDir.file("out/lib.jar"))
+
+        then:
+        !linked
+        1 * linker.link(_, _) >> false
+    }
+
+    def "does not link when linking is disabled"() {
+        def source = storeDir.createFile("group/abc/lib.jar")
+        System.setProperty(DefaultFileMaterializer.LINK_CACHED_FILES_PROPERTY, "false")
+
+        expect:
+        !materializer.materialize(source, tmpDir.file("out/lib.jar"))
+        0 * linker._
+    }
+
+    def "does not link when no linker is available"() {
+        def source = storeDir.createFile("group/abc/lib.jar")
+
+        expect:
+        !new DefaultFileMaterializer([fileStore], null).materialize(source, tmpDir.file("out/lib.jar"))
+    }
+
+    def "creates hard link"() {
+        def source = storeDir.createFile("group/abc/lib.jar")
+        source.text = "content"
+        def target = tmpDir.file("out/lib.jar")
+
+        when:
+        def linked = new DefaultFileMaterializer([fileStore], new HardLinkFileLinker()).materialize(source, target)
+
+        then:
+        linked
+        target.text == "content"
+        Files.isSameFile(source.toPath(), target.toPath())
+    }
+}
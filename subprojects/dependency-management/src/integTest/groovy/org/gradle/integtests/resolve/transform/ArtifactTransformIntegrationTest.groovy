@@ -491,6 +491,142 @@ class FileSizer extends ArtifactTransform {
         output.count("Transforming lib-2.jar to lib-2.jar.txt") == 1
     }
 
+    def "reuses transform outputs from an earlier build"() {
+        def m1 = mavenRepo.module("test", "test", "1.3").publish()
+        m1.artifactFile.text = "1234"
+
+        given:
+        buildFile << """
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }
+            dependencies {
+                compile 'test:test:1.3'
+            }
+            configurations {
+                compile {
+                    attributes artifactType: 'size'
+                    resolutionStrategy.registerTransform(FileSizer) { }
+                }
+            }
+            task resolve {
+                doLast {
+                    println "files: " + configurations.compile.incoming.files.collect { it.name + "=" + it.text }
+                }
+            }
+        """
+
+        when:
+        succeeds "resolve"
+
+        then:
+        output.count("Transforming test-1.3.jar to test-1.3.jar.txt") == 1
+        outputContains("files: [test-1.3.jar.txt=4]")
+
+        when:
+        succeeds "resolve"
+
+        then:
+        !output.contains("Transforming test-1.3.jar")
+        outputContains("files: [test-1.3.jar.txt=4]")
+    }
+
+    def "does not reuse transform outputs from an earlier build when the transform is configured differently"() {
+        def m1 = mavenRepo.module("test", "test", "1.3").publish()
+        m1.artifactFile.text = "1234"
+
+        given:
+        buildFile << """
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }
+            dependencies {
+                compile 'test:test:1.3'
+            }
+            configurations {
+                compile {
+                    attributes artifactType: 'size'
+                    resolutionStrategy.registerTransform(FileSizer) {
+                        outputDirectory = project.file("\${buildDir}/\${project.property('transformDir')}")
+                    }
+                }
+            }
+            task resolve {
+                doLast {
+                    println "files: " + configurations.compile.incoming.files.collect { it.path - buildDir.path }
+                }
+            }
+        """
+
+        when:
+        executer.withArgument("-PtransformDir=one")
+        succeeds "resolve"
+
+        then:
+        output.count("Transforming test-1.3.jar to test-1.3.jar.txt") == 1
+        outputContains("files: [${File.separator}one${File.separator}test-1.3.jar.txt]")
+
+        when:
+        executer.withArgument("-PtransformDir=two")
+        succeeds "resolve"
+
+        then:
+        output.count("Transforming test-1.3.jar to test-1.3.jar.txt") == 1
+        outputContains("files: [${File.separator}two${File.separator}test-1.3.jar.txt]")
+
+        when:
+        executer.withArgument("-PtransformDir=one")
+        succeeds "resolve"
+
+        then:
+        !output.contains("Transforming test-1.3.jar")
+        outputContains("files: [${File.separator}one${File.separator}test-1.3.jar.txt]")
+    }
+
+    def "does not reuse transform outputs from an earlier build when the transform is configured with a value that cannot be hashed"() {
+        def m1 = mavenRepo.module("test", "test", "1.3").publish()
+        m1.artifactFile.text = "1234"
+
+        given:
+        buildFile << """
+            class ProjectAwareFileSizer extends FileSizer {
+                Project project
+            }
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }
+            dependencies {
+                compile 'test:test:1.3'
+            }
+            configurations {
+                compile {
+                    attributes artifactType: 'size'
+                    resolutionStrategy.registerTransform(ProjectAwareFileSizer) {
+                        project = rootProject
+                        outputDirectory = rootProject.file("\${buildDir}/transformed")
+                    }
+                }
+            }
+            task resolve {
+                doLast {
+                    configurations.compile.incoming.files.files
+                }
+            }
+        """
+
+        when:
+        succeeds "resolve"
+
+        then:
+        output.count("Transforming test-1.3.jar to test-1.3.jar.txt") == 1
+
+        when:
+        succeeds "resolve"
+
+        then:
+        output.count("Transforming test-1.3.jar to test-1.3.jar.txt (cached)") == 1
+    }
+
     def "Transform is executed twice for the same file for two different targets"() {
         given:
         buildFile << """
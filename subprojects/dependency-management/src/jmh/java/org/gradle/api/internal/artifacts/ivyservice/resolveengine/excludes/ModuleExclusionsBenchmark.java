@@ -0,0 +1,123 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes;
+
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
+import org.gradle.internal.component.external.descriptor.DefaultExclude;
+import org.gradle.internal.component.model.Exclude;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Simulates the exclusion calculations made while traversing a dependency graph where many dependencies declare excludes.
+ *
+ * <p>The graph is layered: each node depends on a few nodes of the next layer, and each of these edges declares a few excludes. The exclusion
+ * for a node is the union, over all incoming edges, of the intersection of the exclusion for the source node and the excludes of the edge.</p>
+ */
+@State(Scope.Benchmark)
+public class ModuleExclusionsBenchmark {
+    private static final int LAYERS = 6;
+    private static final int NODES_PER_LAYER = 40;
+    private static final int EDGES_PER_NODE = 4;
+    private static final int EXCLUDES_PER_EDGE = 3;
+    private static final int GROUPS = 20;
+    private static final String[] NO_CONFIGURATIONS = new String[0];
+
+    private final Random random = new Random(4242);
+    private final List<Edge> edges = new ArrayList<Edge>();
+    private final List<ModuleIdentifier> modules = new ArrayList<ModuleIdentifier>();
+
+    @Setup(Level.Trial)
+    public void createGraph() {
+        for (int layer = 0; layer < LAYERS; layer++) {
+            for (int node = 0; node < NODES_PER_LAYER; node++) {
+                modules.add(DefaultModuleIdentifier.newId("group" + random.nextInt(GROUPS), "module-" + layer + "-" + node));
+            }
+        }
+        for (int layer = 0; layer < LAYERS - 1; layer++) {
+            for (int node = 0; node < NODES_PER_LAYER; node++) {
+                for (int edge = 0; edge < EDGES_PER_NODE; edge++) {
+                    int from = layer * NODES_PER_LAYER + node;
+                    int to = (layer + 1) * NODES_PER_LAYER + random.nextInt(NODES_PER_LAYER);
+                    edges.add(new Edge(from, to, createExcludes()));
+                }
+            }
+        }
+    }
+
+    private List<Exclude> createExcludes() {
+        List<Exclude> excludes = new ArrayList<Exclude>();
+        for (int i = 0; i < EXCLUDES_PER_EDGE; i++) {
+            ModuleIdentifier module = modules.get(random.nextInt(modules.size()));
+            switch (random.nextInt(3)) {
+                case 0:
+                    excludes.add(new DefaultExclude(module.getGroup(), module.getName()));
+                    break;
+                case 1:
+                    excludes.add(new DefaultExclude(module.getGroup(), "*"));
+                    break;
+                default:
+                    excludes.add(new DefaultExclude("*", module.getName()));
+                    break;
+            }
+        }
+        return excludes;
+    }
+
+    @Benchmark
+    public void traverseGraph(Blackhole bh) {
+        ModuleExclusion[] nodeExclusions = new ModuleExclusion[modules.size()];
+        for (int node = 0; node < NODES_PER_LAYER; node++) {
+            nodeExclusions[node] = ModuleExclusions.excludeNone();
+        }
+        for (Edge edge : edges) {
+            ModuleExclusion source = nodeExclusions[edge.from];
+            if (source == null) {
+                continue;
+            }
+            ModuleExclusion edgeExclusion = ModuleExclusions.intersect(source, ModuleExclusions.excludeAny(edge.excludes));
+            if (edgeExclusion.excludeModule(modules.get(edge.to))) {
+                continue;
+            }
+            ModuleExclusion previous = nodeExclusions[edge.to];
+            ModuleExclusion target = previous == null ? edgeExclusion : ModuleExclusions.union(previous, edgeExclusion);
+            if (previous != null) {
+                bh.consume(target.excludesSameModulesAs(previous));
+            }
+            nodeExclusions[edge.to] = target;
+        }
+        bh.consume(nodeExclusions);
+    }
+
+    private static class Edge {
+        final int from;
+        final int to;
+        final List<Exclude> excludes;
+
+        Edge(int from, int to, List<Exclude> excludes) {
+            this.from = from;
+            this.to = to;
+            this.excludes = excludes;
+        }
+    }
+}
@@ -35,8 +35,8 @@ public class DefaultResolvedArtifact implements ResolvedArtifact, Buildable {
     private final ComponentArtifactIdentifier artifactId;
     private final TaskDependency buildDependencies;
     private final AttributeContainer attributes;
-    private Factory<File> artifactSource;
-    private File file;
+    private volatile Factory<File> artifactSource;
+    private volatile File file;
 
     public DefaultResolvedArtifact(ModuleVersionIdentifier owner, IvyArtifactName artifact, ComponentArtifactIdentifier artifactId, TaskDependency buildDependencies, Factory<File> artifactSource) {
         this.owner = owner;
@@ -113,11 +113,28 @@ public class DefaultResolvedArtifact implements ResolvedArtifact, Buildable {
         return attributes;
     }
 
+    /**
+     * Returns true when the file of this artifact is already known, so that {@link #getFile()} returns without resolving it.
+     */
+    public boolean isResolved() {
+        return file != null;
+    }
+
     public File getFile() {
-        if (file == null) {
-            file = artifactSource.create();
-            artifactSource = null;
+        File file = this.file;
+        if (file != null) {
+            return file;
+        }
+        // Resolve without holding a lock on this artifact, as resolving takes the artifact cache lock and callers may already own the cache.
+        // When several threads resolve the file at the same time, the first download is reused from the cache by the others.
+        Factory<File> artifactSource = this.artifactSource;
+        if (artifactSource == null) {
+            // Another thread has resolved the file, and it sets the file before it discards the source
+            return this.file;
         }
+        file = artifactSource.create();
+        this.file = file;
+        this.artifactSource = null;
         return file;
     }
 }
@@ -36,4 +36,11 @@ public interface ArtifactCacheMetaData {
      * @return Metadata store location
      */
     File getMetaDataStoreDirectory();
+
+    /**
+     * Returns the root directory for the store of downloaded resources that are not module artifacts.
+     *
+     * @return External resources store location
+     */
+    File getExternalResourcesStoreDirectory();
 }
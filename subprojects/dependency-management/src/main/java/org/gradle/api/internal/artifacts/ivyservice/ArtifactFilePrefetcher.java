@@ -0,0 +1,136 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import org.gradle.api.artifacts.ResolvedArtifact;
+import org.gradle.api.internal.artifacts.DefaultResolvedArtifact;
+import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.component.external.model.ModuleComponentArtifactIdentifier;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.internal.logging.progress.ProgressLoggerFactory;
+import org.gradle.internal.resource.transfer.AggregateResourceOperation;
+import org.gradle.internal.resource.transfer.ResourceOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Resolves the files of external module artifacts concurrently, ahead of the artifacts being queried one at a time.
+ *
+ * <p>The downloads report their progress through a single progress logger for the whole batch. An artifact that fails to
+ * resolve is left unresolved, so that the failure is reported when its file is queried, exactly as it would be without
+ * prefetching. The number of concurrent downloads from a single repository is further limited by the repository.</p>
+ */
+public class ArtifactFilePrefetcher implements Stoppable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactFilePrefetcher.class);
+
+    private final CacheLockingManager cacheLockingManager;
+    private final ExecutorFactory executorFactory;
+    private final ProgressLoggerFactory progressLoggerFactory;
+    private final int maxThreads;
+    private StoppableExecutor executor;
+
+    /**
+     * @param maxThreads The maximum number of downloads to run at the same time, usually the maximum number of workers of the build.
+     */
+    public ArtifactFilePrefetcher(CacheLockingManager cacheLockingManager, ExecutorFactory executorFactory, ProgressLoggerFactory progressLoggerFactory, int maxThreads) {
+        this.cacheLockingManager = cacheLockingManager;
+        this.executorFactory = executorFactory;
+        this.progressLoggerFactory = progressLoggerFactory;
+        this.maxThreads = maxThreads;
+    }
+
+    /**
+     * Resolves the files of the given artifacts that have not been resolved yet, and blocks until all of them have been attempted.
+     */
+    public void prefetch(String displayName, Collection<? extends ResolvedArtifact> artifacts) {
+        List<DefaultResolvedArtifact> unresolved = new ArrayList<DefaultResolvedArtifact>();
+        for (ResolvedArtifact artifact : artifacts) {
+            if (artifact instanceof DefaultResolvedArtifact && artifact.getId() instanceof ModuleComponentArtifactIdentifier && !((DefaultResolvedArtifact) artifact).isResolved()) {
+                unresolved.add((DefaultResolvedArtifact) artifact);
+            }
+        }
+        if (unresolved.size() < 2 || maxThreads < 2) {
+            return;
+        }
+
+        final AggregateResourceOperation downloadOperation = new AggregateResourceOperation(progressLoggerFactory, ArtifactFilePrefetcher.class, ResourceOperation.Type.download, "Download artifacts for " + displayName, unresolved.size());
+        try {
+            StoppableExecutor executor = getExecutor();
+            final List<Future<?>> downloads = new ArrayList<Future<?>>(unresolved.size());
+            for (final DefaultResolvedArtifact artifact : unresolved) {
+                downloads.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        downloadOperation.run(new Factory<Object>() {
+                            @Override
+                            public Object create() {
+                                try {
+                                    artifact.getFile();
+                                } catch (Throwable t) {
+                                    LOGGER.debug("Could not prefetch {}.", artifact, t);
+                                }
+                                downloadOperation.itemCompleted();
+                                return null;
+                            }
+                        });
+                    }
+                }));
+            }
+            // The downloads need the cache lock, so release it if this thread holds it
+            cacheLockingManager.longRunningOperation("Wait for artifact downloads for " + displayName, new Runnable() {
+                @Override
+                public void run() {
+                    for (Future<?> download : downloads) {
+                        try {
+                            download.get();
+                        } catch (InterruptedException e) {
+                            throw UncheckedException.throwAsUncheckedException(e);
+                        } catch (ExecutionException e) {
+                            throw UncheckedException.throwAsUncheckedException(e.getCause());
+                        }
+                    }
+                }
+            });
+        } finally {
+            downloadOperation.stop();
+        }
+    }
+
+    private synchronized StoppableExecutor getExecutor() {
+        if (executor == null) {
+            executor = executorFactory.create("Artifact download", maxThreads);
+        }
+        return executor;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.stop();
+            executor = null;
+        }
+    }
+}
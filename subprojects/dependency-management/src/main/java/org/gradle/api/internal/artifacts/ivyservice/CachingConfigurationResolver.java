@@ -0,0 +1,556 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.gradle.api.Nullable;
+import org.gradle.api.artifacts.ClientModule;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.DependencyArtifact;
+import org.gradle.api.artifacts.ExcludeRule;
+import org.gradle.api.artifacts.ExternalModuleDependency;
+import org.gradle.api.artifacts.LenientConfiguration;
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.artifacts.ResolveException;
+import org.gradle.api.artifacts.ResolvedArtifact;
+import org.gradle.api.artifacts.ResolvedConfiguration;
+import org.gradle.api.artifacts.ResolvedDependency;
+import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.artifacts.dsl.RepositoryHandler;
+import org.gradle.api.artifacts.repositories.ArtifactRepository;
+import org.gradle.api.artifacts.result.DependencyResult;
+import org.gradle.api.artifacts.result.ResolutionResult;
+import org.gradle.api.artifacts.result.ResolvedArtifactResult;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.artifacts.result.ResolvedDependencyResult;
+import org.gradle.api.artifacts.result.UnresolvedDependencyResult;
+import org.gradle.api.attributes.AttributeContainer;
+import org.gradle.api.internal.artifacts.ConfigurationResolver;
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
+import org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier;
+import org.gradle.api.internal.artifacts.DefaultResolvedArtifact;
+import org.gradle.api.internal.artifacts.DefaultResolverResults;
+import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules;
+import org.gradle.api.internal.artifacts.Module;
+import org.gradle.api.internal.artifacts.ResolverResults;
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.api.internal.artifacts.configurations.dynamicversion.CachePolicy;
+import org.gradle.api.internal.artifacts.ivyservice.dynamicversions.DefaultResolvedModuleVersion;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ConfiguredModuleComponentRepository;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ArtifactVisitor;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.SelectedArtifactSet;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.VisitedArtifactSet;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.projectresult.ResolvedLocalComponentsResultGraphVisitor;
+import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository;
+import org.gradle.api.internal.tasks.TaskDependencies;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.specs.Specs;
+import org.gradle.internal.component.external.model.DefaultModuleComponentArtifactIdentifier;
+import org.gradle.util.GradleVersion;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reuses the dependency graph of a configuration from an earlier build, when none of the inputs to the resolution of the configuration have changed.
+ *
+ * <p>Only configurations that depend solely on external modules, and whose resolution is not affected by any rules, are cached. The inputs to the
+ * resolution are the declared dependencies and excludes, the resolution strategy and the repositories. A cached graph is discarded when any of the
+ * dynamic versions or changing modules it contains would need to be checked again according to the cache policy of the configuration.</p>
+ *
+ * <p>The artifacts of the configuration are cached along with the graph, once they have all been resolved. The files and artifacts of a configuration
+ * with a cached graph are served from the cache when no artifacts are filtered out. The configuration is resolved again only when something is requested
+ * that is not cached, such as the legacy {@link ResolvedConfiguration} model, or when a cached artifact file no longer exists.</p>
+ */
+public class CachingConfigurationResolver implements ConfigurationResolver {
+    private final ConfigurationResolver delegate;
+    private final RepositoryHandler repositories;
+    private final GlobalDependencyResolutionRules metadataHandler;
+    private final ResolutionResultsCache resolutionResultsCache;
+    private final VersionSelectorScheme versionSelectorScheme;
+
+    public CachingConfigurationResolver(ConfigurationResolver delegate, RepositoryHandler repositories, GlobalDependencyResolutionRules metadataHandler,
+                                        ResolutionResultsCache resolutionResultsCache, VersionSelectorScheme versionSelectorScheme) {
+        this.delegate = delegate;
+        this.repositories = repositories;
+        this.metadataHandler = metadataHandler;
+        this.resolutionResultsCache = resolutionResultsCache;
+        this.versionSelectorScheme = versionSelectorScheme;
+    }
+
+    @Override
+    public void resolveBuildDependencies(ConfigurationInternal configuration, ResolverResults result) {
+        delegate.resolveBuildDependencies(configuration, result);
+    }
+
+    @Override
+    public void resolveGraph(ConfigurationInternal configuration, ResolverResults results) throws ResolveException {
+        String fingerprint = fingerprint(configuration);
+        if (fingerprint == null) {
+            delegate.resolveGraph(configuration, results);
+            return;
+        }
+
+        ResolutionResultsCache.CachedResolutionResult cached = resolutionResultsCache.get(fingerprint);
+        if (cached != null && isUpToDate(configuration, cached)) {
+            CachedVisitedArtifactSet artifacts = new CachedVisitedArtifactSet(configuration, fingerprint, cached.getResult(), existingArtifacts(cached));
+            results.graphResolved(cached.getResult(), new ResolvedLocalComponentsResultGraphVisitor(), artifacts);
+            results.retainState(artifacts);
+            return;
+        }
+
+        delegate.resolveGraph(configuration, results);
+        if (!results.hasError() && isCacheable(results.getResolutionResult())) {
+            resolutionResultsCache.store(fingerprint, results.getResolutionResult());
+            results.retainState(new CacheableArtifactResolveState(fingerprint, results.getResolutionResult(), results.getArtifactResolveState()));
+        }
+    }
+
+    @Override
+    public void resolveArtifacts(ConfigurationInternal configuration, ResolverResults results) throws ResolveException {
+        Object state = results.getArtifactResolveState();
+        if (state instanceof CachedVisitedArtifactSet) {
+            CachedVisitedArtifactSet artifacts = (CachedVisitedArtifactSet) state;
+            results.artifactsResolved(new DeferredResolvedConfiguration(artifacts), artifacts);
+            return;
+        }
+        if (state instanceof CacheableArtifactResolveState) {
+            CacheableArtifactResolveState cacheableState = (CacheableArtifactResolveState) state;
+            results.retainState(cacheableState.delegateState);
+            delegate.resolveArtifacts(configuration, results);
+            results.artifactsResolved(results.getResolvedConfiguration(), new StoringVisitedArtifactSet(results.getVisitedArtifacts(), cacheableState.fingerprint, cacheableState.graph));
+            return;
+        }
+        delegate.resolveArtifacts(configuration, results);
+    }
+
+    /**
+     * Returns the cached artifacts of the given result, or null when they are not cached or when any of their files has been removed.
+     */
+    @Nullable
+    private static List<ResolvedArtifactResult> existingArtifacts(ResolutionResultsCache.CachedResolutionResult cached) {
+        List<ResolvedArtifactResult> artifacts = cached.getArtifacts();
+        if (artifacts == null) {
+            return null;
+        }
+        for (ResolvedArtifactResult artifact : artifacts) {
+            if (!artifact.getFile().isFile()) {
+                return null;
+            }
+        }
+        return artifacts;
+    }
+
+    private static boolean isUnfiltered(Spec<? super Dependency> dependencySpec, AttributeContainer attributes) {
+        return dependencySpec == Specs.SATISFIES_ALL && attributes.isEmpty();
+    }
+
+    /**
+     * Calculates a fingerprint of the inputs to the resolution of the given configuration, or returns null when the resolution cannot be cached.
+     */
+    @Nullable
+    private String fingerprint(ConfigurationInternal configuration) {
+        ResolutionStrategyInternal resolutionStrategy = configuration.getResolutionStrategy();
+        if (resolutionStrategy.getDependencySubstitution().hasRules()
+            || !resolutionStrategy.getComponentSelection().getRules().isEmpty()
+            || metadataHandler.getDependencySubstitutionRules().hasRules()
+            || metadataHandler.getComponentMetadataProcessor().hasRules()
+            || metadataHandler.getModuleMetadataProcessor().getModuleReplacements().hasReplacements()) {
+            return null;
+        }
+
+        Hasher hasher = Hashing.md5().newHasher();
+        putString(hasher, GradleVersion.current().getVersion());
+
+        Module module = configuration.getModule();
+        putString(hasher, module.getProjectPath());
+        putString(hasher, module.getGroup());
+        putString(hasher, module.getName());
+        putString(hasher, module.getVersion());
+        putString(hasher, module.getStatus());
+        putString(hasher, configuration.getPath());
+        hasher.putBoolean(configuration.isTransitive());
+
+        for (Configuration hierarchy : configuration.getHierarchy()) {
+            putString(hasher, hierarchy.getName());
+            hasher.putBoolean(hierarchy.isTransitive());
+            putExcludeRules(hasher, hierarchy.getExcludeRules());
+        }
+
+        for (Dependency dependency : configuration.getAllDependencies()) {
+            if (!(dependency instanceof ExternalModuleDependency) || dependency instanceof ClientModule) {
+                return null;
+            }
+            ExternalModuleDependency moduleDependency = (ExternalModuleDependency) dependency;
+            putString(hasher, moduleDependency.getGroup());
+            putString(hasher, moduleDependency.getName());
+            putString(hasher, moduleDependency.getVersion());
+            putString(hasher, moduleDependency.getTargetConfiguration());
+            hasher.putBoolean(moduleDependency.isTransitive());
+            hasher.putBoolean(moduleDependency.isForce());
+            hasher.putBoolean(moduleDependency.isChanging());
+            putExcludeRules(hasher, moduleDependency.getExcludeRules());
+            for (DependencyArtifact artifact : moduleDependency.getArtifacts()) {
+                putString(hasher, artifact.getName());
+                putString(hasher, artifact.getType());
+                putString(hasher, artifact.getExtension());
+                putString(hasher, artifact.getClassifier());
+                putString(hasher, artifact.getUrl());
+            }
+        }
+
+        putString(hasher, resolutionStrategy.getConflictResolution().getClass().getName());
+        for (ModuleVersionSelector forcedModule : resolutionStrategy.getForcedModules()) {
+            putString(hasher, forcedModule.getGroup());
+            putString(hasher, forcedModule.getName());
+            putString(hasher, forcedModule.getVersion());
+        }
+
+        for (ArtifactRepository repository : repositories) {
+            if (!(repository instanceof ResolutionAwareRepository)) {
+                return null;
+            }
+            ConfiguredModuleComponentRepository resolver = ((ResolutionAwareRepository) repository).createResolver();
+            if (resolver.isLocal()) {
+                // Local repositories are not cached, so may change at any time
+                return null;
+            }
+            putString(hasher, resolver.getId());
+        }
+
+        return hasher.hash().toString();
+    }
+
+    private static void putExcludeRules(Hasher hasher, Set<ExcludeRule> excludeRules) {
+        hasher.putInt(excludeRules.size());
+        for (ExcludeRule excludeRule : excludeRules) {
+            putString(hasher, excludeRule.getGroup());
+            putString(hasher, excludeRule.getModule());
+        }
+    }
+
+    private static void putString(Hasher hasher, @Nullable String value) {
+        if (value == null) {
+            hasher.putBoolean(false);
+        } else {
+            hasher.putBoolean(true);
+            hasher.putString(value, Charsets.UTF_8);
+            hasher.putByte((byte) 0);
+        }
+    }
+
+    private static boolean isCacheable(ResolutionResult result) {
+        for (DependencyResult dependency : result.getAllDependencies()) {
+            if (dependency instanceof UnresolvedDependencyResult) {
+                return false;
+            }
+            ResolvedComponentResult selected = ((ResolvedDependencyResult) dependency).getSelected();
+            if (!(selected.getId() instanceof ModuleComponentIdentifier)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the cache policy of the configuration allows the modules and dynamic versions in the cached graph to be used without checking them again.
+     */
+    private boolean isUpToDate(ConfigurationInternal configuration, ResolutionResultsCache.CachedResolutionResult cached) {
+        CachePolicy cachePolicy = configuration.getResolutionStrategy().getCachePolicy();
+        long ageMillis = resolutionResultsCache.getAgeMillis(cached);
+        Set<ModuleIdentifier> changingModules = new HashSet<ModuleIdentifier>();
+        for (Dependency dependency : configuration.getAllDependencies()) {
+            if (((ExternalModuleDependency) dependency).isChanging()) {
+                changingModules.add(DefaultModuleIdentifier.newId(dependency.getGroup(), dependency.getName()));
+            }
+        }
+
+        for (ResolvedComponentResult component : cached.getResult().getAllComponents()) {
+            if (component.getId() instanceof ModuleComponentIdentifier) {
+                ModuleComponentIdentifier id = (ModuleComponentIdentifier) component.getId();
+                DefaultResolvedModuleVersion version = new DefaultResolvedModuleVersion(component.getModuleVersion());
+                boolean changing = changingModules.contains(DefaultModuleIdentifier.newId(id.getGroup(), id.getModule())) || id.getVersion().endsWith("-SNAPSHOT");
+                if (changing ? cachePolicy.mustRefreshChangingModule(id, version, ageMillis) : cachePolicy.mustRefreshModule(id, version, ageMillis)) {
+                    return false;
+                }
+            }
+            for (DependencyResult dependency : component.getDependencies()) {
+                ComponentSelector requested = dependency.getRequested();
+                if (requested instanceof ModuleComponentSelector && versionSelectorScheme.parseSelector(((ModuleComponentSelector) requested).getVersion()).isDynamic()) {
+                    ModuleComponentSelector selector = (ModuleComponentSelector) requested;
+                    ModuleVersionIdentifier selected = ((ResolvedDependencyResult) dependency).getSelected().getModuleVersion();
+                    if (cachePolicy.mustRefreshVersionList(DefaultModuleIdentifier.newId(selector.getGroup(), selector.getModule()), Collections.singleton(selected), ageMillis)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The state of a configuration whose graph has just been resolved and stored, and whose artifacts can be stored once they have been resolved.
+     */
+    private static class CacheableArtifactResolveState {
+        private final String fingerprint;
+        private final ResolutionResult graph;
+        private final Object delegateState;
+
+        CacheableArtifactResolveState(String fingerprint, ResolutionResult graph, Object delegateState) {
+            this.fingerprint = fingerprint;
+            this.graph = graph;
+            this.delegateState = delegateState;
+        }
+    }
+
+    /**
+     * Stores the artifacts of the configuration along with its graph, once all of them have been resolved.
+     */
+    private class StoringVisitedArtifactSet implements VisitedArtifactSet {
+        private final VisitedArtifactSet delegate;
+        private final String fingerprint;
+        private final ResolutionResult graph;
+        private boolean stored;
+
+        StoringVisitedArtifactSet(VisitedArtifactSet delegate, String fingerprint, ResolutionResult graph) {
+            this.delegate = delegate;
+            this.fingerprint = fingerprint;
+            this.graph = graph;
+        }
+
+        @Override
+        public SelectedArtifactSet select(Spec<? super Dependency> dependencySpec, AttributeContainer attributes) {
+            final SelectedArtifactSet selected = delegate.select(dependencySpec, attributes);
+            if (!isUnfiltered(dependencySpec, attributes)) {
+                return selected;
+            }
+            return new SelectedArtifactSet() {
+                @Override
+                public <T extends Collection<Object>> T collectBuildDependencies(T dest) {
+                    return selected.collectBuildDependencies(dest);
+                }
+
+                @Override
+                public void visitArtifacts(ArtifactVisitor visitor) {
+                    selected.visitArtifacts(visitor);
+                }
+
+                @Override
+                public <T extends Collection<? super File>> T collectFiles(T dest) throws ResolveException {
+                    selected.collectFiles(dest);
+                    // The files have all been resolved, so collecting the artifacts does not resolve anything
+                    store(selected.collectArtifacts(new LinkedHashSet<ResolvedArtifactResult>()));
+                    return dest;
+                }
+
+                @Override
+                public <T extends Collection<? super ResolvedArtifactResult>> T collectArtifacts(T dest) throws ResolveException {
+                    Set<ResolvedArtifactResult> artifacts = selected.collectArtifacts(new LinkedHashSet<ResolvedArtifactResult>());
+                    store(artifacts);
+                    dest.addAll(artifacts);
+                    return dest;
+                }
+            };
+        }
+
+        private synchronized void store(Set<ResolvedArtifactResult> artifacts) {
+            if (!stored) {
+                resolutionResultsCache.store(fingerprint, graph, new ArrayList<ResolvedArtifactResult>(artifacts));
+                stored = true;
+            }
+        }
+    }
+
+    /**
+     * The artifacts of a configuration whose graph has been loaded from the cache. Unfiltered artifacts are served from the cache when it contains them.
+     * Anything else is served by resolving the configuration again, on first use. All the artifacts belong to external modules, so none of them have
+     * build dependencies.
+     */
+    private class CachedVisitedArtifactSet implements VisitedArtifactSet {
+        private final ConfigurationInternal configuration;
+        private final String fingerprint;
+        private final ResolutionResult graph;
+        private final List<ResolvedArtifactResult> artifacts;
+        private ResolverResults resolvedResults;
+
+        CachedVisitedArtifactSet(ConfigurationInternal configuration, String fingerprint, ResolutionResult graph, @Nullable List<ResolvedArtifactResult> artifacts) {
+            this.configuration = configuration;
+            this.fingerprint = fingerprint;
+            this.graph = graph;
+            this.artifacts = artifacts;
+        }
+
+        @Override
+        public SelectedArtifactSet select(final Spec<? super Dependency> dependencySpec, final AttributeContainer attributes) {
+            if (artifacts != null && isUnfiltered(dependencySpec, attributes)) {
+                return new CachedSelectedArtifactSet(artifacts);
+            }
+            return new SelectedArtifactSet() {
+                @Override
+                public <T extends Collection<Object>> T collectBuildDependencies(T dest) {
+                    return dest;
+                }
+
+                @Override
+                public void visitArtifacts(ArtifactVisitor visitor) {
+                    resolve().getVisitedArtifacts().select(dependencySpec, attributes).visitArtifacts(visitor);
+                }
+
+                @Override
+                public <T extends Collection<? super File>> T collectFiles(T dest) throws ResolveException {
+                    return resolve().getVisitedArtifacts().select(dependencySpec, attributes).collectFiles(dest);
+                }
+
+                @Override
+                public <T extends Collection<? super ResolvedArtifactResult>> T collectArtifacts(T dest) throws ResolveException {
+                    return resolve().getVisitedArtifacts().select(dependencySpec, attributes).collectArtifacts(dest);
+                }
+            };
+        }
+
+        synchronized boolean isResolved() {
+            return resolvedResults != null;
+        }
+
+        /**
+         * Resolves the graph and the artifacts of the configuration again, and stores the artifacts once they have been resolved.
+         */
+        synchronized ResolverResults resolve() {
+            if (resolvedResults == null) {
+                DefaultResolverResults results = new DefaultResolverResults();
+                delegate.resolveGraph(configuration, results);
+                if (results.hasError()) {
+                    // Rethrow the failure
+                    results.getVisitedArtifacts();
+                }
+                delegate.resolveArtifacts(configuration, results);
+                results.artifactsResolved(results.getResolvedConfiguration(), new StoringVisitedArtifactSet(results.getVisitedArtifacts(), fingerprint, graph));
+                resolvedResults = results;
+            }
+            return resolvedResults;
+        }
+    }
+
+    private static class CachedSelectedArtifactSet implements SelectedArtifactSet {
+        private final List<ResolvedArtifactResult> artifacts;
+
+        CachedSelectedArtifactSet(List<ResolvedArtifactResult> artifacts) {
+            this.artifacts = artifacts;
+        }
+
+        @Override
+        public <T extends Collection<Object>> T collectBuildDependencies(T dest) {
+            return dest;
+        }
+
+        @Override
+        public void visitArtifacts(ArtifactVisitor visitor) {
+            for (ResolvedArtifactResult artifact : artifacts) {
+                DefaultModuleComponentArtifactIdentifier id = (DefaultModuleComponentArtifactIdentifier) artifact.getId();
+                visitor.visitArtifact(new DefaultResolvedArtifact(DefaultModuleVersionIdentifier.newId(id.getComponentIdentifier()), id.getName(), id, TaskDependencies.EMPTY, artifact.getFile()));
+            }
+        }
+
+        @Override
+        public <T extends Collection<? super File>> T collectFiles(T dest) throws ResolveException {
+            for (ResolvedArtifactResult artifact : artifacts) {
+                dest.add(artifact.getFile());
+            }
+            return dest;
+        }
+
+        @Override
+        public <T extends Collection<? super ResolvedArtifactResult>> T collectArtifacts(T dest) throws ResolveException {
+            dest.addAll(artifacts);
+            return dest;
+        }
+    }
+
+    /**
+     * The legacy model of a configuration whose graph has been loaded from the cache. The configuration is resolved again when the model is first used.
+     */
+    private static class DeferredResolvedConfiguration implements ResolvedConfiguration {
+        private final CachedVisitedArtifactSet artifacts;
+
+        DeferredResolvedConfiguration(CachedVisitedArtifactSet artifacts) {
+            this.artifacts = artifacts;
+        }
+
+        private ResolvedConfiguration getDelegate() {
+            return artifacts.resolve().getResolvedConfiguration();
+        }
+
+        @Override
+        public boolean hasError() {
+            // A cached graph has no unresolved dependencies
+            return artifacts.isResolved() && getDelegate().hasError();
+        }
+
+        @Override
+        public LenientConfiguration getLenientConfiguration() {
+            return getDelegate().getLenientConfiguration();
+        }
+
+        @Override
+        public void rethrowFailure() throws ResolveException {
+            if (artifacts.isResolved()) {
+                getDelegate().rethrowFailure();
+            }
+        }
+
+        @Override
+        public Set<File> getFiles() throws ResolveException {
+            return artifacts.select(Specs.<Dependency>satisfyAll(), artifacts.configuration.getAttributes()).collectFiles(new LinkedHashSet<File>());
+        }
+
+        @Override
+        public Set<File> getFiles(Spec<? super Dependency> dependencySpec) throws ResolveException {
+            return artifacts.select(dependencySpec, artifacts.configuration.getAttributes()).collectFiles(new LinkedHashSet<File>());
+        }
+
+        @Override
+        public Set<ResolvedDependency> getFirstLevelModuleDependencies() throws ResolveException {
+            return getDelegate().getFirstLevelModuleDependencies();
+        }
+
+        @Override
+        public Set<ResolvedDependency> getFirstLevelModuleDependencies(Spec<? super Dependency> dependencySpec) throws ResolveException {
+            return getDelegate().getFirstLevelModuleDependencies(dependencySpec);
+        }
+
+        @Override
+        public Set<ResolvedArtifact> getResolvedArtifacts() throws ResolveException {
+            return getDelegate().getResolvedArtifacts();
+        }
+    }
+}
@@ -48,6 +48,10 @@ public class DefaultArtifactCacheMetaData implements ArtifactCacheMetaData, Cach
         return new File(createCacheRelativeDir(CacheLayout.META_DATA), "descriptors");
     }
 
+    public File getExternalResourcesStoreDirectory() {
+        return createCacheRelativeDir(CacheLayout.RESOURCES);
+    }
+
     private File createCacheRelativeDir(CacheLayout cacheLayout) {
         return cacheLayout.getPath(getCacheDir());
     }
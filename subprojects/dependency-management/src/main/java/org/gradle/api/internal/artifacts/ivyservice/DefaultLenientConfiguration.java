@@ -16,6 +16,7 @@
 package org.gradle.api.internal.artifacts.ivyservice;
 
 import com.google.common.collect.Sets;
+import org.gradle.api.Action;
 import org.gradle.api.attributes.AttributeContainer;
 import org.gradle.api.Nullable;
 import org.gradle.api.artifacts.Configuration;
@@ -65,6 +66,7 @@ import java.util.Set;
 
 public class DefaultLenientConfiguration implements LenientConfiguration, VisitedArtifactSet {
     private final CacheLockingManager cacheLockingManager;
+    private final ArtifactFilePrefetcher artifactFilePrefetcher;
     private final ConfigurationInternal configuration;
     private final Set<UnresolvedDependency> unresolvedDependencies;
     private final VisitedArtifactsResults artifactResults;
@@ -73,9 +75,10 @@ public class DefaultLenientConfiguration implements LenientConfiguration, Visite
     private final ArtifactTransformer artifactTransformer;
     private final VisitedArtifactSet buildDependenciesSet;
 
-    public DefaultLenientConfiguration(ConfigurationInternal configuration, CacheLockingManager cacheLockingManager, Set<UnresolvedDependency> unresolvedDependencies, VisitedArtifactsResults artifactResults, VisitedFileDependencyResults fileDependencyResults, Factory<TransientConfigurationResults> transientConfigurationResultsLoader, ArtifactTransformer artifactTransformer, VisitedArtifactSet buildDependenciesSet) {
+    public DefaultLenientConfiguration(ConfigurationInternal configuration, CacheLockingManager cacheLockingManager, ArtifactFilePrefetcher artifactFilePrefetcher, Set<UnresolvedDependency> unresolvedDependencies, VisitedArtifactsResults artifactResults, VisitedFileDependencyResults fileDependencyResults, Factory<TransientConfigurationResults> transientConfigurationResultsLoader, ArtifactTransformer artifactTransformer, VisitedArtifactSet buildDependenciesSet) {
         this.configuration = configuration;
         this.cacheLockingManager = cacheLockingManager;
+        this.artifactFilePrefetcher = artifactFilePrefetcher;
         this.unresolvedDependencies = unresolvedDependencies;
         this.artifactResults = artifactResults;
         this.fileDependencyResults = fileDependencyResults;
@@ -111,6 +114,7 @@ public class DefaultLenientConfiguration implements LenientConfiguration, Visite
                     // The visitor adds file dependencies directly to the destination collection however defers adding the artifacts.
                     // This is to ensure a fixed order regardless of whether the first level dependencies are filtered or not
                     // File dependencies and artifacts are currently treated separately as a migration step
+                    artifactFilePrefetcher.prefetch(configuration.getDisplayName(), visitor.artifacts);
                     visitor.addArtifacts();
                 } catch (Throwable t) {
                     visitor.failures.add(t);
@@ -228,6 +232,7 @@ public class DefaultLenientConfiguration implements LenientConfiguration, Visite
     }
 
     private Set<ResolvedArtifact> filterUnresolved(final Set<ResolvedArtifact> artifacts) {
+        artifactFilePrefetcher.prefetch(configuration.getDisplayName(), artifacts);
         return cacheLockingManager.useCache("retrieve artifacts from " + configuration, new Factory<Set<ResolvedArtifact>>() {
             public Set<ResolvedArtifact> create() {
                 return CollectionUtils.filter(artifacts, new IgnoreMissingExternalArtifacts());
@@ -255,31 +260,38 @@ public class DefaultLenientConfiguration implements LenientConfiguration, Visite
      *
      * @param dependencySpec dependency spec
      */
-    private void visitArtifacts(Spec<? super Dependency> dependencySpec, AttributeContainer attributes, ArtifactVisitor visitor) {
-        ArtifactVisitor transformingVisitor = artifactTransformer.visitor(visitor, attributes);
+    private void visitArtifacts(final Spec<? super Dependency> dependencySpec, AttributeContainer attributes, ArtifactVisitor visitor) {
+        artifactTransformer.visit(configuration.getDisplayName(), visitor, attributes, new Action<ArtifactVisitor>() {
+            @Override
+            public void execute(ArtifactVisitor artifactVisitor) {
+                visitSelectedArtifacts(dependencySpec, artifactVisitor);
+            }
+        });
+    }
 
+    private void visitSelectedArtifacts(Spec<? super Dependency> dependencySpec, ArtifactVisitor visitor) {
         //this is not very nice might be good enough until we get rid of ResolvedConfiguration and friends
         //avoid traversing the graph causing the full ResolvedDependency graph to be loaded for the most typical scenario
         if (dependencySpec == Specs.SATISFIES_ALL) {
-            if (transformingVisitor.includeFiles()) {
-                fileDependencyResults.getFiles().visit(transformingVisitor);
+            if (visitor.includeFiles()) {
+                fileDependencyResults.getFiles().visit(visitor);
             }
-            artifactResults.getArtifacts().visit(transformingVisitor);
+            artifactResults.getArtifacts().visit(visitor);
             return;
         }
 
-        if (transformingVisitor.includeFiles()) {
+        if (visitor.includeFiles()) {
             for (Map.Entry<FileCollectionDependency, ResolvedArtifactSet> entry: fileDependencyResults.getFirstLevelFiles().entrySet()) {
                 if (dependencySpec.isSatisfiedBy(entry.getKey())) {
-                    entry.getValue().visit(transformingVisitor);
+                    entry.getValue().visit(visitor);
                 }
             }
         }
 
-        CachingDirectedGraphWalker<DependencyGraphNodeResult, ResolvedArtifact> walker = new CachingDirectedGraphWalker<DependencyGraphNodeResult, ResolvedArtifact>(new ResolvedDependencyArtifactsGraph(transformingVisitor));
+        CachingDirectedGraphWalker<DependencyGraphNodeResult, ResolvedArtifact> walker = new CachingDirectedGraphWalker<DependencyGraphNodeResult, ResolvedArtifact>(new ResolvedDependencyArtifactsGraph(visitor));
 
         for (DependencyGraphNodeResult node : getFirstLevelNodes(dependencySpec)) {
-            node.getArtifactsForIncomingEdge(loadTransientGraphResults().getRootNode()).visit(transformingVisitor);
+            node.getArtifactsForIncomingEdge(loadTransientGraphResults().getRootNode()).visit(visitor);
             walker.add(node);
         }
         walker.findValues();
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.api.Nullable;
+import org.gradle.api.artifacts.component.ComponentArtifactIdentifier;
+import org.gradle.api.artifacts.result.ResolutionResult;
+import org.gradle.api.artifacts.result.ResolvedArtifactResult;
+import org.gradle.api.component.Artifact;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ResolutionResultSerializer;
+import org.gradle.api.internal.artifacts.metadata.ComponentArtifactIdentifierSerializer;
+import org.gradle.api.internal.artifacts.result.DefaultResolvedArtifactResult;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.internal.Factory;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.util.BuildCommencedTimeProvider;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persists the dependency graphs and the artifacts of resolved configurations across builds, keyed by a fingerprint of the inputs to the resolution.
+ */
+@ThreadSafe
+public class ResolutionResultsCache {
+    private final CacheLockingManager cacheLockingManager;
+    private final BuildCommencedTimeProvider timeProvider;
+    private PersistentIndexedCache<String, CachedResolutionResult> persistentCache;
+
+    public ResolutionResultsCache(CacheLockingManager cacheLockingManager, BuildCommencedTimeProvider timeProvider) {
+        this.cacheLockingManager = cacheLockingManager;
+        this.timeProvider = timeProvider;
+    }
+
+    private synchronized PersistentIndexedCache<String, CachedResolutionResult> getPersistentCache() {
+        if (persistentCache == null) {
+            persistentCache = cacheLockingManager.createCache("resolution-results", BaseSerializerFactory.STRING_SERIALIZER, new CachedResolutionResultSerializer());
+        }
+        return persistentCache;
+    }
+
+    /**
+     * Returns the result stored for the given fingerprint, or null if there is none.
+     */
+    @Nullable
+    public CachedResolutionResult get(final String fingerprint) {
+        return cacheLockingManager.useCache("Load resolution result", new Factory<CachedResolutionResult>() {
+            public CachedResolutionResult create() {
+                return getPersistentCache().get(fingerprint);
+            }
+        });
+    }
+
+    public void store(String fingerprint, ResolutionResult result) {
+        store(fingerprint, result, null);
+    }
+
+    /**
+     * Stores the given result, along with the resolved artifacts of the configuration when they are known.
+     */
+    public void store(final String fingerprint, ResolutionResult result, @Nullable List<ResolvedArtifactResult> artifacts) {
+        final CachedResolutionResult entry = new CachedResolutionResult(timeProvider.getCurrentTime(), result, artifacts);
+        cacheLockingManager.useCache("Store resolution result", new Runnable() {
+            public void run() {
+                getPersistentCache().put(fingerprint, entry);
+            }
+        });
+    }
+
+    /**
+     * Returns the age of the given result in milliseconds.
+     */
+    public long getAgeMillis(CachedResolutionResult result) {
+        return timeProvider.getCurrentTime() - result.getTimestamp();
+    }
+
+    public static class CachedResolutionResult {
+        private final long timestamp;
+        private final ResolutionResult result;
+        private final List<ResolvedArtifactResult> artifacts;
+
+        public CachedResolutionResult(long timestamp, ResolutionResult result) {
+            this(timestamp, result, null);
+        }
+
+        public CachedResolutionResult(long timestamp, ResolutionResult result, @Nullable List<ResolvedArtifactResult> artifacts) {
+            this.timestamp = timestamp;
+            this.result = result;
+            this.artifacts = artifacts;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public ResolutionResult getResult() {
+            return result;
+        }
+
+        /**
+         * Returns the resolved artifacts of the configuration, or null when they have not been stored.
+         */
+        @Nullable
+        public List<ResolvedArtifactResult> getArtifacts() {
+            return artifacts;
+        }
+    }
+
+    private static class CachedResolutionResultSerializer implements Serializer<CachedResolutionResult> {
+        private final ResolutionResultSerializer resultSerializer = new ResolutionResultSerializer();
+        private final ComponentArtifactIdentifierSerializer artifactIdSerializer = new ComponentArtifactIdentifierSerializer();
+
+        @Override
+        public CachedResolutionResult read(Decoder decoder) throws Exception {
+            long timestamp = decoder.readLong();
+            ResolutionResult result = resultSerializer.read(decoder);
+            List<ResolvedArtifactResult> artifacts = null;
+            if (decoder.readBoolean()) {
+                int count = decoder.readSmallInt();
+                artifacts = new ArrayList<ResolvedArtifactResult>(count);
+                for (int i = 0; i < count; i++) {
+                    ComponentArtifactIdentifier id = artifactIdSerializer.read(decoder);
+                    File file = new File(decoder.readString());
+                    artifacts.add(new DefaultResolvedArtifactResult(id, Artifact.class, file));
+                }
+            }
+            return new CachedResolutionResult(timestamp, result, artifacts);
+        }
+
+        @Override
+        public void write(Encoder encoder, CachedResolutionResult value) throws Exception {
+            encoder.writeLong(value.getTimestamp());
+            resultSerializer.write(encoder, value.getResult());
+            List<ResolvedArtifactResult> artifacts = value.getArtifacts();
+            encoder.writeBoolean(artifacts != null);
+            if (artifacts != null) {
+                encoder.writeSmallInt(artifacts.size());
+                for (ResolvedArtifactResult artifact : artifacts) {
+                    artifactIdSerializer.write(encoder, artifact.getId());
+                    encoder.writeString(artifact.getFile().getAbsolutePath());
+                }
+            }
+        }
+    }
+}
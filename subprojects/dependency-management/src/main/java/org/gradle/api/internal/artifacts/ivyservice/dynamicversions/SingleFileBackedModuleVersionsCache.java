@@ -15,6 +15,7 @@
  */
 package org.gradle.api.internal.artifacts.ivyservice.dynamicversions;
 
+import com.google.common.base.Strings;
 import org.gradle.api.artifacts.ModuleIdentifier;
 import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
 import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
@@ -27,7 +28,10 @@ import org.gradle.util.BuildCommencedTimeProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 public class SingleFileBackedModuleVersionsCache implements ModuleVersionsCache {
@@ -113,22 +117,34 @@ public class SingleFileBackedModuleVersionsCache implements ModuleVersionsCache
         }
     }
 
-    private static class ModuleVersionsCacheEntrySerializer implements Serializer<ModuleVersionsCacheEntry> {
+    /**
+     * Writes the versions in sorted order, each one as the length of the prefix it shares with the previous version followed by the remainder.
+     * Versions of a module usually share long prefixes, so this keeps large listings small. The order of the listing is not significant.
+     */
+    static class ModuleVersionsCacheEntrySerializer implements Serializer<ModuleVersionsCacheEntry> {
 
         public void write(Encoder encoder, ModuleVersionsCacheEntry value) throws Exception {
-            Set<String> versions = value.moduleVersionListing;
-            encoder.writeInt(versions.size());
+            List<String> versions = new ArrayList<String>(value.moduleVersionListing);
+            Collections.sort(versions);
+            encoder.writeSmallInt(versions.size());
+            String previous = "";
             for (String version : versions) {
-                encoder.writeString(version);
+                int prefixLength = Strings.commonPrefix(previous, version).length();
+                encoder.writeSmallInt(prefixLength);
+                encoder.writeString(version.substring(prefixLength));
+                previous = version;
             }
             encoder.writeLong(value.createTimestamp);
         }
 
         public ModuleVersionsCacheEntry read(Decoder decoder) throws Exception {
-            int size = decoder.readInt();
+            int size = decoder.readSmallInt();
             Set<String> versions = new LinkedHashSet<String>();
+            String previous = "";
             for (int i = 0; i < size; i++) {
-                versions.add(decoder.readString());
+                int prefixLength = decoder.readSmallInt();
+                previous = previous.substring(0, prefixLength) + decoder.readString();
+                versions.add(previous);
             }
             long createTimestamp = decoder.readLong();
             return new ModuleVersionsCacheEntry(versions, createTimestamp);
@@ -29,15 +29,21 @@ import org.gradle.internal.resolve.result.BuildableComponentArtifactsResolveResu
 import org.gradle.internal.resolve.result.BuildableModuleComponentMetaDataResolveResult;
 import org.gradle.internal.resolve.result.BuildableModuleVersionListingResolveResult;
 
+import java.util.concurrent.Semaphore;
+
 /**
  * A wrapper around a {@link ModuleComponentRepository} that handles releasing the cache lock before making remote calls.
+ * Also limits the number of artifacts that are downloaded from the repository at the same time.
  */
 public class CacheLockReleasingModuleComponentsRepository extends BaseModuleComponentRepository {
     private final ModuleComponentRepositoryAccess remoteAccess;
 
-    public CacheLockReleasingModuleComponentsRepository(ModuleComponentRepository repository, CacheLockingManager cacheLockingManager) {
+    /**
+     * @param downloadPermits the permits for downloading artifacts from the repository, shared by all resolutions against the repository
+     */
+    public CacheLockReleasingModuleComponentsRepository(ModuleComponentRepository repository, CacheLockingManager cacheLockingManager, Semaphore downloadPermits) {
         super(repository);
-        this.remoteAccess = new LockReleasingRepositoryAccess(repository.getName(), repository.getRemoteAccess(), cacheLockingManager);
+        this.remoteAccess = new LockReleasingRepositoryAccess(repository.getName(), repository.getRemoteAccess(), cacheLockingManager, downloadPermits);
     }
 
     @Override
@@ -49,16 +55,18 @@ public class CacheLockReleasingModuleComponentsRepository extends BaseModuleComp
         private final String name;
         private final ModuleComponentRepositoryAccess delegate;
         private final CacheLockingManager cacheLockingManager;
+        private final Semaphore downloads;
 
         @Override
         public String toString() {
             return "unlocking > " + delegate.toString();
         }
 
-        private LockReleasingRepositoryAccess(String name, ModuleComponentRepositoryAccess delegate, CacheLockingManager cacheLockingManager) {
+        private LockReleasingRepositoryAccess(String name, ModuleComponentRepositoryAccess delegate, CacheLockingManager cacheLockingManager, Semaphore downloads) {
             this.name = name;
             this.delegate = delegate;
             this.cacheLockingManager = cacheLockingManager;
+            this.downloads = downloads;
         }
 
         @Override
@@ -102,7 +110,13 @@ public class CacheLockReleasingModuleComponentsRepository extends BaseModuleComp
         public void resolveArtifact(final ComponentArtifactMetadata artifact, final ModuleSource moduleSource, final BuildableArtifactResolveResult result) {
             cacheLockingManager.longRunningOperation("Download " + artifact + " using repository " + name, new Runnable() {
                 public void run() {
-                    delegate.resolveArtifact(artifact, moduleSource, result);
+                    // Acquire the permit once the cache lock has been released, so that waiting does not block other threads
+                    downloads.acquireUninterruptibly();
+                    try {
+                        delegate.resolveArtifact(artifact, moduleSource, result);
+                    } finally {
+                        downloads.release();
+                    }
                 }
             });
         }
@@ -48,8 +48,14 @@ import org.gradle.internal.resource.cached.CachedArtifactIndex;
 import org.gradle.util.BuildCommencedTimeProvider;
 
 import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
 
 public class ResolveIvyFactory {
+    private static final String MAX_CONCURRENT_DOWNLOADS_PER_REPOSITORY = "org.gradle.resolution.maxConcurrentDownloadsPerRepository";
+    private static final int DEFAULT_MAX_CONCURRENT_DOWNLOADS_PER_REPOSITORY = 4;
+
     private final ModuleVersionsCache moduleVersionsCache;
     private final ModuleMetaDataCache moduleMetaDataCache;
     private final ModuleArtifactsCache moduleArtifactsCache;
@@ -60,6 +66,8 @@ public class ResolveIvyFactory {
     private final InMemoryCachedRepositoryFactory inMemoryCache;
     private final VersionSelectorScheme versionSelectorScheme;
     private final VersionComparator versionComparator;
+    private final int maxConcurrentDownloadsPerRepository;
+    private final ConcurrentMap<String, Semaphore> downloadPermits = new ConcurrentHashMap<String, Semaphore>();
 
     public ResolveIvyFactory(ModuleVersionsCache moduleVersionsCache, ModuleMetaDataCache moduleMetaDataCache, ModuleArtifactsCache moduleArtifactsCache,
                              CachedArtifactIndex artifactAtRepositoryCachedResolutionIndex,
@@ -75,6 +83,7 @@ public class ResolveIvyFactory {
         this.inMemoryCache = inMemoryCache;
         this.versionSelectorScheme = versionSelectorScheme;
         this.versionComparator = versionComparator;
+        this.maxConcurrentDownloadsPerRepository = Integer.getInteger(MAX_CONCURRENT_DOWNLOADS_PER_REPOSITORY, DEFAULT_MAX_CONCURRENT_DOWNLOADS_PER_REPOSITORY);
     }
 
     public ComponentResolvers create(ResolutionStrategyInternal resolutionStrategy,
@@ -103,7 +112,7 @@ public class ResolveIvyFactory {
             if (baseRepository.isLocal()) {
                 moduleComponentRepository = new LocalModuleComponentRepository(baseRepository, metadataProcessor);
             } else {
-                moduleComponentRepository = new CacheLockReleasingModuleComponentsRepository(moduleComponentRepository, cacheLockingManager);
+                moduleComponentRepository = new CacheLockReleasingModuleComponentsRepository(moduleComponentRepository, cacheLockingManager, getDownloadPermits(baseRepository));
                 moduleComponentRepository = startParameterResolutionOverride.overrideModuleVersionRepository(moduleComponentRepository);
                 moduleComponentRepository = new CachingModuleComponentRepository(moduleComponentRepository, moduleVersionsCache, moduleMetaDataCache, moduleArtifactsCache, artifactAtRepositoryCachedResolutionIndex,
                         cachePolicy, timeProvider, metadataProcessor);
@@ -122,6 +131,21 @@ public class ResolveIvyFactory {
         return moduleResolver;
     }
 
+    /**
+     * Returns the permits for downloading artifacts from the given repository. These are shared by all resolutions in the build.
+     */
+    private Semaphore getDownloadPermits(ConfiguredModuleComponentRepository repository) {
+        Semaphore permits = downloadPermits.get(repository.getId());
+        if (permits == null) {
+            Semaphore newPermits = new Semaphore(Math.max(1, maxConcurrentDownloadsPerRepository));
+            permits = downloadPermits.putIfAbsent(repository.getId(), newPermits);
+            if (permits == null) {
+                permits = newPermits;
+            }
+        }
+        return permits;
+    }
+
     /**
      * Provides access to the top-level resolver chain for looking up parent modules when parsing module descriptor files.
      */
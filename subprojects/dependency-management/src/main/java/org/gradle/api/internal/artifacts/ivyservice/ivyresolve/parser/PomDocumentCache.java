@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.data.PomDocument;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.internal.Factory;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.internal.resource.local.LocallyAvailableExternalResource;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.xml.sax.SAXException;
+
+/**
+ * Caches parsed POM files by the SHA1 hash of their content, so that a parent POM or imported BOM is parsed once and then shared by all of
+ * the modules that refer to it. Recently used documents are kept in memory, and all documents are persisted to the module meta-data cache.
+ */
+@ThreadSafe
+public class PomDocumentCache {
+    private static final int MAX_IN_MEMORY_ENTRIES = 1000;
+
+    private final CacheLockingManager cacheLockingManager;
+    private final Cache<HashValue, PomDocument> inMemoryCache = CacheBuilder.newBuilder().maximumSize(MAX_IN_MEMORY_ENTRIES).build();
+    private PersistentIndexedCache<String, PomDocument> persistentCache;
+
+    public PomDocumentCache(CacheLockingManager cacheLockingManager) {
+        this.cacheLockingManager = cacheLockingManager;
+    }
+
+    private synchronized PersistentIndexedCache<String, PomDocument> getPersistentCache() {
+        if (persistentCache == null) {
+            persistentCache = cacheLockingManager.createCache("parsed-poms", BaseSerializerFactory.STRING_SERIALIZER, new PomDocumentSerializer());
+        }
+        return persistentCache;
+    }
+
+    /**
+     * Returns the parsed content of the given POM file, parsing the file only if a POM with the same content has not been seen before.
+     */
+    public PomDocument get(LocallyAvailableExternalResource resource) throws SAXException {
+        HashValue sha1 = resource.getLocalResource().getSha1();
+        PomDocument document = inMemoryCache.getIfPresent(sha1);
+        if (document != null) {
+            return document;
+        }
+
+        final String key = sha1.asHexString();
+        document = cacheLockingManager.useCache("Load parsed POM " + resource.getURI(), new Factory<PomDocument>() {
+            public PomDocument create() {
+                return getPersistentCache().get(key);
+            }
+        });
+        if (document == null) {
+            final PomDocument parsed = PomDocumentParser.parse(resource);
+            cacheLockingManager.useCache("Store parsed POM " + resource.getURI(), new Runnable() {
+                public void run() {
+                    getPersistentCache().put(key, parsed);
+                }
+            });
+            document = parsed;
+        }
+        inMemoryCache.put(sha1, document);
+        return document;
+    }
+}
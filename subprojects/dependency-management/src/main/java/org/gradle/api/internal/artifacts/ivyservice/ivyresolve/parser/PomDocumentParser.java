@@ -0,0 +1,544 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import org.apache.commons.io.IOUtils;
+import org.gradle.api.Transformer;
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.data.PomDocument;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classloader.ClassLoaderUtils;
+import org.gradle.internal.resource.local.LocallyAvailableExternalResource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLResolver;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a POM file into a {@link PomDocument}, using a streaming parser. Only those elements that are used to build module meta-data are
+ * retained, all other content is skipped.
+ */
+public class PomDocumentParser {
+    private static final String PROJECT = "project";
+    private static final String MODEL = "model";
+    private static final String GROUP_ID = "groupId";
+    private static final String ARTIFACT_ID = "artifactId";
+    private static final String VERSION = "version";
+    private static final String PACKAGING = "packaging";
+    private static final String DESCRIPTION = "description";
+    private static final String PARENT = "parent";
+    private static final String DISTRIBUTION_MGT = "distributionManagement";
+    private static final String RELOCATION = "relocation";
+    private static final String PROPERTIES = "properties";
+    private static final String DEPENDENCIES = "dependencies";
+    private static final String DEPENDENCY = "dependency";
+    private static final String DEPENDENCY_MGT = "dependencyManagement";
+    private static final String SCOPE = "scope";
+    private static final String TYPE = "type";
+    private static final String CLASSIFIER = "classifier";
+    private static final String OPTIONAL = "optional";
+    private static final String EXCLUSIONS = "exclusions";
+    private static final String EXCLUSION = "exclusion";
+    private static final String PROFILES = "profiles";
+    private static final String PROFILE = "profile";
+    private static final String PROFILE_ID = "id";
+    private static final String PROFILE_ACTIVATION = "activation";
+    private static final String PROFILE_ACTIVATION_ACTIVE_BY_DEFAULT = "activeByDefault";
+    private static final String PROFILE_ACTIVATION_PROPERTY = "property";
+    private static final String PROFILE_ACTIVATION_PROPERTY_NAME = "name";
+    private static final byte[] M2_ENTITIES_RESOURCE;
+    private static final XMLInputFactory XML_INPUT_FACTORY;
+
+    private static final XMLResolver M2_ENTITY_RESOLVER = new XMLResolver() {
+        public Object resolveEntity(String publicId, String systemId, String baseUri, String namespace) {
+            if ((systemId != null) && systemId.endsWith("m2-entities.ent")) {
+                return new ByteArrayInputStream(M2_ENTITIES_RESOURCE);
+            }
+            return null;
+        }
+    };
+
+    static {
+        byte[] bytes;
+        try {
+            bytes = IOUtils.toByteArray(org.apache.ivy.plugins.parser.m2.PomReader.class.getResourceAsStream("m2-entities.ent"));
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        M2_ENTITIES_RESOURCE = bytes;
+
+        // Set the context classloader the bootstrap classloader, to work around the way that JAXP locates implementation classes
+        // This should ensure that the JAXP classes provided by the JVM are used, rather than some other implementation
+        ClassLoader original = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(ClassLoaderUtils.getPlatformClassLoader());
+        try {
+            XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+            XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+            XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_VALIDATING, false);
+            XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, true);
+            XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, true);
+            XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, true);
+            XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_COALESCING, true);
+            XML_INPUT_FACTORY.setXMLResolver(M2_ENTITY_RESOLVER);
+        } finally {
+            Thread.currentThread().setContextClassLoader(original);
+        }
+    }
+
+    private PomDocumentParser() {
+    }
+
+    /**
+     * Parses the given POM file.
+     *
+     * @throws MetaDataParseException when the file is not well-formed XML.
+     * @throws SAXParseException when the root element of the file is not a POM project.
+     */
+    public static PomDocument parse(final LocallyAvailableExternalResource resource) throws SAXException {
+        final String systemId = resource.getLocalResource().getFile().toURI().toASCIIString();
+        PomDocument document = resource.withContent(new Transformer<PomDocument, InputStream>() {
+            public PomDocument transform(InputStream inputStream) {
+                try {
+                    return parse(inputStream, systemId);
+                } catch (Exception e) {
+                    throw new MetaDataParseException("POM", resource, e);
+                }
+            }
+        });
+        if (document == null) {
+            throw new SAXParseException("project must be the root tag", systemId, systemId, 0, 0);
+        }
+        return document;
+    }
+
+    private static PomDocument parse(InputStream stream, String systemId) throws IOException, XMLStreamException {
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(systemId, new AddDTDFilterInputStream(stream));
+        try {
+            int event = reader.next();
+            while (event != XMLStreamConstants.START_ELEMENT) {
+                if (event == XMLStreamConstants.END_DOCUMENT) {
+                    throw new XMLStreamException("Premature end of file.", reader.getLocation());
+                }
+                event = reader.next();
+            }
+            PomDocument document = null;
+            String rootName = elementName(reader);
+            if (PROJECT.equals(rootName) || MODEL.equals(rootName)) {
+                document = readProject(reader);
+            } else {
+                skipElement(reader);
+            }
+            // Read to the end, so that content that is not well-formed is reported
+            while (reader.hasNext()) {
+                reader.next();
+            }
+            return document;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static PomDocument readProject(XMLStreamReader reader) throws XMLStreamException {
+        String groupId = null;
+        String artifactId = null;
+        String version = null;
+        String packaging = null;
+        String description = null;
+        PomDocument.Coordinates parent = null;
+        PomDocument.Coordinates relocation = null;
+        boolean seenDistributionMgt = false;
+        Map<String, String> properties = null;
+        List<PomDocument.Dependency> dependencies = null;
+        List<PomDocument.Dependency> dependencyMgt = null;
+        List<PomDocument.Profile> profiles = null;
+
+        while (nextChildElement(reader)) {
+            String name = elementName(reader);
+            if (GROUP_ID.equals(name) && groupId == null) {
+                groupId = readText(reader);
+            } else if (ARTIFACT_ID.equals(name) && artifactId == null) {
+                artifactId = readText(reader);
+            } else if (VERSION.equals(name) && version == null) {
+                version = readText(reader);
+            } else if (PACKAGING.equals(name) && packaging == null) {
+                packaging = readText(reader);
+            } else if (DESCRIPTION.equals(name) && description == null) {
+                description = readText(reader);
+            } else if (PARENT.equals(name) && parent == null) {
+                parent = readCoordinates(reader);
+            } else if (DISTRIBUTION_MGT.equals(name) && !seenDistributionMgt) {
+                seenDistributionMgt = true;
+                relocation = readRelocation(reader);
+            } else if (PROPERTIES.equals(name) && properties == null) {
+                properties = readProperties(reader);
+            } else if (DEPENDENCIES.equals(name) && dependencies == null) {
+                dependencies = readDependencies(reader);
+            } else if (DEPENDENCY_MGT.equals(name) && dependencyMgt == null) {
+                dependencyMgt = readDependencyMgt(reader);
+            } else if (PROFILES.equals(name) && profiles == null) {
+                profiles = readProfiles(reader);
+            } else {
+                skipElement(reader);
+            }
+        }
+
+        return new PomDocument(groupId, artifactId, version, packaging, description, parent, relocation,
+            orEmpty(properties), orEmpty(dependencies), orEmpty(dependencyMgt), orEmpty(profiles));
+    }
+
+    private static PomDocument.Coordinates readRelocation(XMLStreamReader reader) throws XMLStreamException {
+        PomDocument.Coordinates relocation = null;
+        while (nextChildElement(reader)) {
+            if (RELOCATION.equals(elementName(reader)) && relocation == null) {
+                relocation = readCoordinates(reader);
+            } else {
+                skipElement(reader);
+            }
+        }
+        return relocation;
+    }
+
+    private static PomDocument.Coordinates readCoordinates(XMLStreamReader reader) throws XMLStreamException {
+        String groupId = null;
+        String artifactId = null;
+        String version = null;
+        while (nextChildElement(reader)) {
+            String name = elementName(reader);
+            if (GROUP_ID.equals(name) && groupId == null) {
+                groupId = readText(reader);
+            } else if (ARTIFACT_ID.equals(name) && artifactId == null) {
+                artifactId = readText(reader);
+            } else if (VERSION.equals(name) && version == null) {
+                version = readText(reader);
+            } else {
+                skipElement(reader);
+            }
+        }
+        return new PomDocument.Coordinates(groupId, artifactId, version);
+    }
+
+    private static Map<String, String> readProperties(XMLStreamReader reader) throws XMLStreamException {
+        Map<String, String> properties = new HashMap<String, String>();
+        while (nextChildElement(reader)) {
+            String name = elementName(reader);
+            properties.put(name, readText(reader));
+        }
+        return properties;
+    }
+
+    private static List<PomDocument.Dependency> readDependencyMgt(XMLStreamReader reader) throws XMLStreamException {
+        List<PomDocument.Dependency> dependencies = null;
+        while (nextChildElement(reader)) {
+            if (DEPENDENCIES.equals(elementName(reader)) && dependencies == null) {
+                dependencies = readDependencies(reader);
+            } else {
+                skipElement(reader);
+            }
+        }
+        return orEmpty(dependencies);
+    }
+
+    private static List<PomDocument.Dependency> readDependencies(XMLStreamReader reader) throws XMLStreamException {
+        List<PomDocument.Dependency> dependencies = new ArrayList<PomDocument.Dependency>();
+        while (nextChildElement(reader)) {
+            if (DEPENDENCY.equals(elementName(reader))) {
+                dependencies.add(readDependency(reader));
+            } else {
+                skipElement(reader);
+            }
+        }
+        return dependencies;
+    }
+
+    private static PomDocument.Dependency readDependency(XMLStreamReader reader) throws XMLStreamException {
+        String groupId = null;
+        String artifactId = null;
+        String version = null;
+        String scope = null;
+        String type = null;
+        String classifier = null;
+        String optional = null;
+        List<ModuleIdentifier> exclusions = null;
+        while (nextChildElement(reader)) {
+            String name = elementName(reader);
+            if (GROUP_ID.equals(name) && groupId == null) {
+                groupId = readText(reader);
+            } else if (ARTIFACT_ID.equals(name) && artifactId == null) {
+                artifactId = readText(reader);
+            } else if (VERSION.equals(name) && version == null) {
+                version = readText(reader);
+            } else if (SCOPE.equals(name) && scope == null) {
+                scope = readText(reader);
+            } else if (TYPE.equals(name) && type == null) {
+                type = readText(reader);
+            } else if (CLASSIFIER.equals(name) && classifier == null) {
+                classifier = readText(reader);
+            } else if (OPTIONAL.equals(name) && optional == null) {
+                optional = readText(reader);
+            } else if (EXCLUSIONS.equals(name) && exclusions == null) {
+                exclusions = readExclusions(reader);
+            } else {
+                skipElement(reader);
+            }
+        }
+        return new PomDocument.Dependency(groupId, artifactId, version, scope, type, classifier, optional, orEmpty(exclusions));
+    }
+
+    private static List<ModuleIdentifier> readExclusions(XMLStreamReader reader) throws XMLStreamException {
+        List<ModuleIdentifier> exclusions = new ArrayList<ModuleIdentifier>();
+        while (nextChildElement(reader)) {
+            if (EXCLUSION.equals(elementName(reader))) {
+                PomDocument.Coordinates exclusion = readCoordinates(reader);
+                if (exclusion.getGroupId() != null && exclusion.getArtifactId() != null) {
+                    exclusions.add(DefaultModuleIdentifier.newId(exclusion.getGroupId(), exclusion.getArtifactId()));
+                }
+            } else {
+                skipElement(reader);
+            }
+        }
+        return exclusions;
+    }
+
+    private static List<PomDocument.Profile> readProfiles(XMLStreamReader reader) throws XMLStreamException {
+        List<PomDocument.Profile> profiles = new ArrayList<PomDocument.Profile>();
+        while (nextChildElement(reader)) {
+            if (PROFILE.equals(elementName(reader))) {
+                profiles.add(readProfile(reader));
+            } else {
+                skipElement(reader);
+            }
+        }
+        return profiles;
+    }
+
+    private static PomDocument.Profile readProfile(XMLStreamReader reader) throws XMLStreamException {
+        String id = null;
+        String activeByDefault = null;
+        String activationProperty = null;
+        boolean seenActivation = false;
+        Map<String, String> properties = null;
+        List<PomDocument.Dependency> dependencies = null;
+        List<PomDocument.Dependency> dependencyMgt = null;
+        while (nextChildElement(reader)) {
+            String name = elementName(reader);
+            if (PROFILE_ID.equals(name) && id == null) {
+                id = readText(reader);
+            } else if (PROFILE_ACTIVATION.equals(name) && !seenActivation) {
+                seenActivation = true;
+                boolean seenProperty = false;
+                while (nextChildElement(reader)) {
+                    String activationName = elementName(reader);
+                    if (PROFILE_ACTIVATION_ACTIVE_BY_DEFAULT.equals(activationName) && activeByDefault == null) {
+                        activeByDefault = readText(reader);
+                    } else if (PROFILE_ACTIVATION_PROPERTY.equals(activationName) && !seenProperty) {
+                        seenProperty = true;
+                        activationProperty = readFirstChildText(reader, PROFILE_ACTIVATION_PROPERTY_NAME);
+                    } else {
+                        skipElement(reader);
+                    }
+                }
+            } else if (PROPERTIES.equals(name) && properties == null) {
+                properties = readProperties(reader);
+            } else if (DEPENDENCIES.equals(name) && dependencies == null) {
+                dependencies = readDependencies(reader);
+            } else if (DEPENDENCY_MGT.equals(name) && dependencyMgt == null) {
+                dependencyMgt = readDependencyMgt(reader);
+            } else {
+                skipElement(reader);
+            }
+        }
+        return new PomDocument.Profile(id, activeByDefault, activationProperty, orEmpty(properties), orEmpty(dependencies), orEmpty(dependencyMgt));
+    }
+
+    private static String readFirstChildText(XMLStreamReader reader, String childName) throws XMLStreamException {
+        String text = null;
+        while (nextChildElement(reader)) {
+            if (childName.equals(elementName(reader)) && text == null) {
+                text = readText(reader);
+            } else {
+                skipElement(reader);
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Moves to the start of the next child element of the current element. Returns false when the end of the current element is reached instead.
+     */
+    private static boolean nextChildElement(XMLStreamReader reader) throws XMLStreamException {
+        while (true) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            }
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Returns the text directly contained by the current element, and moves to the end of the element. Text of nested elements is ignored.
+     */
+    private static String readText(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder result = new StringBuilder();
+        while (true) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    result.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    break;
+                case XMLStreamConstants.START_ELEMENT:
+                    skipElement(reader);
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    return result.toString();
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Moves to the end of the current element.
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static String elementName(XMLStreamReader reader) {
+        String prefix = reader.getPrefix();
+        if (prefix == null || prefix.length() == 0) {
+            return reader.getLocalName();
+        }
+        return prefix + ":" + reader.getLocalName();
+    }
+
+    private static <T> List<T> orEmpty(List<T> list) {
+        return list == null ? Collections.<T>emptyList() : list;
+    }
+
+    private static Map<String, String> orEmpty(Map<String, String> map) {
+        return map == null ? Collections.<String, String>emptyMap() : map;
+    }
+    private static final class AddDTDFilterInputStream extends FilterInputStream {
+        private static final int MARK = 10000;
+        private static final String DOCTYPE = "<!DOCTYPE project SYSTEM \"m2-entities.ent\">\n";
+
+        private int count;
+        private byte[] prefix = DOCTYPE.getBytes();
+
+        public AddDTDFilterInputStream(InputStream in) throws IOException {
+            super(new BufferedInputStream(in));
+
+            this.in.mark(MARK);
+
+            // TODO: we should really find a better solution for this...
+            // maybe we could use a FilterReader instead of a FilterInputStream?
+            int byte1 = this.in.read();
+            int byte2 = this.in.read();
+            int byte3 = this.in.read();
+
+            if (byte1 == 239 && byte2 == 187 && byte3 == 191) {
+                // skip the UTF-8 BOM
+                this.in.mark(MARK);
+            } else {
+                this.in.reset();
+            }
+
+            int bytesToSkip = 0;
+            LineNumberReader reader = new LineNumberReader(new InputStreamReader(this.in, "UTF-8"), 100);
+            String firstLine = reader.readLine();
+            if (firstLine != null) {
+                String trimmed = firstLine.trim();
+                if (trimmed.startsWith("<?xml ")) {
+                    int endIndex = trimmed.indexOf("?>");
+                    String xmlDecl = trimmed.substring(0, endIndex + 2);
+                    prefix = (xmlDecl + "\n" + DOCTYPE).getBytes();
+                    bytesToSkip = xmlDecl.getBytes().length;
+                }
+            }
+
+            this.in.reset();
+            for (int i = 0; i < bytesToSkip; i++) {
+                this.in.read();
+            }
+        }
+
+        public int read() throws IOException {
+            if (count < prefix.length) {
+                return prefix[count++];
+            }
+
+            return super.read();
+        }
+
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (b == null) {
+                throw new NullPointerException();
+            } else if ((off < 0) || (off > b.length) || (len < 0)
+                    || ((off + len) > b.length) || ((off + len) < 0)) {
+                throw new IndexOutOfBoundsException();
+            } else if (len == 0) {
+                return 0;
+            }
+
+            int nbrBytesCopied = 0;
+
+            if (count < prefix.length) {
+                int nbrBytesFromPrefix = Math.min(prefix.length - count, len);
+                System.arraycopy(prefix, count, b, off, nbrBytesFromPrefix);
+                nbrBytesCopied = nbrBytesFromPrefix;
+            }
+
+            if (nbrBytesCopied < len) {
+                nbrBytesCopied += in.read(b, off + nbrBytesCopied, len - nbrBytesCopied);
+            }
+
+            count += nbrBytesCopied;
+            return nbrBytesCopied;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.data.PomDocument;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class PomDocumentSerializer implements Serializer<PomDocument> {
+    public void write(Encoder encoder, PomDocument value) throws Exception {
+        encoder.writeNullableString(value.getGroupId());
+        encoder.writeNullableString(value.getArtifactId());
+        encoder.writeNullableString(value.getVersion());
+        encoder.writeNullableString(value.getPackaging());
+        encoder.writeNullableString(value.getDescription());
+        writeCoordinates(encoder, value.getParent());
+        writeCoordinates(encoder, value.getRelocation());
+        writeProperties(encoder, value.getProperties());
+        writeDependencies(encoder, value.getDependencies());
+        writeDependencies(encoder, value.getDependencyManagement());
+        encoder.writeSmallInt(value.getProfiles().size());
+        for (PomDocument.Profile profile : value.getProfiles()) {
+            encoder.writeNullableString(profile.getId());
+            encoder.writeNullableString(profile.getActiveByDefault());
+            encoder.writeNullableString(profile.getActivationProperty());
+            writeProperties(encoder, profile.getProperties());
+            writeDependencies(encoder, profile.getDependencies());
+            writeDependencies(encoder, profile.getDependencyManagement());
+        }
+    }
+
+    public PomDocument read(Decoder decoder) throws Exception {
+        String groupId = decoder.readNullableString();
+        String artifactId = decoder.readNullableString();
+        String version = decoder.readNullableString();
+        String packaging = decoder.readNullableString();
+        String description = decoder.readNullableString();
+        PomDocument.Coordinates parent = readCoordinates(decoder);
+        PomDocument.Coordinates relocation = readCoordinates(decoder);
+        Map<String, String> properties = readProperties(decoder);
+        List<PomDocument.Dependency> dependencies = readDependencies(decoder);
+        List<PomDocument.Dependency> dependencyManagement = readDependencies(decoder);
+        int profileCount = decoder.readSmallInt();
+        List<PomDocument.Profile> profiles = new ArrayList<PomDocument.Profile>(profileCount);
+        for (int i = 0; i < profileCount; i++) {
+            String id = decoder.readNullableString();
+            String activeByDefault = decoder.readNullableString();
+            String activationProperty = decoder.readNullableString();
+            profiles.add(new PomDocument.Profile(id, activeByDefault, activationProperty, readProperties(decoder), readDependencies(decoder), readDependencies(decoder)));
+        }
+        return new PomDocument(groupId, artifactId, version, packaging, description, parent, relocation, properties, dependencies, dependencyManagement, profiles);
+    }
+
+    private void writeCoordinates(Encoder encoder, PomDocument.Coordinates coordinates) throws IOException {
+        if (coordinates == null) {
+            encoder.writeBoolean(false);
+            return;
+        }
+        encoder.writeBoolean(true);
+        encoder.writeNullableString(coordinates.getGroupId());
+        encoder.writeNullableString(coordinates.getArtifactId());
+        encoder.writeNullableString(coordinates.getVersion());
+    }
+
+    private PomDocument.Coordinates readCoordinates(Decoder decoder) throws IOException {
+        if (!decoder.readBoolean()) {
+            return null;
+        }
+        return new PomDocument.Coordinates(decoder.readNullableString(), decoder.readNullableString(), decoder.readNullableString());
+    }
+
+    private void writeProperties(Encoder encoder, Map<String, String> properties) throws IOException {
+        encoder.writeSmallInt(properties.size());
+        for (Map.Entry<String, String> entry : properties.entrySet()) {
+            encoder.writeString(entry.getKey());
+            encoder.writeString(entry.getValue());
+        }
+    }
+
+    private Map<String, String> readProperties(Decoder decoder) throws IOException {
+        int count = decoder.readSmallInt();
+        Map<String, String> properties = new HashMap<String, String>(count);
+        for (int i = 0; i < count; i++) {
+            properties.put(decoder.readString(), decoder.readString());
+        }
+        return properties;
+    }
+
+    private void writeDependencies(Encoder encoder, List<PomDocument.Dependency> dependencies) throws IOException {
+        encoder.writeSmallInt(dependencies.size());
+        for (PomDocument.Dependency dependency : dependencies) {
+            encoder.writeNullableString(dependency.getGroupId());
+            encoder.writeNullableString(dependency.getArtifactId());
+            encoder.writeNullableString(dependency.getVersion());
+            encoder.writeNullableString(dependency.getScope());
+            encoder.writeNullableString(dependency.getType());
+            encoder.writeNullableString(dependency.getClassifier());
+            encoder.writeNullableString(dependency.getOptional());
+            encoder.writeSmallInt(dependency.getExclusions().size());
+            for (ModuleIdentifier exclusion : dependency.getExclusions()) {
+                encoder.writeString(exclusion.getGroup());
+                encoder.writeString(exclusion.getName());
+            }
+        }
+    }
+
+    private List<PomDocument.Dependency> readDependencies(Decoder decoder) throws IOException {
+        int count = decoder.readSmallInt();
+        List<PomDocument.Dependency> dependencies = new ArrayList<PomDocument.Dependency>(count);
+        for (int i = 0; i < count; i++) {
+            String groupId = decoder.readNullableString();
+            String artifactId = decoder.readNullableString();
+            String version = decoder.readNullableString();
+            String scope = decoder.readNullableString();
+            String type = decoder.readNullableString();
+            String classifier = decoder.readNullableString();
+            String optional = decoder.readNullableString();
+            int exclusionCount = decoder.readSmallInt();
+            List<ModuleIdentifier> exclusions = new ArrayList<ModuleIdentifier>(exclusionCount);
+            for (int j = 0; j < exclusionCount; j++) {
+                exclusions.add(DefaultModuleIdentifier.newId(decoder.readString(), decoder.readString()));
+            }
+            dependencies.add(new PomDocument.Dependency(groupId, artifactId, version, scope, type, classifier, optional, exclusions));
+        }
+        return dependencies;
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.data;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.artifacts.ModuleIdentifier;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The parts of a POM file that are used to build module meta-data, as they appear in the file. Property references are not yet substituted
+ * and text is not trimmed. Where an element may only appear once, only the first occurrence is retained.
+ */
+public class PomDocument {
+    private final String groupId;
+    private final String artifactId;
+    private final String version;
+    private final String packaging;
+    private final String description;
+    private final Coordinates parent;
+    private final Coordinates relocation;
+    private final Map<String, String> properties;
+    private final List<Dependency> dependencies;
+    private final List<Dependency> dependencyManagement;
+    private final List<Profile> profiles;
+
+    public PomDocument(@Nullable String groupId, @Nullable String artifactId, @Nullable String version, @Nullable String packaging, @Nullable String description,
+                       @Nullable Coordinates parent, @Nullable Coordinates relocation, Map<String, String> properties,
+                       List<Dependency> dependencies, List<Dependency> dependencyManagement, List<Profile> profiles) {
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.version = version;
+        this.packaging = packaging;
+        this.description = description;
+        this.parent = parent;
+        this.relocation = relocation;
+        this.properties = properties;
+        this.dependencies = dependencies;
+        this.dependencyManagement = dependencyManagement;
+        this.profiles = profiles;
+    }
+
+    @Nullable
+    public String getGroupId() {
+        return groupId;
+    }
+
+    @Nullable
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    @Nullable
+    public String getVersion() {
+        return version;
+    }
+
+    @Nullable
+    public String getPackaging() {
+        return packaging;
+    }
+
+    @Nullable
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Returns the coordinates declared by the {@code parent} element, or null if this POM has no parent.
+     */
+    @Nullable
+    public Coordinates getParent() {
+        return parent;
+    }
+
+    /**
+     * Returns the coordinates declared by the {@code distributionManagement/relocation} element, or null if this POM is not relocated.
+     */
+    @Nullable
+    public Coordinates getRelocation() {
+        return relocation;
+    }
+
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    public List<Dependency> getDependencies() {
+        return dependencies;
+    }
+
+    public List<Dependency> getDependencyManagement() {
+        return dependencyManagement;
+    }
+
+    public List<Profile> getProfiles() {
+        return profiles;
+    }
+
+    public static class Coordinates {
+        private final String groupId;
+        private final String artifactId;
+        private final String version;
+
+        public Coordinates(@Nullable String groupId, @Nullable String artifactId, @Nullable String version) {
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.version = version;
+        }
+
+        @Nullable
+        public String getGroupId() {
+            return groupId;
+        }
+
+        @Nullable
+        public String getArtifactId() {
+            return artifactId;
+        }
+
+        @Nullable
+        public String getVersion() {
+            return version;
+        }
+    }
+
+    public static class Dependency {
+        private final String groupId;
+        private final String artifactId;
+        private final String version;
+        private final String scope;
+        private final String type;
+        private final String classifier;
+        private final String optional;
+        private final List<ModuleIdentifier> exclusions;
+
+        public Dependency(@Nullable String groupId, @Nullable String artifactId, @Nullable String version, @Nullable String scope, @Nullable String type,
+                          @Nullable String classifier, @Nullable String optional, List<ModuleIdentifier> exclusions) {
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.version = version;
+            this.scope = scope;
+            this.type = type;
+            this.classifier = classifier;
+            this.optional = optional;
+            this.exclusions = exclusions;
+        }
+
+        @Nullable
+        public String getGroupId() {
+            return groupId;
+        }
+
+        @Nullable
+        public String getArtifactId() {
+            return artifactId;
+        }
+
+        @Nullable
+        public String getVersion() {
+            return version;
+        }
+
+        @Nullable
+        public String getScope() {
+            return scope;
+        }
+
+        @Nullable
+        public String getType() {
+            return type;
+        }
+
+        @Nullable
+        public String getClassifier() {
+            return classifier;
+        }
+
+        @Nullable
+        public String getOptional() {
+            return optional;
+        }
+
+        public List<ModuleIdentifier> getExclusions() {
+            return exclusions;
+        }
+    }
+
+    public static class Profile {
+        private final String id;
+        private final String activeByDefault;
+        private final String activationProperty;
+        private final Map<String, String> properties;
+        private final List<Dependency> dependencies;
+        private final List<Dependency> dependencyManagement;
+
+        public Profile(@Nullable String id, @Nullable String activeByDefault, @Nullable String activationProperty, Map<String, String> properties,
+                       List<Dependency> dependencies, List<Dependency> dependencyManagement) {
+            this.id = id;
+            this.activeByDefault = activeByDefault;
+            this.activationProperty = activationProperty;
+            this.properties = properties;
+            this.dependencies = dependencies;
+            this.dependencyManagement = dependencyManagement;
+        }
+
+        @Nullable
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Returns the text of the {@code activation/activeByDefault} element.
+         */
+        @Nullable
+        public String getActiveByDefault() {
+            return activeByDefault;
+        }
+
+        /**
+         * Returns the text of the {@code activation/property/name} element.
+         */
+        @Nullable
+        public String getActivationProperty() {
+            return activationProperty;
+        }
+
+        public Map<String, String> getProperties() {
+            return properties;
+        }
+
+        public List<Dependency> getDependencies() {
+            return dependencies;
+        }
+
+        public List<Dependency> getDependencyManagement() {
+            return dependencyManagement;
+        }
+    }
+}
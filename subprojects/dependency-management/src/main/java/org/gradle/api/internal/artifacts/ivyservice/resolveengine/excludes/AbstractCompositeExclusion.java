@@ -16,9 +16,18 @@
 
 package org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 
 abstract class AbstractCompositeExclusion extends AbstractModuleExclusion {
+    private static final Cache<ExclusionPair, Boolean> SAME_MODULES_CACHE = CacheBuilder.newBuilder()
+        .maximumSize(ModuleExclusions.MAX_CACHED_OPERATIONS)
+        .expireAfterAccess(ModuleExclusions.CACHED_OPERATION_EXPIRY_SECONDS, TimeUnit.SECONDS)
+        .build();
+
     abstract Collection<AbstractModuleExclusion> getFilters();
 
     @Override
@@ -36,8 +45,14 @@ abstract class AbstractCompositeExclusion extends AbstractModuleExclusion {
 
     @Override
     protected boolean doExcludesSameModulesAs(AbstractModuleExclusion other) {
-        AbstractCompositeExclusion spec = (AbstractCompositeExclusion) other;
-        return implies(spec) && spec.implies(this);
+        ExclusionPair key = new ExclusionPair(this, other);
+        Boolean result = SAME_MODULES_CACHE.getIfPresent(key);
+        if (result == null) {
+            AbstractCompositeExclusion spec = (AbstractCompositeExclusion) other;
+            result = implies(spec) && spec.implies(this);
+            SAME_MODULES_CACHE.put(key, result);
+        }
+        return result;
     }
 
     @Override
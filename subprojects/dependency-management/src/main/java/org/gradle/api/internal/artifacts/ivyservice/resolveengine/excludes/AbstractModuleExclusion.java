@@ -22,6 +22,7 @@ import java.util.Collection;
 
 abstract class AbstractModuleExclusion implements ModuleExclusion {
     private static final String WILDCARD = "*";
+    private int hashCode;
 
     protected static boolean isWildcard(String attribute) {
         return WILDCARD.equals(attribute);
@@ -87,14 +88,25 @@ abstract class AbstractModuleExclusion implements ModuleExclusion {
         if (obj == null || obj.getClass() != getClass()) {
             return false;
         }
+        if (obj.hashCode() != hashCode()) {
+            return false;
+        }
         return doEquals(obj);
     }
 
     protected abstract boolean doEquals(Object obj);
 
+    /**
+     * Specs are immutable, so the hash code is calculated once. This makes comparing large composite specs cheap.
+     */
     @Override
     public final int hashCode() {
-        return doHashCode();
+        int result = hashCode;
+        if (result == 0) {
+            result = doHashCode();
+            hashCode = result;
+        }
+        return result;
     }
 
     protected abstract int doHashCode();
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes;
+
+/**
+ * An ordered pair of specs, used as the key when caching the result of an operation on 2 specs.
+ */
+class ExclusionPair {
+    private final ModuleExclusion left;
+    private final ModuleExclusion right;
+    private final int hashCode;
+
+    ExclusionPair(ModuleExclusion left, ModuleExclusion right) {
+        this.left = left;
+        this.right = right;
+        this.hashCode = 31 * left.hashCode() + right.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof ExclusionPair)) {
+            return false;
+        }
+        ExclusionPair other = (ExclusionPair) obj;
+        return hashCode == other.hashCode && left.equals(other.left) && right.equals(other.right);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
@@ -16,6 +16,10 @@
 
 package org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import org.gradle.api.Transformer;
 import org.gradle.api.artifacts.ModuleIdentifier;
 import org.gradle.internal.component.model.Exclude;
@@ -26,6 +30,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.AbstractModuleExclusion.isWildcard;
 
@@ -40,6 +45,9 @@ import static org.gradle.api.internal.artifacts.ivyservice.resolveengine.exclude
  * dependency graph of a particular version that has already been traversed when a new incoming edge is added (eg a newly discovered dependency) and when an incoming edge is removed (eg a conflict
  * evicts a version that depends on the given version). </p>
  *
+ * <p>All specs created by this class are interned, so that specs that contain the same rules are the same instance. This means most comparisons between specs
+ * are identity checks. The results of intersection and union operations are also cached, as the same pairs of specs tend to be combined on many edges of the graph. Cached results expire when they have not been used for a minute.</p>
+ *
  * <ul>
  *     <li>When a module dependency has multiple exclusions, then the resulting exclusion is the _intersection_ of those exclusions (module is excluded if excluded by _any_).</li>
  *     <li>When a module is depended on via a transitive path, then the resulting exclusion is the _intersection_ of the exclusions on each leg of the path (module is excluded if excluded by _any_).</li>
@@ -47,8 +55,20 @@ import static org.gradle.api.internal.artifacts.ivyservice.resolveengine.exclude
  * </ul>
  */
 public class ModuleExclusions {
+    static final int MAX_CACHED_OPERATIONS = 10000;
+    // Cached results are dropped once no resolution has used them for a while, so that they are not kept by an idle daemon
+    static final long CACHED_OPERATION_EXPIRY_SECONDS = 60;
     private static final ExcludeNone EXCLUDE_NONE = new ExcludeNone();
     private static final ExcludeAllModulesSpec EXCLUDE_ALL_MODULES_SPEC = new ExcludeAllModulesSpec();
+    private static final Interner<AbstractModuleExclusion> INTERNER = Interners.newWeakInterner();
+    private static final Cache<ExclusionPair, ModuleExclusion> INTERSECTIONS = CacheBuilder.newBuilder()
+        .maximumSize(MAX_CACHED_OPERATIONS)
+        .expireAfterAccess(CACHED_OPERATION_EXPIRY_SECONDS, TimeUnit.SECONDS)
+        .build();
+    private static final Cache<ExclusionPair, ModuleExclusion> UNIONS = CacheBuilder.newBuilder()
+        .maximumSize(MAX_CACHED_OPERATIONS)
+        .expireAfterAccess(CACHED_OPERATION_EXPIRY_SECONDS, TimeUnit.SECONDS)
+        .build();
 
     /**
      * Returns a spec that excludes nothing.
@@ -74,18 +94,23 @@ public class ModuleExclusions {
         if (excludes.isEmpty()) {
             return EXCLUDE_NONE;
         }
-        return new IntersectionExclusion(CollectionUtils.collect(excludes, new Transformer<AbstractModuleExclusion, Exclude>() {
+        return intern(new IntersectionExclusion(CollectionUtils.collect(excludes, new Transformer<AbstractModuleExclusion, Exclude>() {
             @Override
             public AbstractModuleExclusion transform(Exclude exclude) {
                 return forExclude(exclude);
             }
-        }));
+        })));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends AbstractModuleExclusion> T intern(T spec) {
+        return (T) INTERNER.intern(spec);
     }
 
     private static AbstractModuleExclusion forExclude(Exclude rule) {
         // For custom ivy pattern matchers, don't inspect the rule any more deeply: this prevents us from doing smart merging later
         if (!PatternMatchers.isExactMatcher(rule.getMatcher())) {
-            return new IvyPatternMatcherExcludeRuleSpec(rule);
+            return intern(new IvyPatternMatcherExcludeRuleSpec(rule));
         }
 
         ModuleIdentifier moduleId = rule.getModuleId();
@@ -97,16 +122,16 @@ public class ModuleExclusions {
         // Build a strongly typed (mergeable) exclude spec for each supplied rule
         if (anyArtifact) {
             if (!anyOrganisation && !anyModule) {
-                return new ModuleIdExcludeSpec(moduleId.getGroup(), moduleId.getName());
+                return intern(new ModuleIdExcludeSpec(moduleId.getGroup(), moduleId.getName()));
             } else if (!anyModule) {
-                return new ModuleNameExcludeSpec(moduleId.getName());
+                return intern(new ModuleNameExcludeSpec(moduleId.getName()));
             } else if (!anyOrganisation) {
-                return new GroupNameExcludeSpec(moduleId.getGroup());
+                return intern(new GroupNameExcludeSpec(moduleId.getGroup()));
             } else {
                 return EXCLUDE_ALL_MODULES_SPEC;
             }
         } else {
-            return new ArtifactExcludeSpec(moduleId, artifact);
+            return intern(new ArtifactExcludeSpec(moduleId, artifact));
         }
     }
 
@@ -127,11 +152,21 @@ public class ModuleExclusions {
             return one;
         }
 
+        ExclusionPair key = new ExclusionPair(one, two);
+        ModuleExclusion result = INTERSECTIONS.getIfPresent(key);
+        if (result == null) {
+            result = doIntersect(one, two);
+            INTERSECTIONS.put(key, result);
+        }
+        return result;
+    }
+
+    private static ModuleExclusion doIntersect(ModuleExclusion one, ModuleExclusion two) {
         List<AbstractModuleExclusion> specs = new ArrayList<AbstractModuleExclusion>();
         ((AbstractModuleExclusion) one).unpackIntersection(specs);
         ((AbstractModuleExclusion) two).unpackIntersection(specs);
 
-        return new IntersectionExclusion(specs);
+        return intern(new IntersectionExclusion(specs));
     }
 
     /**
@@ -148,6 +183,16 @@ public class ModuleExclusions {
             return one;
         }
 
+        ExclusionPair key = new ExclusionPair(one, two);
+        ModuleExclusion result = UNIONS.getIfPresent(key);
+        if (result == null) {
+            result = doUnion(one, two);
+            UNIONS.put(key, result);
+        }
+        return result;
+    }
+
+    private static ModuleExclusion doUnion(ModuleExclusion one, ModuleExclusion two) {
         List<AbstractModuleExclusion> specs = new ArrayList<AbstractModuleExclusion>();
         ((AbstractModuleExclusion) one).unpackUnion(specs);
         ((AbstractModuleExclusion) two).unpackUnion(specs);
@@ -171,7 +216,7 @@ public class ModuleExclusions {
         if (specs.size() == 1) {
             return specs.get(0);
         }
-        return new UnionExclusion(specs);
+        return intern(new UnionExclusion(specs));
     }
 
     /**
@@ -212,7 +257,7 @@ public class ModuleExclusions {
         if (merged.isEmpty()) {
             return ModuleExclusions.EXCLUDE_NONE;
         }
-        return new IntersectionExclusion(merged);
+        return intern(new IntersectionExclusion(merged));
     }
 
     private static boolean canMerge(AbstractModuleExclusion excludeSpec) {
@@ -274,7 +319,7 @@ public class ModuleExclusions {
         } else if (spec2 instanceof ModuleNameExcludeSpec) {
             // Intersection of group & module name exclude only excludes module with matching group + name
             ModuleNameExcludeSpec moduleNameExcludeSpec = (ModuleNameExcludeSpec) spec2;
-            merged.add(new ModuleIdExcludeSpec(spec1.group, moduleNameExcludeSpec.module));
+            merged.add(intern(new ModuleIdExcludeSpec(spec1.group, moduleNameExcludeSpec.module)));
         } else if (spec2 instanceof ModuleIdExcludeSpec) {
             // Intersection of group + module id exclude only excludes the module id if the excluded groups match
             ModuleIdExcludeSpec moduleIdExcludeSpec = (ModuleIdExcludeSpec) spec2;
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph;
+
+import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.internal.artifacts.DefaultModuleVersionSelector;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
+import org.gradle.cache.CacheAccess;
+import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
+import org.gradle.internal.component.model.ComponentOverrideMetadata;
+import org.gradle.internal.component.model.DefaultComponentOverrideMetadata;
+import org.gradle.internal.component.model.DependencyMetadata;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.internal.resolve.resolver.ComponentMetaDataResolver;
+import org.gradle.internal.resolve.resolver.DependencyToComponentIdResolver;
+import org.gradle.internal.resolve.result.BuildableComponentIdResolveResult;
+import org.gradle.internal.resolve.result.BuildableComponentResolveResult;
+import org.gradle.internal.resolve.result.DefaultBuildableComponentIdResolveResult;
+import org.gradle.internal.resolve.result.DefaultBuildableComponentResolveResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Resolves the meta-data of components ahead of the dependency graph traversal, using a bounded pool of worker threads.
+ *
+ * <p>Only dependencies on a fixed version of a module, without any overrides, are prefetched. The graph builder consumes a
+ * prefetched result when it resolves the same component; any other request, and any prefetch that failed, is resolved by
+ * the delegate on the resolving thread exactly as it would be without prefetching. Prefetching does not change the
+ * resolution result, only when the meta-data is fetched.</p>
+ *
+ * <p>When given a component id resolver, dependencies on a dynamic version are resolved in the background as well, which fetches the version
+ * listings of all repositories and the meta-data of the selected version into the in-memory caches. The result is discarded: the
+ * id resolver returned by {@link #getComponentIdResolver()} waits for the prefetch of a dependency to complete and then resolves it again
+ * on the resolving thread, this time from the caches.</p>
+ *
+ * <p>The workers hold the artifact cache lock while they run, releasing it around network access as usual. The resolving thread
+ * releases the lock while it waits for a prefetch to complete. This class is not thread-safe and should only be used by
+ * the resolving thread.</p>
+ */
+public class ComponentMetaDataPrefetcher implements ComponentMetaDataResolver, Stoppable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ComponentMetaDataPrefetcher.class);
+
+    private final ComponentMetaDataResolver delegate;
+    private final VersionSelectorScheme versionSelectorScheme;
+    private final CacheAccess cacheAccess;
+    private final ExecutorFactory executorFactory;
+    private final int maxThreads;
+    private final DependencyToComponentIdResolver idResolver;
+    private final Map<ComponentIdentifier, Future<DefaultBuildableComponentResolveResult>> prefetched = new HashMap<ComponentIdentifier, Future<DefaultBuildableComponentResolveResult>>();
+    private final Map<ModuleVersionSelector, Future<Void>> prefetchedVersions = new HashMap<ModuleVersionSelector, Future<Void>>();
+    private StoppableExecutor executor;
+
+    public ComponentMetaDataPrefetcher(ComponentMetaDataResolver delegate, VersionSelectorScheme versionSelectorScheme, CacheAccess cacheAccess,
+                                       ExecutorFactory executorFactory, int maxThreads) {
+        this(delegate, null, versionSelectorScheme, cacheAccess, executorFactory, maxThreads);
+    }
+
+    /**
+     * Creates a prefetcher that also resolves dependencies on dynamic versions in the background, using the given id resolver.
+     */
+    public ComponentMetaDataPrefetcher(ComponentMetaDataResolver delegate, @Nullable DependencyToComponentIdResolver idResolver, VersionSelectorScheme versionSelectorScheme,
+                                       CacheAccess cacheAccess, ExecutorFactory executorFactory, int maxThreads) {
+        this.delegate = delegate;
+        this.idResolver = idResolver;
+        this.versionSelectorScheme = versionSelectorScheme;
+        this.cacheAccess = cacheAccess;
+        this.executorFactory = executorFactory;
+        this.maxThreads = maxThreads;
+    }
+
+    /**
+     * Starts resolving the meta-data of the target of the given dependency in the background, if it can be determined without resolving the dependency.
+     */
+    public void prefetch(DependencyMetadata dependency) {
+        ComponentSelector selector = dependency.getSelector();
+        if (!(selector instanceof ModuleComponentSelector)) {
+            return;
+        }
+        ModuleComponentSelector moduleSelector = (ModuleComponentSelector) selector;
+        if (versionSelectorScheme.parseSelector(moduleSelector.getVersion()).isDynamic()) {
+            prefetchVersion(dependency, DefaultModuleVersionSelector.newSelector(moduleSelector.getGroup(), moduleSelector.getModule(), moduleSelector.getVersion()));
+            return;
+        }
+        final ComponentOverrideMetadata overrideMetadata = DefaultComponentOverrideMetadata.forDependency(dependency);
+        if (!canPrefetch(overrideMetadata)) {
+            return;
+        }
+        final ComponentIdentifier id = new DefaultModuleComponentIdentifier(moduleSelector.getGroup(), moduleSelector.getModule(), moduleSelector.getVersion());
+        if (prefetched.containsKey(id)) {
+            return;
+        }
+        LOGGER.debug("Prefetching meta-data for {}.", id);
+        prefetched.put(id, submit("Prefetch meta-data for " + id, new Factory<DefaultBuildableComponentResolveResult>() {
+            @Override
+            public DefaultBuildableComponentResolveResult create() {
+                DefaultBuildableComponentResolveResult result = new DefaultBuildableComponentResolveResult();
+                delegate.resolve(id, overrideMetadata, result);
+                return result;
+            }
+        }));
+    }
+
+    private void prefetchVersion(final DependencyMetadata dependency, final ModuleVersionSelector requested) {
+        if (idResolver == null || prefetchedVersions.containsKey(requested)) {
+            return;
+        }
+        LOGGER.debug("Prefetching versions of {}.", requested);
+        prefetchedVersions.put(requested, submit("Prefetch versions of " + requested, new Factory<Void>() {
+            @Override
+            public Void create() {
+                idResolver.resolve(dependency, new DefaultBuildableComponentIdResolveResult());
+                return null;
+            }
+        }));
+    }
+
+    private <T> Future<T> submit(final String operationDisplayName, final Factory<T> action) {
+        if (executor == null) {
+            executor = executorFactory.create("Dependency meta-data prefetch", maxThreads);
+        }
+        return executor.submit(new Callable<T>() {
+            @Override
+            public T call() {
+                return cacheAccess.useCache(operationDisplayName, action);
+            }
+        });
+    }
+
+    /**
+     * Returns an id resolver that waits for any prefetch of a dependency on a dynamic version before resolving it using the id resolver of this prefetcher.
+     */
+    public DependencyToComponentIdResolver getComponentIdResolver() {
+        if (idResolver == null) {
+            throw new IllegalStateException("No component id resolver available.");
+        }
+        return new DependencyToComponentIdResolver() {
+            @Override
+            public void resolve(DependencyMetadata dependency, BuildableComponentIdResolveResult result) {
+                ModuleVersionSelector requested = dependency.getRequested();
+                Future<Void> future = prefetchedVersions.get(DefaultModuleVersionSelector.newSelector(requested.getGroup(), requested.getName(), requested.getVersion()));
+                if (future != null) {
+                    await("Wait for versions of " + requested, future);
+                }
+                idResolver.resolve(dependency, result);
+            }
+        };
+    }
+
+    @Override
+    public void resolve(ComponentIdentifier identifier, ComponentOverrideMetadata componentOverrideMetadata, BuildableComponentResolveResult result) {
+        Future<DefaultBuildableComponentResolveResult> future = canPrefetch(componentOverrideMetadata) ? prefetched.get(identifier) : null;
+        DefaultBuildableComponentResolveResult prefetchedResult = future == null ? null : await("Wait for meta-data of " + identifier, future);
+        if (prefetchedResult == null || !prefetchedResult.hasResult() || prefetchedResult.getFailure() != null) {
+            // Resolve again, so that failures are reported from the resolving thread just as they would be without prefetching
+            delegate.resolve(identifier, componentOverrideMetadata, result);
+            return;
+        }
+        prefetchedResult.applyTo(result);
+        result.resolved(prefetchedResult.getMetaData());
+    }
+
+    @Override
+    public void stop() {
+        if (executor == null) {
+            return;
+        }
+        for (Future<DefaultBuildableComponentResolveResult> future : prefetched.values()) {
+            future.cancel(false);
+        }
+        prefetched.clear();
+        for (Future<Void> future : prefetchedVersions.values()) {
+            future.cancel(false);
+        }
+        prefetchedVersions.clear();
+        // Workers that are still running may be waiting for the cache lock
+        cacheAccess.longRunningOperation("Stop dependency meta-data prefetch", new Runnable() {
+            @Override
+            public void run() {
+                executor.stop();
+            }
+        });
+        executor = null;
+    }
+
+    private <T> T await(String operationDisplayName, final Future<T> future) {
+        if (future.isDone()) {
+            return getResult(future);
+        }
+        return cacheAccess.longRunningOperation(operationDisplayName, new Factory<T>() {
+            @Override
+            public T create() {
+                return getResult(future);
+            }
+        });
+    }
+
+    private static <T> T getResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } catch (ExecutionException e) {
+            return null;
+        } catch (CancellationException e) {
+            return null;
+        }
+    }
+
+    private static boolean canPrefetch(ComponentOverrideMetadata overrideMetadata) {
+        return !overrideMetadata.isChanging() && overrideMetadata.getArtifacts().isEmpty() && overrideMetadata.getClientModule() == null;
+    }
+}
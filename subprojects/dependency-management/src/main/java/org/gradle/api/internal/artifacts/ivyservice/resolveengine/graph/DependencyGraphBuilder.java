@@ -16,6 +16,7 @@
 package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph;
 
 import org.gradle.api.Action;
+import org.gradle.api.Nullable;
 import org.gradle.api.attributes.AttributesSchema;
 import org.gradle.api.artifacts.ModuleDependency;
 import org.gradle.api.artifacts.ModuleIdentifier;
@@ -75,10 +76,29 @@ public class DependencyGraphBuilder {
     private final DependencyToComponentIdResolver idResolver;
     private final ComponentMetaDataResolver metaDataResolver;
     private final AttributesSchema attributesSchema;
+    private final ComponentMetaDataPrefetcher prefetcher;
 
     public DependencyGraphBuilder(DependencyToComponentIdResolver componentIdResolver, ComponentMetaDataResolver componentMetaDataResolver,
                                   ResolveContextToComponentResolver resolveContextToComponentResolver,
                                   ConflictHandler conflictHandler, Spec<? super DependencyMetadata> edgeFilter, AttributesSchema attributesSchema) {
+        this(componentIdResolver, componentMetaDataResolver, resolveContextToComponentResolver, conflictHandler, edgeFilter, attributesSchema, null);
+    }
+
+    /**
+     * Creates a builder that uses the given prefetcher to resolve component meta-data. The prefetcher is handed the outgoing dependencies of every
+     * configuration queued for traversal before the traversal of those configurations starts.
+     */
+    public DependencyGraphBuilder(DependencyToComponentIdResolver componentIdResolver, ComponentMetaDataPrefetcher prefetcher,
+                                  ResolveContextToComponentResolver resolveContextToComponentResolver,
+                                  ConflictHandler conflictHandler, Spec<? super DependencyMetadata> edgeFilter, AttributesSchema attributesSchema) {
+        this(componentIdResolver, prefetcher, resolveContextToComponentResolver, conflictHandler, edgeFilter, attributesSchema, prefetcher);
+    }
+
+    private DependencyGraphBuilder(DependencyToComponentIdResolver componentIdResolver, ComponentMetaDataResolver componentMetaDataResolver,
+                                   ResolveContextToComponentResolver resolveContextToComponentResolver,
+                                   ConflictHandler conflictHandler, Spec<? super DependencyMetadata> edgeFilter, AttributesSchema attributesSchema,
+                                   @Nullable ComponentMetaDataPrefetcher prefetcher) {
+        this.prefetcher = prefetcher;
         this.idResolver = componentIdResolver;
         this.metaDataResolver = componentMetaDataResolver;
         this.moduleResolver = resolveContextToComponentResolver;
@@ -108,9 +128,14 @@ public class DependencyGraphBuilder {
         resolveState.onMoreSelected(resolveState.root);
 
         List<DependencyEdge> dependencies = new ArrayList<DependencyEdge>();
+        Set<ConfigurationNode> prefetched = new HashSet<ConfigurationNode>();
         while (resolveState.peek() != null || conflictHandler.hasConflicts()) {
             if (resolveState.peek() != null) {
+                if (prefetcher != null && !prefetched.contains(resolveState.peek())) {
+                    prefetchOutgoingDependencies(resolveState, prefetched);
+                }
                 ConfigurationNode node = resolveState.pop();
+                prefetched.remove(node);
                 LOGGER.debug("Visiting configuration {}.", node);
 
                 // Calculate the outgoing edges of this configuration
@@ -178,6 +203,20 @@ public class DependencyGraphBuilder {
         }
     }
 
+    /**
+     * Hands the candidate outgoing dependencies of every queued configuration that has not been seen yet to the prefetcher, so that
+     * the meta-data for the next level of the graph is fetched concurrently while the traversal works through the queue.
+     * Does not modify the traversal state, so the traversal itself, including the order of selection and conflict resolution,
+     * is the same as without prefetching.
+     */
+    private void prefetchOutgoingDependencies(ResolveState resolveState, Set<ConfigurationNode> prefetched) {
+        for (ConfigurationNode node : resolveState.queue) {
+            if (prefetched.add(node)) {
+                node.prefetchOutgoingDependencies(prefetcher);
+            }
+        }
+    }
+
     /**
      * Populates the result from the graph traversal state.
      */
@@ -750,12 +789,7 @@ public class DependencyGraphBuilder {
                 return;
             }
 
-            List<DependencyEdge> transitiveIncoming = new ArrayList<DependencyEdge>();
-            for (DependencyEdge edge : incomingEdges) {
-                if (edge.isTransitive()) {
-                    transitiveIncoming.add(edge);
-                }
-            }
+            List<DependencyEdge> transitiveIncoming = getTransitiveIncomingEdges();
 
             if (transitiveIncoming.isEmpty() && this != resolveState.root) {
                 if (previousTraversalExclusions != null) {
@@ -791,6 +825,42 @@ public class DependencyGraphBuilder {
             previousTraversalExclusions = resolutionFilter;
         }
 
+        /**
+         * Passes the dependencies that {@link #visitOutgoingDependencies(Collection)} would traverse, and that have not been resolved yet, to the given prefetcher.
+         */
+        public void prefetchOutgoingDependencies(ComponentMetaDataPrefetcher prefetcher) {
+            if (moduleRevision.state != ModuleState.Selected) {
+                return;
+            }
+            List<DependencyEdge> transitiveIncoming = getTransitiveIncomingEdges();
+            if (transitiveIncoming.isEmpty() && this != resolveState.root) {
+                return;
+            }
+            ModuleExclusion resolutionFilter = getModuleResolutionFilter(transitiveIncoming);
+            if (previousTraversalExclusions != null && previousTraversalExclusions.excludesSameModulesAs(resolutionFilter)) {
+                return;
+            }
+            for (DependencyMetadata dependency : metaData.getDependencies()) {
+                if (resolveState.selectors.containsKey(dependency.getRequested()) || !resolveState.edgeFilter.isSatisfiedBy(dependency)) {
+                    continue;
+                }
+                if (resolutionFilter.excludeModule(DefaultModuleIdentifier.newId(dependency.getRequested().getGroup(), dependency.getRequested().getName()))) {
+                    continue;
+                }
+                prefetcher.prefetch(dependency);
+            }
+        }
+
+        private List<DependencyEdge> getTransitiveIncomingEdges() {
+            List<DependencyEdge> transitiveIncoming = new ArrayList<DependencyEdge>();
+            for (DependencyEdge edge : incomingEdges) {
+                if (edge.isTransitive()) {
+                    transitiveIncoming.add(edge);
+                }
+            }
+            return transitiveIncoming;
+        }
+
         private boolean isExcluded(ModuleExclusion selector, DependencyMetadata dependency) {
             if (!resolveState.edgeFilter.isSatisfiedBy(dependency)) {
                 LOGGER.debug("{} is filtered.", dependency);
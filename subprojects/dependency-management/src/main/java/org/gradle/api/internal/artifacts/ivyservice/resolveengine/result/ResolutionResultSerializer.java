@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.result;
+
+import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.result.DependencyResult;
+import org.gradle.api.artifacts.result.ResolutionResult;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.artifacts.result.ResolvedDependencyResult;
+import org.gradle.internal.resolve.ModuleVersionResolveException;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Serializes a complete {@link ResolutionResult}, using the same encoding for components and dependencies as {@link StreamingResolutionResultBuilder}.
+ * Only a result without any unresolved dependencies can be serialized, as the failures are not serializable.
+ */
+public class ResolutionResultSerializer implements Serializer<ResolutionResult> {
+    private static final Map<ComponentSelector, ModuleVersionResolveException> NO_FAILURES = Collections.emptyMap();
+
+    private final ComponentResultSerializer componentResultSerializer = new ComponentResultSerializer();
+    private final DependencyResultSerializer dependencyResultSerializer = new DependencyResultSerializer();
+
+    @Override
+    public ResolutionResult read(Decoder decoder) throws Exception {
+        DefaultResolutionResultBuilder builder = new DefaultResolutionResultBuilder();
+        int componentCount = decoder.readSmallInt();
+        for (int i = 0; i < componentCount; i++) {
+            builder.visitComponent(componentResultSerializer.read(decoder));
+        }
+        for (long fromId = 0; fromId < componentCount; fromId++) {
+            int dependencyCount = decoder.readSmallInt();
+            List<org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyResult> dependencies = new ArrayList<org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyResult>(dependencyCount);
+            for (int i = 0; i < dependencyCount; i++) {
+                dependencies.add(dependencyResultSerializer.read(decoder, NO_FAILURES));
+            }
+            builder.visitOutgoingEdges(fromId, dependencies);
+        }
+        return builder.complete(0L);
+    }
+
+    @Override
+    public void write(Encoder encoder, ResolutionResult value) throws Exception {
+        // The root is the first component, and so has id 0
+        Set<ResolvedComponentResult> components = value.getAllComponents();
+        Map<ResolvedComponentResult, Long> ids = new HashMap<ResolvedComponentResult, Long>(components.size());
+        for (ResolvedComponentResult component : components) {
+            ids.put(component, (long) ids.size());
+        }
+
+        encoder.writeSmallInt(components.size());
+        for (ResolvedComponentResult component : components) {
+            componentResultSerializer.write(encoder, new DefaultComponentResult(ids.get(component), component.getModuleVersion(), component.getSelectionReason(), component.getId()));
+        }
+        for (ResolvedComponentResult component : components) {
+            Set<? extends DependencyResult> dependencies = component.getDependencies();
+            encoder.writeSmallInt(dependencies.size());
+            for (DependencyResult dependency : dependencies) {
+                if (!(dependency instanceof ResolvedDependencyResult)) {
+                    throw new IllegalArgumentException("Cannot serialize unresolved dependency " + dependency.getRequested() + ".");
+                }
+                Long selected = ids.get(((ResolvedDependencyResult) dependency).getSelected());
+                dependencyResultSerializer.write(encoder, new DefaultDependencyResult(dependency.getRequested(), selected, null, null));
+            }
+        }
+    }
+}
@@ -31,6 +31,7 @@ import org.gradle.api.internal.artifacts.repositories.layout.GradleRepositoryLay
 import org.gradle.api.internal.artifacts.repositories.layout.IvyRepositoryLayout;
 import org.gradle.api.internal.artifacts.repositories.layout.MavenRepositoryLayout;
 import org.gradle.api.internal.artifacts.repositories.layout.ResolvedPattern;
+import org.gradle.api.internal.artifacts.repositories.resolver.ArtifactPublishExecutor;
 import org.gradle.api.internal.artifacts.repositories.resolver.IvyResolver;
 import org.gradle.api.internal.artifacts.repositories.resolver.PatternBasedResolver;
 import org.gradle.api.internal.artifacts.repositories.transport.RepositoryTransport;
@@ -58,11 +59,12 @@ public class DefaultIvyArtifactRepository extends AbstractAuthenticationSupporte
     private final Instantiator instantiator;
     private final FileStore<ModuleComponentArtifactIdentifier> artifactFileStore;
     private final IvyContextManager ivyContextManager;
+    private final ArtifactPublishExecutor publishExecutor;
 
     public DefaultIvyArtifactRepository(FileResolver fileResolver, RepositoryTransportFactory transportFactory,
                                         LocallyAvailableResourceFinder<ModuleComponentArtifactMetadata> locallyAvailableResourceFinder, Instantiator instantiator,
                                         FileStore<ModuleComponentArtifactIdentifier> artifactFileStore, AuthenticationContainer authenticationContainer,
-                                        IvyContextManager ivyContextManager) {
+                                        IvyContextManager ivyContextManager, ArtifactPublishExecutor publishExecutor) {
         super(instantiator, authenticationContainer);
         this.fileResolver = fileResolver;
         this.transportFactory = transportFactory;
@@ -73,6 +75,7 @@ public class DefaultIvyArtifactRepository extends AbstractAuthenticationSupporte
         this.metaDataProvider = new MetaDataProvider();
         this.instantiator = instantiator;
         this.ivyContextManager = ivyContextManager;
+        this.publishExecutor = publishExecutor;
     }
 
     public ModuleVersionPublisher createPublisher() {
@@ -109,7 +112,7 @@ public class DefaultIvyArtifactRepository extends AbstractAuthenticationSupporte
         return new IvyResolver(
                 getName(), transport,
                 locallyAvailableResourceFinder,
-                metaDataProvider.dynamicResolve, artifactFileStore, ivyContextManager);
+                metaDataProvider.dynamicResolve, artifactFileStore, ivyContextManager, publishExecutor);
     }
 
     public URI getUrl() {
@@ -22,6 +22,7 @@ import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
 import org.gradle.api.internal.artifacts.ModuleVersionPublisher;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ConfiguredModuleComponentRepository;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.MetaDataParser;
+import org.gradle.api.internal.artifacts.repositories.resolver.ArtifactPublishExecutor;
 import org.gradle.api.internal.artifacts.repositories.resolver.MavenResolver;
 import org.gradle.api.internal.artifacts.repositories.transport.RepositoryTransport;
 import org.gradle.api.internal.artifacts.repositories.transport.RepositoryTransportFactory;
@@ -46,20 +47,26 @@ public class DefaultMavenArtifactRepository extends AbstractAuthenticationSuppor
     private List<Object> additionalUrls = new ArrayList<Object>();
     private final LocallyAvailableResourceFinder<ModuleComponentArtifactMetadata> locallyAvailableResourceFinder;
     private final FileStore<ModuleComponentArtifactIdentifier> artifactFileStore;
+    private final FileStore<String> externalResourcesFileStore;
     private final MetaDataParser<MutableMavenModuleResolveMetadata> pomParser;
+    private final ArtifactPublishExecutor publishExecutor;
 
     public DefaultMavenArtifactRepository(FileResolver fileResolver, RepositoryTransportFactory transportFactory,
                                           LocallyAvailableResourceFinder<ModuleComponentArtifactMetadata> locallyAvailableResourceFinder,
                                           Instantiator instantiator,
                                           FileStore<ModuleComponentArtifactIdentifier> artifactFileStore,
+                                          FileStore<String> externalResourcesFileStore,
                                           MetaDataParser<MutableMavenModuleResolveMetadata> pomParser,
-                                          AuthenticationContainer authenticationContainer) {
+                                          AuthenticationContainer authenticationContainer,
+                                          ArtifactPublishExecutor publishExecutor) {
         super(instantiator, authenticationContainer);
         this.fileResolver = fileResolver;
         this.transportFactory = transportFactory;
         this.locallyAvailableResourceFinder = locallyAvailableResourceFinder;
         this.artifactFileStore = artifactFileStore;
+        this.externalResourcesFileStore = externalResourcesFileStore;
         this.pomParser = pomParser;
+        this.publishExecutor = publishExecutor;
     }
 
     public URI getUrl() {
@@ -110,7 +117,7 @@ public class DefaultMavenArtifactRepository extends AbstractAuthenticationSuppor
 
     private MavenResolver createResolver(URI rootUri) {
         RepositoryTransport transport = getTransport(rootUri.getScheme());
-        return new MavenResolver(getName(), rootUri, transport, locallyAvailableResourceFinder, artifactFileStore, pomParser);
+        return new MavenResolver(getName(), rootUri, transport, locallyAvailableResourceFinder, artifactFileStore, externalResourcesFileStore, pomParser, publishExecutor);
     }
 
     public MetaDataParser<MutableMavenModuleResolveMetadata> getPomParser() {
@@ -121,6 +128,14 @@ public class DefaultMavenArtifactRepository extends AbstractAuthenticationSuppor
         return artifactFileStore;
     }
 
+    protected FileStore<String> getExternalResourcesFileStore() {
+        return externalResourcesFileStore;
+    }
+
+    protected ArtifactPublishExecutor getPublishExecutor() {
+        return publishExecutor;
+    }
+
     protected RepositoryTransport getTransport(String scheme) {
         return transportFactory.createTransport(scheme, getName(), getConfiguredAuthentication());
     }
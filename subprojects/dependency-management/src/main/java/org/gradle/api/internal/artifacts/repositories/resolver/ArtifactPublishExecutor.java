@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.repositories.resolver;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Uploads the artifacts of published modules concurrently. A single executor is shared by all repositories of the build, so that the
+ * number of concurrent uploads is bounded no matter how many modules are published at the same time.
+ */
+public class ArtifactPublishExecutor implements Stoppable {
+    private final ExecutorFactory executorFactory;
+    private final int maxThreads;
+    private StoppableExecutor executor;
+
+    /**
+     * @param maxThreads The maximum number of uploads to run at the same time, usually the maximum number of workers of the build.
+     */
+    public ArtifactPublishExecutor(ExecutorFactory executorFactory, int maxThreads) {
+        this.executorFactory = executorFactory;
+        this.maxThreads = maxThreads;
+    }
+
+    /**
+     * Runs the given uploads and blocks until all of them have finished. Rethrows the first failure, if any.
+     */
+    public void publishAll(Collection<? extends Callable<?>> uploads) throws IOException {
+        if (uploads.size() < 2 || maxThreads < 2) {
+            for (Callable<?> upload : uploads) {
+                call(upload);
+            }
+            return;
+        }
+
+        StoppableExecutor executor = getExecutor();
+        List<Future<?>> results = new ArrayList<Future<?>>(uploads.size());
+        for (Callable<?> upload : uploads) {
+            results.add(executor.submit(upload));
+        }
+        // Wait for all uploads, so that none is still running when the failure is reported
+        Throwable failure = null;
+        for (Future<?> result : results) {
+            try {
+                result.get();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            }
+        }
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        if (failure != null) {
+            throw UncheckedException.throwAsUncheckedException(failure);
+        }
+    }
+
+    private static void call(Callable<?> upload) throws IOException {
+        try {
+            upload.call();
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private synchronized StoppableExecutor getExecutor() {
+        if (executor == null) {
+            executor = executorFactory.create("Artifact publisher", maxThreads);
+        }
+        return executor;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.stop();
+            executor = null;
+        }
+    }
+}
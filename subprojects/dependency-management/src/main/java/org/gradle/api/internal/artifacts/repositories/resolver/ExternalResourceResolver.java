@@ -61,6 +61,7 @@ import org.gradle.internal.resolve.result.BuildableTypedResolveResult;
 import org.gradle.internal.resolve.result.DefaultResourceAwareResolveResult;
 import org.gradle.internal.resolve.result.ResourceAwareResolveResult;
 import org.gradle.internal.resource.local.ByteArrayLocalResource;
+import org.gradle.internal.resource.local.ChecksummingLocalResource;
 import org.gradle.internal.resource.local.FileLocalResource;
 import org.gradle.internal.resource.local.FileStore;
 import org.gradle.internal.resource.local.LocallyAvailableExternalResource;
@@ -80,6 +81,7 @@ import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 public abstract class ExternalResourceResolver<T extends ModuleComponentResolveMetadata, S extends MutableModuleComponentResolveMetadata> implements ModuleVersionPublisher, ConfiguredModuleComponentRepository {
     private static final Logger LOGGER = LoggerFactory.getLogger(ExternalResourceResolver.class);
@@ -94,6 +96,7 @@ public abstract class ExternalResourceResolver<T extends ModuleComponentResolveM
     private final CacheAwareExternalResourceAccessor cachingResourceAccessor;
     private final LocallyAvailableResourceFinder<ModuleComponentArtifactMetadata> locallyAvailableResourceFinder;
     private final FileStore<ModuleComponentArtifactIdentifier> artifactFileStore;
+    private final ArtifactPublishExecutor publishExecutor;
 
     private final VersionLister versionLister;
 
@@ -105,7 +108,8 @@ public abstract class ExternalResourceResolver<T extends ModuleComponentResolveM
                                        CacheAwareExternalResourceAccessor cachingResourceAccessor,
                                        VersionLister versionLister,
                                        LocallyAvailableResourceFinder<ModuleComponentArtifactMetadata> locallyAvailableResourceFinder,
-                                       FileStore<ModuleComponentArtifactIdentifier> artifactFileStore) {
+                                       FileStore<ModuleComponentArtifactIdentifier> artifactFileStore,
+                                       ArtifactPublishExecutor publishExecutor) {
         this.name = name;
         this.local = local;
         this.cachingResourceAccessor = cachingResourceAccessor;
@@ -113,6 +117,7 @@ public abstract class ExternalResourceResolver<T extends ModuleComponentResolveM
         this.repository = repository;
         this.locallyAvailableResourceFinder = locallyAvailableResourceFinder;
         this.artifactFileStore = artifactFileStore;
+        this.publishExecutor = publishExecutor;
     }
 
     public String getId() {
@@ -304,9 +309,43 @@ public abstract class ExternalResourceResolver<T extends ModuleComponentResolveM
     }
 
     public void publish(IvyModulePublishMetadata moduleVersion) throws IOException {
+        List<IvyModuleArtifactPublishMetadata> artifacts = new ArrayList<IvyModuleArtifactPublishMetadata>();
+        List<IvyModuleArtifactPublishMetadata> descriptors = new ArrayList<IvyModuleArtifactPublishMetadata>();
         for (IvyModuleArtifactPublishMetadata artifact : moduleVersion.getArtifacts()) {
-            publish(new DefaultModuleComponentArtifactMetadata(artifact.getId()), artifact.getFile());
+            if (isDescriptor(artifact.getArtifactName())) {
+                descriptors.add(artifact);
+            } else {
+                artifacts.add(artifact);
+            }
+        }
+
+        publishConcurrently(artifacts);
+
+        // Publish the descriptors last, so that a consumer never sees a module whose artifacts are not there yet
+        for (IvyModuleArtifactPublishMetadata descriptor : descriptors) {
+            publish(descriptor);
+        }
+    }
+
+    private boolean isDescriptor(IvyArtifactName artifactName) {
+        return "ivy".equals(artifactName.getType()) || "pom".equals(artifactName.getType());
+    }
+
+    private void publishConcurrently(List<IvyModuleArtifactPublishMetadata> artifacts) throws IOException {
+        List<Callable<Void>> uploads = new ArrayList<Callable<Void>>(artifacts.size());
+        for (final IvyModuleArtifactPublishMetadata artifact : artifacts) {
+            uploads.add(new Callable<Void>() {
+                public Void call() throws IOException {
+                    publish(artifact);
+                    return null;
+                }
+            });
         }
+        publishExecutor.publishAll(uploads);
+    }
+
+    private void publish(IvyModuleArtifactPublishMetadata artifact) throws IOException {
+        publish(new DefaultModuleComponentArtifactMetadata(artifact.getId()), artifact.getFile());
     }
 
     private void publish(ModuleComponentArtifactMetadata artifact, File src) throws IOException {
@@ -325,18 +364,24 @@ public abstract class ExternalResourceResolver<T extends ModuleComponentResolveM
     }
 
     private void put(File src, URI destination) throws IOException {
-        repository.withProgressLogging().put(new FileLocalResource(src), destination);
-        putChecksum(src, destination);
+        // Calculate the checksum while the file is uploaded, rather than reading the file again afterwards
+        ChecksummingLocalResource resource = new ChecksummingLocalResource(new FileLocalResource(src), "SHA1");
+        repository.withProgressLogging().put(resource, destination);
+        HashValue checksum = resource.getChecksum();
+        if (checksum == null) {
+            // The transport did not read the whole file
+            checksum = HashUtil.createHash(src, "SHA1");
+        }
+        putChecksum(checksum, destination);
     }
 
-    private void putChecksum(File source, URI destination) throws IOException {
-        byte[] checksumFile = createChecksumFile(source, "SHA1", 40);
+    private void putChecksum(HashValue checksum, URI destination) throws IOException {
+        byte[] checksumFile = createChecksumFile(checksum, 40);
         URI checksumDestination = URI.create(destination + ".sha1");
         repository.put(new ByteArrayLocalResource(checksumFile), checksumDestination);
     }
 
-    private byte[] createChecksumFile(File src, String algorithm, int checksumLength) {
-        HashValue hash = HashUtil.createHash(src, algorithm);
+    private byte[] createChecksumFile(HashValue hash, int checksumLength) {
         String formattedHashString = hash.asZeroPaddedHexString(checksumLength);
         try {
             return formattedHashString.getBytes("US-ASCII");
@@ -37,8 +37,10 @@ public class MavenLocalResolver extends MavenResolver {
     public MavenLocalResolver(String name, URI rootUri, RepositoryTransport transport,
                               LocallyAvailableResourceFinder<ModuleComponentArtifactMetadata> locallyAvailableResourceFinder,
                               FileStore<ModuleComponentArtifactIdentifier> artifactFileStore,
-                              MetaDataParser<MutableMavenModuleResolveMetadata> pomParser) {
-        super(name, rootUri, transport, locallyAvailableResourceFinder, artifactFileStore, pomParser);
+                              FileStore<String> externalResourcesFileStore,
+                              MetaDataParser<MutableMavenModuleResolveMetadata> pomParser,
+                              ArtifactPublishExecutor publishExecutor) {
+        super(name, rootUri, transport, locallyAvailableResourceFinder, artifactFileStore, externalResourcesFileStore, pomParser, publishExecutor);
     }
 
     @Override
@@ -21,24 +21,34 @@ import org.apache.ivy.util.XMLHelper;
 import org.gradle.api.resources.MissingResourceException;
 import org.gradle.api.resources.ResourceException;
 import org.gradle.internal.ErroringAction;
+import org.gradle.api.UncheckedIOException;
 import org.gradle.internal.resource.ExternalResource;
-import org.gradle.internal.resource.transport.ExternalResourceRepository;
+import org.gradle.internal.resource.local.FileStore;
+import org.gradle.internal.resource.local.LocallyAvailableResource;
+import org.gradle.internal.resource.transfer.CacheAwareExternalResourceAccessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 
+/**
+ * Loads {@code maven-metadata.xml} files. The files are kept in the given file store, so that they can be revalidated
+ * with conditional requests rather than downloaded again when they are needed in a later build.
+ */
 class MavenMetadataLoader {
     private static final Logger LOGGER = LoggerFactory.getLogger(MavenMetadataLoader.class);
 
-    private final ExternalResourceRepository repository;
+    private final CacheAwareExternalResourceAccessor cacheAwareExternalResourceAccessor;
+    private final FileStore<String> resourcesFileStore;
 
-    public MavenMetadataLoader(ExternalResourceRepository repository) {
-        this.repository = repository;
+    public MavenMetadataLoader(CacheAwareExternalResourceAccessor cacheAwareExternalResourceAccessor, FileStore<String> resourcesFileStore) {
+        this.cacheAwareExternalResourceAccessor = cacheAwareExternalResourceAccessor;
+        this.resourcesFileStore = resourcesFileStore;
     }
 
     public MavenMetadata load(URI metadataLocation) throws ResourceException {
@@ -54,7 +64,7 @@ class MavenMetadataLoader {
     }
 
     private void parseMavenMetadataInfo(final URI metadataLocation, final MavenMetadata metadata) {
-        ExternalResource resource = repository.getResource(metadataLocation, true);
+        ExternalResource resource = getResource(metadataLocation);
         if (resource == null) {
             throw new MissingResourceException(metadataLocation, String.format("Maven meta-data not available: %s", metadataLocation));
         }
@@ -65,6 +75,18 @@ class MavenMetadataLoader {
         }
     }
 
+    private ExternalResource getResource(final URI metadataLocation) {
+        try {
+            return cacheAwareExternalResourceAccessor.getResource(metadataLocation, new CacheAwareExternalResourceAccessor.ResourceFileStore() {
+                public LocallyAvailableResource moveIntoCache(File downloadedResource) {
+                    return resourcesFileStore.move(metadataLocation.toString(), downloadedResource);
+                }
+            }, null, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     private void parseMavenMetadataInto(ExternalResource metadataResource, final MavenMetadata mavenMetadata) {
         LOGGER.debug("parsing maven-metadata: {}", metadataResource);
         metadataResource.withContent(new ErroringAction<InputStream>() {
@@ -62,15 +62,17 @@ public class MavenResolver extends ExternalResourceResolver<MavenModuleResolveMe
 
     public MavenResolver(String name, URI rootUri, RepositoryTransport transport,
                          LocallyAvailableResourceFinder<ModuleComponentArtifactMetadata> locallyAvailableResourceFinder,
-                         FileStore<ModuleComponentArtifactIdentifier> artifactFileStore, MetaDataParser<MutableMavenModuleResolveMetadata> pomParser) {
+                         FileStore<ModuleComponentArtifactIdentifier> artifactFileStore, FileStore<String> externalResourcesFileStore,
+                         MetaDataParser<MutableMavenModuleResolveMetadata> pomParser, ArtifactPublishExecutor publishExecutor) {
         super(name, transport.isLocal(),
                 transport.getRepository(),
                 transport.getResourceAccessor(),
-                new ChainedVersionLister(new MavenVersionLister(transport.getRepository()), new ResourceVersionLister(transport.getRepository())),
+                new ChainedVersionLister(new MavenVersionLister(new MavenMetadataLoader(transport.getResourceAccessor(), externalResourcesFileStore)), new ResourceVersionLister(transport.getRepository())),
                 locallyAvailableResourceFinder,
-                artifactFileStore);
+                artifactFileStore,
+                publishExecutor);
         this.metaDataParser = pomParser;
-        this.mavenMetaDataLoader = new MavenMetadataLoader(transport.getRepository());
+        this.mavenMetaDataLoader = new MavenMetadataLoader(transport.getResourceAccessor(), externalResourcesFileStore);
         this.root = rootUri;
 
         updatePatterns();
@@ -21,7 +21,6 @@ import org.gradle.api.resources.ResourceException;
 import org.gradle.internal.resolve.result.ResourceAwareResolveResult;
 import org.gradle.internal.component.model.IvyArtifactName;
 import org.gradle.internal.resource.ExternalResourceName;
-import org.gradle.internal.resource.transport.ExternalResourceRepository;
 
 import java.util.Collection;
 import java.util.HashSet;
@@ -30,8 +29,8 @@ import java.util.Set;
 public class MavenVersionLister implements VersionLister {
     private final MavenMetadataLoader mavenMetadataLoader;
 
-    public MavenVersionLister(ExternalResourceRepository repository) {
-        this.mavenMetadataLoader = new MavenMetadataLoader(repository);
+    public MavenVersionLister(MavenMetadataLoader mavenMetadataLoader) {
+        this.mavenMetadataLoader = mavenMetadataLoader;
     }
 
     public VersionPatternVisitor newVisitor(final ModuleIdentifier module, final Collection<String> dest, final ResourceAwareResolveResult result) {
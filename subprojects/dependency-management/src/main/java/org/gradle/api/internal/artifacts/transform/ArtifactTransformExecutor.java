@@ -0,0 +1,120 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.transform;
+
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Runs independent artifact transforms concurrently, ahead of their results being visited one at a time.
+ *
+ * <p>A transform that fails is only logged here. The transforms remember their failure, which is reported when the result of the transform is
+ * visited, exactly as it would be without running the transforms ahead of time.</p>
+ */
+public class ArtifactTransformExecutor implements Stoppable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactTransformExecutor.class);
+
+    private final CacheLockingManager cacheLockingManager;
+    private final ExecutorFactory executorFactory;
+    private final int maxThreads;
+    private StoppableExecutor executor;
+
+    /**
+     * @param maxThreads The maximum number of transforms to run at the same time, usually the maximum number of workers of the build.
+     */
+    public ArtifactTransformExecutor(CacheLockingManager cacheLockingManager, ExecutorFactory executorFactory, int maxThreads) {
+        this.cacheLockingManager = cacheLockingManager;
+        this.executorFactory = executorFactory;
+        this.maxThreads = maxThreads;
+    }
+
+    /**
+     * Runs the given transforms and blocks until all of them have been attempted.
+     */
+    public void runAll(String displayName, Collection<? extends Runnable> transforms) {
+        if (transforms.isEmpty()) {
+            return;
+        }
+        if (transforms.size() == 1 || maxThreads < 2) {
+            for (Runnable transform : transforms) {
+                runQuietly(transform);
+            }
+            return;
+        }
+
+        StoppableExecutor executor = getExecutor();
+        final List<Future<?>> results = new ArrayList<Future<?>>(transforms.size());
+        for (final Runnable transform : transforms) {
+            results.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    runQuietly(transform);
+                }
+            }));
+        }
+        // The transforms may need the cache lock to resolve their inputs and to cache their outputs, so release it if this thread holds it
+        cacheLockingManager.longRunningOperation("Wait for artifact transforms for " + displayName, new Runnable() {
+            @Override
+            public void run() {
+                for (Future<?> result : results) {
+                    try {
+                        result.get();
+                    } catch (InterruptedException e) {
+                        throw UncheckedException.throwAsUncheckedException(e);
+                    } catch (ExecutionException e) {
+                        throw UncheckedException.throwAsUncheckedException(e.getCause());
+                    }
+                }
+            }
+        });
+    }
+
+    private static void runQuietly(Runnable transform) {
+        try {
+            transform.run();
+        } catch (Throwable t) {
+            LOGGER.debug("Could not run artifact transform ahead of time.", t);
+        }
+    }
+
+    private synchronized StoppableExecutor getExecutor() {
+        if (executor == null) {
+            executor = executorFactory.create("Artifact transform", maxThreads);
+        }
+        return executor;
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.stop();
+            executor = null;
+        }
+    }
+}
@@ -18,6 +18,8 @@ package org.gradle.api.internal.artifacts.transform;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.gradle.api.Action;
 import org.gradle.api.Buildable;
 import org.gradle.api.Nullable;
 import org.gradle.api.Transformer;
@@ -44,21 +46,26 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class ArtifactTransformer {
     private final ArtifactTransforms artifactTransforms;
     private final ArtifactAttributeMatcher attributeMatcher;
-    private final Map<Pair<File, AttributeContainer>, List<File>> transformedFiles = Maps.newHashMap();
+    private final ArtifactTransformExecutor transformExecutor;
+    private final Map<Pair<File, AttributeContainer>, List<File>> transformedFiles = Maps.newConcurrentMap();
+    private final Map<Pair<File, AttributeContainer>, RuntimeException> transformFailures = Maps.newConcurrentMap();
     private final Map<Pair<ResolvedArtifact, AttributeContainer>, List<ResolvedArtifact>> transformedArtifacts = Maps.newHashMap();
 
-    public ArtifactTransformer(ArtifactTransforms artifactTransforms, ArtifactAttributeMatcher attributeMatcher) {
+    public ArtifactTransformer(ArtifactTransforms artifactTransforms, ArtifactAttributeMatcher attributeMatcher, ArtifactTransformExecutor transformExecutor) {
         this.artifactTransforms = artifactTransforms;
         this.attributeMatcher = attributeMatcher;
+        this.transformExecutor = transformExecutor;
     }
 
-    public ArtifactTransformer(ResolutionStrategyInternal resolutionStrategy, AttributesSchema attributesSchema) {
+    public ArtifactTransformer(ResolutionStrategyInternal resolutionStrategy, AttributesSchema attributesSchema, TransformedFileCache transformedFileCache, ArtifactTransformExecutor transformExecutor) {
         this.attributeMatcher = new ArtifactAttributeMatcher(attributesSchema);
-        this.artifactTransforms = new InstantiatingArtifactTransforms(resolutionStrategy, this.attributeMatcher);
+        this.artifactTransforms = new InstantiatingArtifactTransforms(resolutionStrategy, this.attributeMatcher, transformedFileCache);
+        this.transformExecutor = transformExecutor;
     }
 
     private boolean matchArtifactsAttributes(HasAttributes artifact, AttributeContainer configuration) {
@@ -69,6 +76,30 @@ public class ArtifactTransformer {
         return artifactTransforms.getTransform(from.getAttributes(), to);
     }
 
+    /**
+     * Transforms the given file, unless it has already been transformed to the given attributes. A failure is remembered, so that a transform that
+     * failed ahead of time is not run again when its result is visited. May be called concurrently.
+     */
+    private List<File> transformFile(File file, Transformer<List<File>, File> transform, AttributeContainer attributes) {
+        Pair<File, AttributeContainer> key = Pair.of(file, attributes);
+        List<File> transformResults = transformedFiles.get(key);
+        if (transformResults != null) {
+            return transformResults;
+        }
+        RuntimeException failure = transformFailures.get(key);
+        if (failure != null) {
+            throw failure;
+        }
+        try {
+            transformResults = transform.transform(file);
+        } catch (RuntimeException e) {
+            transformFailures.put(key, e);
+            throw e;
+        }
+        transformedFiles.put(key, transformResults);
+        return transformResults;
+    }
+
     /**
      * Returns a spec that selects artifacts matching the supplied attributes, or which can be transformed to match.
      */
@@ -115,7 +146,7 @@ public class ArtifactTransformer {
                 TaskDependency buildDependencies = ((Buildable) artifact).getBuildDependencies();
 
                 transformResults = Lists.newArrayList();
-                List<File> transformedFiles = transform.transform(artifact.getFile());
+                List<File> transformedFiles = transformFile(artifact.getFile(), transform, immutableAttributes);
                 for (final File output : transformedFiles) {
                     ComponentArtifactIdentifier newId = new ComponentFileArtifactIdentifier(artifact.getId().getComponentIdentifier(), output.getName());
                     IvyArtifactName artifactName = DefaultIvyArtifactName.forAttributeContainer(output.getName(), immutableAttributes);
@@ -152,9 +183,7 @@ public class ArtifactTransformer {
                             if (transform == null) {
                                 continue;
                             }
-                            transformResults = transform.transform(file);
-                            transformedFiles.put(Pair.of(file, immutableAttributes), transformResults);
-                            result.addAll(transformResults);
+                            result.addAll(transformFile(file, transform, immutableAttributes));
                         } catch (RuntimeException e) {
                             transformException = e;
                             break;
@@ -173,4 +202,116 @@ public class ArtifactTransformer {
             }
         };
     }
+
+    /**
+     * Visits the artifacts and files reported by the given source, transforming them to match the requested attributes and forwarding the
+     * results to the given visitor in the order that the source reported them.
+     *
+     * <p>The source is visited first, and the transforms that are required are then run concurrently, before any result is forwarded.</p>
+     */
+    public void visit(String displayName, ArtifactVisitor visitor, @Nullable AttributeContainer attributes, Action<? super ArtifactVisitor> source) {
+        if (attributes == null || attributes.isEmpty()) {
+            source.execute(visitor);
+            return;
+        }
+        AttributeContainer immutableAttributes = ((AttributeContainerInternal) attributes).asImmutable();
+        RecordingArtifactVisitor recorder = new RecordingArtifactVisitor(visitor.includeFiles());
+        source.execute(recorder);
+        transformExecutor.runAll(displayName, collectTransforms(recorder, immutableAttributes));
+        recorder.replay(visitor(visitor, immutableAttributes));
+    }
+
+    private List<Runnable> collectTransforms(RecordingArtifactVisitor recorder, final AttributeContainer attributes) {
+        List<Runnable> transforms = Lists.newArrayList();
+        Set<Object> seen = Sets.newHashSet();
+        for (final ResolvedArtifact artifact : recorder.artifacts) {
+            if (!seen.add(artifact) || transformedArtifacts.containsKey(Pair.of(artifact, attributes)) || matchArtifactsAttributes(artifact, attributes)) {
+                continue;
+            }
+            final Transformer<List<File>, File> transform = getTransform(artifact, attributes);
+            if (transform != null) {
+                transforms.add(new Runnable() {
+                    @Override
+                    public void run() {
+                        transformFile(artifact.getFile(), transform, attributes);
+                    }
+                });
+            }
+        }
+        for (Iterable<File> files : recorder.files) {
+            try {
+                for (final File file : files) {
+                    HasAttributes fileWithAttributes = DefaultArtifactAttributes.forFile(file);
+                    if (!seen.add(file) || transformedFiles.containsKey(Pair.of(file, attributes)) || transformFailures.containsKey(Pair.of(file, attributes))
+                        || matchArtifactsAttributes(fileWithAttributes, attributes)) {
+                        continue;
+                    }
+                    final Transformer<List<File>, File> transform = getTransform(fileWithAttributes, attributes);
+                    if (transform != null) {
+                        transforms.add(new Runnable() {
+                            @Override
+                            public void run() {
+                                transformFile(file, transform, attributes);
+                            }
+                        });
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Reported when the files are visited
+            }
+        }
+        return transforms;
+    }
+
+    /**
+     * Records the artifacts and files that are visited, so that they can be transformed before they are forwarded.
+     */
+    private static class RecordingArtifactVisitor implements ArtifactVisitor {
+        private final boolean includeFiles;
+        private final List<Object> visited = Lists.newArrayList();
+        private final List<ResolvedArtifact> artifacts = Lists.newArrayList();
+        private final List<Iterable<File>> files = Lists.newArrayList();
+
+        RecordingArtifactVisitor(boolean includeFiles) {
+            this.includeFiles = includeFiles;
+        }
+
+        @Override
+        public void visitArtifact(ResolvedArtifact artifact) {
+            visited.add(artifact);
+            artifacts.add(artifact);
+        }
+
+        @Override
+        public boolean includeFiles() {
+            return includeFiles;
+        }
+
+        @Override
+        public void visitFiles(@Nullable ComponentIdentifier componentIdentifier, Iterable<File> files) {
+            visited.add(new VisitedFiles(componentIdentifier, files));
+            this.files.add(files);
+        }
+
+        void replay(ArtifactVisitor visitor) {
+            for (Object element : visited) {
+                if (element instanceof ResolvedArtifact) {
+                    visitor.visitArtifact((ResolvedArtifact) element);
+                } else {
+                    VisitedFiles visitedFiles = (VisitedFiles) element;
+                    visitor.visitFiles(visitedFiles.componentIdentifier, visitedFiles.files);
+                }
+            }
+        }
+    }
+
+    private static class VisitedFiles {
+        private final ComponentIdentifier componentIdentifier;
+        private final Iterable<File> files;
+
+        VisitedFiles(@Nullable ComponentIdentifier componentIdentifier, Iterable<File> files) {
+            this.componentIdentifier = componentIdentifier;
+            this.files = files;
+        }
+    }
 }
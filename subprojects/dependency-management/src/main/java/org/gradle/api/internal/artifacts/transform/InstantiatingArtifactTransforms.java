@@ -30,10 +30,12 @@ import java.util.List;
 class InstantiatingArtifactTransforms implements ArtifactTransforms {
     private final ResolutionStrategyInternal resolutionStrategy;
     private final ArtifactAttributeMatcher attributeMatcher;
+    private final TransformedFileCache transformedFileCache;
 
-    public InstantiatingArtifactTransforms(ResolutionStrategyInternal resolutionStrategy, ArtifactAttributeMatcher attributeMatcher) {
+    public InstantiatingArtifactTransforms(ResolutionStrategyInternal resolutionStrategy, ArtifactAttributeMatcher attributeMatcher, TransformedFileCache transformedFileCache) {
         this.resolutionStrategy = resolutionStrategy;
         this.attributeMatcher = attributeMatcher;
+        this.transformedFileCache = transformedFileCache;
     }
 
     @Override
@@ -47,10 +49,22 @@ class InstantiatingArtifactTransforms implements ArtifactTransforms {
         return null;
     }
 
-    private Transformer<List<File>, File> createArtifactTransformer(ArtifactTransformRegistrations.ArtifactTransformRegistration registration) {
-        ArtifactTransform artifactTransform = DirectInstantiator.INSTANCE.newInstance(registration.type);
-        registration.config.execute(artifactTransform);
-        return new ArtifactFileTransformer(artifactTransform, registration.to);
+    private Transformer<List<File>, File> createArtifactTransformer(final ArtifactTransformRegistrations.ArtifactTransformRegistration registration) {
+        return new Transformer<List<File>, File>() {
+            @Override
+            public List<File> transform(final File input) {
+                return transformedFileCache.transform(input, registration, new Transformer<List<File>, File>() {
+                    @Override
+                    public List<File> transform(File outputDirectory) {
+                        ArtifactTransform artifactTransform = DirectInstantiator.INSTANCE.newInstance(registration.type);
+                        // Use the cache managed directory, unless the transform is configured to write somewhere else
+                        artifactTransform.setOutputDirectory(outputDirectory);
+                        registration.config.execute(artifactTransform);
+                        return new ArtifactFileTransformer(artifactTransform, registration.to).transform(input);
+                    }
+                });
+            }
+        };
     }
 
     private static class ArtifactFileTransformer implements Transformer<List<File>, File> {
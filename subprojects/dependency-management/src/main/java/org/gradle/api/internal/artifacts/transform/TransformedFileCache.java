@@ -0,0 +1,278 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.transform;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.Striped;
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.api.Nullable;
+import org.gradle.api.Transformer;
+import org.gradle.api.artifacts.transform.ArtifactTransform;
+import org.gradle.api.attributes.Attribute;
+import org.gradle.api.attributes.AttributeContainer;
+import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheMetaData;
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
+import org.gradle.api.internal.hash.FileHasher;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.internal.FileLock;
+import org.gradle.cache.internal.FileLockManager;
+import org.gradle.internal.Factory;
+import org.gradle.internal.classloader.ClassLoaderHierarchyHasher;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.internal.reflect.DirectInstantiator;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.ListSerializer;
+import org.gradle.util.GFileUtils;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * Caches the outputs of artifact transforms in the Gradle user home, so that a transform is not run again for an input file that it has already
+ * transformed in this or an earlier build.
+ *
+ * <p>An entry is keyed by the content of the input file, the implementation of the transform, the state of the transform once it has been
+ * configured, and the target attributes. A transform whose configured state holds values that cannot be hashed, such as a project, is not cached.
+ * Each entry is given its own output directory in the cache, which the transform uses unless it is configured to write somewhere else. An entry
+ * is reused only while all of its output files still exist.</p>
+ *
+ * <p>An entry is created while holding a lock for its key, so that other threads and other processes never run the same transform into the same
+ * output directory at the same time.</p>
+ */
+@ThreadSafe
+public class TransformedFileCache {
+    private static final String CACHE_DIR_NAME = "transforms-1";
+
+    private final CacheLockingManager cacheLockingManager;
+    private final FileLockManager fileLockManager;
+    private final FileHasher fileHasher;
+    private final ClassLoaderHierarchyHasher classLoaderHierarchyHasher;
+    private final File outputBaseDir;
+    private final File lockDir;
+    // The file lock manager does not allow a process to lock the same file twice, so threads of this process take these locks first
+    private final Striped<Lock> keyLocks = Striped.lock(64);
+    private PersistentIndexedCache<String, List<File>> persistentCache;
+
+    public TransformedFileCache(CacheLockingManager cacheLockingManager, FileLockManager fileLockManager, ArtifactCacheMetaData cacheMetaData, FileHasher fileHasher, ClassLoaderHierarchyHasher classLoaderHierarchyHasher) {
+        this.cacheLockingManager = cacheLockingManager;
+        this.fileLockManager = fileLockManager;
+        this.fileHasher = fileHasher;
+        this.classLoaderHierarchyHasher = classLoaderHierarchyHasher;
+        this.outputBaseDir = new File(cacheMetaData.getCacheDir(), CACHE_DIR_NAME);
+        this.lockDir = new File(outputBaseDir, "locks");
+    }
+
+    private synchronized PersistentIndexedCache<String, List<File>> getPersistentCache() {
+        if (persistentCache == null) {
+            persistentCache = cacheLockingManager.createCache("transformed-files", BaseSerializerFactory.STRING_SERIALIZER, new ListSerializer<File>(BaseSerializerFactory.FILE_SERIALIZER));
+        }
+        return persistentCache;
+    }
+
+    /**
+     * Returns the result of transforming the given input file, reusing the outputs from an earlier run of the same transform where possible.
+     *
+     * @param transformer Runs the transform. It is given the output directory to use by default, or {@code null} when the result of the transform cannot be cached.
+     */
+    public List<File> transform(File input, ArtifactTransformRegistrations.ArtifactTransformRegistration registration, Transformer<List<File>, File> transformer) {
+        final String key = keyFor(input, registration);
+        if (key == null) {
+            return transformer.transform(null);
+        }
+
+        List<File> cached = load(input, key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Lock keyLock = keyLocks.get(key);
+        keyLock.lock();
+        try {
+            FileLock fileLock = fileLockManager.lock(new File(lockDir, key), mode(FileLockManager.LockMode.Exclusive), "transformed files for " + input);
+            try {
+                // Another thread or process may have created the entry while this thread was waiting for the lock
+                cached = load(input, key);
+                if (cached != null) {
+                    return cached;
+                }
+
+                File outputDirectory = new File(outputBaseDir, key);
+                GFileUtils.deleteDirectory(outputDirectory);
+                final List<File> outputs = transformer.transform(outputDirectory);
+                cacheLockingManager.useCache("Store transformed files for " + input, new Runnable() {
+                    @Override
+                    public void run() {
+                        getPersistentCache().put(key, outputs);
+                    }
+                });
+                return outputs;
+            } finally {
+                fileLock.close();
+            }
+        } finally {
+            keyLock.unlock();
+        }
+    }
+
+    @Nullable
+    private List<File> load(File input, final String key) {
+        List<File> cached = cacheLockingManager.useCache("Load transformed files for " + input, new Factory<List<File>>() {
+            @Override
+            public List<File> create() {
+                return getPersistentCache().get(key);
+            }
+        });
+        return cached != null && allExist(cached) ? cached : null;
+    }
+
+    @Nullable
+    private String keyFor(File input, ArtifactTransformRegistrations.ArtifactTransformRegistration registration) {
+        if (!input.isFile()) {
+            return null;
+        }
+        HashCode implementationHash = classLoaderHierarchyHasher.getClassLoaderHash(registration.type.getClassLoader());
+        HashCode configurationHash = classLoaderHierarchyHasher.getClassLoaderHash(registration.config.getClass().getClassLoader());
+        if (implementationHash == null || configurationHash == null) {
+            return null;
+        }
+        HashCode stateHash = hashConfiguredState(registration);
+        if (stateHash == null) {
+            return null;
+        }
+        Hasher hasher = Hashing.md5().newHasher();
+        hasher.putBytes(fileHasher.hash(input).asBytes());
+        hasher.putString(registration.type.getName(), Charsets.UTF_8);
+        hasher.putBytes(implementationHash.asBytes());
+        hasher.putString(registration.config.getClass().getName(), Charsets.UTF_8);
+        hasher.putBytes(configurationHash.asBytes());
+        hasher.putBytes(stateHash.asBytes());
+        putAttributes(hasher, registration.to);
+        return HashUtil.compactStringFor(hasher.hash());
+    }
+
+    /**
+     * Hashes the fields of a newly configured instance of the transform, as the action that configures it is often a closure whose parameters
+     * cannot be seen otherwise. Returns null when a field holds a value that cannot be hashed.
+     */
+    @Nullable
+    private static HashCode hashConfiguredState(ArtifactTransformRegistrations.ArtifactTransformRegistration registration) {
+        Hasher hasher = Hashing.md5().newHasher();
+        try {
+            ArtifactTransform artifactTransform = DirectInstantiator.INSTANCE.newInstance(registration.type);
+            registration.config.execute(artifactTransform);
+            for (Class<?> type = artifactTransform.getClass(); type != Object.class; type = type.getSuperclass()) {
+                Field[] fields = type.getDeclaredFields();
+                Arrays.sort(fields, new Comparator<Field>() {
+                    @Override
+                    public int compare(Field o1, Field o2) {
+                        return o1.getName().compareTo(o2.getName());
+                    }
+                });
+                for (Field field : fields) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    hasher.putString(field.getName(), Charsets.UTF_8);
+                    if (!putValue(hasher, field.get(artifactTransform))) {
+                        return null;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            // Reported when the transform is run
+            return null;
+        }
+        return hasher.hash();
+    }
+
+    private static boolean putValue(Hasher hasher, @Nullable Object value) {
+        if (value == null) {
+            hasher.putInt(0);
+            return true;
+        }
+        if (value instanceof CharSequence || value instanceof Number || value instanceof Boolean || value instanceof Character || value instanceof Enum) {
+            hasher.putString(value.getClass().getName(), Charsets.UTF_8);
+            hasher.putString(value.toString(), Charsets.UTF_8);
+            return true;
+        }
+        if (value instanceof File) {
+            hasher.putString(File.class.getName(), Charsets.UTF_8);
+            hasher.putString(((File) value).getAbsolutePath(), Charsets.UTF_8);
+            return true;
+        }
+        if (value instanceof Collection) {
+            hasher.putString(Collection.class.getName(), Charsets.UTF_8);
+            for (Object element : (Collection<?>) value) {
+                if (!putValue(hasher, element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (value instanceof Map) {
+            hasher.putString(Map.class.getName(), Charsets.UTF_8);
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!putValue(hasher, entry.getKey()) || !putValue(hasher, entry.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static void putAttributes(Hasher hasher, AttributeContainer attributes) {
+        List<Attribute<?>> keys = Lists.newArrayList(attributes.keySet());
+        Collections.sort(keys, new Comparator<Attribute<?>>() {
+            @Override
+            public int compare(Attribute<?> o1, Attribute<?> o2) {
+                return o1.getName().compareTo(o2.getName());
+            }
+        });
+        for (Attribute<?> key : keys) {
+            hasher.putString(key.getName(), Charsets.UTF_8);
+            hasher.putString(key.getType().getName(), Charsets.UTF_8);
+            hasher.putString(String.valueOf(attributes.getAttribute(key)), Charsets.UTF_8);
+        }
+    }
+
+    private static boolean allExist(List<File> files) {
+        for (File file : files) {
+            if (!file.exists()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -30,6 +30,10 @@ public class AbstractProgressLoggingHandler {
     }
 
     protected ResourceOperation createResourceOperation(String resourceName, ResourceOperation.Type operationType, Class loggingClazz, long contentLength) {
+        AggregateResourceOperation aggregateOperation = AggregateResourceOperation.current();
+        if (aggregateOperation != null) {
+            return aggregateOperation.newOperation(operationType, contentLength);
+        }
         ProgressLogger progressLogger = startProgress(operationType.getCapitalized() + " " + resourceName, loggingClazz);
         return new ResourceOperation(progressLogger, operationType, contentLength);
     }
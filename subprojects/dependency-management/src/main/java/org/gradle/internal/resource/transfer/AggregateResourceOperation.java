@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transfer;
+
+import org.gradle.api.Nullable;
+import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.logging.progress.ProgressLogger;
+import org.gradle.internal.logging.progress.ProgressLoggerFactory;
+
+/**
+ * Reports the progress of a batch of resource operations, possibly running concurrently, through a single progress logger.
+ * Resource operations started by an action run using {@link #run(Factory)} report to this operation instead of starting a
+ * progress logger of their own.
+ */
+public class AggregateResourceOperation implements Stoppable {
+    private static final ThreadLocal<AggregateResourceOperation> CURRENT = new ThreadLocal<AggregateResourceOperation>();
+
+    private final ProgressLogger progressLogger;
+    private final ResourceOperation.Type operationType;
+    private final int itemCount;
+    private int completedItems;
+    private long totalProcessedBytes;
+    private long loggedKBytes;
+
+    public AggregateResourceOperation(ProgressLoggerFactory progressLoggerFactory, Class<?> loggingClass, ResourceOperation.Type operationType, String description, int itemCount) {
+        this.operationType = operationType;
+        this.itemCount = itemCount;
+        this.progressLogger = progressLoggerFactory.newOperation(loggingClass);
+        progressLogger.setDescription(description);
+        progressLogger.setLoggingHeader(description);
+        progressLogger.started();
+    }
+
+    /**
+     * Returns the aggregate operation that the current thread reports to, if any.
+     */
+    @Nullable
+    static AggregateResourceOperation current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs the given action, with any resource operation it starts reporting to this operation.
+     */
+    public <T> T run(Factory<T> action) {
+        AggregateResourceOperation previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return action.create();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Marks one of the items of this batch as completed, whether or not a resource operation was required for it.
+     */
+    public synchronized void itemCompleted() {
+        completedItems++;
+        logProgress();
+    }
+
+    @Override
+    public void stop() {
+        progressLogger.completed();
+    }
+
+    ResourceOperation newOperation(ResourceOperation.Type type, long contentLength) {
+        return new AggregatedResourceOperation(type, contentLength);
+    }
+
+    private synchronized void logProcessedBytes(long processedBytes) {
+        totalProcessedBytes += processedBytes;
+        long processedKB = totalProcessedBytes / 1024;
+        if (processedKB > loggedKBytes) {
+            loggedKBytes = processedKB;
+            logProgress();
+        }
+    }
+
+    private void logProgress() {
+        progressLogger.progress(String.format("%d/%d files, %s %sed", completedItems, itemCount, ResourceOperation.getLengthText(totalProcessedBytes), operationType));
+    }
+
+    private class AggregatedResourceOperation extends ResourceOperation {
+        AggregatedResourceOperation(Type type, long contentLength) {
+            super(null, type, contentLength);
+        }
+
+        @Override
+        public void logProcessedBytes(long processedBytes) {
+            AggregateResourceOperation.this.logProcessedBytes(processedBytes);
+        }
+
+        @Override
+        public void completed() {
+        }
+    }
+}
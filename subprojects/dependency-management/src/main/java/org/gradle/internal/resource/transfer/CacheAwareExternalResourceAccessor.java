@@ -29,6 +29,13 @@ public interface CacheAwareExternalResourceAccessor {
     @Nullable
     LocallyAvailableExternalResource getResource(URI source, ResourceFileStore fileStore, @Nullable LocallyAvailableResourceCandidates localCandidates) throws IOException;
 
+    /**
+     * Same as {@link #getResource(URI, ResourceFileStore, LocallyAvailableResourceCandidates)}, except that when {@code revalidate} is true the upstreams
+     * are asked to revalidate the resource even when it is not cached yet. Use this for resources that change in place, such as version listings.
+     */
+    @Nullable
+    LocallyAvailableExternalResource getResource(URI source, ResourceFileStore fileStore, @Nullable LocallyAvailableResourceCandidates localCandidates, boolean revalidate) throws IOException;
+
     interface ResourceFileStore {
         /**
          * Called when a resource is to be cached. Should *move* the given file into the appropriate location and return a handle to the file.
@@ -67,13 +67,17 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
         this.cacheLockingManager = cacheLockingManager;
     }
 
-    public LocallyAvailableExternalResource getResource(final URI location, final ResourceFileStore fileStore, @Nullable LocallyAvailableResourceCandidates localCandidates) throws IOException {
+    public LocallyAvailableExternalResource getResource(URI location, ResourceFileStore fileStore, @Nullable LocallyAvailableResourceCandidates localCandidates) throws IOException {
+        return getResource(location, fileStore, localCandidates, false);
+    }
+
+    public LocallyAvailableExternalResource getResource(final URI location, final ResourceFileStore fileStore, @Nullable LocallyAvailableResourceCandidates localCandidates, boolean revalidateUncached) throws IOException {
         LOGGER.debug("Constructing external resource: {}", location);
         CachedExternalResource cached = cachedExternalResourceIndex.lookup(location.toString());
 
         // If we have no caching options, just get the thing directly
         if (cached == null && (localCandidates == null || localCandidates.isNone())) {
-            return copyToCache(location, fileStore, delegate.withProgressLogging().getResource(location, false));
+            return copyToCache(location, fileStore, delegate.withProgressLogging().getResource(location, revalidateUncached));
         }
 
         // We might be able to use a cached/locally available version
@@ -81,6 +85,11 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
             return new DefaultLocallyAvailableExternalResource(location, new DefaultLocallyAvailableResource(cached.getCachedFile()), cached.getExternalResourceMetaData());
         }
 
+        // We have a cached version with enough meta-data to tell whether it is out of date, so ask for the resource only if it has changed
+        if (cached != null && canRevalidate(cached.getExternalResourceMetaData())) {
+            return getResourceIfModified(location, fileStore, cached);
+        }
+
         // We have a cached version, but it might be out of date, so we tell the upstreams to revalidate too
         final boolean revalidate = true;
 
@@ -135,6 +144,46 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
         return copyToCache(location, fileStore, delegate.withProgressLogging().getResource(location, revalidate));
     }
 
+    private LocallyAvailableExternalResource getResourceIfModified(final URI location, ResourceFileStore fileStore, final CachedExternalResource cached) {
+        final ExternalResourceMetaData cachedMetaData = cached.getExternalResourceMetaData();
+        final ExternalResource resource = delegate.withProgressLogging().getResourceIfModified(location, cachedMetaData);
+        if (resource == null) {
+            return null;
+        }
+
+        boolean isUnchanged = ExternalResourceMetaDataCompare.isDefinitelyUnchanged(
+                cachedMetaData,
+                new Factory<ExternalResourceMetaData>() {
+                    public ExternalResourceMetaData create() {
+                        return resource.getMetaData();
+                    }
+                }
+        );
+        if (!isUnchanged) {
+            return copyToCache(location, fileStore, resource);
+        }
+
+        resource.close();
+        LOGGER.info("Cached resource {} is up-to-date (lastModified: {}).", location, cached.getExternalLastModified());
+        return cacheLockingManager.useCache("Store " + location, new Factory<LocallyAvailableExternalResource>() {
+            public LocallyAvailableExternalResource create() {
+                // Record that the cached resource has been revalidated
+                cachedExternalResourceIndex.store(location.toString(), cached.getCachedFile(), cachedMetaData);
+                return new DefaultLocallyAvailableExternalResource(location, new DefaultLocallyAvailableResource(cached.getCachedFile()), cachedMetaData);
+            }
+        });
+    }
+
+    /**
+     * Returns true when the given meta-data contains the validators required to tell whether the resource has changed.
+     */
+    private static boolean canRevalidate(@Nullable ExternalResourceMetaData metaData) {
+        if (metaData == null) {
+            return false;
+        }
+        return metaData.getEtag() != null || (metaData.getLastModified() != null && metaData.getContentLength() > 0);
+    }
+
     private HashValue getResourceSha1(URI location, boolean revalidate) {
         try {
             URI sha1Location = new URI(location.toASCIIString() + ".sha1");
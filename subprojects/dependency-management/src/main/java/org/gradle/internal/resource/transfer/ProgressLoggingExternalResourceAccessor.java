@@ -17,7 +17,9 @@
 package org.gradle.internal.resource.transfer;
 
 import org.gradle.api.Nullable;
+import org.gradle.internal.Factory;
 import org.gradle.internal.resource.metadata.ExternalResourceMetaData;
+import org.gradle.internal.resource.metadata.ExternalResourceMetaDataCompare;
 import org.gradle.internal.logging.progress.ProgressLoggerFactory;
 
 import java.io.IOException;
@@ -41,6 +43,21 @@ public class ProgressLoggingExternalResourceAccessor extends AbstractProgressLog
         }
     }
 
+    @Nullable
+    public ExternalResourceReadResponse openResourceIfModified(URI location, final ExternalResourceMetaData cached) {
+        final ExternalResourceReadResponse resource = delegate.openResourceIfModified(location, cached);
+        if (resource == null) {
+            return null;
+        }
+        // Don't report a download for a resource whose content will not be read
+        boolean unchanged = ExternalResourceMetaDataCompare.isDefinitelyUnchanged(cached, new Factory<ExternalResourceMetaData>() {
+            public ExternalResourceMetaData create() {
+                return resource.getMetaData();
+            }
+        });
+        return unchanged ? resource : new ProgressLoggingExternalResource(location, resource);
+    }
+
     @Nullable
     public ExternalResourceMetaData getMetaData(URI location, boolean revalidate) {
         return delegate.getMetaData(location, revalidate);
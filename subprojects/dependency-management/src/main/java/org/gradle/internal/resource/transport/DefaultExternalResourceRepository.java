@@ -64,6 +64,11 @@ public class DefaultExternalResourceRepository implements ExternalResourceReposi
         return response == null ? null : new DefaultExternalResource(source, response);
     }
 
+    public ExternalResource getResourceIfModified(URI source, ExternalResourceMetaData cached) {
+        ExternalResourceReadResponse response = accessor.openResourceIfModified(source, cached);
+        return response == null ? null : new DefaultExternalResource(source, response);
+    }
+
     public ExternalResourceMetaData getResourceMetaData(URI source, boolean revalidate) {
         return accessor.getMetaData(source, revalidate);
     }
@@ -43,6 +43,20 @@ public interface ExternalResourceRepository {
     @Nullable
     ExternalResource getResource(URI source, boolean revalidate) throws ResourceException;
 
+    /**
+     * Attempts to fetch the given resource, if it has changed since the given meta-data was obtained.
+     *
+     * When the resource has not changed, the returned resource may have no content. Its meta-data should be compared with the given
+     * meta-data before the content is read.
+     *
+     * @param source The location of the resource to obtain
+     * @param cached The meta-data of a previously fetched copy of the resource
+     * @return null if the resource is not found.
+     * @throws ResourceException On failure to fetch resource.
+     */
+    @Nullable
+    ExternalResource getResourceIfModified(URI source, ExternalResourceMetaData cached) throws ResourceException;
+
     /**
      * Transfer a resource to the repository
      *
@@ -79,6 +79,10 @@ public class FileResourceConnector implements ExternalResourceRepository {
         return new DefaultLocallyAvailableExternalResource(uri, new DefaultLocallyAvailableResource(localFile));
     }
 
+    public LocallyAvailableExternalResource getResourceIfModified(URI uri, ExternalResourceMetaData cached) {
+        return getResource(uri, true);
+    }
+
     public ExternalResourceMetaData getResourceMetaData(URI location, boolean revalidate) {
         ExternalResource resource = getResource(location, revalidate);
         return resource == null ? null : resource.getMetaData();
@@ -57,5 +57,9 @@ public class FileTransport extends AbstractRepositoryTransport {
         public LocallyAvailableExternalResource getResource(URI source, ResourceFileStore fileStore, @Nullable LocallyAvailableResourceCandidates localCandidates) throws IOException {
             return connector.getResource(source, false);
         }
+
+        public LocallyAvailableExternalResource getResource(URI source, ResourceFileStore fileStore, @Nullable LocallyAvailableResourceCandidates localCandidates, boolean revalidate) throws IOException {
+            return connector.getResource(source, revalidate);
+        }
     }
 }
@@ -45,6 +45,34 @@ class DefaultResolvedArtifactTest extends Specification {
         artifact != differentId
     }
 
+    def "resolves the file once without locking the artifact"() {
+        def file = new File("a.jar")
+        def artifactSource = Mock(Factory)
+        def artifact = new DefaultResolvedArtifact(dep("group", "module1", "1.2"), Stub(IvyArtifactName), Stub(ComponentArtifactIdentifier), Stub(TaskDependency), artifactSource)
+        def resolvedInOtherThread = null
+
+        when:
+        def result = artifact.file
+
+        then:
+        1 * artifactSource.create() >> {
+            def thread = new Thread({ resolvedInOtherThread = artifact.resolved })
+            thread.start()
+            thread.join(5000)
+            return file
+        }
+        result == file
+        resolvedInOtherThread == false
+
+        when:
+        result = artifact.file
+
+        then:
+        0 * artifactSource._
+        result == file
+        artifact.resolved
+    }
+
     def dep(String group, String moduleName, String version) {
         new DefaultModuleVersionIdentifier(group, moduleName, version)
     }
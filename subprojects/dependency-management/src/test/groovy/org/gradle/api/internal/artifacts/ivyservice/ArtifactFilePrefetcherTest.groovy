@@ -0,0 +1,127 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice
+
+import org.gradle.api.artifacts.ModuleVersionIdentifier
+import org.gradle.api.artifacts.component.ComponentIdentifier
+import org.gradle.api.internal.artifacts.DefaultResolvedArtifact
+import org.gradle.api.tasks.TaskDependency
+import org.gradle.internal.Factory
+import org.gradle.internal.component.external.model.ModuleComponentArtifactIdentifier
+import org.gradle.internal.component.local.model.ComponentFileArtifactIdentifier
+import org.gradle.internal.component.model.IvyArtifactName
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.logging.progress.ProgressLogger
+import org.gradle.internal.logging.progress.ProgressLoggerFactory
+import spock.lang.Specification
+
+class ArtifactFilePrefetcherTest extends Specification {
+    def cacheLockingManager = Stub(CacheLockingManager) {
+        longRunningOperation(_, _ as Runnable) >> { String name, Runnable action -> action.run() }
+    }
+    def progressLogger = Mock(ProgressLogger)
+    def progressLoggerFactory = Stub(ProgressLoggerFactory) {
+        newOperation(_) >> progressLogger
+    }
+    def prefetcher = new ArtifactFilePrefetcher(cacheLockingManager, new DefaultExecutorFactory(), progressLoggerFactory, 4)
+
+    def cleanup() {
+        prefetcher.stop()
+    }
+
+    def "resolves the files of module artifacts concurrently"() {
+        def file1 = new File("a.jar")
+        def file2 = new File("b.jar")
+        def source1 = Mock(Factory)
+        def source2 = Mock(Factory)
+        def artifact1 = artifact(Stub(ModuleComponentArtifactIdentifier), source1)
+        def artifact2 = artifact(Stub(ModuleComponentArtifactIdentifier), source2)
+
+        when:
+        prefetcher.prefetch("configuration ':compile'", [artifact1, artifact2])
+
+        then:
+        1 * source1.create() >> {
+            assert Thread.currentThread().name.startsWith("Artifact download")
+            file1
+        }
+        1 * source2.create() >> file2
+        1 * progressLogger.setDescription("Download artifacts for configuration ':compile'")
+        1 * progressLogger.started()
+        1 * progressLogger.completed()
+
+        and:
+        artifact1.resolved
+        artifact1.file == file1
+        artifact2.file == file2
+    }
+
+    def "leaves an artifact unresolved when its file cannot be resolved"() {
+        def failure = new RuntimeException("broken")
+        def file = new File("a.jar")
+        def source = Mock(Factory)
+        def artifact1 = artifact(Stub(ModuleComponentArtifactIdentifier), source)
+        def artifact2 = artifact(Stub(ModuleComponentArtifactIdentifier), Stub(Factory))
+
+        when:
+        prefetcher.prefetch("configuration ':compile'", [artifact1, artifact2])
+
+        then:
+        1 * source.create() >> { throw failure }
+        !artifact1.resolved
+
+        when:
+        def result = artifact1.file
+
+        then:
+        1 * source.create() >> file
+        result == file
+    }
+
+    def "does not prefetch artifacts that are not external or already resolved"() {
+        def source = Mock(Factory)
+        def local = artifact(new ComponentFileArtifactIdentifier(Stub(ComponentIdentifier), "a.jar"), source)
+        def resolved = new DefaultResolvedArtifact(Stub(ModuleVersionIdentifier), Stub(IvyArtifactName), Stub(ModuleComponentArtifactIdentifier), Stub(TaskDependency), new File("a.jar"))
+        def single = artifact(Stub(ModuleComponentArtifactIdentifier), source)
+
+        when:
+        prefetcher.prefetch("configuration ':compile'", [local, resolved, single])
+
+        then:
+        0 * source._
+        0 * progressLogger._
+    }
+
+    def "does not prefetch artifacts when the build uses a single worker"() {
+        def source = Mock(Factory)
+        def singleThreaded = new ArtifactFilePrefetcher(cacheLockingManager, new DefaultExecutorFactory(), progressLoggerFactory, 1)
+
+        when:
+        singleThreaded.prefetch("configuration ':compile'", [artifact(Stub(ModuleComponentArtifactIdentifier), source), artifact(Stub(ModuleComponentArtifactIdentifier), source)])
+
+        then:
+        0 * source._
+        0 * progressLogger._
+
+        cleanup:
+        singleThreaded.stop()
+    }
+
+    def artifact(def id, Factory<File> source) {
+        return new DefaultResolvedArtifact(Stub(ModuleVersionIdentifier), Stub(IvyArtifactName), id, Stub(TaskDependency), source)
+    }
+}
@@ -41,14 +41,25 @@ class CacheLayoutTest extends Specification {
         cacheLayout.getPath(new File('some/dir')) == new File('some/dir/files-2.1')
     }
 
+    def "use resources store layout"() {
+        when:
+        CacheLayout cacheLayout = CacheLayout.RESOURCES
+
+        then:
+        cacheLayout.key == 'resources-2.1'
+        cacheLayout.version == VersionNumber.parse("2.1.0")
+        cacheLayout.formattedVersion == '2.1'
+        cacheLayout.getPath(new File('some/dir')) == new File('some/dir/resources-2.1')
+    }
+
     def "use metadata store layout"() {
         when:
         CacheLayout cacheLayout = CacheLayout.META_DATA
 
         then:
-        cacheLayout.key == 'metadata-2.23'
-        cacheLayout.version == VersionNumber.parse("2.23.0")
-        cacheLayout.formattedVersion == '2.23'
-        cacheLayout.getPath(new File('some/dir')) == new File('some/dir/metadata-2.23')
+        cacheLayout.key == 'metadata-2.24'
+        cacheLayout.version == VersionNumber.parse("2.24.0")
+        cacheLayout.formattedVersion == '2.24'
+        cacheLayout.getPath(new File('some/dir')) == new File('some/dir/metadata-2.24')
     }
 }
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice
+
+import org.gradle.api.artifacts.DependencySet
+import org.gradle.api.artifacts.ExternalModuleDependency
+import org.gradle.api.artifacts.ProjectDependency
+import org.gradle.api.artifacts.ResolvedConfiguration
+import org.gradle.api.artifacts.dsl.RepositoryHandler
+import org.gradle.api.artifacts.result.ResolvedArtifactResult
+import org.gradle.api.component.Artifact
+import org.gradle.api.internal.artifacts.ConfigurationResolver
+import org.gradle.api.internal.artifacts.DefaultResolverResults
+import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.SelectedArtifactSet
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.VisitedArtifactSet
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.projectresult.ResolvedLocalComponentsResult
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.DefaultResolutionResultBuilder
+import org.gradle.api.internal.artifacts.result.DefaultResolvedArtifactResult
+import org.gradle.api.internal.attributes.DefaultAttributeContainer
+import org.gradle.api.specs.Specs
+import org.gradle.internal.component.external.model.DefaultModuleComponentArtifactIdentifier
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import static org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier.newId
+
+class CachingConfigurationResolverTest extends Specification {
+    @Rule final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def delegate = Mock(ConfigurationResolver)
+    def cache = Mock(ResolutionResultsCache)
+    def repositories = Stub(RepositoryHandler)
+    def configuration = Stub(ConfigurationInternal)
+    def dependencies = Stub(DependencySet)
+    def results = new DefaultResolverResults()
+    def graph = DefaultResolutionResultBuilder.empty(newId("org", "root", "1.0"), new DefaultModuleComponentIdentifier("org", "root", "1.0"))
+    def resolver = new CachingConfigurationResolver(delegate, repositories, Stub(GlobalDependencyResolutionRules), cache, Stub(VersionSelectorScheme))
+
+    def setup() {
+        repositories.iterator() >> { [].iterator() }
+        configuration.resolutionStrategy >> Stub(ResolutionStrategyInternal)
+        configuration.allDependencies >> dependencies
+    }
+
+    def "delegates to resolver when configuration has a project dependency"() {
+        given:
+        dependencies.iterator() >> { [Stub(ProjectDependency)].iterator() }
+
+        when:
+        resolver.resolveGraph(configuration, results)
+
+        then:
+        1 * delegate.resolveGraph(configuration, results)
+        0 * cache._
+    }
+
+    def "stores resolved graph when there is no cached graph"() {
+        given:
+        dependencies.iterator() >> { [Stub(ExternalModuleDependency)].iterator() }
+
+        when:
+        resolver.resolveGraph(configuration, results)
+
+        then:
+        1 * cache.get(_) >> null
+        1 * delegate.resolveGraph(configuration, results) >> { results.graphResolved(graph, Stub(ResolvedLocalComponentsResult), Stub(VisitedArtifactSet)) }
+        1 * cache.store(_, graph)
+        0 * _
+    }
+
+    def "uses cached graph and artifacts without resolving again"() {
+        given:
+        dependencies.iterator() >> { [Stub(ExternalModuleDependency)].iterator() }
+        def file = tmpDir.createFile("a.jar")
+        def artifact = artifact(file)
+
+        when:
+        resolver.resolveGraph(configuration, results)
+        resolver.resolveArtifacts(configuration, results)
+
+        then:
+        1 * cache.get(_) >> new ResolutionResultsCache.CachedResolutionResult(0, graph, [artifact])
+        1 * cache.getAgeMillis(_) >> 0
+        0 * _
+
+        and:
+        results.resolutionResult == graph
+        !results.hasError()
+
+        when:
+        def files = results.visitedArtifacts.select(Specs.satisfyAll(), new DefaultAttributeContainer()).collectFiles([])
+        def artifacts = results.visitedArtifacts.select(Specs.satisfyAll(), new DefaultAttributeContainer()).collectArtifacts([])
+
+        then:
+        files == [file]
+        artifacts == [artifact]
+        0 * _
+    }
+
+    def "resolves configuration again on first use when cached graph has no artifacts and stores the artifacts"() {
+        given:
+        dependencies.iterator() >> { [Stub(ExternalModuleDependency)].iterator() }
+        def file = tmpDir.createFile("a.jar")
+        def artifact = artifact(file)
+
+        when:
+        resolver.resolveGraph(configuration, results)
+        resolver.resolveArtifacts(configuration, results)
+
+        then:
+        1 * cache.get(_) >> new ResolutionResultsCache.CachedResolutionResult(0, graph)
+        1 * cache.getAgeMillis(_) >> 0
+        0 * _
+
+        and:
+        results.resolutionResult == graph
+
+        when:
+        def files = results.visitedArtifacts.select(Specs.satisfyAll(), new DefaultAttributeContainer()).collectFiles([])
+
+        then:
+        1 * delegate.resolveGraph(configuration, _) >> { c, r -> r.graphResolved(graph, Stub(ResolvedLocalComponentsResult), Stub(VisitedArtifactSet)) }
+        1 * delegate.resolveArtifacts(configuration, _) >> { c, r -> r.artifactsResolved(Stub(ResolvedConfiguration), visitedArtifacts(artifact)) }
+        1 * cache.store(_, graph, [artifact])
+        0 * _
+
+        and:
+        files == [file]
+    }
+
+    def "uses cached graph and resolves again when a cached artifact file has been removed"() {
+        given:
+        dependencies.iterator() >> { [Stub(ExternalModuleDependency)].iterator() }
+        def file = tmpDir.createFile("a.jar")
+        def artifact = artifact(file)
+
+        when:
+        resolver.resolveGraph(configuration, results)
+        resolver.resolveArtifacts(configuration, results)
+
+        then:
+        1 * cache.get(_) >> new ResolutionResultsCache.CachedResolutionResult(0, graph, [artifact(tmpDir.file("missing.jar"))])
+        1 * cache.getAgeMillis(_) >> 0
+        0 * _
+
+        when:
+        def artifacts = results.visitedArtifacts.select(Specs.satisfyAll(), new DefaultAttributeContainer()).collectArtifacts([])
+
+        then:
+        1 * delegate.resolveGraph(configuration, _) >> { c, r -> r.graphResolved(graph, Stub(ResolvedLocalComponentsResult), Stub(VisitedArtifactSet)) }
+        1 * delegate.resolveArtifacts(configuration, _) >> { c, r -> r.artifactsResolved(Stub(ResolvedConfiguration), visitedArtifacts(artifact)) }
+        1 * cache.store(_, graph, [artifact])
+        0 * _
+
+        and:
+        artifacts == [artifact]
+    }
+
+    def "stores artifacts of resolved graph once they have been resolved"() {
+        given:
+        dependencies.iterator() >> { [Stub(ExternalModuleDependency)].iterator() }
+        def artifact = artifact(tmpDir.createFile("a.jar"))
+
+        when:
+        resolver.resolveGraph(configuration, results)
+        resolver.resolveArtifacts(configuration, results)
+
+        then:
+        1 * cache.get(_) >> null
+        1 * delegate.resolveGraph(configuration, results) >> { results.graphResolved(graph, Stub(ResolvedLocalComponentsResult), Stub(VisitedArtifactSet)) }
+        1 * cache.store(_, graph)
+        1 * delegate.resolveArtifacts(configuration, results) >> { results.artifactsResolved(Stub(ResolvedConfiguration), visitedArtifacts(artifact)) }
+        0 * _
+
+        when:
+        def artifacts = results.visitedArtifacts.select(Specs.satisfyAll(), new DefaultAttributeContainer()).collectArtifacts([])
+
+        then:
+        1 * cache.store(_, graph, [artifact])
+        0 * _
+
+        and:
+        artifacts == [artifact]
+    }
+
+    def artifact(File file) {
+        def id = new DefaultModuleComponentArtifactIdentifier(new DefaultModuleComponentIdentifier("org", "a", "1.0"), "a", "jar", "jar", null)
+        return new DefaultResolvedArtifactResult(id, Artifact, file)
+    }
+
+    def visitedArtifacts(ResolvedArtifactResult artifact) {
+        def selected = Stub(SelectedArtifactSet)
+        selected.collectFiles(_) >> { args -> args[0].add(artifact.file); args[0] }
+        selected.collectArtifacts(_) >> { args -> args[0].add(artifact); args[0] }
+        def visited = Stub(VisitedArtifactSet)
+        visited.select(_, _) >> selected
+        return visited
+    }
+}
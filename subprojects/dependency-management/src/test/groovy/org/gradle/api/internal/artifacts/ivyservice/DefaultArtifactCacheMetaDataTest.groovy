@@ -51,4 +51,17 @@ class DefaultArtifactCacheMetaDataTest extends Specification {
         then:
         metadataStore == new File(testCacheDir, CacheLayout.META_DATA.key + '/descriptors')
     }
+
+    def "calculates external resources store directory"() {
+        given:
+        TestFile testCacheDir = temporaryFolder.file("test/cache")
+        scopeMapping.getBaseDirectory(null, CacheLayout.ROOT.key, VersionStrategy.SharedCache) >> testCacheDir
+
+        when:
+        def metaData = new DefaultArtifactCacheMetaData(scopeMapping)
+        File resourcesStore = metaData.getExternalResourcesStoreDirectory()
+
+        then:
+        resourcesStore == new File(testCacheDir, CacheLayout.RESOURCES.key)
+    }
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice.dynamicversions
+
+import org.gradle.internal.serialize.SerializerSpec
+
+class SingleFileBackedModuleVersionsCacheTest extends SerializerSpec {
+    def serializer = new SingleFileBackedModuleVersionsCache.ModuleVersionsCacheEntrySerializer()
+
+    def "serializes version listing"() {
+        def versions = ["1.10", "1.0", "1.2-SNAPSHOT", "2.0", "1.2", "10.0-é", ""] as Set
+
+        when:
+        def result = serialize(new ModuleVersionsCacheEntry(versions, 1234L), serializer)
+
+        then:
+        result.moduleVersionListing == versions
+        result.createTimestamp == 1234L
+    }
+
+    def "serializes empty version listing"() {
+        when:
+        def result = serialize(new ModuleVersionsCacheEntry([] as Set, 0L), serializer)
+
+        then:
+        result.moduleVersionListing.empty
+    }
+
+    def "shares common prefixes of versions"() {
+        def versions = (0..99).collect { "1.0.0-beta-${it}".toString() } as Set
+        def naive = versions.sum { it.length() }
+
+        expect:
+        toBytes(new ModuleVersionsCacheEntry(versions, 0L), serializer).length < naive / 2
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser
+
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.data.PomDocument
+import org.gradle.cache.PersistentIndexedCache
+import org.gradle.internal.Factory
+import org.gradle.internal.resource.local.DefaultLocallyAvailableExternalResource
+import org.gradle.internal.resource.local.DefaultLocallyAvailableResource
+import org.gradle.internal.resource.local.LocallyAvailableExternalResource
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class PomDocumentCacheTest extends Specification {
+    @Rule final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final persistentCache = Mock(PersistentIndexedCache)
+    final cacheLockingManager = Stub(CacheLockingManager) {
+        createCache("parsed-poms", _, _) >> persistentCache
+        useCache(_, _ as Factory) >> { String name, Factory action -> action.create() }
+        useCache(_, _ as Runnable) >> { String name, Runnable action -> action.run() }
+    }
+    final cache = new PomDocumentCache(cacheLockingManager)
+
+    def "parses POM and stores result in persistent cache"() {
+        def resource = pom("pom.xml", "<project><groupId>group-one</groupId><artifactId>artifact-one</artifactId></project>")
+
+        when:
+        def document = cache.get(resource)
+
+        then:
+        document.groupId == "group-one"
+        document.artifactId == "artifact-one"
+
+        and:
+        1 * persistentCache.get(resource.localResource.sha1.asHexString()) >> null
+        1 * persistentCache.put(resource.localResource.sha1.asHexString(), { it.groupId == "group-one" })
+        0 * persistentCache._
+    }
+
+    def "uses document from persistent cache without parsing POM"() {
+        def resource = pom("pom.xml", "not a POM")
+        def cached = new PomDocument("group-one", null, null, null, null, null, null, [:], [], [], [])
+
+        when:
+        def document = cache.get(resource)
+
+        then:
+        document.is(cached)
+
+        and:
+        1 * persistentCache.get(resource.localResource.sha1.asHexString()) >> cached
+        0 * persistentCache._
+    }
+
+    def "reuses parsed document for POMs with the same content"() {
+        def content = "<project><groupId>group-one</groupId></project>"
+        def resource1 = pom("pom1.xml", content)
+        def resource2 = pom("pom2.xml", content)
+
+        when:
+        def document1 = cache.get(resource1)
+        def document2 = cache.get(resource2)
+
+        then:
+        document2.is(document1)
+
+        and:
+        1 * persistentCache.get(_) >> null
+        1 * persistentCache.put(_, _)
+        0 * persistentCache._
+    }
+
+    private LocallyAvailableExternalResource pom(String name, String content) {
+        def file = tmpDir.file(name)
+        file.text = content
+        return new DefaultLocallyAvailableExternalResource(file.toURI(), new DefaultLocallyAvailableResource(file))
+    }
+}
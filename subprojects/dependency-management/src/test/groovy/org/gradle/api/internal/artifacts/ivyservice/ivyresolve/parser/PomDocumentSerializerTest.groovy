@@ -0,0 +1,77 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser
+
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.data.PomDocument
+import org.gradle.internal.serialize.SerializerSpec
+
+class PomDocumentSerializerTest extends SerializerSpec {
+    private serializer = new PomDocumentSerializer()
+
+    def "serializes"() {
+        def dependency = new PomDocument.Dependency("group", "module", "\${version}", "compile", null, "sources", "true", [DefaultModuleIdentifier.newId("excluded", "module")])
+        def managed = new PomDocument.Dependency("bom", "module", "1.0", "import", "pom", null, null, [])
+        def profile = new PomDocument.Profile("profile", null, "!property", [version: "2.0"], [dependency], [])
+        def document = new PomDocument(null, "artifact", "1.0", "pom", " description ", new PomDocument.Coordinates("parent", "parent-artifact", null), null,
+            [version: "1.0"], [dependency], [managed], [profile])
+
+        when:
+        def result = serialize(document, serializer)
+
+        then:
+        result.groupId == null
+        result.artifactId == "artifact"
+        result.version == "1.0"
+        result.packaging == "pom"
+        result.description == " description "
+        result.parent.groupId == "parent"
+        result.parent.artifactId == "parent-artifact"
+        result.parent.version == null
+        result.relocation == null
+        result.properties == [version: "1.0"]
+
+        result.dependencies.size() == 1
+        with(result.dependencies[0]) {
+            groupId == "group"
+            artifactId == "module"
+            version == "\${version}"
+            scope == "compile"
+            type == null
+            classifier == "sources"
+            optional == "true"
+            exclusions == [DefaultModuleIdentifier.newId("excluded", "module")]
+        }
+
+        result.dependencyManagement.size() == 1
+        with(result.dependencyManagement[0]) {
+            groupId == "bom"
+            type == "pom"
+            scope == "import"
+            exclusions.empty
+        }
+
+        result.profiles.size() == 1
+        result.profiles[0].id == "profile"
+        result.profiles[0].activeByDefault == null
+        result.profiles[0].activationProperty == "!property"
+        result.profiles[0].properties == [version: "2.0"]
+        result.profiles[0].dependencies.size() == 1
+        result.profiles[0].dependencyManagement.empty
+    }
+}
@@ -864,4 +864,52 @@ class PomReaderTest extends AbstractPomReaderTest {
         pomReader.artifactId == pomReader.parentArtifactId
         pomReader.version == pomReader.parentVersion
     }
+
+    def "uses first occurrence of elements and ignores dependencies declared in other elements"() {
+        when:
+        pomFile << """
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <groupId>group-one</groupId>
+    <groupId>group-two</groupId>
+    <artifactId>artifact-one</artifactId>
+    <version>version-one</version>
+    <description>Uses &amp; entities, <![CDATA[<cdata>]]> and <b>nested</b> elements</description>
+    <dependencies>
+        <dependency>
+            <groupId>group-two</groupId>
+            <artifactId>artifact-two</artifactId>
+            <version>version-two</version>
+        </dependency>
+    </dependencies>
+    <dependencies>
+        <dependency>
+            <groupId>group-three</groupId>
+            <artifactId>artifact-three</artifactId>
+            <version>version-three</version>
+        </dependency>
+    </dependencies>
+    <build>
+        <plugins>
+            <plugin>
+                <dependencies>
+                    <dependency>
+                        <groupId>group-four</groupId>
+                        <artifactId>artifact-four</artifactId>
+                        <version>version-four</version>
+                    </dependency>
+                </dependencies>
+            </plugin>
+        </plugins>
+    </build>
+</project>
+"""
+        pomReader = new PomReader(locallyAvailableExternalResource)
+
+        then:
+        pomReader.groupId == 'group-one'
+        pomReader.description == 'Uses & entities, <cdata> and  elements'
+        pomReader.dependencies.size() == 1
+        assertResolvedPomDependency(new MavenDependencyKey('group-two', 'artifact-two', 'jar', null), 'version-two')
+    }
 }
@@ -26,6 +26,9 @@ import org.gradle.api.artifacts.component.ComponentSelector
 import org.gradle.api.internal.artifacts.DefaultModuleIdentifier
 import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal
 import org.gradle.api.internal.artifacts.dsl.ModuleReplacementsData
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.ComponentMetaDataPrefetcher
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphBuilder
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphNode
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphPathResolver
@@ -33,6 +36,8 @@ import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.Dependen
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.conflicts.DefaultConflictHandler
 import org.gradle.api.internal.artifacts.publish.DefaultPublishArtifact
 import org.gradle.api.specs.Specs
+import org.gradle.cache.CacheAccess
+import org.gradle.internal.Factory
 import org.gradle.internal.component.external.descriptor.DefaultExclude
 import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
 import org.gradle.internal.component.external.model.DefaultModuleComponentSelector
@@ -43,6 +48,7 @@ import org.gradle.internal.component.model.ComponentResolveMetadata
 import org.gradle.internal.component.model.DependencyMetadata
 import org.gradle.internal.component.model.IvyArtifactName
 import org.gradle.internal.component.model.LocalComponentDependencyMetadata
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.internal.resolve.ModuleVersionNotFoundException
 import org.gradle.internal.resolve.ModuleVersionResolveException
 import org.gradle.internal.resolve.resolver.ComponentMetaDataResolver
@@ -100,6 +106,32 @@ class DependencyGraphBuilderTest extends Specification {
         result.components == ids(root, a, b, c)
     }
 
+    def "resolves the same graph when meta-data is prefetched"() {
+        given:
+        def cacheAccess = Stub(CacheAccess) {
+            useCache(_, _ as Factory) >> { String name, Factory factory -> factory.create() }
+            longRunningOperation(_, _ as Factory) >> { String name, Factory factory -> factory.create() }
+            longRunningOperation(_, _ as Runnable) >> { String name, Runnable action -> action.run() }
+        }
+        def prefetcher = new ComponentMetaDataPrefetcher(metaDataResolver, new DefaultVersionSelectorScheme(new DefaultVersionComparator()), cacheAccess, new DefaultExecutorFactory(), 2)
+        def prefetchingBuilder = new DependencyGraphBuilder(idResolver, prefetcher, moduleResolver, new DefaultConflictHandler(conflictResolver, moduleReplacements), Specs.satisfyAll(), attributesSchema)
+        def a = revision("a")
+        def b = revision("b")
+        def c = revision("c")
+        traverses root, a
+        traverses root, b
+        traverses a, c
+        doesNotResolve b, c
+
+        when:
+        def result = resolve(prefetchingBuilder)
+        prefetcher.stop()
+        result.rethrowFailure()
+
+        then:
+        result.components == ids(root, a, b, c)
+    }
+
     def "honors component replacements"() {
         given:
         def a = revision('a') // a->c
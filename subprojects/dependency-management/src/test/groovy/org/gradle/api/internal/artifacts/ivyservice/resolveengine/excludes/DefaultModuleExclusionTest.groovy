@@ -68,6 +68,28 @@ class DefaultModuleExclusionTest extends Specification {
         excludeAny(rule2, rule1) != excludeAny(rule1, rule2, rule3)
     }
 
+    def "specs that contain the same rules are the same instance"() {
+        def rule1 = excludeRule("org", "*")
+        def rule2 = excludeRule("org", "module")
+        def rule3 = regexpExcludeRule("org", "module2")
+
+        expect:
+        excludeAny(rule1).is(excludeAny(excludeRule("org", "*")))
+        excludeAny(rule2, rule1, rule3).is(excludeAny(rule1, rule3, rule2))
+        intersect(excludeAny(rule1), excludeAny(rule2)).is(excludeAny(rule1, rule2))
+        !excludeAny(rule1).is(excludeAny(rule2))
+    }
+
+    def "reuses result of intersection and union of the same specs"() {
+        def spec1 = excludeAny(excludeRule("org", "module"), regexpExcludeRule("org", "module2"))
+        def spec2 = excludeAny(excludeRule("org", "module3"), regexpExcludeRule("org", "module4"))
+
+        expect:
+        intersect(spec1, spec2).is(intersect(spec1, spec2))
+        union(spec1, spec2).is(union(spec1, spec2))
+        union(spec1, spec2).excludesSameModulesAs(union(spec2, spec1))
+    }
+
     @Unroll
     def "does not accept module that matches single module exclude rule (#rule)"() {
         when:
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph
+
+import org.gradle.api.artifacts.component.ComponentIdentifier
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme
+import org.gradle.cache.CacheAccess
+import org.gradle.internal.Factory
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.internal.component.external.model.DefaultModuleComponentSelector
+import org.gradle.internal.component.model.ComponentOverrideMetadata
+import org.gradle.internal.component.model.ComponentResolveMetadata
+import org.gradle.internal.component.model.DefaultComponentOverrideMetadata
+import org.gradle.internal.component.model.DependencyMetadata
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.resolve.ModuleVersionResolveException
+import org.gradle.internal.resolve.resolver.ComponentMetaDataResolver
+import org.gradle.internal.resolve.resolver.DependencyToComponentIdResolver
+import org.gradle.internal.resolve.result.BuildableComponentIdResolveResult
+import org.gradle.internal.resolve.result.BuildableComponentResolveResult
+import org.gradle.internal.resolve.result.DefaultBuildableComponentIdResolveResult
+import org.gradle.internal.resolve.result.DefaultBuildableComponentResolveResult
+import spock.lang.Specification
+
+import static org.gradle.api.internal.artifacts.DefaultModuleVersionSelector.newSelector
+
+class ComponentMetaDataPrefetcherTest extends Specification {
+    def delegate = Mock(ComponentMetaDataResolver)
+    def cacheAccess = Stub(CacheAccess) {
+        useCache(_, _ as Factory) >> { String name, Factory factory -> factory.create() }
+        longRunningOperation(_, _ as Factory) >> { String name, Factory factory -> factory.create() }
+        longRunningOperation(_, _ as Runnable) >> { String name, Runnable action -> action.run() }
+    }
+    def prefetcher = new ComponentMetaDataPrefetcher(delegate, new DefaultVersionSelectorScheme(new DefaultVersionComparator()), cacheAccess, new DefaultExecutorFactory(), 2)
+
+    def cleanup() {
+        prefetcher.stop()
+    }
+
+    def "uses meta-data that was prefetched in the background"() {
+        def id = DefaultModuleComponentIdentifier.newId("group", "a", "1.0")
+        def metaData = Stub(ComponentResolveMetadata)
+        def result = new DefaultBuildableComponentResolveResult()
+
+        when:
+        prefetcher.prefetch(dependency("a", "1.0"))
+        prefetcher.resolve(id, new DefaultComponentOverrideMetadata(), result)
+
+        then:
+        1 * delegate.resolve(id, _, _) >> { ComponentIdentifier i, ComponentOverrideMetadata overrides, BuildableComponentResolveResult r ->
+            assert Thread.currentThread().name.startsWith("Dependency meta-data prefetch")
+            r.attempted("http://repo/a-1.0.pom")
+            r.resolved(metaData)
+        }
+        0 * delegate._
+        result.metaData == metaData
+        result.attempted == ["http://repo/a-1.0.pom"]
+    }
+
+    def "prefetches each component only once"() {
+        def id = DefaultModuleComponentIdentifier.newId("group", "a", "1.0")
+        def metaData = Stub(ComponentResolveMetadata)
+
+        when:
+        prefetcher.prefetch(dependency("a", "1.0"))
+        prefetcher.prefetch(dependency("a", "1.0"))
+        prefetcher.resolve(id, new DefaultComponentOverrideMetadata(), new DefaultBuildableComponentResolveResult())
+
+        then:
+        1 * delegate.resolve(id, _, _) >> { ComponentIdentifier i, ComponentOverrideMetadata overrides, BuildableComponentResolveResult r ->
+            r.resolved(metaData)
+        }
+        0 * delegate._
+    }
+
+    def "does not prefetch dependencies on dynamic versions"() {
+        when:
+        prefetcher.prefetch(dependency("a", "1.+"))
+        prefetcher.prefetch(dependency("b", "latest.release"))
+        prefetcher.prefetch(dependency("c", "[1.0,2.0)"))
+        prefetcher.stop()
+
+        then:
+        0 * delegate._
+    }
+
+    def "resolves dependencies on dynamic versions in the background when given an id resolver"() {
+        def idResolver = Mock(DependencyToComponentIdResolver)
+        def versionPrefetcher = new ComponentMetaDataPrefetcher(delegate, idResolver, new DefaultVersionSelectorScheme(new DefaultVersionComparator()), cacheAccess, new DefaultExecutorFactory(), 2)
+        def dependency = dependency("a", "1.+")
+        def result = new DefaultBuildableComponentIdResolveResult()
+        def threads = []
+
+        when:
+        versionPrefetcher.prefetch(dependency)
+        versionPrefetcher.prefetch(dependency)
+        versionPrefetcher.componentIdResolver.resolve(dependency, result)
+
+        then:
+        2 * idResolver.resolve(dependency, _) >> { DependencyMetadata d, BuildableComponentIdResolveResult r ->
+            threads << Thread.currentThread().name
+        }
+        0 * delegate._
+        threads.size() == 2
+        threads[0].startsWith("Dependency meta-data prefetch")
+        !threads[1].startsWith("Dependency meta-data prefetch")
+
+        cleanup:
+        versionPrefetcher.stop()
+    }
+
+    def "resolves on the resolving thread when the request has overrides"() {
+        def id = DefaultModuleComponentIdentifier.newId("group", "a", "1.0")
+        def metaData = Stub(ComponentResolveMetadata)
+        def overrides = new DefaultComponentOverrideMetadata().withChanging()
+        def result = new DefaultBuildableComponentResolveResult()
+
+        when:
+        prefetcher.resolve(id, overrides, result)
+
+        then:
+        1 * delegate.resolve(id, overrides, result) >> { ComponentIdentifier i, ComponentOverrideMetadata o, BuildableComponentResolveResult r ->
+            r.resolved(metaData)
+        }
+        result.metaData == metaData
+    }
+
+    def "resolves again on the resolving thread when prefetch fails"() {
+        def id = DefaultModuleComponentIdentifier.newId("group", "a", "1.0")
+        def failure = new ModuleVersionResolveException(newSelector("group", "a", "1.0"), "broken")
+        def result = new DefaultBuildableComponentResolveResult()
+
+        when:
+        prefetcher.prefetch(dependency("a", "1.0"))
+        prefetcher.resolve(id, new DefaultComponentOverrideMetadata(), result)
+
+        then:
+        2 * delegate.resolve(id, _, _) >> { ComponentIdentifier i, ComponentOverrideMetadata overrides, BuildableComponentResolveResult r ->
+            r.failed(failure)
+        }
+        result.failure == failure
+    }
+
+    def dependency(String name, String version) {
+        return Stub(DependencyMetadata) {
+            getSelector() >> DefaultModuleComponentSelector.newSelector("group", name, version)
+            getRequested() >> newSelector("group", name, version)
+            getArtifacts() >> ([] as Set)
+        }
+    }
+}
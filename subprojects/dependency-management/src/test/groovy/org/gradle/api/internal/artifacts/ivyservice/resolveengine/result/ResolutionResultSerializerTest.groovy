@@ -0,0 +1,71 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.result
+
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.internal.component.external.model.DefaultModuleComponentSelector
+import org.gradle.internal.serialize.SerializerSpec
+
+import static org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier.newId
+import static org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.ResolutionResultPrinter.printGraph
+
+class ResolutionResultSerializerTest extends SerializerSpec {
+    def serializer = new ResolutionResultSerializer()
+    def builder = new DefaultResolutionResultBuilder()
+
+    def "serializes graph"() {
+        given:
+        component(10, "root", VersionSelectionReasons.ROOT)
+        component(11, "a", VersionSelectionReasons.REQUESTED)
+        component(12, "b", VersionSelectionReasons.CONFLICT_RESOLUTION)
+        component(13, "c", VersionSelectionReasons.FORCED)
+        builder.visitOutgoingEdges(10L, [dependency("a", 11), dependency("b", 12)])
+        builder.visitOutgoingEdges(11L, [dependency("b", 12), dependency("c", 13)])
+        builder.visitOutgoingEdges(12L, [dependency("c", 13)])
+        builder.visitOutgoingEdges(13L, [])
+        def original = builder.complete(10L)
+
+        when:
+        def result = serialize(original, serializer)
+
+        then:
+        printGraph(result.root) == printGraph(original.root)
+        result.allComponents.collect { it.selectionReason } == original.allComponents.collect { it.selectionReason }
+        result.allComponents.collect { it.id } == original.allComponents.collect { it.id }
+    }
+
+    def "serializes graph with single component"() {
+        given:
+        def original = DefaultResolutionResultBuilder.empty(newId("x", "root", "1"), new DefaultModuleComponentIdentifier("x", "root", "1"))
+
+        when:
+        def result = serialize(original, serializer)
+
+        then:
+        result.root.id == original.root.id
+        result.root.dependencies.empty
+    }
+
+    private void component(long id, String module, def reason) {
+        builder.visitComponent(new DefaultComponentResult(id, newId("x", module, "1"), reason, new DefaultModuleComponentIdentifier("x", module, "1")))
+    }
+
+    private static DefaultDependencyResult dependency(String requested, long selected) {
+        new DefaultDependencyResult(new DefaultModuleComponentSelector("x", requested, "1"), selected, null, null)
+    }
+}
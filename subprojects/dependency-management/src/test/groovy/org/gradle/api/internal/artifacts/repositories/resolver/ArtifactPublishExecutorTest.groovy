@@ -0,0 +1,63 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.repositories.resolver
+
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CopyOnWriteArrayList
+
+class ArtifactPublishExecutorTest extends Specification {
+    def executorFactory = new DefaultExecutorFactory()
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "runs all uploads"() {
+        def executor = new ArtifactPublishExecutor(executorFactory, maxThreads)
+        def uploaded = new CopyOnWriteArrayList<String>()
+
+        when:
+        executor.publishAll(["a", "b", "c"].collect { name -> { -> uploaded << name; null } as Callable })
+
+        then:
+        uploaded.sort() == ["a", "b", "c"]
+
+        where:
+        maxThreads << [1, 4]
+    }
+
+    def "rethrows the first failure after all uploads have finished"() {
+        def executor = new ArtifactPublishExecutor(executorFactory, 2)
+        def failure = new IOException("broken")
+        def uploaded = new CopyOnWriteArrayList<String>()
+
+        when:
+        executor.publishAll([
+            { -> throw failure } as Callable,
+            { -> Thread.sleep(100); uploaded << "b"; null } as Callable
+        ])
+
+        then:
+        def e = thrown(IOException)
+        e.is(failure)
+        uploaded == ["b"]
+    }
+}
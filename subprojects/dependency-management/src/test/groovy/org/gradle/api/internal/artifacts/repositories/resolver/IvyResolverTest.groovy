@@ -17,15 +17,86 @@ package org.gradle.api.internal.artifacts.repositories.resolver
 
 import org.gradle.api.internal.artifacts.ivyservice.IvyContextManager
 import org.gradle.api.internal.artifacts.repositories.transport.RepositoryTransport
+import org.gradle.internal.component.external.model.DefaultIvyModulePublishMetadata
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.internal.component.model.DefaultIvyArtifactName
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.hash.HashUtil
 import org.gradle.internal.resource.local.FileStore
+import org.gradle.internal.resource.local.LocalResource
 import org.gradle.internal.resource.local.LocallyAvailableResourceFinder
+import org.gradle.internal.resource.transport.ExternalResourceRepository
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
 import spock.lang.Specification
 
+import java.util.concurrent.ConcurrentHashMap
+
 class IvyResolverTest extends Specification {
-    def resolver = new IvyResolver("repo", Stub(RepositoryTransport), Stub(LocallyAvailableResourceFinder), false, Stub(FileStore), Stub(IvyContextManager))
+    @Rule final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def repository = Mock(ExternalResourceRepository)
+    def transport = Stub(RepositoryTransport) {
+        getRepository() >> repository
+    }
+    def publishExecutor = new ArtifactPublishExecutor(new DefaultExecutorFactory(), 4)
+    def resolver = new IvyResolver("repo", transport, Stub(LocallyAvailableResourceFinder), false, Stub(FileStore), Stub(IvyContextManager), publishExecutor)
+
+    def cleanup() {
+        publishExecutor.stop()
+    }
 
     def "has useful string representation"() {
         expect:
         resolver.toString() == "Ivy repository 'repo'"
     }
+
+    def "publishes artifacts before the descriptor and calculates checksums while uploading"() {
+        given:
+        resolver.addArtifactLocation(new URI("http://localhost/repo/"), "[artifact]-[revision].[ext]")
+        resolver.addDescriptorLocation(new URI("http://localhost/repo/"), "[artifact]-[revision].[ext]")
+        def metadata = new DefaultIvyModulePublishMetadata(DefaultModuleComponentIdentifier.newId("org", "module", "1.0"), "")
+        metadata.addArtifact(new DefaultIvyArtifactName("a", "jar", "jar"), tmpDir.createFile("a.jar") << "a")
+        metadata.addArtifact(new DefaultIvyArtifactName("b", "jar", "jar"), tmpDir.createFile("b.jar") << "b")
+        metadata.addArtifact(new DefaultIvyArtifactName("ivy", "ivy", "xml"), tmpDir.createFile("ivy.xml") << "ivy")
+        def checksums = new ConcurrentHashMap<String, String>()
+        _ * repository.withProgressLogging() >> repository
+
+        when:
+        resolver.publish(metadata)
+
+        then:
+        2 * repository.put(_, { it.path.endsWith(".jar") }) >> { LocalResource resource, URI destination -> resource.open().text }
+        2 * repository.put(_, { it.path.endsWith(".jar.sha1") }) >> { LocalResource resource, URI destination -> checksums.put(destination.path, resource.open().text) }
+
+        then:
+        1 * repository.put(_, { it.path.endsWith("ivy-1.0.xml") }) >> { LocalResource resource, URI destination -> resource.open().text }
+        1 * repository.put(_, { it.path.endsWith("ivy-1.0.xml.sha1") }) >> { LocalResource resource, URI destination -> checksums.put(destination.path, resource.open().text) }
+        0 * repository.put(_, _)
+
+        and:
+        checksums == [
+            "/repo/a-1.0.jar.sha1": sha1("a"),
+            "/repo/b-1.0.jar.sha1": sha1("b"),
+            "/repo/ivy-1.0.xml.sha1": sha1("ivy")
+        ]
+    }
+
+    def "calculates checksum from the file when the transport does not read the whole file"() {
+        given:
+        resolver.addArtifactLocation(new URI("http://localhost/repo/"), "[artifact]-[revision].[ext]")
+        def metadata = new DefaultIvyModulePublishMetadata(DefaultModuleComponentIdentifier.newId("org", "module", "1.0"), "")
+        metadata.addArtifact(new DefaultIvyArtifactName("a", "jar", "jar"), tmpDir.createFile("a.jar") << "a")
+        _ * repository.withProgressLogging() >> repository
+
+        when:
+        resolver.publish(metadata)
+
+        then:
+        1 * repository.put(_, { it.path.endsWith(".jar") })
+        1 * repository.put(_, { it.path.endsWith(".jar.sha1") }) >> { LocalResource resource, URI destination -> assert resource.open().text == sha1("a") }
+    }
+
+    private static String sha1(String content) {
+        return HashUtil.createHash(content, "SHA1").asZeroPaddedHexString(40)
+    }
 }
@@ -25,7 +25,10 @@ import org.gradle.api.resources.ResourceException
 import org.gradle.internal.UncheckedException
 import org.gradle.internal.component.model.DefaultIvyArtifactName
 import org.gradle.internal.resolve.result.DefaultResourceAwareResolveResult
-import org.gradle.internal.resource.ExternalResource
+import org.gradle.internal.resource.local.FileStore
+import org.gradle.internal.resource.local.LocallyAvailableExternalResource
+import org.gradle.internal.resource.local.LocallyAvailableResource
+import org.gradle.internal.resource.transfer.CacheAwareExternalResourceAccessor
 import org.gradle.internal.resource.transport.ExternalResourceRepository
 import org.xml.sax.SAXParseException
 import spock.lang.Specification
@@ -38,14 +41,15 @@ class MavenVersionListerTest extends Specification {
     def moduleVersion = new DefaultModuleVersionIdentifier(module, "1.0")
     def artifact = new DefaultIvyArtifactName("testproject", "jar", "jar")
 
-    def repository = Mock(ExternalResourceRepository)
+    def repository = Mock(CacheAwareExternalResourceAccessor)
+    def fileStore = Mock(FileStore)
     def pattern = pattern("testRepo/" + MavenPattern.M2_PATTERN)
     def metaDataResource = new URI('testRepo/org/acme/testproject/maven-metadata.xml')
 
-    final MavenVersionLister lister = new MavenVersionLister(repository)
+    final MavenVersionLister lister = new MavenVersionLister(new MavenMetadataLoader(repository, fileStore))
 
     def "visit parses maven-metadata.xml"() {
-        ExternalResource resource = Mock()
+        LocallyAvailableExternalResource resource = Mock()
 
         when:
         def versions = []
@@ -57,7 +61,7 @@ class MavenVersionListerTest extends Specification {
         result.attempted == [metaDataResource.toString()]
 
         and:
-        1 * repository.getResource(metaDataResource, true) >> resource
+        1 * repository.getResource(metaDataResource, _, null, true) >> resource
         1 * resource.withContent(_) >> { Action action -> action.execute(new ByteArrayInputStream("""
 <metadata>
     <versioning>
@@ -73,9 +77,28 @@ class MavenVersionListerTest extends Specification {
         0 * resource._
     }
 
+    def "stores downloaded maven-metadata.xml in file store"() {
+        LocallyAvailableExternalResource resource = Mock()
+        def downloaded = new File("downloaded")
+        def stored = Stub(LocallyAvailableResource)
+        LocallyAvailableResource moved = null
+
+        when:
+        lister.newVisitor(module, [], result).visit(pattern, artifact)
+
+        then:
+        1 * repository.getResource(metaDataResource, _, null, true) >> { URI uri, CacheAwareExternalResourceAccessor.ResourceFileStore store, candidates, revalidate ->
+            moved = store.moveIntoCache(downloaded)
+            resource
+        }
+        1 * fileStore.move(metaDataResource.toString(), downloaded) >> stored
+        1 * resource.withContent(_) >> { Action action -> action.execute(new ByteArrayInputStream("<metadata/>".bytes)) }
+        moved == stored
+    }
+
     def "visit builds union of versions"() {
-        ExternalResource resource1 = Mock()
-        ExternalResource resource2 = Mock()
+        LocallyAvailableExternalResource resource1 = Mock()
+        LocallyAvailableExternalResource resource2 = Mock()
         def pattern1 = pattern("prefix1/" + MavenPattern.M2_PATTERN)
         def pattern2 = pattern("prefix2/" + MavenPattern.M2_PATTERN)
         def location1 = new URI('prefix1/org/acme/testproject/maven-metadata.xml')
@@ -92,7 +115,7 @@ class MavenVersionListerTest extends Specification {
         result.attempted == [location1.toString(), location2.toString()]
 
         and:
-        1 * repository.getResource(location1, true) >> resource1
+        1 * repository.getResource(location1, _, null, true) >> resource1
         1 * resource1.withContent(_) >> { Action action -> action.execute(new ByteArrayInputStream("""
 <metadata>
     <versioning>
@@ -103,7 +126,7 @@ class MavenVersionListerTest extends Specification {
     </versioning>
 </metadata>""".bytes))
         }
-        1 * repository.getResource(location2, true) >> resource2
+        1 * repository.getResource(location2, _, null, true) >> resource2
         1 * resource2.withContent(_) >> { Action action -> action.execute(new ByteArrayInputStream("""
 <metadata>
     <versioning>
@@ -117,7 +140,7 @@ class MavenVersionListerTest extends Specification {
     }
 
     def "visit ignores duplicate patterns"() {
-        ExternalResource resource = Mock()
+        LocallyAvailableExternalResource resource = Mock()
 
         when:
         def versions = []
@@ -130,7 +153,7 @@ class MavenVersionListerTest extends Specification {
         result.attempted == [metaDataResource.toString()]
 
         and:
-        1 * repository.getResource(metaDataResource, true) >> resource
+        1 * repository.getResource(metaDataResource, _, null, true) >> resource
         1 * resource.withContent(_) >> { Action action -> action.execute(new ByteArrayInputStream("""
 <metadata>
     <versioning>
@@ -159,12 +182,12 @@ class MavenVersionListerTest extends Specification {
         result.attempted == [metaDataResource.toString()]
 
         and:
-        1 * repository.getResource(metaDataResource, true) >> null
+        1 * repository.getResource(metaDataResource, _, null, true) >> null
         0 * repository._
     }
 
     def "visit throws ResourceException when maven-metadata cannot be parsed"() {
-        ExternalResource resource = Mock()
+        LocallyAvailableExternalResource resource = Mock()
 
         when:
         def versionList = lister.newVisitor(module, [], result)
@@ -181,7 +204,7 @@ class MavenVersionListerTest extends Specification {
 
         and:
         1 * resource.close()
-        1 * repository.getResource(metaDataResource, true) >> resource;
+        1 * repository.getResource(metaDataResource, _, null, true) >> resource;
         1 * resource.withContent(_) >> { Action action -> action.execute(new ByteArrayInputStream("yo".bytes)) }
         0 * repository._
     }
@@ -202,7 +225,7 @@ class MavenVersionListerTest extends Specification {
         result.attempted == [metaDataResource.toString()]
 
         and:
-        1 * repository.getResource(metaDataResource, true) >> { throw failure }
+        1 * repository.getResource(metaDataResource, _, null, true) >> { throw failure }
         0 * repository._
     }
 
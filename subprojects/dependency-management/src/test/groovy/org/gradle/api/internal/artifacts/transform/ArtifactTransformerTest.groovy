@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.artifacts.transform
 
+import org.gradle.api.Action
 import org.gradle.api.Buildable
 import org.gradle.api.Transformer
 import org.gradle.api.artifacts.ResolvedArtifact
@@ -37,7 +38,8 @@ class ArtifactTransformerTest extends Specification {
     def attributesSchema = new DefaultAttributesSchema()
     def artifactTransforms = Mock(ArtifactTransforms)
     def artifactAttributeMatcher = new ArtifactAttributeMatcher(attributesSchema);
-    def transformer = new ArtifactTransformer(artifactTransforms, artifactAttributeMatcher)
+    def transformExecutor = Mock(ArtifactTransformExecutor)
+    def transformer = new ArtifactTransformer(artifactTransforms, artifactAttributeMatcher, transformExecutor)
 
     def setup() {
         attributesSchema.attribute(ARTIFACT_FORMAT) {
@@ -203,6 +205,86 @@ class ArtifactTransformerTest extends Specification {
         0 * _
     }
 
+    def "runs transforms for visited files ahead of forwarding them"() {
+        def visitor = Mock(ArtifactVisitor)
+        def id = Stub(ComponentIdentifier)
+        def transform = Mock(Transformer)
+        def file1 = new File("thing1.zip")
+        def file2 = new File("thing2.classpath")
+        def transformedFile1 = new File("thing1.classpath")
+        def source = { ArtifactVisitor recorder -> recorder.visitFiles(id, [file1, file2]) } as Action
+
+        when:
+        transformer.visit("config", visitor, typeAttributes("classpath"), source)
+
+        then:
+        _ * visitor.includeFiles() >> true
+        1 * artifactTransforms.getTransform(DefaultArtifactAttributes.forFile(file1), typeAttributes("classpath")) >> transform
+        1 * transformExecutor.runAll("config", { it.size() == 1 }) >> { String displayName, Collection<Runnable> transforms -> transforms*.run() }
+        1 * transform.transform(file1) >> [transformedFile1]
+
+        then:
+        1 * visitor.visitFiles(id, [transformedFile1, file2])
+        0 * _
+    }
+
+    def "does not run a transform that failed ahead of time again when its result is visited"() {
+        def visitor = Mock(ArtifactVisitor)
+        def id = Stub(ComponentIdentifier)
+        def transform = Mock(Transformer)
+        def file = new File("thing.zip")
+        def failure = new RuntimeException("broken")
+        def source = { ArtifactVisitor recorder -> recorder.visitFiles(id, [file]) } as Action
+
+        when:
+        transformer.visit("config", visitor, typeAttributes("classpath"), source)
+
+        then:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+
+        and:
+        _ * visitor.includeFiles() >> true
+        _ * artifactTransforms.getTransform(DefaultArtifactAttributes.forFile(file), typeAttributes("classpath")) >> transform
+        1 * transformExecutor.runAll("config", { it.size() == 1 }) >> { String displayName, Collection<Runnable> transforms ->
+            try {
+                transforms*.run()
+            } catch (RuntimeException ignored) {
+                // Reported when visited
+            }
+        }
+        1 * transform.transform(file) >> { throw failure }
+        0 * visitor.visitFiles(_, _)
+    }
+
+    def "forwards visited artifacts and files in order after running transforms"() {
+        def visitor = Mock(ArtifactVisitor)
+        def id = Stub(ComponentIdentifier)
+        def artifact = Stub(ResolvedArtifact)
+        def file = new File("thing.classpath")
+        def source = { ArtifactVisitor recorder ->
+            recorder.visitFiles(id, [file])
+            recorder.visitArtifact(artifact)
+        } as Action
+
+        given:
+        artifact.attributes >> typeAttributes("classpath")
+
+        when:
+        transformer.visit("config", visitor, typeAttributes("classpath"), source)
+
+        then:
+        _ * visitor.includeFiles() >> true
+        1 * transformExecutor.runAll("config", [])
+
+        then:
+        1 * visitor.visitFiles(id, [file])
+
+        then:
+        1 * visitor.visitArtifact(artifact)
+        0 * _
+    }
+
     def "selects artifacts with requested attributes"() {
         def artifact1 = Stub(ResolvedArtifact)
         def artifact2 = Stub(ResolvedArtifact)
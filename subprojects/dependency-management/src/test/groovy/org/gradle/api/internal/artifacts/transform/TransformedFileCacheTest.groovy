@@ -0,0 +1,257 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.transform
+
+import com.google.common.hash.HashCode
+import org.gradle.api.Action
+import org.gradle.api.Transformer
+import org.gradle.api.artifacts.transform.ArtifactTransform
+import org.gradle.api.artifacts.transform.ArtifactTransformTargets
+import org.gradle.api.attributes.AttributeContainer
+import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheMetaData
+import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager
+import org.gradle.api.internal.hash.FileHasher
+import org.gradle.cache.PersistentIndexedCache
+import org.gradle.cache.internal.FileLock
+import org.gradle.cache.internal.FileLockManager
+import org.gradle.internal.Factory
+import org.gradle.internal.classloader.ClassLoaderHierarchyHasher
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import static org.gradle.api.internal.artifacts.ArtifactAttributes.ARTIFACT_FORMAT
+
+class TransformedFileCacheTest extends Specification {
+    @Rule final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final persistentCache = Mock(PersistentIndexedCache)
+    final cacheLockingManager = Stub(CacheLockingManager) {
+        createCache("transformed-files", _, _) >> persistentCache
+        useCache(_, _ as Factory) >> { String name, Factory action -> action.create() }
+        useCache(_, _ as Runnable) >> { String name, Runnable action -> action.run() }
+    }
+    final cacheMetaData = Stub(ArtifactCacheMetaData) {
+        getCacheDir() >> tmpDir.file("cache")
+    }
+    final fileHasher = Stub(FileHasher) {
+        hash(_ as File) >> { File file -> HashCode.fromInt(file.text.hashCode()) }
+    }
+    final classLoaderHierarchyHasher = Stub(ClassLoaderHierarchyHasher) {
+        getClassLoaderHash(_) >> HashCode.fromInt(123)
+    }
+    final fileLock = Mock(FileLock)
+    final fileLockManager = Mock(FileLockManager)
+    final transformer = Mock(Transformer)
+    final cache = new TransformedFileCache(cacheLockingManager, fileLockManager, cacheMetaData, fileHasher, classLoaderHierarchyHasher)
+    final registration = registration()
+
+    def "runs transform in cache managed output directory and stores the outputs"() {
+        def input = tmpDir.file("input.zip").createFile()
+        def outputDirectory
+        def output
+
+        when:
+        def result = cache.transform(input, registration, transformer)
+
+        then:
+        result == [output]
+        outputDirectory.parentFile == tmpDir.file("cache/transforms-1")
+
+        and:
+        1 * persistentCache.get(_) >> null
+
+        then:
+        1 * fileLockManager.lock(_, _, _) >> fileLock
+
+        then:
+        1 * persistentCache.get(_) >> null
+        1 * transformer.transform(_) >> { File dir ->
+            outputDirectory = dir
+            output = new File(dir, "input.classpath")
+            output.parentFile.mkdirs()
+            output.text = "output"
+            [output]
+        }
+        1 * persistentCache.put(_, { it == [output] })
+        0 * persistentCache._
+
+        then:
+        1 * fileLock.close()
+    }
+
+    def "reuses outputs created by another thread or process while waiting for the lock"() {
+        def input = tmpDir.file("input.zip").createFile()
+        def output = tmpDir.file("output.classpath").createFile()
+
+        when:
+        def result = cache.transform(input, registration, transformer)
+
+        then:
+        result == [output]
+
+        and:
+        1 * persistentCache.get(_) >> null
+
+        then:
+        1 * fileLockManager.lock(_, _, _) >> fileLock
+
+        then:
+        1 * persistentCache.get(_) >> [output]
+        1 * fileLock.close()
+        0 * persistentCache._
+        0 * transformer._
+    }
+
+    def "reuses outputs from persistent cache without running the transform"() {
+        def input = tmpDir.file("input.zip").createFile()
+        def output = tmpDir.file("output.classpath").createFile()
+
+        when:
+        def result = cache.transform(input, registration, transformer)
+
+        then:
+        result == [output]
+
+        and:
+        1 * persistentCache.get(_) >> [output]
+        0 * persistentCache._
+        0 * transformer._
+    }
+
+    def "runs transform again when an output from persistent cache no longer exists"() {
+        def input = tmpDir.file("input.zip").createFile()
+        def missing = tmpDir.file("missing.classpath")
+        def output = tmpDir.file("output.classpath").createFile()
+
+        when:
+        def result = cache.transform(input, registration, transformer)
+
+        then:
+        result == [output]
+
+        and:
+        2 * persistentCache.get(_) >> [missing]
+        1 * fileLockManager.lock(_, _, _) >> fileLock
+        1 * transformer.transform(_ as File) >> [output]
+        1 * persistentCache.put(_, [output])
+        0 * persistentCache._
+    }
+
+    def "uses different entries for inputs with different content"() {
+        def input1 = tmpDir.file("input1.zip").write("one")
+        def input2 = tmpDir.file("input2.zip").write("two")
+        def keys = []
+
+        when:
+        cache.transform(input1, registration, transformer)
+        cache.transform(input2, registration, transformer)
+
+        then:
+        4 * persistentCache.get(_) >> { String key -> keys << key; null }
+        2 * fileLockManager.lock(_, _, _) >> fileLock
+        2 * transformer.transform(_ as File) >> []
+        keys.toSet().size() == 2
+    }
+
+    def "uses different entries for transforms configured with different parameters"() {
+        def input = tmpDir.file("input.zip").createFile()
+        def keys = []
+
+        when:
+        cache.transform(input, registration({ it.parameter = "one" } as Action), transformer)
+        cache.transform(input, registration({ it.parameter = "two" } as Action), transformer)
+        cache.transform(input, registration({ it.parameter = "one" } as Action), transformer)
+
+        then:
+        _ * persistentCache.get(_) >> { String key -> keys << key; null }
+        _ * fileLockManager.lock(_, _, _) >> fileLock
+        3 * transformer.transform(_ as File) >> []
+        keys.size() == 6
+        keys[0] != keys[2]
+        keys[0] == keys[4]
+    }
+
+    def "does not cache outputs when transform is configured with a value that cannot be hashed"() {
+        def input = tmpDir.file("input.zip").createFile()
+        def output = tmpDir.file("output.classpath").createFile()
+
+        when:
+        def result = cache.transform(input, registration({ it.value = new Object() } as Action), transformer)
+
+        then:
+        result == [output]
+
+        and:
+        1 * transformer.transform(null) >> [output]
+        0 * persistentCache._
+        0 * fileLockManager._
+    }
+
+    def "does not cache outputs when transform implementation cannot be hashed"() {
+        def input = tmpDir.file("input.zip").createFile()
+        def output = tmpDir.file("output.classpath").createFile()
+        def cache = new TransformedFileCache(cacheLockingManager, fileLockManager, cacheMetaData, fileHasher, Stub(ClassLoaderHierarchyHasher))
+
+        when:
+        def result = cache.transform(input, registration, transformer)
+
+        then:
+        result == [output]
+
+        and:
+        1 * transformer.transform(null) >> [output]
+        0 * persistentCache._
+    }
+
+    def "does not cache outputs for input directory"() {
+        def input = tmpDir.file("classes").createDir()
+        def output = tmpDir.file("output.classpath").createFile()
+
+        when:
+        def result = cache.transform(input, registration, transformer)
+
+        then:
+        result == [output]
+
+        and:
+        1 * transformer.transform(null) >> [output]
+        0 * persistentCache._
+    }
+
+    private static ArtifactTransformRegistrations.ArtifactTransformRegistration registration(Action<?> config = {} as Action) {
+        def registrations = new ArtifactTransformRegistrations()
+        registrations.registerTransform(TestTransform, config)
+        return registrations.transforms.first()
+    }
+
+    static class TestTransform extends ArtifactTransform {
+        String parameter
+        Object value
+
+        @Override
+        void configure(AttributeContainer from, ArtifactTransformTargets targetRegistry) {
+            from.attribute(ARTIFACT_FORMAT, "zip")
+            targetRegistry.newTarget().attribute(ARTIFACT_FORMAT, "classpath")
+        }
+
+        @Override
+        List<File> transform(File input, AttributeContainer target) {
+            throw new UnsupportedOperationException()
+        }
+    }
+}
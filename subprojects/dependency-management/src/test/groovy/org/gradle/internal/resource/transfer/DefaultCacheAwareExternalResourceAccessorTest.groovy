@@ -66,6 +66,23 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         0 * _._
     }
 
+    def "asks upstreams to revalidate a resource that is not cached when requested"() {
+        def uri = new URI("scheme:thing")
+        def fileStore = Mock(CacheAwareExternalResourceAccessor.ResourceFileStore)
+
+        when:
+        def result = cache.getResource(uri, fileStore, null, true)
+
+        then:
+        result == null
+
+        and:
+        1 * index.lookup("scheme:thing") >> null
+        1 * repository.withProgressLogging() >> progressLoggingRepo
+        1 * progressLoggingRepo.getResource(uri, true) >> null
+        0 * _._
+    }
+
     def "returns null when the request resource is not cached and there are local candidates but the resource does not exist in the remote repository"() {
         def uri = new URI("scheme:thing")
         def fileStore = Mock(CacheAwareExternalResourceAccessor.ResourceFileStore)
@@ -332,4 +349,84 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         1 * index.store("scheme:thing", cachedFile, remoteMetaData)
         0 * _._
     }
+
+    def "uses cached resource when remote resource has not been modified since it was cached"() {
+        given:
+        def localCandidates = Mock(LocallyAvailableResourceCandidates)
+        def cached = Mock(CachedExternalResource)
+        def fileStore = Mock(CacheAwareExternalResourceAccessor.ResourceFileStore)
+        def cachedMetaData = Mock(ExternalResourceMetaData)
+        def remoteResource = Mock(ExternalResource)
+        def uri = new URI("scheme:thing")
+
+        when:
+        def result = cache.getResource(uri, fileStore, localCandidates)
+
+        then:
+        result.localResource.file == cachedFile
+        result.metaData == cachedMetaData
+
+        and:
+        1 * index.lookup("scheme:thing") >> cached
+        timeProvider.currentTime >> 24000L
+        cached.cachedAt >> 23999L
+        cached.externalResourceMetaData >> cachedMetaData
+        cached.cachedFile >> cachedFile
+        cached.externalLastModified >> null
+        cachedMetaData.etag >> "abc"
+        1 * repository.withProgressLogging() >> progressLoggingRepo
+        1 * progressLoggingRepo.getResourceIfModified(uri, cachedMetaData) >> remoteResource
+        remoteResource.metaData >> cachedMetaData
+        1 * remoteResource.close()
+
+        and:
+        1 * cacheLockingManager.useCache(_, _) >> { String description, org.gradle.internal.Factory factory ->
+            return factory.create()
+        }
+        1 * index.store("scheme:thing", cachedFile, cachedMetaData)
+        0 * _._
+    }
+
+    def "downloads resource when remote resource has been modified since it was cached"() {
+        given:
+        def localCandidates = Mock(LocallyAvailableResourceCandidates)
+        def cached = Mock(CachedExternalResource)
+        def fileStore = Mock(CacheAwareExternalResourceAccessor.ResourceFileStore)
+        def cachedMetaData = Mock(ExternalResourceMetaData)
+        def remoteMetaData = Mock(ExternalResourceMetaData)
+        def remoteResource = Mock(ExternalResource)
+        def uri = new URI("scheme:thing")
+        def localResource = new DefaultLocallyAvailableResource(cachedFile)
+
+        when:
+        def result = cache.getResource(uri, fileStore, localCandidates)
+
+        then:
+        result.localResource.file == cachedFile
+        result.metaData == remoteMetaData
+
+        and:
+        1 * index.lookup("scheme:thing") >> cached
+        timeProvider.currentTime >> 24000L
+        cached.cachedAt >> 23999L
+        cached.externalResourceMetaData >> cachedMetaData
+        cachedMetaData.etag >> "abc"
+        remoteMetaData.etag >> "def"
+        1 * repository.withProgressLogging() >> progressLoggingRepo
+        1 * progressLoggingRepo.getResourceIfModified(uri, cachedMetaData) >> remoteResource
+        remoteResource.metaData >> remoteMetaData
+        1 * remoteResource.withContent(_) >> { ExternalResource.ContentAction a ->
+            a.execute(new ByteArrayInputStream(), remoteMetaData)
+        }
+        1 * remoteResource.close()
+        0 * _._
+
+        and:
+        1 * cacheLockingManager.useCache(_, _) >> { String description, org.gradle.internal.Factory factory ->
+            return factory.create()
+        }
+        1 * fileStore.moveIntoCache(tempFile) >> localResource
+        1 * index.store("scheme:thing", cachedFile, remoteMetaData)
+        0 * _._
+    }
 }
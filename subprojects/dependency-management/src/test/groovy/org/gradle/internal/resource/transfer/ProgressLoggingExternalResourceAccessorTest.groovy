@@ -16,6 +16,7 @@
 
 package org.gradle.internal.resource.transfer
 
+import org.gradle.internal.Factory
 import org.gradle.internal.resource.metadata.ExternalResourceMetaData
 import org.gradle.internal.logging.progress.ProgressLogger
 import org.gradle.internal.logging.progress.ProgressLoggerFactory
@@ -106,6 +107,35 @@ class ProgressLoggingExternalResourceAccessorTest extends Specification {
         0 * progressLogger.progress(_)
     }
 
+    def "reports progress through the aggregate operation when run as part of a batch"() {
+        setup:
+        ProgressLogger batchLogger = Mock()
+        accessor.openResource(new URI("location"), false) >> externalResource
+        metaData.getContentLength() >> 4096
+        externalResource.openStream() >> new ByteArrayInputStream(new byte[4096])
+
+        when:
+        def batch = new AggregateResourceOperation(progressLoggerFactory, getClass(), ResourceOperation.Type.download, "Download artifacts", 2)
+        batch.run(new Factory<Object>() {
+            Object create() {
+                def resource = progressLoggerAccessor.openResource(new URI("location"), false)
+                resource.openStream().read(new byte[4096])
+                resource.close()
+                return null
+            }
+        })
+        batch.itemCompleted()
+        batch.stop()
+
+        then:
+        1 * progressLoggerFactory.newOperation(_) >> batchLogger
+        1 * batchLogger.started()
+        1 * batchLogger.progress('0/2 files, 4 KB downloaded')
+        1 * batchLogger.progress('1/2 files, 4 KB downloaded')
+        1 * batchLogger.completed()
+        0 * progressLogger._
+    }
+
     def "fires complete event when response closed with partially read stream"() {
         setup:
         accessor.openResource(new URI("location"), false) >> externalResource
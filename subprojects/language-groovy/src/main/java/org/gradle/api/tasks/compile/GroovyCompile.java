@@ -19,6 +19,9 @@ package org.gradle.api.tasks.compile;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.FileTree;
+import org.gradle.api.internal.changedetection.changes.IncrementalTaskInputsInternal;
+import org.gradle.api.internal.changedetection.state.CachingFileHasher;
+import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.tasks.compile.CleaningGroovyCompiler;
 import org.gradle.api.internal.tasks.compile.DefaultGroovyJavaJointCompileSpec;
@@ -26,6 +29,10 @@ import org.gradle.api.internal.tasks.compile.DefaultGroovyJavaJointCompileSpecFa
 import org.gradle.api.internal.tasks.compile.GroovyCompilerFactory;
 import org.gradle.api.internal.tasks.compile.GroovyJavaJointCompileSpec;
 import org.gradle.api.internal.tasks.compile.JavaCompilerFactory;
+import org.gradle.api.internal.tasks.compile.incremental.IncrementalCompilerFactory;
+import org.gradle.api.internal.tasks.compile.incremental.cache.CompileCaches;
+import org.gradle.api.internal.tasks.compile.incremental.cache.DefaultCompileCaches;
+import org.gradle.api.internal.tasks.compile.incremental.cache.GeneralCompileCaches;
 import org.gradle.process.internal.daemon.WorkerDaemonManager;
 import org.gradle.api.internal.tasks.compile.daemon.InProcessCompilerDaemonFactory;
 import org.gradle.api.tasks.CacheableTask;
@@ -36,13 +43,20 @@ import org.gradle.api.tasks.PathSensitive;
 import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.api.tasks.WorkResult;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+import org.gradle.cache.CacheRepository;
 import org.gradle.language.base.internal.compile.Compiler;
 import org.gradle.util.GFileUtils;
+import org.gradle.util.SingleMessageLogger;
 
 import java.io.File;
 
 /**
  * Compiles Groovy source files, and optionally, Java source files.
+ *
+ * <p>When {@link CompileOptions#isIncremental() incremental compilation} is enabled via {@link #getOptions()}, only the source files
+ * affected by a change are recompiled, based on the class dependencies of the previous compilation. A full recompilation is
+ * performed whenever this is not known to be safe.</p>
  */
 @CacheableTask
 public class GroovyCompile extends AbstractCompile {
@@ -51,12 +65,34 @@ public class GroovyCompile extends AbstractCompile {
     private final CompileOptions compileOptions = new CompileOptions();
     private final GroovyCompileOptions groovyCompileOptions = new GroovyCompileOptions();
 
-    @Override
     @TaskAction
+    protected void compile(IncrementalTaskInputs inputs) {
+        checkGroovyClasspathIsNonEmpty();
+        DefaultGroovyJavaJointCompileSpec spec = createSpec();
+        Compiler<GroovyJavaJointCompileSpec> compiler = getCompiler(spec);
+        if (!compileOptions.isIncremental() || !(compiler instanceof CleaningGroovyCompiler)) {
+            performCompilation(spec, compiler);
+            return;
+        }
+
+        SingleMessageLogger.incubatingFeatureUsed("Incremental Groovy compilation");
+
+        CompileCaches compileCaches = new DefaultCompileCaches(getServices().get(CacheRepository.class), getServices().get(GeneralCompileCaches.class), this);
+        IncrementalCompilerFactory<GroovyJavaJointCompileSpec> factory = new IncrementalCompilerFactory<GroovyJavaJointCompileSpec>(
+            getServices().get(FileOperations.class), getServices().get(CachingFileHasher.class), getPath(), (CleaningGroovyCompiler) compiler,
+            source, compileCaches, (IncrementalTaskInputsInternal) inputs);
+        performCompilation(spec, factory.createCompiler());
+    }
+
+    @Override
     protected void compile() {
         checkGroovyClasspathIsNonEmpty();
         DefaultGroovyJavaJointCompileSpec spec = createSpec();
-        WorkResult result = getCompiler(spec).execute(spec);
+        performCompilation(spec, getCompiler(spec));
+    }
+
+    private void performCompilation(GroovyJavaJointCompileSpec spec, Compiler<GroovyJavaJointCompileSpec> compiler) {
+        WorkResult result = compiler.execute(spec);
         setDidWork(result.getDidWork());
     }
 
@@ -17,7 +17,6 @@ package org.gradle.api.internal.tasks.compile;
 
 import org.gradle.api.internal.tasks.SimpleWorkResult;
 import org.gradle.api.tasks.WorkResult;
-import org.gradle.api.tasks.compile.CompileOptions;
 import org.gradle.internal.Factory;
 import org.gradle.language.base.internal.compile.Compiler;
 import org.slf4j.Logger;
@@ -27,7 +26,6 @@ import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
 import java.io.Serializable;
-import java.nio.charset.Charset;
 import java.util.List;
 
 public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable {
@@ -42,8 +40,20 @@ public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable
     public WorkResult execute(JavaCompileSpec spec) {
         LOGGER.info("Compiling with JDK Java compiler API.");
 
-        JavaCompiler.CompilationTask task = createCompileTask(spec);
-        boolean success = task.call();
+        List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
+        JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
+        StandardJavaFileManagerCache.Lease fileManager = StandardJavaFileManagerCache.INSTANCE.acquire(compiler, spec, options);
+        boolean success;
+        try {
+            success = createCompileTask(compiler, fileManager.getFileManager(), spec, options).call();
+        } catch (RuntimeException e) {
+            fileManager.discard();
+            throw e;
+        } catch (Error e) {
+            fileManager.discard();
+            throw e;
+        }
+        fileManager.release();
         if (!success) {
             throw new CompilationFailedException();
         }
@@ -51,12 +61,8 @@ public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable
         return new SimpleWorkResult(true);
     }
 
-    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec) {
-        List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
-        JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
-        CompileOptions compileOptions = spec.getCompileOptions();
-        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null);
+    private JavaCompiler.CompilationTask createCompileTask(JavaCompiler compiler, StandardJavaFileManager fileManager, JavaCompileSpec spec, List<String> options) {
         Iterable<? extends JavaFileObject> compilationUnits = fileManager.getJavaFileObjectsFromFiles(spec.getSource());
-        return compiler.getTask(null, null, null, options, null, compilationUnits);
+        return compiler.getTask(null, fileManager, null, options, null, compilationUnits);
     }
 }
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.gradle.api.tasks.compile.CompileOptions;
+import org.gradle.internal.os.OperatingSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the standard file managers of finished compilations, so that later compilations in the same process can reuse the
+ * classpath archives that javac has already opened and indexed.
+ *
+ * <p>A file manager is only handed to one compilation at a time, and is only reused for compilations that pass the same
+ * file manager options to javac. A file manager is discarded as soon as one of the archives it has seen changes.</p>
+ *
+ * <p>Idle file managers keep their archives open, which would prevent the archives from being deleted on Windows. The
+ * cache is therefore disabled there by default. The number of idle file managers kept can be changed with the
+ * {@value #CACHE_SIZE_SYSTEM_PROPERTY} system property, where 0 disables the cache.</p>
+ */
+class StandardJavaFileManagerCache {
+    public static final String CACHE_SIZE_SYSTEM_PROPERTY = "org.gradle.java.compile.file.manager.cache.size";
+    private static final Logger LOGGER = LoggerFactory.getLogger(StandardJavaFileManagerCache.class);
+    private static final int DEFAULT_CACHE_SIZE = 4;
+    // javac only applies path options to a file manager before its first compilation, so these are set explicitly on reuse
+    private static final Map<String, StandardLocation> PATH_OPTIONS = ImmutableMap.<String, StandardLocation>builder()
+        .put("-classpath", StandardLocation.CLASS_PATH)
+        .put("-cp", StandardLocation.CLASS_PATH)
+        .put("--class-path", StandardLocation.CLASS_PATH)
+        .put("-sourcepath", StandardLocation.SOURCE_PATH)
+        .put("--source-path", StandardLocation.SOURCE_PATH)
+        .put("-processorpath", StandardLocation.ANNOTATION_PROCESSOR_PATH)
+        .put("--processor-path", StandardLocation.ANNOTATION_PROCESSOR_PATH)
+        .put("-d", StandardLocation.CLASS_OUTPUT)
+        .put("-s", StandardLocation.SOURCE_OUTPUT)
+        .build();
+
+    static final StandardJavaFileManagerCache INSTANCE = new StandardJavaFileManagerCache(Integer.getInteger(CACHE_SIZE_SYSTEM_PROPERTY, OperatingSystem.current().isWindows() ? 0 : DEFAULT_CACHE_SIZE));
+
+    private final int maxIdle;
+    // Most recently released last
+    private final LinkedList<Lease> idle = Lists.newLinkedList();
+
+    StandardJavaFileManagerCache(int maxIdle) {
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Returns a file manager for the given compilation, either a cached one or a new one.
+     * The lease must be released or discarded when the compilation has finished.
+     */
+    Lease acquire(JavaCompiler compiler, JavaCompileSpec spec, List<String> options) {
+        List<Object> key = keyOf(compiler, spec);
+        Map<StandardLocation, List<File>> locations = locationsOf(options);
+        Lease lease = takeIdle(key);
+        if (lease == null) {
+            CompileOptions compileOptions = spec.getCompileOptions();
+            Charset charset = compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null;
+            lease = new Lease(key, compiler.getStandardFileManager(null, null, charset));
+        } else {
+            LOGGER.debug("Reusing file manager of a previous compilation.");
+            try {
+                lease.setLocations(locations);
+            } catch (IOException e) {
+                lease.discard();
+                return acquire(compiler, spec, options);
+            } catch (IllegalArgumentException e) {
+                lease.discard();
+                return acquire(compiler, spec, options);
+            }
+        }
+        for (List<File> files : locations.values()) {
+            lease.recordArchives(files);
+        }
+        return lease;
+    }
+
+    private synchronized Lease takeIdle(List<Object> key) {
+        Iterator<Lease> iterator = idle.descendingIterator();
+        while (iterator.hasNext()) {
+            Lease candidate = iterator.next();
+            if (candidate.key.equals(key)) {
+                iterator.remove();
+                if (candidate.isUpToDate()) {
+                    return candidate;
+                }
+                candidate.discard();
+            }
+        }
+        return null;
+    }
+
+    private synchronized void release(Lease lease) {
+        if (maxIdle <= 0) {
+            lease.discard();
+            return;
+        }
+        idle.addLast(lease);
+        while (idle.size() > maxIdle) {
+            idle.removeFirst().discard();
+        }
+    }
+
+    /**
+     * The file manager options that are not set explicitly when a file manager is reused.
+     */
+    private static Map<StandardLocation, List<File>> locationsOf(List<String> options) {
+        Map<StandardLocation, List<File>> locations = Maps.newEnumMap(StandardLocation.class);
+        for (StandardLocation location : PATH_OPTIONS.values()) {
+            locations.put(location, null);
+        }
+        for (int i = 0; i < options.size() - 1; i++) {
+            StandardLocation location = PATH_OPTIONS.get(options.get(i));
+            if (location != null) {
+                List<File> files = Lists.newArrayList();
+                for (String path : Splitter.on(File.pathSeparatorChar).omitEmptyStrings().split(options.get(++i))) {
+                    files.add(new File(path));
+                }
+                locations.put(location, files);
+            }
+        }
+        return locations;
+    }
+
+    private static List<Object> keyOf(JavaCompiler compiler, JavaCompileSpec spec) {
+        CompileOptions compileOptions = spec.getCompileOptions();
+        List<String> compilerArgs = compileOptions.getCompilerArgs() == null ? null : ImmutableList.copyOf(compileOptions.getCompilerArgs());
+        return Arrays.<Object>asList(compiler.getClass(), compileOptions.getEncoding(), compileOptions.getBootClasspath(), compileOptions.getExtensionDirs(), compilerArgs);
+    }
+
+    class Lease {
+        private final List<Object> key;
+        private final StandardJavaFileManager fileManager;
+        private final Map<File, ArchiveStamp> archives = Maps.newHashMap();
+
+        private Lease(List<Object> key, StandardJavaFileManager fileManager) {
+            this.key = key;
+            this.fileManager = fileManager;
+        }
+
+        StandardJavaFileManager getFileManager() {
+            return fileManager;
+        }
+
+        /**
+         * Returns the file manager to the cache, once the compilation has finished normally.
+         */
+        void release() {
+            StandardJavaFileManagerCache.this.release(this);
+        }
+
+        /**
+         * Closes the file manager, when the compilation has left it in an unknown state or it is no longer needed.
+         */
+        void discard() {
+            try {
+                fileManager.close();
+            } catch (IOException e) {
+                LOGGER.debug("Could not close file manager.", e);
+            }
+        }
+
+        private void setLocations(Map<StandardLocation, List<File>> locations) throws IOException {
+            for (Map.Entry<StandardLocation, List<File>> entry : locations.entrySet()) {
+                fileManager.setLocation(entry.getKey(), entry.getValue());
+            }
+        }
+
+        private void recordArchives(Iterable<File> files) {
+            if (files == null) {
+                return;
+            }
+            for (File file : files) {
+                if (!archives.containsKey(file) && file.isFile()) {
+                    archives.put(file, new ArchiveStamp(file));
+                }
+            }
+        }
+
+        private boolean isUpToDate() {
+            for (Map.Entry<File, ArchiveStamp> entry : archives.entrySet()) {
+                if (!entry.getValue().equals(new ArchiveStamp(entry.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static class ArchiveStamp {
+        private final long length;
+        private final long lastModified;
+
+        ArchiveStamp(File file) {
+            this.length = file.length();
+            this.lastModified = file.lastModified();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ArchiveStamp that = (ArchiveStamp) o;
+            return length == that.length && lastModified == that.lastModified;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (int) (length ^ (length >>> 32)) + (int) (lastModified ^ (lastModified >>> 32));
+        }
+    }
+}
@@ -21,24 +21,45 @@ import org.gradle.api.internal.tasks.compile.incremental.jar.PreviousCompilation
 import org.gradle.api.internal.tasks.compile.incremental.recomp.RecompilationSpec;
 import org.gradle.api.tasks.incremental.InputFileDetails;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.gradle.internal.FileUtils.hasExtension;
+
 class JavaChangeProcessor {
 
     private final SourceToNameConverter sourceToNameConverter;
     private final PreviousCompilation previousCompilation;
+    private final SourceClassesFinder sourceClassesFinder;
 
-    public JavaChangeProcessor(PreviousCompilation previousCompilation, SourceToNameConverter sourceToNameConverter) {
+    public JavaChangeProcessor(PreviousCompilation previousCompilation, SourceToNameConverter sourceToNameConverter, SourceClassesFinder sourceClassesFinder) {
         this.previousCompilation = previousCompilation;
         this.sourceToNameConverter = sourceToNameConverter;
+        this.sourceClassesFinder = sourceClassesFinder;
     }
 
     public void processChange(InputFileDetails input, RecompilationSpec spec) {
         String className = sourceToNameConverter.getClassName(input.getFile());
         spec.getClassNames().add(className);
-        DependentsSet actualDependents = previousCompilation.getDependents(className);
-        if (actualDependents.isDependencyToAll()) {
-            spec.setFullRebuildCause(actualDependents.getDescription(), input.getFile());
-            return;
+        Collection<String> compiledClasses = Collections.singleton(className);
+        if (!input.isAdded() && hasExtension(input.getFile(), ".groovy")) {
+            //a Groovy source file may declare classes that do not match its file name, all of them are stale
+            Set<String> sourceClasses = sourceClassesFinder.getClassNames(className);
+            if (sourceClasses == null) {
+                spec.setFullRebuildCause("the classes compiled from '" + input.getFile().getName() + "' are unknown", input.getFile());
+                return;
+            }
+            spec.getClassNames().addAll(sourceClasses);
+            compiledClasses = sourceClasses;
+        }
+        for (String compiledClass : compiledClasses) {
+            DependentsSet actualDependents = previousCompilation.getDependents(compiledClass);
+            if (actualDependents.isDependencyToAll()) {
+                spec.setFullRebuildCause(actualDependents.getDescription(), input.getFile());
+                return;
+            }
+            spec.getClassNames().addAll(actualDependents.getDependentClasses());
         }
-        spec.getClassNames().addAll(actualDependents.getDependentClasses());
     }
 }
\ No newline at end of file
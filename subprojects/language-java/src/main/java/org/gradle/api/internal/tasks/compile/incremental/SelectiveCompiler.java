@@ -16,7 +16,8 @@
 
 package org.gradle.api.internal.tasks.compile.incremental;
 
-import org.gradle.api.internal.tasks.compile.CleaningJavaCompiler;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.internal.tasks.compile.CleaningJavaCompilerSupport;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshot;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshotProvider;
@@ -29,47 +30,81 @@ import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.internal.time.Timer;
 import org.gradle.internal.time.Timers;
 
-class SelectiveCompiler implements org.gradle.language.base.internal.compile.Compiler<JavaCompileSpec> {
+import java.io.File;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.gradle.internal.FileUtils.hasExtension;
+
+class SelectiveCompiler<T extends JavaCompileSpec> implements org.gradle.language.base.internal.compile.Compiler<T> {
     private static final Logger LOG = Logging.getLogger(SelectiveCompiler.class);
     private final IncrementalTaskInputs inputs;
     private final PreviousCompilation previousCompilation;
-    private final CleaningJavaCompiler cleaningCompiler;
+    private final CleaningJavaCompilerSupport<T> cleaningCompiler;
     private final RecompilationSpecProvider recompilationSpecProvider;
     private final IncrementalCompilationInitializer incrementalCompilationInitilizer;
     private final JarClasspathSnapshotProvider jarClasspathSnapshotProvider;
+    private final UnmappedClassDetector unmappedClassDetector;
 
-    public SelectiveCompiler(IncrementalTaskInputs inputs, PreviousCompilation previousCompilation, CleaningJavaCompiler cleaningCompiler,
-                             RecompilationSpecProvider recompilationSpecProvider, IncrementalCompilationInitializer compilationInitializer, JarClasspathSnapshotProvider jarClasspathSnapshotProvider) {
+    public SelectiveCompiler(IncrementalTaskInputs inputs, PreviousCompilation previousCompilation, CleaningJavaCompilerSupport<T> cleaningCompiler,
+                             RecompilationSpecProvider recompilationSpecProvider, IncrementalCompilationInitializer compilationInitializer, JarClasspathSnapshotProvider jarClasspathSnapshotProvider,
+                             UnmappedClassDetector unmappedClassDetector) {
         this.inputs = inputs;
         this.previousCompilation = previousCompilation;
         this.cleaningCompiler = cleaningCompiler;
         this.recompilationSpecProvider = recompilationSpecProvider;
         this.incrementalCompilationInitilizer = compilationInitializer;
         this.jarClasspathSnapshotProvider = jarClasspathSnapshotProvider;
+        this.unmappedClassDetector = unmappedClassDetector;
     }
 
     @Override
-    public WorkResult execute(JavaCompileSpec spec) {
+    public WorkResult execute(T spec) {
         Timer clock = Timers.startTimer();
         JarClasspathSnapshot jarClasspathSnapshot = jarClasspathSnapshotProvider.getJarClasspathSnapshot(spec.getClasspath());
-        RecompilationSpec recompilationSpec = recompilationSpecProvider.provideRecompilationSpec(inputs, previousCompilation, jarClasspathSnapshot);
+        RecompilationSpec recompilationSpec = recompilationSpecProvider.provideRecompilationSpec(inputs, previousCompilation, jarClasspathSnapshot, spec.getDestinationDir());
 
         if (recompilationSpec.isFullRebuildNeeded()) {
             LOG.lifecycle("Full recompilation is required because {}. Analysis took {}.", recompilationSpec.getFullRebuildCause(), clock.getElapsed());
             return cleaningCompiler.execute(spec);
         }
 
+        FileCollection originalSource = spec.getSource();
+        Iterable<File> originalClasspath = spec.getClasspath();
         incrementalCompilationInitilizer.initializeCompilation(spec, recompilationSpec.getClassNames());
         if (spec.getSource().isEmpty()) {
             LOG.lifecycle("None of the classes needs to be compiled! Analysis took {}. ", clock.getElapsed());
             return new RecompilationNotNecessary();
         }
 
+        boolean groovySources = containsGroovySources(spec.getSource());
+        Set<String> existingClassFiles = groovySources ? unmappedClassDetector.findClassFiles(spec.getDestinationDir()) : Collections.<String>emptySet();
+        WorkResult result;
         try {
             //use the original compiler to avoid cleaning up all the files
-            return cleaningCompiler.getCompiler().execute(spec);
+            result = cleaningCompiler.getCompiler().execute(spec);
         } finally {
             LOG.lifecycle("Incremental compilation of {} classes completed in {}.", recompilationSpec.getClassNames().size(), clock.getElapsed());
         }
+
+        if (groovySources) {
+            String unmappedClass = unmappedClassDetector.findUnmappedClass(spec.getDestinationDir(), existingClassFiles, recompilationSpec.getClassNames());
+            if (unmappedClass != null) {
+                LOG.lifecycle("Full recompilation is required because class '{}' is not declared in a source file of the same name.", unmappedClass);
+                spec.setSource(originalSource);
+                spec.setClasspath(originalClasspath);
+                return cleaningCompiler.execute(spec);
+            }
+        }
+        return result;
+    }
+
+    private static boolean containsGroovySources(FileCollection source) {
+        for (File file : source) {
+            if (hasExtension(file, ".groovy")) {
+                return true;
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+import com.google.common.io.Files;
+import org.gradle.api.Nullable;
+import org.gradle.api.file.EmptyFileVisitor;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.internal.file.FileOperations;
+import org.gradle.util.internal.Java9ClassReader;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+
+import static org.gradle.internal.FileUtils.hasExtension;
+
+/**
+ * Finds the top-level classes that were compiled from a source file, using the source file names recorded in the class files of the destination dir.
+ */
+class SourceClassesFinder {
+    private final FileOperations fileOperations;
+    private final File destinationDir;
+    private SetMultimap<String, String> classesBySource;
+    private boolean complete;
+
+    public SourceClassesFinder(FileOperations fileOperations, File destinationDir) {
+        this.fileOperations = fileOperations;
+        this.destinationDir = destinationDir;
+    }
+
+    /**
+     * @param sourceClassName the class name derived from the path of the source file, e.g. 'org.Foo' for 'org/Foo.groovy'
+     * @return the names of the top-level classes compiled from the source file, or null if they cannot be determined.
+     */
+    @Nullable
+    public Set<String> getClassNames(String sourceClassName) {
+        if (classesBySource == null) {
+            indexClasses();
+        }
+        if (!complete || !classesBySource.containsKey(sourceClassName)) {
+            return null;
+        }
+        return classesBySource.get(sourceClassName);
+    }
+
+    private void indexClasses() {
+        classesBySource = HashMultimap.create();
+        complete = true;
+        if (!destinationDir.isDirectory()) {
+            return;
+        }
+        fileOperations.fileTree(destinationDir).visit(new EmptyFileVisitor() {
+            @Override
+            public void visitFile(FileVisitDetails fileDetails) {
+                if (!hasExtension(fileDetails.getFile(), ".class")) {
+                    return;
+                }
+                String className = fileDetails.getPath().replaceAll("/", ".").replaceAll("\\.class$", "");
+                String sourceFileName = readSourceFileName(fileDetails.getFile());
+                if (sourceFileName == null) {
+                    //compiled without debug information, the source file is unknown
+                    complete = false;
+                    fileDetails.stopVisiting();
+                    return;
+                }
+                int packageSeparator = className.lastIndexOf('.');
+                String packagePrefix = packageSeparator < 0 ? "" : className.substring(0, packageSeparator + 1);
+                int innerClassSeparator = className.indexOf('$');
+                String topLevelClassName = innerClassSeparator < 0 ? className : className.substring(0, innerClassSeparator);
+                String sourceName = sourceFileName.replaceAll("\\.(java|groovy)$", "");
+                classesBySource.put(packagePrefix + sourceName, topLevelClassName);
+            }
+        });
+    }
+
+    @Nullable
+    private static String readSourceFileName(File classFile) {
+        final String[] sourceFileName = new String[1];
+        ClassReader reader;
+        try {
+            reader = new Java9ClassReader(Files.toByteArray(classFile));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(String.format("Unable to read class file: '%s'", classFile));
+        }
+        reader.accept(new ClassVisitor(Opcodes.ASM5) {
+            @Override
+            public void visitSource(String source, String debug) {
+                sourceFileName[0] = source;
+            }
+        }, ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+        return sourceFileName[0];
+    }
+}
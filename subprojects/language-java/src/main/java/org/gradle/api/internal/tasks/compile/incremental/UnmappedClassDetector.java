@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental;
+
+import org.gradle.api.file.EmptyFileVisitor;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.internal.file.FileOperations;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.gradle.internal.FileUtils.hasExtension;
+
+/**
+ * Finds classes written by a selective compilation that do not belong to any of the recompiled source files.
+ * Unlike Java, a Groovy source file may declare any number of top level classes with arbitrary names.
+ * The dependents of such classes are unknown to the class set analysis, so they cannot be recompiled selectively.
+ */
+class UnmappedClassDetector {
+    private final FileOperations fileOperations;
+
+    public UnmappedClassDetector(FileOperations fileOperations) {
+        this.fileOperations = fileOperations;
+    }
+
+    /**
+     * @return the relative paths of the class files in the given directory.
+     */
+    public Set<String> findClassFiles(File destinationDir) {
+        final Set<String> classFiles = new HashSet<String>();
+        fileOperations.fileTree(destinationDir).visit(new EmptyFileVisitor() {
+            @Override
+            public void visitFile(FileVisitDetails fileDetails) {
+                if (hasExtension(fileDetails.getFile(), ".class")) {
+                    classFiles.add(fileDetails.getPath());
+                }
+            }
+        });
+        return classFiles;
+    }
+
+    /**
+     * The classes of the recompiled source files are deleted before the compilation, so every class file that is not one of the given
+     * existing class files was written by the compilation.
+     *
+     * @return the name of a class that is not one of the existing or expected classes, or null if there is none.
+     */
+    public String findUnmappedClass(File destinationDir, final Set<String> existingClassFiles, final Collection<String> expectedClasses) {
+        final String[] unmappedClass = new String[1];
+        fileOperations.fileTree(destinationDir).visit(new EmptyFileVisitor() {
+            @Override
+            public void visitFile(FileVisitDetails fileDetails) {
+                if (!hasExtension(fileDetails.getFile(), ".class") || existingClassFiles.contains(fileDetails.getPath())) {
+                    return;
+                }
+                String className = fileDetails.getPath().replaceAll("/", ".").replaceAll("\\.class$", "");
+                int innerClassSeparator = className.indexOf('$');
+                String topLevelClassName = innerClassSeparator < 0 ? className : className.substring(0, innerClassSeparator);
+                if (!expectedClasses.contains(topLevelClassName)) {
+                    unmappedClass[0] = className;
+                    fileDetails.stopVisiting();
+                }
+            }
+        });
+        return unmappedClass[0];
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.cache;
+
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisCache;
+import org.gradle.api.internal.tasks.compile.incremental.deps.LocalClassSetAnalysisStore;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotCache;
+import org.gradle.api.internal.tasks.compile.incremental.jar.LocalJarClasspathSnapshotStore;
+import org.gradle.cache.CacheRepository;
+
+/**
+ * The caches of an incremental compile task: the general caches shared by all compile tasks, and the local stores of the given task.
+ */
+public class DefaultCompileCaches implements CompileCaches {
+    private final CacheRepository cacheRepository;
+    private final GeneralCompileCaches generalCompileCaches;
+    private final Object task;
+
+    public DefaultCompileCaches(CacheRepository cacheRepository, GeneralCompileCaches generalCompileCaches, Object task) {
+        this.cacheRepository = cacheRepository;
+        this.generalCompileCaches = generalCompileCaches;
+        this.task = task;
+    }
+
+    @Override
+    public ClassAnalysisCache getClassAnalysisCache() {
+        return generalCompileCaches.getClassAnalysisCache();
+    }
+
+    @Override
+    public JarSnapshotCache getJarSnapshotCache() {
+        return generalCompileCaches.getJarSnapshotCache();
+    }
+
+    @Override
+    public LocalJarClasspathSnapshotStore getLocalJarClasspathSnapshotStore() {
+        return new LocalJarClasspathSnapshotStore(cacheRepository, task);
+    }
+
+    @Override
+    public LocalClassSetAnalysisStore getLocalClassSetAnalysisStore() {
+        return new LocalClassSetAnalysisStore(cacheRepository, task);
+    }
+}
@@ -21,6 +21,8 @@ import org.gradle.internal.serialize.Encoder;
 import org.gradle.internal.serialize.MapSerializer;
 import org.gradle.internal.serialize.SetSerializer;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -38,6 +40,32 @@ public class ClassSetAnalysisData {
         return dependents.get(className);
     }
 
+    /**
+     * Combines the analysis of several class sets, for example the entries of a classpath, into the analysis of all their classes.
+     */
+    public static ClassSetAnalysisData merge(Iterable<ClassSetAnalysisData> analyses) {
+        Map<String, DependentsSet> merged = new HashMap<String, DependentsSet>();
+        for (ClassSetAnalysisData analysis : analyses) {
+            for (Map.Entry<String, DependentsSet> entry : analysis.dependents.entrySet()) {
+                DependentsSet existing = merged.get(entry.getKey());
+                merged.put(entry.getKey(), existing == null ? entry.getValue() : union(existing, entry.getValue()));
+            }
+        }
+        return new ClassSetAnalysisData(merged);
+    }
+
+    private static DependentsSet union(DependentsSet first, DependentsSet second) {
+        if (first instanceof DependencyToAll) {
+            return first;
+        }
+        if (second instanceof DependencyToAll) {
+            return second;
+        }
+        Set<String> dependentClasses = new HashSet<String>(first.getDependentClasses());
+        dependentClasses.addAll(second.getDependentClasses());
+        return new DefaultDependentsSet(first.isDependencyToAll() || second.isDependencyToAll(), dependentClasses);
+    }
+
     public static class Serializer implements org.gradle.internal.serialize.Serializer<ClassSetAnalysisData> {
 
         private final MapSerializer<String, DependentsSet> serializer = new MapSerializer<String, DependentsSet>(
@@ -16,10 +16,14 @@
 
 package org.gradle.api.tasks.javadoc;
 
+import com.google.common.hash.HashCode;
 import groovy.lang.Closure;
+import org.gradle.api.Action;
 import org.gradle.api.Incubating;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.FileTree;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.Classpath;
 import org.gradle.api.tasks.Input;
@@ -32,7 +36,13 @@ import org.gradle.api.tasks.PathSensitive;
 import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.SourceTask;
 import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+import org.gradle.api.tasks.incremental.InputFileDetails;
+import org.gradle.api.tasks.javadoc.internal.JavaSourceApiHasher;
+import org.gradle.api.tasks.javadoc.internal.JavadocApiHashStore;
 import org.gradle.api.tasks.javadoc.internal.JavadocSpec;
+import org.gradle.cache.CacheRepository;
+import org.gradle.external.javadoc.JavadocMemberLevel;
 import org.gradle.external.javadoc.MinimalJavadocOptions;
 import org.gradle.external.javadoc.StandardJavadocDocletOptions;
 import org.gradle.jvm.internal.toolchain.JavaToolChainInternal;
@@ -44,9 +54,14 @@ import org.gradle.util.GUtil;
 
 import javax.inject.Inject;
 import java.io.File;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * <p>Generates HTML API documentation for Java classes.</p>
@@ -86,6 +101,8 @@ import java.util.List;
 @CacheableTask
 @ParallelizableTask
 public class Javadoc extends SourceTask {
+    private static final Logger LOGGER = Logging.getLogger(Javadoc.class);
+
     private File destinationDir;
 
     private boolean failOnError = true;
@@ -101,6 +118,45 @@ public class Javadoc extends SourceTask {
     private String executable;
 
     @TaskAction
+    protected void generate(IncrementalTaskInputs inputs) {
+        Charset encoding = options.getEncoding() == null ? Charset.defaultCharset() : Charset.forName(options.getEncoding());
+        boolean linkSource = options instanceof StandardJavadocDocletOptions && ((StandardJavadocDocletOptions) options).isLinkSource();
+        JavaSourceApiHasher hasher = new JavaSourceApiHasher(options.getMemberLevel() == JavadocMemberLevel.PRIVATE, encoding, linkSource);
+        JavadocApiHashStore hashStore = new JavadocApiHashStore(getCacheRepository(), this);
+        Map<String, HashCode> previousHashes = inputs.isIncremental() ? hashStore.get() : null;
+        Map<String, HashCode> hashes = new HashMap<String, HashCode>();
+        for (File sourceFile : getSource()) {
+            hashes.put(sourceFile.getAbsolutePath(), hasher.hash(sourceFile));
+        }
+        if (hashes.equals(previousHashes) && onlySourcesChanged(inputs) && getDestinationDir().isDirectory()) {
+            LOGGER.info("Skipping Javadoc generation for {} as no changes affect the documented API.", this);
+            return;
+        }
+
+        generate();
+        hashStore.put(hashes);
+    }
+
+    private boolean onlySourcesChanged(IncrementalTaskInputs inputs) {
+        final Set<File> sourceFiles = getSource().getFiles();
+        final AtomicBoolean onlySources = new AtomicBoolean(true);
+        inputs.outOfDate(new Action<InputFileDetails>() {
+            @Override
+            public void execute(InputFileDetails details) {
+                if (!sourceFiles.contains(details.getFile())) {
+                    onlySources.set(false);
+                }
+            }
+        });
+        inputs.removed(new Action<InputFileDetails>() {
+            @Override
+            public void execute(InputFileDetails details) {
+                onlySources.set(false);
+            }
+        });
+        return onlySources.get();
+    }
+
     protected void generate() {
         final File destinationDir = getDestinationDir();
 
@@ -183,6 +239,11 @@ public class Javadoc extends SourceTask {
         throw new UnsupportedOperationException();
     }
 
+    @Inject
+    protected CacheRepository getCacheRepository() {
+        throw new UnsupportedOperationException();
+    }
+
     @Internal
     private JavaPlatform getPlatform() {
         return DefaultJavaPlatform.current();
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.tasks.javadoc.internal;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import org.gradle.api.UncheckedIOException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.gradle.internal.FileUtils.hasExtension;
+
+/**
+ * Hashes the parts of a Java source file that can contribute to its generated Javadoc.
+ *
+ * <p>The source is tokenized, and the hash covers all tokens except for regular comments, method and constructor bodies,
+ * initializer blocks and, unless requested, private methods, constructors and types. Doc comments, declarations, imports and
+ * field initializers are all included. Private fields and the private serialization methods are always included, as Javadoc
+ * documents them in the serialized form of serializable classes, which cannot be told apart from the source alone. Whenever the structure of the source is not understood, the tokens are included in the hash, so that
+ * a change to such a source is never missed.</p>
+ *
+ * <p>Files that are not Java sources are hashed by content. When the generated Javadoc includes the sources, Java sources are
+ * also hashed by their complete content.</p>
+ */
+public class JavaSourceApiHasher {
+    private static final Set<String> TYPE_KEYWORDS = ImmutableSet.of("class", "interface", "enum");
+    private static final Set<String> SERIALIZATION_METHODS = ImmutableSet.of("writeObject", "readObject", "readObjectNoData", "writeReplace", "readResolve");
+
+    private final boolean includePrivateMembers;
+    private final Charset encoding;
+    private final boolean includeSource;
+
+    /**
+     * @param encoding the encoding of the source files
+     * @param includeSource whether the generated Javadoc includes the sources, so that any change to a source affects it
+     */
+    public JavaSourceApiHasher(boolean includePrivateMembers, Charset encoding, boolean includeSource) {
+        this.includePrivateMembers = includePrivateMembers;
+        this.encoding = encoding;
+        this.includeSource = includeSource;
+    }
+
+    public HashCode hash(File sourceFile) {
+        try {
+            if (!hasExtension(sourceFile, ".java")) {
+                return Files.hash(sourceFile, Hashing.md5());
+            }
+            return hash(Files.toString(sourceFile, encoding));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read source file " + sourceFile, e);
+        }
+    }
+
+    HashCode hash(String source) {
+        if (includeSource) {
+            return Hashing.md5().hashString(source, Charsets.UTF_8);
+        }
+        List<String> tokens = tokenize(source);
+        Hasher hasher = Hashing.md5().newHasher();
+        visitBody(tokens, 0, tokens.size(), hasher);
+        return hasher.hash();
+    }
+
+    /**
+     * Visits the members of a type body, or the declarations of a compilation unit.
+     */
+    private void visitBody(List<String> tokens, int from, int to, Hasher hasher) {
+        int memberStart = from;
+        int i = from;
+        while (i < to) {
+            String token = tokens.get(i);
+            if (token.equals(";")) {
+                visitMember(tokens, memberStart, i + 1, hasher);
+                i++;
+                memberStart = i;
+            } else if (token.equals("(")) {
+                i = matching(tokens, i, to, "(", ")") + 1;
+            } else if (token.equals("{")) {
+                int close = matching(tokens, i, to, "{", "}");
+                if (isTypeDeclaration(tokens, memberStart, i)) {
+                    if (includePrivateMembers || !contains(tokens, memberStart, i, "private")) {
+                        put(tokens, memberStart, i + 1, hasher);
+                        visitBody(tokens, i + 1, close, hasher);
+                        hasher.putString("}", Charsets.UTF_8);
+                    }
+                    memberStart = close + 1;
+                } else if (isInitializer(tokens, memberStart, i)) {
+                    memberStart = close + 1;
+                } else if (tokens.get(i - 1).equals(")") || contains(tokens, memberStart, i, "throws")) {
+                    // method or constructor body
+                    visitMember(tokens, memberStart, i, hasher);
+                    memberStart = close + 1;
+                }
+                // otherwise an array initializer or a lambda, which is kept as part of the member
+                i = close + 1;
+            } else {
+                i++;
+            }
+        }
+        if (memberStart < to) {
+            visitMember(tokens, memberStart, to, hasher);
+        }
+    }
+
+    private void visitMember(List<String> tokens, int from, int to, Hasher hasher) {
+        if (includeMember(tokens, from, to)) {
+            put(tokens, from, to, hasher);
+        }
+    }
+
+    private boolean includeMember(List<String> tokens, int from, int to) {
+        if (includePrivateMembers || !contains(tokens, from, to, "private")) {
+            return true;
+        }
+        String methodName = methodName(tokens, from, to);
+        return methodName == null || SERIALIZATION_METHODS.contains(methodName);
+    }
+
+    /**
+     * Returns the name of the method or constructor declared in the given range, or null when the range declares a field.
+     */
+    private static String methodName(List<String> tokens, int from, int to) {
+        for (int i = from; i < to; i++) {
+            String token = tokens.get(i);
+            if (token.equals("=")) {
+                return null;
+            }
+            if (token.equals("(")) {
+                if (i > from && !isAnnotation(tokens, from, i - 1)) {
+                    return tokens.get(i - 1);
+                }
+                i = matching(tokens, i, to, "(", ")");
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether the (possibly qualified) name ending at the given index is the name of an annotation.
+     */
+    private static boolean isAnnotation(List<String> tokens, int from, int nameEnd) {
+        int i = nameEnd;
+        while (i - 2 >= from && tokens.get(i - 1).equals(".")) {
+            i -= 2;
+        }
+        return i > from && tokens.get(i - 1).equals("@");
+    }
+
+    private static void put(List<String> tokens, int from, int to, Hasher hasher) {
+        for (int i = from; i < to; i++) {
+            hasher.putString(tokens.get(i), Charsets.UTF_8);
+            hasher.putByte((byte) 0);
+        }
+    }
+
+    private static boolean isTypeDeclaration(List<String> tokens, int from, int to) {
+        for (String keyword : TYPE_KEYWORDS) {
+            if (contains(tokens, from, to, keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isInitializer(List<String> tokens, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!tokens.get(i).equals("static") && !tokens.get(i).startsWith("/**")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the given keyword occurs in the given range, outside of any parentheses.
+     */
+    private static boolean contains(List<String> tokens, int from, int to, String keyword) {
+        int depth = 0;
+        for (int i = from; i < to; i++) {
+            String token = tokens.get(i);
+            if (token.equals("(")) {
+                depth++;
+            } else if (token.equals(")")) {
+                depth--;
+            } else if (depth == 0 && token.equals(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int matching(List<String> tokens, int open, int to, String openToken, String closeToken) {
+        int depth = 0;
+        for (int i = open; i < to; i++) {
+            String token = tokens.get(i);
+            if (token.equals(openToken)) {
+                depth++;
+            } else if (token.equals(closeToken)) {
+                depth--;
+                if (depth == 0) {
+                    return i;
+                }
+            }
+        }
+        // unbalanced, treat the rest of the range as a single block
+        return to - 1;
+    }
+
+    static List<String> tokenize(String source) {
+        List<String> tokens = new ArrayList<String>();
+        int length = source.length();
+        int i = 0;
+        while (i < length) {
+            char c = source.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (source.startsWith("//", i)) {
+                i = indexOrEnd(source, "\n", i);
+            } else if (source.startsWith("/**", i) && !source.startsWith("/**/", i)) {
+                int end = indexOrEnd(source, "*/", i + 3) + 2;
+                tokens.add(source.substring(i, Math.min(end, length)));
+                i = end;
+            } else if (source.startsWith("/*", i)) {
+                i = indexOrEnd(source, "*/", i + 2) + 2;
+            } else if (c == '"' || c == '\'') {
+                int end = i + 1;
+                while (end < length && source.charAt(end) != c) {
+                    end += source.charAt(end) == '\\' ? 2 : 1;
+                }
+                end = Math.min(end + 1, length);
+                tokens.add(source.substring(i, end));
+                i = end;
+            } else if (Character.isJavaIdentifierPart(c)) {
+                int end = i + 1;
+                while (end < length && Character.isJavaIdentifierPart(source.charAt(end))) {
+                    end++;
+                }
+                tokens.add(source.substring(i, end));
+                i = end;
+            } else {
+                tokens.add(String.valueOf(c));
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static int indexOrEnd(String source, String str, int from) {
+        int index = source.indexOf(str, from);
+        return index < 0 ? source.length() : index;
+    }
+}
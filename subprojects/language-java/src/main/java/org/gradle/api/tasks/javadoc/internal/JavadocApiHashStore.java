@@ -0,0 +1,45 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.tasks.javadoc.internal;
+
+import com.google.common.hash.HashCode;
+import org.gradle.api.internal.cache.SingleOperationPersistentStore;
+import org.gradle.cache.CacheRepository;
+import org.gradle.internal.serialize.HashCodeSerializer;
+import org.gradle.internal.serialize.MapSerializer;
+
+import java.util.Map;
+
+import static org.gradle.internal.serialize.BaseSerializerFactory.STRING_SERIALIZER;
+
+//Keeps the API hashes of the sources documented by the last execution of given javadoc task
+public class JavadocApiHashStore {
+
+    private final SingleOperationPersistentStore<Map<String, HashCode>> store;
+
+    public JavadocApiHashStore(CacheRepository cacheRepository, Object scope) {
+        store = new SingleOperationPersistentStore<Map<String, HashCode>>(cacheRepository, scope, "javadoc api hashes", new MapSerializer<String, HashCode>(STRING_SERIALIZER, new HashCodeSerializer()));
+    }
+
+    public void put(Map<String, HashCode> hashes) {
+        store.putAndClose(hashes);
+    }
+
+    public Map<String, HashCode> get() {
+        return store.getAndClose();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.api.tasks.compile.CompileOptions
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import javax.tools.JavaCompiler
+import javax.tools.StandardJavaFileManager
+import javax.tools.StandardLocation
+
+class StandardJavaFileManagerCacheTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temporaryFolder
+    JavaCompiler compiler = Mock()
+    StandardJavaFileManager first = Mock()
+    StandardJavaFileManager second = Mock()
+    def spec = new DefaultJavaCompileSpec(compileOptions: new CompileOptions())
+    def jar = temporaryFolder.file("lib.jar").createFile()
+    def options = ["-d", "out", "-classpath", jar.path]
+    def cache = new StandardJavaFileManagerCache(2)
+
+    def "reuses released file manager and sets its locations"() {
+        given:
+        compiler.getStandardFileManager(_, _, _) >> first
+
+        when:
+        cache.acquire(compiler, spec, options).release()
+        def lease = cache.acquire(compiler, spec, ["-d", "other"])
+
+        then:
+        lease.fileManager == first
+        1 * first.setLocation(StandardLocation.CLASS_OUTPUT, [new File("other")])
+        1 * first.setLocation(StandardLocation.CLASS_PATH, null)
+        0 * first.close()
+    }
+
+    def "does not hand out a file manager that is in use"() {
+        when:
+        def lease1 = cache.acquire(compiler, spec, options)
+        def lease2 = cache.acquire(compiler, spec, options)
+
+        then:
+        2 * compiler.getStandardFileManager(_, _, _) >>> [first, second]
+        lease1.fileManager == first
+        lease2.fileManager == second
+    }
+
+    def "does not reuse file manager for different file manager options"() {
+        when:
+        cache.acquire(compiler, spec, options).release()
+        spec.compileOptions.encoding = "UTF-8"
+        def lease = cache.acquire(compiler, spec, options)
+
+        then:
+        2 * compiler.getStandardFileManager(_, _, _) >>> [first, second]
+        lease.fileManager == second
+    }
+
+    def "discards file manager when an archive it has seen changes"() {
+        when:
+        cache.acquire(compiler, spec, options).release()
+        jar << "changed"
+        def lease = cache.acquire(compiler, spec, options)
+
+        then:
+        2 * compiler.getStandardFileManager(_, _, _) >>> [first, second]
+        1 * first.close()
+        lease.fileManager == second
+    }
+
+    def "closes file managers beyond the cache size"() {
+        given:
+        def third = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(_, _, _) >>> [first, second, third]
+        def leases = (1..3).collect { cache.acquire(compiler, spec, options) }
+
+        when:
+        leases*.release()
+
+        then:
+        1 * first.close()
+        0 * second.close()
+        0 * third.close()
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental
+
+import org.gradle.api.file.ConfigurableFileTree
+import org.gradle.api.file.FileVisitor
+import org.gradle.api.internal.file.FileOperations
+import org.gradle.api.internal.file.collections.DirectoryFileTree
+import org.gradle.api.internal.file.collections.FileTreeAdapter
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
+import spock.lang.Specification
+import spock.lang.Subject
+
+class SourceClassesFinderTest extends Specification {
+
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+    def operations = Mock(FileOperations)
+    def classesDir = temp.createDir("classes")
+
+    @Subject finder = new SourceClassesFinder(operations, classesDir)
+
+    def setup() {
+        def tree = Stub(ConfigurableFileTree) {
+            visit(_) >> { FileVisitor visitor -> new FileTreeAdapter(new DirectoryFileTree(classesDir)).visit(visitor) }
+        }
+        operations.fileTree(classesDir) >> tree
+    }
+
+    def "finds all top-level classes compiled from a source file"() {
+        classFile("org/Foo", "Foo.groovy")
+        classFile('org/Foo$_closure1', "Foo.groovy")
+        classFile("org/Bar", "Foo.groovy")
+        classFile("org/Baz", "Baz.groovy")
+
+        expect:
+        finder.getClassNames("org.Foo") == ["org.Foo", "org.Bar"] as Set
+        finder.getClassNames("org.Baz") == ["org.Baz"] as Set
+    }
+
+    def "classes are unknown for a source file that produced no classes"() {
+        classFile("org/Foo", "Foo.groovy")
+
+        expect:
+        finder.getClassNames("org.Bar") == null
+    }
+
+    def "classes are unknown when a class file does not record its source file"() {
+        classFile("org/Foo", "Foo.groovy")
+        classFile("org/Bar", null)
+
+        expect:
+        finder.getClassNames("org.Foo") == null
+    }
+
+    private void classFile(String className, String sourceFile) {
+        ClassWriter cw = new ClassWriter(0)
+        cw.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC, className, null, 'java/lang/Object', null)
+        if (sourceFile != null) {
+            cw.visitSource(sourceFile, null)
+        }
+        cw.visitEnd()
+        classesDir.createFile("${className}.class").bytes = cw.toByteArray()
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental
+
+import org.gradle.api.file.ConfigurableFileTree
+import org.gradle.api.file.FileVisitor
+import org.gradle.api.internal.file.FileOperations
+import org.gradle.api.internal.file.collections.DirectoryFileTree
+import org.gradle.api.internal.file.collections.FileTreeAdapter
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Subject
+
+class UnmappedClassDetectorTest extends Specification {
+
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+    def operations = Mock(FileOperations)
+    def classesDir = temp.createDir("classes")
+
+    @Subject detector = new UnmappedClassDetector(operations)
+
+    def setup() {
+        def tree = Stub(ConfigurableFileTree) {
+            visit(_) >> { FileVisitor visitor -> new FileTreeAdapter(new DirectoryFileTree(classesDir)).visit(visitor) }
+        }
+        operations.fileTree(classesDir) >> tree
+    }
+
+    def "ignores expected classes and their inner classes"() {
+        classesDir.file("org/Foo.class").touch()
+        classesDir.file('org/Foo$_closure1.class').touch()
+
+        expect:
+        detector.findUnmappedClass(classesDir, [] as Set, ["org.Foo"]) == null
+    }
+
+    def "finds classes not declared in a source file of the same name"() {
+        classesDir.file("org/Foo.class").touch()
+        classesDir.file("org/Bar.class").touch()
+
+        expect:
+        detector.findUnmappedClass(classesDir, [] as Set, ["org.Foo"]) == "org.Bar"
+    }
+
+    def "ignores classes that existed before the compilation"() {
+        classesDir.file("org/Bar.class").touch()
+        def existing = detector.findClassFiles(classesDir)
+        classesDir.file("org/Foo.class").touch()
+
+        expect:
+        existing == ["org/Bar.class"] as Set
+        detector.findUnmappedClass(classesDir, existing, ["org.Foo"]) == null
+    }
+
+    def "finds classes written by the compilation within the same second as existing classes"() {
+        classesDir.file("org/Foo.class").touch()
+        def existing = detector.findClassFiles(classesDir)
+        classesDir.file("org/Bar.class").touch().lastModified = classesDir.file("org/Foo.class").lastModified()
+
+        expect:
+        detector.findUnmappedClass(classesDir, existing, ["org.Foo"]) == "org.Bar"
+    }
+}
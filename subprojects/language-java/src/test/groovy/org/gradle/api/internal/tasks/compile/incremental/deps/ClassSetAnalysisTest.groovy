@@ -176,4 +176,19 @@ class ClassSetAnalysisTest extends Specification {
         a.isDependencyToAll("C")
         !a.isDependencyToAll("Unknown")
     }
+
+    def "merges the analysis of several class sets"() {
+        def first = new ClassSetAnalysisData(["Foo": dependents("Bar"), "Bar": dependents()])
+        def second = new ClassSetAnalysisData(["Foo": dependents("Baz"), "Baz": new DefaultDependentsSet(true, []), "Qux": new DependencyToAll()])
+        def third = new ClassSetAnalysisData(["Qux": dependents("Foo")])
+        def merged = ClassSetAnalysisData.merge([first, second, third])
+
+        expect:
+        merged.getDependents("Foo").dependentClasses == ["Bar", "Baz"] as Set
+        !merged.getDependents("Foo").dependencyToAll
+        merged.getDependents("Bar").dependentClasses.isEmpty()
+        merged.getDependents("Baz").dependencyToAll
+        merged.getDependents("Qux") instanceof DependencyToAll
+        new ClassSetAnalysis(merged).getRelevantDependents("Foo").dependentClasses == ["Bar", "Baz"] as Set
+    }
 }
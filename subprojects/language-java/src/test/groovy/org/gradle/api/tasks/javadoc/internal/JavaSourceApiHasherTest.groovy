@@ -0,0 +1,148 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.tasks.javadoc.internal
+
+import com.google.common.base.Charsets
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class JavaSourceApiHasherTest extends Specification {
+    @Rule final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def hasher = new JavaSourceApiHasher(false, Charsets.UTF_8, false)
+
+    def source = """
+package org.acme;
+
+import java.util.List;
+
+/** Does things. */
+public class Foo {
+    /** A constant. */
+    public static final int[] VALUES = {1, 2};
+    private String name = "{";
+
+    static {
+        System.out.println("loaded");
+    }
+
+    /** Does a thing. */
+    public void thing(List<String> items) throws Exception {
+        // implementation
+        if (items.isEmpty()) { return; }
+    }
+
+    private Foo(int value) {}
+
+    private void helper() {}
+
+    /** A nested type. */
+    public static class Bar {
+        public void bar() { int x = 1; }
+    }
+}
+"""
+
+    @Unroll
+    def "ignores #change"() {
+        expect:
+        hasher.hash(source) == hasher.hash(source.replace(original, replacement))
+
+        where:
+        change                       | original                       | replacement
+        "method bodies"              | "{ return; }"                  | "{ throw new RuntimeException(); }"
+        "nested method bodies"       | "int x = 1;"                   | "int x = 2;"
+        "regular comments"           | "// implementation"            | "/* implementation */"
+        "formatting"                 | "public void thing("           | "public  void\n    thing("
+        "initializer blocks"         | '"loaded"'                     | '"initialized"'
+        "private constructors"       | "private Foo(int value)"       | "private Foo(long value)"
+        "private methods"            | "private void helper() {}"     | "private void helper(int i) {}"
+    }
+
+    @Unroll
+    def "detects changes to #change"() {
+        expect:
+        hasher.hash(source) != hasher.hash(source.replace(original, replacement))
+
+        where:
+        change                       | original                       | replacement
+        "doc comments"               | "/** Does a thing. */"         | "/** Does another thing. */"
+        "method signatures"          | "List<String> items"           | "List<Object> items"
+        "throws clauses"             | "throws Exception"             | "throws java.io.IOException"
+        "field initializers"         | "{1, 2}"                       | "{1, 3}"
+        "imports"                    | "import java.util.List;"       | "import java.awt.List;"
+        "nested types"               | "public void bar()"            | "public void baz()"
+        "class declarations"         | "public class Foo"             | "public class Foo extends Object"
+        "private fields"             | 'private String name = "{";'   | 'private String name = "}";'
+    }
+
+    def "detects changes to the private fields and serialization methods of serializable classes"() {
+        def serializable = '''
+package org.acme;
+
+public class Foo extends Base {
+    /** @serial the name */
+    private String name;
+
+    @Deprecated
+    private transient int count;
+
+    /** @serialData the name */
+    private void writeObject(java.io.ObjectOutputStream out) throws java.io.IOException {
+        out.defaultWriteObject();
+    }
+
+    private void helper() {}
+}
+'''
+
+        expect:
+        hasher.hash(serializable) != hasher.hash(serializable.replace("private String name;", "private Object name;"))
+        hasher.hash(serializable) != hasher.hash(serializable.replace("@serial the name", "@serial the full name"))
+        hasher.hash(serializable) != hasher.hash(serializable.replace("private transient int count;", "private int count;"))
+        hasher.hash(serializable) != hasher.hash(serializable.replace("@serialData the name", "@serialData the full name"))
+        hasher.hash(serializable) == hasher.hash(serializable.replace("out.defaultWriteObject();", ""))
+        hasher.hash(serializable) == hasher.hash(serializable.replace("private void helper()", "private void helper(int i)"))
+    }
+
+    def "includes private members when requested"() {
+        def privateHasher = new JavaSourceApiHasher(true, Charsets.UTF_8, false)
+
+        expect:
+        privateHasher.hash(source) != privateHasher.hash(source.replace("private void helper()", "private void helper(int i)"))
+        privateHasher.hash(source) == privateHasher.hash(source.replace("{ return; }", "{}"))
+    }
+
+    def "hashes complete source when sources are included in the generated Javadoc"() {
+        def sourceHasher = new JavaSourceApiHasher(false, Charsets.UTF_8, true)
+
+        expect:
+        sourceHasher.hash(source) == sourceHasher.hash(source)
+        sourceHasher.hash(source) != sourceHasher.hash(source.replace("{ return; }", "{}"))
+        sourceHasher.hash(source) != sourceHasher.hash(source.replace("private void helper()", "private void helper(int i)"))
+    }
+
+    def "reads source files using the given encoding"() {
+        def file = tmpDir.file("Foo.java")
+        file.setText(source.replace("Does a thing.", "Does a th\u00efng."), "ISO-8859-1")
+
+        expect:
+        new JavaSourceApiHasher(false, Charsets.ISO_8859_1, false).hash(file) == hasher.hash(source.replace("Does a thing.", "Does a th\u00efng."))
+        new JavaSourceApiHasher(false, Charsets.UTF_8, false).hash(file) != hasher.hash(source.replace("Does a thing.", "Does a th\u00efng."))
+    }
+}
@@ -32,6 +32,7 @@ package org.gradle.api.internal.tasks.scala;
  * limitations under the License.
  */
 
+import com.google.common.collect.Iterables;
 import org.gradle.api.internal.tasks.compile.daemon.AbstractDaemonCompiler;
 import org.gradle.process.internal.daemon.WorkerDaemonFactory;
 import org.gradle.process.internal.daemon.DaemonForkOptions;
@@ -41,10 +42,17 @@ import org.gradle.language.base.internal.compile.Compiler;
 
 import java.io.File;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 public class DaemonScalaCompiler<T extends ScalaJavaJointCompileSpec> extends AbstractDaemonCompiler<T> {
     private static final Iterable<String> SHARED_PACKAGES =
             Arrays.asList("scala", "com.typesafe.zinc", "xsbti", "com.sun.tools.javac", "sbt");
+    // Zinc keeps a small in-memory cache of analysis files, which is too small to hold the upstream
+    // analyses of a multi-project build. A larger cache lets the daemon reuse analyses between requests.
+    // The limit can be overridden by passing the system property in the fork options' JVM arguments.
+    private static final String ZINC_ANALYSIS_CACHE_LIMIT_ARG = "-Dzinc.analysis.cache.limit=";
+    private static final int DEFAULT_ZINC_ANALYSIS_CACHE_LIMIT = 100;
     private final Iterable<File> zincClasspath;
 
     public DaemonScalaCompiler(File daemonWorkingDir, Compiler<T> delegate, WorkerDaemonFactory daemonFactory, Iterable<File> zincClasspath) {
@@ -65,7 +73,16 @@ public class DaemonScalaCompiler<T extends ScalaJavaJointCompileSpec> extends Ab
     private DaemonForkOptions createScalaForkOptions(T spec) {
         ScalaForkOptions options = spec.getScalaCompileOptions().getForkOptions();
         return new DaemonForkOptions(options.getMemoryInitialSize(), options.getMemoryMaximumSize(),
-                options.getJvmArgs(), zincClasspath, SHARED_PACKAGES);
+                withZincAnalysisCacheLimit(options.getJvmArgs()), zincClasspath, SHARED_PACKAGES);
+    }
+
+    private static Iterable<String> withZincAnalysisCacheLimit(List<String> jvmArgs) {
+        for (String jvmArg : jvmArgs) {
+            if (jvmArg.startsWith(ZINC_ANALYSIS_CACHE_LIMIT_ARG)) {
+                return jvmArgs;
+            }
+        }
+        return Iterables.concat(jvmArgs, Collections.singleton(ZINC_ANALYSIS_CACHE_LIMIT_ARG + DEFAULT_ZINC_ANALYSIS_CACHE_LIMIT));
     }
 }
 
@@ -16,7 +16,11 @@
 
 package org.gradle.api.internal.tasks.scala;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.typesafe.zinc.Compiler;
 import com.typesafe.zinc.SbtJars;
 import com.typesafe.zinc.ScalaLocation;
@@ -29,6 +33,7 @@ import org.gradle.cache.internal.CacheRepositoryServices;
 import org.gradle.cache.internal.FileLockManager;
 import org.gradle.internal.Factory;
 import org.gradle.internal.SystemProperties;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.jvm.Jvm;
 import org.gradle.internal.nativeintegration.services.NativeServices;
 import org.gradle.internal.service.DefaultServiceRegistry;
@@ -41,6 +46,9 @@ import xsbti.compile.JavaCompiler;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
@@ -50,9 +58,37 @@ public class ZincScalaCompilerFactory {
     public static final String ZINC_CACHE_HOME_DIR_SYSTEM_PROPERTY = "org.gradle.zinc.home.dir";
     private static final String ZINC_DIR_SYSTEM_PROPERTY = "zinc.dir";
     public static final String ZINC_DIR_IGNORED_MESSAGE = "In order to guarantee parallel safe Scala compilation, Gradle does not support the '" + ZINC_DIR_SYSTEM_PROPERTY + "' system property and ignores any value provided.";
+    public static final String ZINC_COMPILER_CACHE_SIZE_SYSTEM_PROPERTY = "org.gradle.zinc.compiler.cache.size";
+    private static final int DEFAULT_ZINC_COMPILER_CACHE_SIZE = 5;
+
+    // Compilers are kept for the lifetime of the worker daemon, so that subsequent compilations
+    // reuse warm classloaders and JIT-compiled Scala compiler code without opening the Zinc cache.
+    // Values are softly referenced, so cached compilers are evicted when the daemon runs low on heap.
+    private static final Cache<List<Object>, Compiler> COMPILERS = CacheBuilder.newBuilder()
+            .maximumSize(Integer.getInteger(ZINC_COMPILER_CACHE_SIZE_SYSTEM_PROPERTY, DEFAULT_ZINC_COMPILER_CACHE_SIZE))
+            .softValues()
+            .build();
+
+    static Compiler getCompiler(final Iterable<File> scalaClasspath, final Iterable<File> zincClasspath, final xsbti.Logger logger, final File gradleUserHome) {
+        final File zincCacheHomeDir = new File(System.getProperty(ZINC_CACHE_HOME_DIR_SYSTEM_PROPERTY, gradleUserHome.getAbsolutePath()));
+        // The Scala classpath determines the Scala version and the Zinc classpath determines the compiler bridge.
+        // The compiler bridge is read from the Zinc cache, so the cache location is part of the key as well.
+        List<Object> key = ImmutableList.<Object>of(ImmutableList.copyOf(scalaClasspath), ImmutableList.copyOf(zincClasspath), gradleUserHome, zincCacheHomeDir);
+        try {
+            return COMPILERS.get(key, new Callable<Compiler>() {
+                @Override
+                public Compiler call() {
+                    return createParallelSafeCompiler(scalaClasspath, zincClasspath, logger, zincCacheHomeDir);
+                }
+            });
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
+    }
 
-    static Compiler createParallelSafeCompiler(final Iterable<File> scalaClasspath, final Iterable<File> zincClasspath, final xsbti.Logger logger, File gradleUserHome) {
-        File zincCacheHomeDir = new File(System.getProperty(ZINC_CACHE_HOME_DIR_SYSTEM_PROPERTY, gradleUserHome.getAbsolutePath()));
+    static Compiler createParallelSafeCompiler(final Iterable<File> scalaClasspath, final Iterable<File> zincClasspath, final xsbti.Logger logger, File zincCacheHomeDir) {
         CacheRepository cacheRepository = ZincCompilerServices.getInstance(zincCacheHomeDir).get(CacheRepository.class);
 
         String zincVersion = Setup.zincVersion().published();
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.groovy.compile
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import org.gradle.integtests.fixtures.CompilationOutputsFixture
+
+class SourceIncrementalGroovyCompilationIntegrationTest extends AbstractIntegrationSpec {
+
+    CompilationOutputsFixture outputs
+
+    def setup() {
+        outputs = new CompilationOutputsFixture(file("build/classes"))
+
+        buildFile << """
+            apply plugin: 'groovy'
+            dependencies {
+                compile localGroovy()
+            }
+            compileGroovy.options.incremental = true
+        """
+    }
+
+    def "deletes all classes declared in a deleted source file"() {
+        def foo = file("src/main/groovy/Foo.groovy") << """
+            class Foo {}
+            class Bar {}
+        """
+        file("src/main/groovy/Baz.groovy") << "class Baz {}"
+
+        outputs.snapshot { run "compileGroovy" }
+
+        when:
+        assert foo.delete()
+        run "compileGroovy"
+
+        then:
+        outputs.noneRecompiled()
+        outputs.deletedClasses 'Foo', 'Bar'
+    }
+
+    def "recompiles all classes declared in a renamed source file"() {
+        def foo = file("src/main/groovy/Foo.groovy") << """
+            class Foo {}
+            class Bar {}
+        """
+        file("src/main/groovy/Baz.groovy") << "class Baz {}"
+
+        outputs.snapshot { run "compileGroovy" }
+
+        when:
+        assert foo.renameTo(file("src/main/groovy/Renamed.groovy"))
+        run "compileGroovy"
+
+        then:
+        outputs.recompiledClasses 'Foo', 'Bar'
+        outputs.deletedClasses()
+        !output.contains("Full recompilation is required")
+    }
+
+    def "deletes classes no longer declared in a changed source file"() {
+        def foo = file("src/main/groovy/Foo.groovy") << """
+            class Foo {}
+            class Bar {}
+        """
+        file("src/main/groovy/Baz.groovy") << "class Baz {}"
+
+        outputs.snapshot { run "compileGroovy" }
+
+        when:
+        foo.text = "class Foo {}"
+        run "compileGroovy"
+
+        then:
+        outputs.recompiledClasses 'Foo'
+        outputs.deletedClasses 'Bar'
+    }
+}
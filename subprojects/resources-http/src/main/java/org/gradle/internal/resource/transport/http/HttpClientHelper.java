@@ -22,22 +22,26 @@ import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
 import org.apache.http.ProtocolVersion;
 import org.apache.http.StatusLine;
+import org.apache.http.client.AuthCache;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpHead;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.utils.DateUtils;
 import org.apache.http.client.utils.HttpClientUtils;
 import org.apache.http.entity.BufferedHttpEntity;
+import org.apache.http.impl.client.BasicAuthCache;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.protocol.BasicHttpContext;
+import org.gradle.api.Nullable;
 import org.gradle.api.UncheckedIOException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Date;
 import java.util.Locale;
 
 /**
@@ -47,11 +51,23 @@ public class HttpClientHelper implements Closeable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientHelper.class);
     private CloseableHttpClient client;
-    private final BasicHttpContext httpContext = new BasicHttpContext();
+    // Shared by the contexts of all requests, so that a request authenticates preemptively once another request has authenticated
+    // with the same host, and reuses the connections that have been authenticated with NTLM
+    private final AuthCache authCache = new BasicAuthCache();
+    private volatile Object userToken;
     private final HttpSettings settings;
+    private final HttpConnectionPool connectionPool;
 
     public HttpClientHelper(HttpSettings settings) {
+        this(settings, null);
+    }
+
+    /**
+     * Creates a helper whose client uses the connections of the given pool, rather than its own connections.
+     */
+    public HttpClientHelper(HttpSettings settings, @Nullable HttpConnectionPool connectionPool) {
         this.settings = settings;
+        this.connectionPool = connectionPool;
     }
 
     public CloseableHttpResponse performRawHead(String source, boolean revalidate) {
@@ -70,6 +86,21 @@ public class HttpClientHelper implements Closeable {
         return processResponse(source, "GET", performRawGet(source, revalidate));
     }
 
+    /**
+     * Performs a GET that the server may answer with a 304 (Not Modified) response without content, when the resource still has the given
+     * entity tag or has not been modified since the given date.
+     */
+    public CloseableHttpResponse performConditionalGet(String source, @Nullable String etag, @Nullable Date lastModified) {
+        HttpGet request = new HttpGet(source);
+        if (etag != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        }
+        if (lastModified != null) {
+            request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, DateUtils.formatDate(lastModified));
+        }
+        return processResponse(source, "GET", performRequest(request, true));
+    }
+
     public CloseableHttpResponse performRequest(HttpRequestBase request, boolean revalidate) {
         String method = request.getMethod();
         if (revalidate) {
@@ -101,16 +132,31 @@ public class HttpClientHelper implements Closeable {
         return statusCode == 404;
     }
 
+    public boolean wasNotModified(CloseableHttpResponse response) {
+        int statusCode = response.getStatusLine().getStatusCode();
+        return statusCode == 304;
+    }
+
     public boolean wasSuccessful(CloseableHttpResponse response) {
         int statusCode = response.getStatusLine().getStatusCode();
         return statusCode >= 200 && statusCode < 400;
     }
 
     public CloseableHttpResponse performHttpRequest(HttpRequestBase request) throws IOException {
-        // Without this, HTTP Client prohibits multiple redirects to the same location within the same context
-        httpContext.removeAttribute(HttpClientContext.REDIRECT_LOCATIONS);
+        // Requests may be performed concurrently, e.g. when publishing, so each request gets its own context.
+        // This also allows multiple redirects to the same location across requests.
+        HttpClientContext httpContext = HttpClientContext.create();
+        httpContext.setAuthCache(authCache);
+        if (userToken != null) {
+            httpContext.setUserToken(userToken);
+        }
         LOGGER.debug("Performing HTTP {}: {}", request.getMethod(), request.getURI());
-        return getClient().execute(request, httpContext);
+        CloseableHttpResponse response = getClient().execute(request, httpContext);
+        Object newUserToken = httpContext.getUserToken();
+        if (newUserToken != null) {
+            userToken = newUserToken;
+        }
+        return response;
     }
 
     private CloseableHttpResponse processResponse(String source, String method, CloseableHttpResponse response) {
@@ -132,6 +178,9 @@ public class HttpClientHelper implements Closeable {
             HttpClientBuilder builder = HttpClientBuilder.create();
             builder.setRedirectStrategy(new AlwaysRedirectRedirectStrategy());
             new HttpClientConfigurer(settings).configure(builder);
+            if (connectionPool != null) {
+                connectionPool.configure(builder, settings.getSslContextFactory().createSslContext());
+            }
             this.client = builder.build();
         }
         return client;
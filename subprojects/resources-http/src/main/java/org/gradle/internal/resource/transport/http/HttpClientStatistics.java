@@ -0,0 +1,185 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.resource.transport.http;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects statistics about the HTTP requests made through clients that share a {@link HttpConnectionPool}: how often connections are reused,
+ * how many bytes are transferred and how long servers take to start responding.
+ */
+public class HttpClientStatistics {
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong responseCount = new AtomicLong();
+    private final AtomicLong connectionCount = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong timeToFirstByteNanos = new AtomicLong();
+    // The client executes each request and processes its response on the calling thread
+    private final ThreadLocal<Long> requestStarted = new ThreadLocal<Long>();
+
+    public void configure(HttpClientBuilder builder) {
+        builder.addInterceptorLast(new HttpRequestInterceptor() {
+            @Override
+            public void process(HttpRequest request, HttpContext context) throws HttpException, IOException {
+                requestCount.incrementAndGet();
+                if (request instanceof HttpEntityEnclosingRequest) {
+                    HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+                    if (entity != null && entity.getContentLength() > 0) {
+                        bytesSent.addAndGet(entity.getContentLength());
+                    }
+                }
+                requestStarted.set(System.nanoTime());
+            }
+        });
+        // Add first, so that the bytes are counted before any content decoding
+        builder.addInterceptorFirst(new HttpResponseInterceptor() {
+            @Override
+            public void process(HttpResponse response, HttpContext context) throws HttpException, IOException {
+                responseCount.incrementAndGet();
+                Long started = requestStarted.get();
+                if (started != null) {
+                    timeToFirstByteNanos.addAndGet(System.nanoTime() - started);
+                    requestStarted.remove();
+                }
+                HttpEntity entity = response.getEntity();
+                if (entity != null) {
+                    response.setEntity(new CountingEntity(entity));
+                }
+            }
+        });
+    }
+
+    /**
+     * Called when a new connection is opened.
+     */
+    public void connectionOpened() {
+        connectionCount.incrementAndGet();
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    /**
+     * Returns the number of requests that were sent over a connection that had already been used for an earlier request.
+     */
+    public long getReusedConnectionCount() {
+        return Math.max(0, requestCount.get() - connectionCount.get());
+    }
+
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    /**
+     * Returns the average time between sending a request and receiving the start of its response, in milliseconds.
+     */
+    public long getAverageTimeToFirstByteMillis() {
+        long responses = responseCount.get();
+        return responses == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(timeToFirstByteNanos.get() / responses);
+    }
+
+    public synchronized void reset() {
+        requestCount.set(0);
+        responseCount.set(0);
+        connectionCount.set(0);
+        bytesSent.set(0);
+        bytesReceived.set(0);
+        timeToFirstByteNanos.set(0);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("HTTP client statistics: \n");
+        sb.append("   - Requests                : ").append(getRequestCount()).append("\n");
+        sb.append("   - Connections opened      : ").append(getConnectionCount()).append("\n");
+        sb.append("   - Connections reused      : ").append(getReusedConnectionCount()).append("\n");
+        sb.append("   - Bytes sent              : ").append(getBytesSent()).append("\n");
+        sb.append("   - Bytes received          : ").append(getBytesReceived()).append("\n");
+        sb.append("   - Avg time to first byte  : ").append(getAverageTimeToFirstByteMillis()).append("ms\n");
+        return sb.toString();
+    }
+
+    private class CountingEntity extends HttpEntityWrapper {
+        CountingEntity(HttpEntity entity) {
+            super(entity);
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new CountingInputStream(super.getContent());
+        }
+    }
+
+    private class CountingInputStream extends FilterInputStream {
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int result = super.read();
+            if (result >= 0) {
+                bytesReceived.incrementAndGet();
+            }
+            return result;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                bytesReceived.addAndGet(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            if (skipped > 0) {
+                bytesReceived.addAndGet(skipped);
+            }
+            return skipped;
+        }
+    }
+}
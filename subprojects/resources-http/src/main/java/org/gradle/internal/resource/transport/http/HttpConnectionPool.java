@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.resource.transport.http;
+
+import org.apache.http.config.ConnectionConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.HttpConnectionFactory;
+import org.apache.http.conn.ManagedHttpClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.DefaultHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.ManagedHttpClientConnectionFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.gradle.internal.concurrent.Stoppable;
+
+import javax.net.ssl.SSLContext;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A pool of keep-alive HTTP connections that is shared by the HTTP clients of all repositories, so that a connection to a host can be reused
+ * by any repository on that host, and by later builds in the same process.
+ *
+ * <p>Connections are pooled separately for each SSL context, as the SSL context is used when a connection is opened.</p>
+ */
+public class HttpConnectionPool implements Stoppable {
+    private static final int MAX_CONNECTIONS = 100;
+    // Allow enough connections for the concurrent meta-data and artifact downloads from a single repository
+    private static final int MAX_CONNECTIONS_PER_ROUTE = 20;
+    private static final int VALIDATE_AFTER_INACTIVITY_MILLIS = 2000;
+    private static final int MAX_IDLE_SECONDS = 60;
+
+    private final HttpClientStatistics statistics = new HttpClientStatistics();
+    private final Map<SSLContext, PoolingHttpClientConnectionManager> connectionManagers = new HashMap<SSLContext, PoolingHttpClientConnectionManager>();
+
+    /**
+     * Configures the given builder to create a client that uses the shared connections.
+     */
+    public void configure(HttpClientBuilder builder, SSLContext sslContext) {
+        builder.setConnectionManager(getConnectionManager(sslContext));
+        builder.setConnectionManagerShared(true);
+        statistics.configure(builder);
+    }
+
+    public HttpClientStatistics getStatistics() {
+        return statistics;
+    }
+
+    private synchronized PoolingHttpClientConnectionManager getConnectionManager(SSLContext sslContext) {
+        PoolingHttpClientConnectionManager connectionManager = connectionManagers.get(sslContext);
+        if (connectionManager == null) {
+            Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", new SSLConnectionSocketFactory(sslContext, new DefaultHostnameVerifier(null)))
+                .build();
+            connectionManager = new PoolingHttpClientConnectionManager(socketFactoryRegistry, new CountingConnectionFactory());
+            connectionManager.setMaxTotal(MAX_CONNECTIONS);
+            connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+            connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MILLIS);
+            connectionManagers.put(sslContext, connectionManager);
+        } else {
+            // Discard connections that have been idle since an earlier build, as the server has most likely closed them
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(MAX_IDLE_SECONDS, TimeUnit.SECONDS);
+        }
+        return connectionManager;
+    }
+
+    @Override
+    public synchronized void stop() {
+        for (PoolingHttpClientConnectionManager connectionManager : connectionManagers.values()) {
+            connectionManager.shutdown();
+        }
+        connectionManagers.clear();
+    }
+
+    private class CountingConnectionFactory implements HttpConnectionFactory<HttpRoute, ManagedHttpClientConnection> {
+        @Override
+        public ManagedHttpClientConnection create(HttpRoute route, ConnectionConfig config) {
+            statistics.connectionOpened();
+            return ManagedHttpClientConnectionFactory.INSTANCE.create(route, config);
+        }
+    }
+}
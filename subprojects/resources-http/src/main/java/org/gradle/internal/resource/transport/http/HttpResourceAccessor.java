@@ -21,6 +21,8 @@ import org.gradle.api.Nullable;
 import org.gradle.internal.IoActions;
 import org.gradle.internal.resource.metadata.ExternalResourceMetaData;
 import org.gradle.internal.resource.transfer.ExternalResourceAccessor;
+import org.gradle.internal.resource.transfer.ExternalResourceReadResponse;
+import org.gradle.internal.resource.transfer.UnmodifiedExternalResourceReadResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -59,6 +61,23 @@ public class HttpResourceAccessor implements ExternalResourceAccessor {
         return wrapResponse(uri, response);
     }
 
+    @Nullable
+    public ExternalResourceReadResponse openResourceIfModified(URI uri, ExternalResourceMetaData cached) {
+        String location = uri.toString();
+        LOGGER.debug("Constructing external resource if modified: {}", location);
+
+        CloseableHttpResponse response = http.performConditionalGet(location, cached.getEtag(), cached.getLastModified());
+        if (response == null) {
+            return null;
+        }
+        if (http.wasNotModified(response)) {
+            LOGGER.debug("Resource not modified: {}", location);
+            IoActions.closeQuietly(response);
+            return new UnmodifiedExternalResourceReadResponse(cached);
+        }
+        return wrapResponse(uri, response);
+    }
+
     public ExternalResourceMetaData getMetaData(URI uri, boolean revalidate) {
         String location = uri.toString();
         LOGGER.debug("Constructing external resource metadata: {}", location);
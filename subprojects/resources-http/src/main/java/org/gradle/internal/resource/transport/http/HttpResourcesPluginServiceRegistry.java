@@ -16,11 +16,16 @@
 
 package org.gradle.internal.resource.transport.http;
 
+import org.gradle.BuildAdapter;
+import org.gradle.BuildResult;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.authentication.http.BasicAuthentication;
 import org.gradle.authentication.http.DigestAuthentication;
 import org.gradle.internal.authentication.DefaultBasicAuthentication;
 import org.gradle.internal.authentication.DefaultDigestAuthentication;
 import org.gradle.internal.authentication.AuthenticationSchemeRegistry;
+import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.resource.connector.ResourceConnectorFactory;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.PluginServiceRegistry;
@@ -35,6 +40,7 @@ public class HttpResourcesPluginServiceRegistry implements PluginServiceRegistry
 
     public void registerBuildServices(ServiceRegistration registration) {
         registration.addProvider(new AuthenticationSchemeAction());
+        registration.addProvider(new HttpClientStatisticsAction());
     }
 
     public void registerGradleServices(ServiceRegistration registration) {
@@ -48,8 +54,35 @@ public class HttpResourcesPluginServiceRegistry implements PluginServiceRegistry
             return new DefaultSslContextFactory();
         }
 
-        ResourceConnectorFactory createHttpConnectorFactory(SslContextFactory sslContextFactory) {
-            return new HttpConnectorFactory(sslContextFactory);
+        HttpConnectionPool createHttpConnectionPool() {
+            return new HttpConnectionPool();
+        }
+
+        ResourceConnectorFactory createHttpConnectorFactory(SslContextFactory sslContextFactory, HttpConnectionPool connectionPool) {
+            return new HttpConnectorFactory(sslContextFactory, connectionPool);
+        }
+    }
+
+    private static class HttpClientStatisticsAction {
+        public void configure(ServiceRegistration registration, ListenerManager listenerManager, HttpConnectionPool connectionPool) {
+            listenerManager.addListener(new HttpClientStatisticsReporter(connectionPool.getStatistics()));
+        }
+    }
+
+    private static class HttpClientStatisticsReporter extends BuildAdapter {
+        private static final Logger LOGGER = Logging.getLogger(HttpClientStatisticsReporter.class);
+        private final HttpClientStatistics statistics;
+
+        HttpClientStatisticsReporter(HttpClientStatistics statistics) {
+            this.statistics = statistics;
+        }
+
+        @Override
+        public void buildFinished(BuildResult result) {
+            if (statistics.getRequestCount() > 0) {
+                LOGGER.info(statistics.toString());
+            }
+            statistics.reset();
         }
     }
 
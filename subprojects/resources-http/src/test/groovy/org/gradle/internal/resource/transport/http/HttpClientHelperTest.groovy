@@ -16,9 +16,12 @@
 
 package org.gradle.internal.resource.transport.http
 
+import org.apache.http.HttpHost
 import org.apache.http.client.methods.CloseableHttpResponse
 import org.apache.http.client.methods.HttpGet
 import org.apache.http.client.methods.HttpRequestBase
+import org.apache.http.client.protocol.HttpClientContext
+import org.apache.http.impl.auth.BasicScheme
 import org.apache.http.impl.client.CloseableHttpClient
 import org.apache.http.ssl.SSLContexts
 import org.gradle.util.SetSystemProperties
@@ -75,6 +78,38 @@ class HttpClientHelperTest extends AbstractHttpClientTest {
         request.getHeaders("Cache-Control")[0].value == "max-age=0"
     }
 
+    def "requests share the authentication state of previous requests to an authenticated repository"() {
+        def client = new HttpClientHelper(httpSettings)
+        CloseableHttpClient httpClient = Mock()
+        client.client = httpClient
+        def host = new HttpHost("repo.gradle.org", 80, "http")
+        def authScheme = new BasicScheme()
+        def user = "user"
+
+        when:
+        client.performHttpRequest(new HttpGet("http://repo.gradle.org/first"))
+
+        then:
+        1 * httpClient.execute(_, _) >> { HttpRequestBase request, HttpClientContext context ->
+            assert context.authCache.get(host) == null
+            assert context.userToken == null
+            // Simulate a successful authentication
+            context.authCache.put(host, authScheme)
+            context.userToken = user
+            mockedHttpResponse().response
+        }
+
+        when:
+        client.performHttpRequest(new HttpGet("http://repo.gradle.org/second"))
+
+        then:
+        1 * httpClient.execute(_, _) >> { HttpRequestBase request, HttpClientContext context ->
+            assert context.authCache.get(host) != null
+            assert context.userToken == user
+            mockedHttpResponse().response
+        }
+    }
+
     private HttpSettings getHttpSettings() {
         return Stub(HttpSettings) {
             getProxySettings() >> Mock(HttpProxySettings)
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.resource.transport.http
+
+import spock.lang.Specification
+
+class HttpClientStatisticsTest extends Specification {
+    def statistics = new HttpClientStatistics()
+
+    def "calculates reused connections from requests and opened connections"() {
+        when:
+        statistics.connectionOpened()
+        statistics.connectionOpened()
+
+        then:
+        statistics.connectionCount == 2
+        statistics.reusedConnectionCount == 0
+        statistics.averageTimeToFirstByteMillis == 0
+    }
+
+    def "reset clears statistics"() {
+        given:
+        statistics.connectionOpened()
+
+        when:
+        statistics.reset()
+
+        then:
+        statistics.connectionCount == 0
+        statistics.requestCount == 0
+        statistics.bytesReceived == 0
+        statistics.bytesSent == 0
+    }
+}
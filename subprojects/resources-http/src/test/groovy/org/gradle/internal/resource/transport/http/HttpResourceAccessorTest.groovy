@@ -17,6 +17,8 @@
 package org.gradle.internal.resource.transport.http
 
 import org.apache.http.client.methods.CloseableHttpResponse
+import org.gradle.internal.resource.metadata.ExternalResourceMetaData
+import org.gradle.internal.resource.transfer.UnmodifiedExternalResourceReadResponse
 import spock.lang.Specification
 
 class HttpResourceAccessorTest  extends Specification {
@@ -34,4 +36,56 @@ class HttpResourceAccessorTest  extends Specification {
         then:
         1 * response.close()
     }
+
+    def "makes conditional request using validators of cached resource"() {
+        def lastModified = new Date()
+        def cached = Stub(ExternalResourceMetaData) {
+            getEtag() >> '"abc"'
+            getLastModified() >> lastModified
+        }
+        def response = Mock(CloseableHttpResponse)
+        def http = Mock(HttpClientHelper)
+
+        when:
+        def result = new HttpResourceAccessor(http).openResourceIfModified(uri, cached)
+
+        then:
+        result instanceof UnmodifiedExternalResourceReadResponse
+        result.metaData == cached
+
+        and:
+        1 * http.performConditionalGet(uri.toString(), '"abc"', lastModified) >> response
+        1 * http.wasNotModified(response) >> true
+        1 * response.close()
+    }
+
+    def "returns resource when it has been modified"() {
+        def cached = Stub(ExternalResourceMetaData)
+        def response = Mock(CloseableHttpResponse)
+        def http = Mock(HttpClientHelper)
+
+        when:
+        def result = new HttpResourceAccessor(http).openResourceIfModified(uri, cached)
+
+        then:
+        result instanceof HttpResponseResource
+
+        and:
+        1 * http.performConditionalGet(uri.toString(), _, _) >> response
+        1 * http.wasNotModified(response) >> false
+        0 * response.close()
+    }
+
+    def "returns null when resource does not exist"() {
+        def http = Mock(HttpClientHelper)
+
+        when:
+        def result = new HttpResourceAccessor(http).openResourceIfModified(uri, Stub(ExternalResourceMetaData))
+
+        then:
+        result == null
+
+        and:
+        1 * http.performConditionalGet(uri.toString(), _, _) >> null
+    }
 }
@@ -18,12 +18,15 @@ package org.gradle.internal.resource.transport.aws.s3;
 
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.S3Object;
+import org.gradle.internal.Factory;
 import org.gradle.internal.IoActions;
 import org.gradle.internal.resource.local.LocalResource;
 import org.gradle.internal.resource.metadata.DefaultExternalResourceMetaData;
 import org.gradle.internal.resource.metadata.ExternalResourceMetaData;
+import org.gradle.internal.resource.metadata.ExternalResourceMetaDataCompare;
 import org.gradle.internal.resource.transfer.ExternalResourceConnector;
 import org.gradle.internal.resource.transfer.ExternalResourceReadResponse;
+import org.gradle.internal.resource.transfer.UnmodifiedExternalResourceReadResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,6 +58,22 @@ public class S3ResourceConnector implements ExternalResourceConnector {
         return new S3Resource(s3Object, location);
     }
 
+    public ExternalResourceReadResponse openResourceIfModified(URI location, ExternalResourceMetaData cached) {
+        final ExternalResourceMetaData metaData = getMetaData(location, true);
+        if (metaData == null) {
+            return null;
+        }
+        boolean unchanged = ExternalResourceMetaDataCompare.isDefinitelyUnchanged(cached, new Factory<ExternalResourceMetaData>() {
+            public ExternalResourceMetaData create() {
+                return metaData;
+            }
+        });
+        if (unchanged) {
+            return new UnmodifiedExternalResourceReadResponse(metaData);
+        }
+        return openResource(location, true);
+    }
+
     public ExternalResourceMetaData getMetaData(URI location, boolean revalidate) {
         LOGGER.debug("Attempting to get resource metadata: {}", location);
         S3Object s3Object = s3Client.getMetaData(location);
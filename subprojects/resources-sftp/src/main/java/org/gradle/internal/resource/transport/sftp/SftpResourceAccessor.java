@@ -70,4 +70,9 @@ public class SftpResourceAccessor implements ExternalResourceAccessor {
         ExternalResourceMetaData metaData = getMetaData(location, revalidate);
         return metaData != null ? new SftpResource(sftpClientFactory, metaData, location, credentials) : null;
     }
+
+    public ExternalResourceReadResponse openResourceIfModified(URI location, ExternalResourceMetaData cached) {
+        // The content is only transferred when the resource is read, so there's no need for a separate check
+        return openResource(location, true);
+    }
 }
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.resource.local;
+
+import org.gradle.api.Nullable;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.hash.HashValue;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A {@link LocalResource} that calculates a checksum of its content while the content is being read, so that a checksum can be published for
+ * an uploaded resource without reading it a second time.
+ */
+public class ChecksummingLocalResource implements LocalResource {
+    private final LocalResource delegate;
+    private final String algorithm;
+    private volatile HashValue checksum;
+
+    public ChecksummingLocalResource(LocalResource delegate, String algorithm) {
+        this.delegate = delegate;
+        this.algorithm = algorithm;
+    }
+
+    public long getContentLength() {
+        return delegate.getContentLength();
+    }
+
+    public InputStream open() {
+        return new ChecksummingInputStream(delegate.open(), createMessageDigest(), delegate.getContentLength());
+    }
+
+    /**
+     * Returns the checksum of the content, or null when the content has not been read completely.
+     */
+    @Nullable
+    public HashValue getChecksum() {
+        return checksum;
+    }
+
+    private MessageDigest createMessageDigest() {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private class ChecksummingInputStream extends FilterInputStream {
+        private final MessageDigest messageDigest;
+        private final long contentLength;
+        private long count;
+        private boolean complete;
+
+        ChecksummingInputStream(InputStream in, MessageDigest messageDigest, long contentLength) {
+            super(in);
+            this.messageDigest = messageDigest;
+            this.contentLength = contentLength;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int result = super.read();
+            if (result < 0) {
+                completed();
+            } else {
+                messageDigest.update((byte) result);
+                count++;
+                checkCompleted();
+            }
+            return result;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int nread = super.read(b, off, len);
+            if (nread < 0) {
+                completed();
+            } else {
+                messageDigest.update(b, off, nread);
+                count += nread;
+                checkCompleted();
+            }
+            return nread;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipped content is not part of the digest, so the checksum of this stream can no longer be trusted
+            complete = true;
+            return super.skip(n);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void checkCompleted() {
+            // Transports that know the content length stop reading once they have it, without reaching the end of the stream
+            if (count == contentLength) {
+                completed();
+            }
+        }
+
+        private void completed() {
+            if (!complete) {
+                complete = true;
+                checksum = new HashValue(messageDigest.digest());
+            }
+        }
+    }
+}
@@ -56,6 +56,13 @@ public class DefaultExternalResourceConnector implements ExternalResourceConnect
         return accessor.openResource(location, revalidate);
     }
 
+    @Nullable
+    @Override
+    public ExternalResourceReadResponse openResourceIfModified(URI location, ExternalResourceMetaData cached) {
+        STATS.resource(location);
+        return accessor.openResourceIfModified(location, cached);
+    }
+
     @Nullable
     @Override
     public ExternalResourceMetaData getMetaData(URI location, boolean revalidate) {
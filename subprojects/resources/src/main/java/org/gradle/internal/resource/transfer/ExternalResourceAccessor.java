@@ -40,6 +40,24 @@ public interface ExternalResourceAccessor {
     @Nullable
     ExternalResourceReadResponse openResource(URI location, boolean revalidate) throws ResourceException;
 
+    /**
+     * Read the resource at the given location, if it has changed since the given metadata was obtained.
+     *
+     * If the resource does not exist, this method should return null. If the resource has not changed, this method may return a
+     * response without content whose metadata is the given metadata. Callers should compare the metadata of the response with the given
+     * metadata before reading the content.
+     *
+     * If the resource may exist but can't be accessed due to some configuration issue, the implementation
+     * must throw an {@link ResourceException} to indicate a fatal condition.
+     *
+     * @param location The address of the resource to obtain
+     * @param cached The metadata of a previously obtained copy of the resource
+     * @return The resource if it exists, otherwise null. Caller is responsible for closing the result.
+     * @throws ResourceException If the resource may exist, but not could be obtained for some reason.
+     */
+    @Nullable
+    ExternalResourceReadResponse openResourceIfModified(URI location, ExternalResourceMetaData cached) throws ResourceException;
+
     /**
      * Obtains only the metadata about the resource.
      *
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.resource.transfer;
+
+import org.gradle.internal.resource.metadata.ExternalResourceMetaData;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The response to a conditional read of a resource that has not changed since the given metadata was obtained. Has no content.
+ */
+public class UnmodifiedExternalResourceReadResponse implements ExternalResourceReadResponse {
+    private final ExternalResourceMetaData metaData;
+
+    public UnmodifiedExternalResourceReadResponse(ExternalResourceMetaData metaData) {
+        this.metaData = metaData;
+    }
+
+    @Override
+    public InputStream openStream() throws IOException {
+        throw new IOException(String.format("Resource %s has not been modified, so has no content.", metaData.getLocation()));
+    }
+
+    @Override
+    public ExternalResourceMetaData getMetaData() {
+        return metaData;
+    }
+
+    @Override
+    public boolean isLocal() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public String toString() {
+        return "Unmodified resource: " + metaData.getLocation();
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.internal.resource.local
+
+import org.gradle.internal.hash.HashUtil
+import spock.lang.Specification
+
+class ChecksummingLocalResourceTest extends Specification {
+    def content = "some content".bytes
+    def resource = new ChecksummingLocalResource(new ByteArrayLocalResource(content), "SHA1")
+
+    def "calculates checksum once content has been read"() {
+        expect:
+        resource.contentLength == content.length
+        resource.checksum == null
+
+        when:
+        def bytes = resource.open().bytes
+
+        then:
+        bytes == content
+        resource.checksum == HashUtil.sha1(content)
+    }
+
+    def "calculates checksum when content length has been read without reaching end of stream"() {
+        when:
+        def instr = resource.open()
+        def buffer = new byte[content.length]
+        def nread = instr.read(buffer, 0, buffer.length)
+
+        then:
+        nread == content.length
+        resource.checksum == HashUtil.sha1(content)
+    }
+
+    def "has no checksum when content has only been partially read"() {
+        when:
+        def instr = resource.open()
+        instr.read(new byte[4])
+        instr.close()
+
+        then:
+        resource.checksum == null
+    }
+
+    def "has no checksum when content has been skipped"() {
+        when:
+        def instr = resource.open()
+        instr.skip(4)
+        instr.bytes
+
+        then:
+        resource.checksum == null
+    }
+}
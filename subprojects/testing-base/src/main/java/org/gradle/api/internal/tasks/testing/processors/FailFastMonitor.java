@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.processors;
+
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stops test classes from being started once a given number of test failures have been reported, or once it is stopped explicitly,
+ * for example because the build has been cancelled. Test classes that have already started run to completion, and the test classes
+ * that have not been started yet are skipped.
+ */
+public class FailFastMonitor {
+    private final int maxFailures;
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private volatile boolean stopped;
+
+    /**
+     * @param maxFailures the number of failures after which to stop, or 0 to only stop when {@link #stop()} is called.
+     */
+    public FailFastMonitor(int maxFailures) {
+        this.maxFailures = maxFailures;
+    }
+
+    /**
+     * Returns a result processor that counts the failures it is notified of, before passing them on to the given processor.
+     */
+    public TestResultProcessor countFailures(final TestResultProcessor delegate) {
+        return new TestResultProcessor() {
+            @Override
+            public void started(TestDescriptorInternal test, TestStartEvent event) {
+                delegate.started(test, event);
+            }
+
+            @Override
+            public void completed(Object testId, TestCompleteEvent event) {
+                delegate.completed(testId, event);
+            }
+
+            @Override
+            public void output(Object testId, TestOutputEvent event) {
+                delegate.output(testId, event);
+            }
+
+            @Override
+            public void failure(Object testId, Throwable result) {
+                if (failures.incrementAndGet() == maxFailures) {
+                    stop();
+                }
+                delegate.failure(testId, result);
+            }
+        };
+    }
+
+    /**
+     * Returns a test class processor that passes on test classes to the given processor until this monitor stops.
+     */
+    public TestClassProcessor skipWhenStopped(final TestClassProcessor delegate) {
+        return new TestClassProcessor() {
+            @Override
+            public void startProcessing(TestResultProcessor resultProcessor) {
+                delegate.startProcessing(resultProcessor);
+            }
+
+            @Override
+            public void processTestClass(TestClassRunInfo testClass) {
+                if (stopped) {
+                    skipped.incrementAndGet();
+                } else {
+                    delegate.processTestClass(testClass);
+                }
+            }
+
+            @Override
+            public void stop() {
+                delegate.stop();
+            }
+        };
+    }
+
+    public void stop() {
+        stopped = true;
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    public int getFailureCount() {
+        return failures.get();
+    }
+
+    /**
+     * The number of test classes that were not started because this monitor had stopped.
+     */
+    public int getSkippedCount() {
+        return skipped.get();
+    }
+}
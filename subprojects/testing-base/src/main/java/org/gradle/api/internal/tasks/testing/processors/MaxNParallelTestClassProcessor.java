@@ -20,6 +20,8 @@ import org.gradle.internal.Factory;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.specs.Specs;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.actor.Actor;
@@ -27,26 +29,53 @@ import org.gradle.internal.actor.ActorFactory;
 import org.gradle.internal.dispatch.DispatchException;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
 
 /**
- * Manages a set of parallel TestClassProcessors. Uses a simple round-robin algorithm to assign test classes to
- * processors.
+ * Manages a set of parallel TestClassProcessors. A test class is handed to an idle processor, or to a new processor
+ * until the maximum is reached. Otherwise it is queued, and the processors take the next queued test class as they
+ * finish their current one, so that a processor that was given slow test classes does not hold up the others.
+ *
+ * <p>Queued test classes that should run first are handed out before all others. Otherwise, queued test classes are handed
+ * out longest first, based on their expected durations. Test classes without an expected duration are handed out before those
+ * with one, in the order they were received.</p>
  */
 public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     private final int maxProcessors;
     private final Factory<TestClassProcessor> factory;
     private final ActorFactory actorFactory;
+    private final Map<String, Long> expectedDurations;
+    private final Spec<? super String> runFirst;
+    private final Object lock = new Object();
+    private final Queue<QueuedTestClass> queue = new PriorityQueue<QueuedTestClass>();
+    private final List<TestClassProcessor> idleProcessors = new ArrayList<TestClassProcessor>();
+    private long queuedCount;
     private TestResultProcessor resultProcessor;
-    private int pos;
     private List<TestClassProcessor> processors = new ArrayList<TestClassProcessor>();
     private List<Actor> actors = new ArrayList<Actor>();
     private Actor resultProcessorActor;
 
     public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory) {
+        this(maxProcessors, factory, actorFactory, Collections.<String, Long>emptyMap());
+    }
+
+    public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory, Map<String, Long> expectedDurations) {
+        this(maxProcessors, factory, actorFactory, expectedDurations, Specs.satisfyNone());
+    }
+
+    /**
+     * @param runFirst selects the test classes to hand out before all other queued test classes.
+     */
+    public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory, Map<String, Long> expectedDurations, Spec<? super String> runFirst) {
         this.maxProcessors = maxProcessors;
         this.factory = factory;
         this.actorFactory = actorFactory;
+        this.expectedDurations = expectedDurations;
+        this.runFirst = runFirst;
     }
 
     @Override
@@ -59,20 +88,40 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     @Override
     public void processTestClass(TestClassRunInfo testClass) {
         TestClassProcessor processor;
-        if (processors.size() < maxProcessors) {
-            processor = factory.create();
-            Actor actor = actorFactory.createActor(processor);
-            processor = actor.getProxy(TestClassProcessor.class);
-            actors.add(actor);
-            processors.add(processor);
-            processor.startProcessing(resultProcessor);
-        } else {
-            processor = processors.get(pos);
-            pos = (pos + 1) % processors.size();
+        synchronized (lock) {
+            if (!idleProcessors.isEmpty()) {
+                processor = idleProcessors.remove(idleProcessors.size() - 1);
+            } else if (processors.size() < maxProcessors) {
+                QueueingTestClassProcessor queueingProcessor = new QueueingTestClassProcessor(factory.create());
+                Actor actor = actorFactory.createActor(queueingProcessor);
+                processor = actor.getProxy(TestClassProcessor.class);
+                queueingProcessor.proxy = processor;
+                actors.add(actor);
+                processors.add(processor);
+                processor.startProcessing(resultProcessor);
+            } else {
+                String testClassName = testClass.getTestClassName();
+                queue.add(new QueuedTestClass(testClass, runFirst.isSatisfiedBy(testClassName), expectedDurations.get(testClassName), queuedCount++));
+                return;
+            }
         }
         processor.processTestClass(testClass);
     }
 
+    /**
+     * Returns the next queued test class for the given processor, or marks the processor as idle when there is none.
+     */
+    private TestClassRunInfo nextTestClass(TestClassProcessor processor) {
+        synchronized (lock) {
+            QueuedTestClass next = queue.poll();
+            if (next == null) {
+                idleProcessors.add(processor);
+                return null;
+            }
+            return next.testClass;
+        }
+    }
+
     @Override
     public void stop() {
         try {
@@ -81,4 +130,68 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
             throw UncheckedException.throwAsUncheckedException(e.getCause());
         }
     }
+
+    /**
+     * Processes the test class it is given, and then the queued test classes until the queue is empty. A processor
+     * that fails is not handed any further test classes.
+     */
+    private class QueueingTestClassProcessor implements TestClassProcessor {
+        private final TestClassProcessor delegate;
+        private TestClassProcessor proxy;
+
+        QueueingTestClassProcessor(TestClassProcessor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void startProcessing(TestResultProcessor resultProcessor) {
+            delegate.startProcessing(resultProcessor);
+        }
+
+        @Override
+        public void processTestClass(TestClassRunInfo testClass) {
+            TestClassRunInfo next = testClass;
+            while (next != null) {
+                delegate.processTestClass(next);
+                next = nextTestClass(proxy);
+            }
+        }
+
+        @Override
+        public void stop() {
+            delegate.stop();
+        }
+    }
+
+    private static class QueuedTestClass implements Comparable<QueuedTestClass> {
+        private final TestClassRunInfo testClass;
+        private final boolean runFirst;
+        private final Long expectedDuration;
+        private final long sequenceNumber;
+
+        QueuedTestClass(TestClassRunInfo testClass, boolean runFirst, Long expectedDuration, long sequenceNumber) {
+            this.testClass = testClass;
+            this.runFirst = runFirst;
+            this.expectedDuration = expectedDuration;
+            this.sequenceNumber = sequenceNumber;
+        }
+
+        @Override
+        public int compareTo(QueuedTestClass other) {
+            if (runFirst != other.runFirst) {
+                return runFirst ? -1 : 1;
+            }
+            if (expectedDuration == null || other.expectedDuration == null) {
+                if (expectedDuration != null) {
+                    return 1;
+                }
+                if (other.expectedDuration != null) {
+                    return -1;
+                }
+            } else if (!expectedDuration.equals(other.expectedDuration)) {
+                return expectedDuration > other.expectedDuration ? -1 : 1;
+            }
+            return sequenceNumber < other.sequenceNumber ? -1 : (sequenceNumber == other.sequenceNumber ? 0 : 1);
+        }
+    }
 }
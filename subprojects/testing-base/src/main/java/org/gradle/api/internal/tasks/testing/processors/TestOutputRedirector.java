@@ -53,22 +53,37 @@ class TestOutputRedirector {
         if (System.err != null) {
             System.err.flush();
         }
-        outForwarder.outputOwner = testId;
-        errForwarder.outputOwner = testId;
+        outForwarder.setOutputOwner(testId);
+        errForwarder.setOutputOwner(testId);
     }
 
+    /**
+     * Forwards output to the test that was last started or completed on the thread that writes the output. Output from threads that
+     * have not started or completed a test, such as threads started by a test, goes to the test that was last started or completed on
+     * any thread.
+     */
     static class Forwarder implements StandardOutputListener {
         final TestResultProcessor processor;
         final TestOutputEvent.Destination dest;
-        Object outputOwner;
+        final ThreadLocal<Object> threadOutputOwner = new ThreadLocal<Object>();
+        volatile Object outputOwner;
 
         public Forwarder(TestResultProcessor processor, TestOutputEvent.Destination dest) {
             this.processor = processor;
             this.dest = dest;
         }
 
+        void setOutputOwner(Object testId) {
+            threadOutputOwner.set(testId);
+            outputOwner = testId;
+        }
+
         @Override
         public void onOutput(CharSequence output) {
+            Object outputOwner = threadOutputOwner.get();
+            if (outputOwner == null) {
+                outputOwner = this.outputOwner;
+            }
             if (outputOwner == null) {
                 throw new RuntimeException("Unable send output event from test executor. Please report this problem. Destination: " + dest + ", event: " + output.toString());
             }
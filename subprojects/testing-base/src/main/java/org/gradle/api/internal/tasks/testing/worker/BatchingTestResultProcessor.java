@@ -0,0 +1,243 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassDescriptor;
+import org.gradle.api.internal.tasks.testing.DefaultTestDescriptor;
+import org.gradle.api.internal.tasks.testing.DefaultTestMethodDescriptor;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.ThreadFactoryImpl;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes the test events of a test worker and sends them to the build process in batches, instead of one message per event.
+ * A batch is sent when the first event of the batch is older than the flush interval, when the batch is large, and on {@link #flush()}.
+ *
+ * <p>The encoding is decoded by {@link TestEventBatchDecoder}. Class and test names are written once per worker session and referred to
+ * by index afterwards.</p>
+ */
+public class BatchingTestResultProcessor implements TestResultProcessor, Stoppable {
+    private static final int MAX_BATCH_SIZE = 64 * 1024;
+
+    private final RemoteTestEventSink sink;
+    private final ScheduledExecutorService executor;
+    private final int flushIntervalMs;
+    private final Serializer<Object> otherSerializer = TestEventSerializer.create().build(Object.class);
+    // Protected by lock
+    private final Object lock = new Object();
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final KryoBackedEncoder encoder = new KryoBackedEncoder(buffer);
+    private final Map<String, Integer> names = new HashMap<String, Integer>();
+    private int batchStart;
+    private boolean flushScheduled;
+    private boolean stopped;
+
+    public BatchingTestResultProcessor(RemoteTestEventSink sink) {
+        this(sink, createFlushExecutor(), Integer.getInteger("org.gradle.test.eventFlushInterval", 50));
+    }
+
+    private static ScheduledExecutorService createFlushExecutor() {
+        final ThreadFactory threadFactory = new ThreadFactoryImpl("Test event flusher");
+        return Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = threadFactory.newThread(runnable);
+                // Must not keep the worker process alive
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    BatchingTestResultProcessor(RemoteTestEventSink sink, ScheduledExecutorService executor, int flushIntervalMs) {
+        this.sink = sink;
+        this.executor = executor;
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    @Override
+    public void started(TestDescriptorInternal test, TestStartEvent event) {
+        synchronized (lock) {
+            try {
+                encoder.writeSmallInt(TestEventBatch.STARTED);
+                writeDescriptor(test);
+                encoder.writeLong(event.getStartTime());
+                writeId(event.getParentId());
+            } catch (Exception e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            eventAdded();
+        }
+    }
+
+    @Override
+    public void completed(Object testId, TestCompleteEvent event) {
+        synchronized (lock) {
+            try {
+                encoder.writeSmallInt(TestEventBatch.COMPLETED);
+                writeId(testId);
+                encoder.writeLong(event.getEndTime());
+                encoder.writeSmallInt(event.getResultType() == null ? 0 : event.getResultType().ordinal() + 1);
+            } catch (Exception e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            eventAdded();
+        }
+    }
+
+    @Override
+    public void output(Object testId, TestOutputEvent event) {
+        synchronized (lock) {
+            try {
+                encoder.writeSmallInt(TestEventBatch.OUTPUT);
+                writeId(testId);
+                encoder.writeSmallInt(event.getDestination().ordinal());
+                encoder.writeString(event.getMessage());
+            } catch (Exception e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            eventAdded();
+        }
+    }
+
+    @Override
+    public void failure(Object testId, Throwable result) {
+        synchronized (lock) {
+            try {
+                encoder.writeSmallInt(TestEventBatch.FAILURE);
+                writeId(testId);
+                otherSerializer.write(encoder, result);
+            } catch (Exception e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            eventAdded();
+        }
+    }
+
+    private void writeDescriptor(TestDescriptorInternal test) throws Exception {
+        if (test.getClass() == DefaultTestMethodDescriptor.class) {
+            encoder.writeSmallInt(TestEventBatch.METHOD_DESCRIPTOR);
+            writeId(test.getId());
+            writeName(test.getClassName());
+            writeName(test.getName());
+        } else if (test.getClass() == DefaultTestDescriptor.class) {
+            encoder.writeSmallInt(TestEventBatch.TEST_DESCRIPTOR);
+            writeId(test.getId());
+            writeName(test.getClassName());
+            writeName(test.getName());
+        } else if (test.getClass() == DefaultTestClassDescriptor.class) {
+            encoder.writeSmallInt(TestEventBatch.CLASS_DESCRIPTOR);
+            writeId(test.getId());
+            writeName(test.getClassName());
+        } else {
+            // Suites and other descriptors are rare, so use their regular serialization
+            encoder.writeSmallInt(TestEventBatch.OTHER_DESCRIPTOR);
+            otherSerializer.write(encoder, test);
+        }
+    }
+
+    private void writeId(Object id) throws Exception {
+        encoder.writeBoolean(id != null);
+        if (id != null) {
+            otherSerializer.write(encoder, id);
+        }
+    }
+
+    private void writeName(String name) throws Exception {
+        Integer index = names.get(name);
+        if (index != null) {
+            encoder.writeSmallInt(index);
+            return;
+        }
+        // The next index announces a new name
+        encoder.writeSmallInt(names.size());
+        encoder.writeString(name);
+        names.put(name, names.size());
+    }
+
+    private void eventAdded() {
+        if (stopped || encoder.getWritePosition() - batchStart >= MAX_BATCH_SIZE) {
+            sendBatch();
+        } else if (!flushScheduled) {
+            flushScheduled = true;
+            executor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            }, flushIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Sends the events that have not been sent yet.
+     */
+    public void flush() {
+        synchronized (lock) {
+            sendBatch();
+        }
+    }
+
+    private void sendBatch() {
+        flushScheduled = false;
+        if (encoder.getWritePosition() == batchStart) {
+            return;
+        }
+        try {
+            encoder.writeSmallInt(TestEventBatch.END);
+            encoder.flush();
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        byte[] events = buffer.toByteArray();
+        buffer.reset();
+        batchStart = encoder.getWritePosition();
+        sink.process(new TestEventBatch(events));
+    }
+
+    /**
+     * Sends the remaining events and stops flushing.
+     */
+    @Override
+    public void stop() {
+        synchronized (lock) {
+            // Events that arrive later, for example output of threads started by the tests, are sent right away
+            stopped = true;
+            try {
+                sendBatch();
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
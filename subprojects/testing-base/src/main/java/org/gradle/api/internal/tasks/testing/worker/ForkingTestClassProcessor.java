@@ -22,9 +22,12 @@ import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.dispatch.StreamCompletion;
 import org.gradle.internal.operations.BuildOperationWorkerRegistry;
 import org.gradle.internal.remote.ObjectConnection;
 import org.gradle.process.JavaForkOptions;
+import org.gradle.process.internal.ExecException;
 import org.gradle.process.internal.worker.WorkerProcess;
 import org.gradle.process.internal.worker.WorkerProcessBuilder;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
@@ -33,8 +36,15 @@ import org.gradle.util.CollectionUtils;
 import java.io.File;
 import java.net.URL;
 import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
-public class ForkingTestClassProcessor implements TestClassProcessor {
+/**
+ * Runs test classes in a forked worker process. Each test class is handed to the worker once it has finished the previous
+ * one, so {@link #processTestClass(TestClassRunInfo)} blocks until the worker has processed the test class.
+ */
+public class ForkingTestClassProcessor implements TestClassProcessor, TestWorkerClient, StreamCompletion {
     private final WorkerProcessFactory workerFactory;
     private final WorkerTestClassProcessorFactory processorFactory;
     private final JavaForkOptions options;
@@ -42,12 +52,25 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     private final Action<WorkerProcessBuilder> buildConfigAction;
     private final ModuleRegistry moduleRegistry;
     private final BuildOperationWorkerRegistry.Operation owner;
+    private final TestWorkerPool workerPool;
     private RemoteTestClassProcessor remoteProcessor;
     private WorkerProcess workerProcess;
     private TestResultProcessor resultProcessor;
+    private TestEventBatchDecoder eventDecoder;
     private BuildOperationWorkerRegistry.Completion workerCompletion;
+    private final Lock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+    private boolean testClassInProgress;
+    private boolean workerDisconnected;
 
     public ForkingTestClassProcessor(WorkerProcessFactory workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry, BuildOperationWorkerRegistry.Operation owner) {
+        this(workerFactory, processorFactory, options, classPath, buildConfigAction, moduleRegistry, owner, null);
+    }
+
+    /**
+     * @param workerPool the pool to take the worker process from, or null to start a dedicated worker process.
+     */
+    public ForkingTestClassProcessor(WorkerProcessFactory workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry, BuildOperationWorkerRegistry.Operation owner, TestWorkerPool workerPool) {
         this.workerFactory = workerFactory;
         this.processorFactory = processorFactory;
         this.options = options;
@@ -55,6 +78,7 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
         this.buildConfigAction = buildConfigAction;
         this.moduleRegistry = moduleRegistry;
         this.owner = owner;
+        this.workerPool = workerPool;
     }
 
     @Override
@@ -69,10 +93,69 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
             remoteProcessor = forkProcess();
         }
 
+        lock.lock();
+        try {
+            testClassInProgress = true;
+        } finally {
+            lock.unlock();
+        }
         remoteProcessor.processTestClass(testClass);
+        awaitTestClassProcessed(testClass);
+    }
+
+    private void awaitTestClassProcessed(TestClassRunInfo testClass) {
+        lock.lock();
+        try {
+            while (testClassInProgress && !workerDisconnected) {
+                try {
+                    condition.await();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+            if (testClassInProgress) {
+                throw new ExecException(String.format("Test worker process stopped unexpectedly while processing test class '%s'.", testClass.getTestClassName()));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void process(TestEventBatch batch) {
+        eventDecoder.process(batch);
+    }
+
+    @Override
+    public void requestTestClass() {
+        lock.lock();
+        try {
+            testClassInProgress = false;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void endStream() {
+        lock.lock();
+        try {
+            workerDisconnected = true;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
     }
 
     RemoteTestClassProcessor forkProcess() {
+        if (workerPool != null) {
+            RemoteTestClassProcessor remoteProcessor = workerPool.startSession(processorFactory, options, classPath, buildConfigAction,
+                getTestWorkerImplementationClasspath(), resultProcessor, this, this);
+            remoteProcessor.startProcessing();
+            return remoteProcessor;
+        }
+
         WorkerProcessBuilder builder = workerFactory.create(new TestWorker(processorFactory));
         builder.setBaseName("Gradle Test Executor");
         builder.setImplementationClasspath(getTestWorkerImplementationClasspath());
@@ -85,7 +168,8 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
 
         ObjectConnection connection = workerProcess.getConnection();
         connection.useParameterSerializers(TestEventSerializer.create());
-        connection.addIncoming(TestResultProcessor.class, resultProcessor);
+        eventDecoder = new TestEventBatchDecoder(resultProcessor);
+        connection.addIncoming(TestWorkerClient.class, this);
         RemoteTestClassProcessor remoteProcessor = connection.addOutgoing(RemoteTestClassProcessor.class);
         connection.connect();
         remoteProcessor.startProcessing();
@@ -118,7 +202,9 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
         if (remoteProcessor != null) {
             try {
                 remoteProcessor.stop();
-                workerProcess.waitForStop();
+                if (workerProcess != null) {
+                    workerProcess.waitForStop();
+                }
             } finally {
                 workerCompletion.operationFinish();
             }
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+
+import java.net.URL;
+import java.util.List;
+
+/**
+ * The protocol used to run the tests of several Test tasks, one after the other, in the same worker process.
+ * All messages go through this one interface so that the worker receives them in the order they were sent.
+ *
+ * @see ReusableTestWorker
+ */
+public interface RemoteReusableTestWorker {
+    /**
+     * Starts a new session, which loads the given test runtime classpath in a fresh ClassLoader. Does not block.
+     */
+    void startSession(WorkerTestClassProcessorFactory factory, List<URL> applicationClasspath);
+
+    /**
+     * Does not block.
+     */
+    void startProcessing();
+
+    /**
+     * Does not block.
+     */
+    void processTestClass(TestClassRunInfo testClass);
+
+    /**
+     * Stops the current session. The worker calls {@link ReusableTestWorkerClient#sessionStopped()} once all results of the session have been sent. Does not block.
+     */
+    void stopSession();
+
+    /**
+     * Stops the worker process. Does not block.
+     */
+    void stop();
+}
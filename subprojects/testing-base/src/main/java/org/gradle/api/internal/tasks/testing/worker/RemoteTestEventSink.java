@@ -1,5 +1,5 @@
 /*
- * Copyright 2009 the original author or authors.
+ * Copyright 2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -14,8 +14,12 @@
  * limitations under the License.
  */
 
-package org.gradle.api.internal.tasks.testing.detection;
 
-public interface JarFilePackageListener {
-    void receivePackage(String packageName);
+package org.gradle.api.internal.tasks.testing.worker;
+
+/**
+ * Receives the test events of a test worker in batches.
+ */
+public interface RemoteTestEventSink {
+    void process(TestEventBatch batch);
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.Action;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.dispatch.ContextClassLoaderProxy;
+import org.gradle.internal.id.IdGenerator;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.internal.service.DefaultServiceRegistry;
+import org.gradle.internal.time.TimeProvider;
+import org.gradle.process.internal.worker.WorkerProcessContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A test worker that runs the tests of several Test tasks, one session per task. The test runtime classpath of each session
+ * is loaded in a fresh ClassLoader, whose parent is the application ClassLoader of the worker process. The application ClassLoader
+ * only contains the test framework, so that the classes shared with the worker implementation are the same for all sessions.
+ */
+public class ReusableTestWorker implements Action<WorkerProcessContext>, RemoteReusableTestWorker, Serializable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReusableTestWorker.class);
+    private transient WorkerProcessContext workerProcessContext;
+    private transient CountDownLatch completed;
+    private transient ReusableTestWorkerClient client;
+    private transient TestClassProcessor processor;
+    private transient BatchingTestResultProcessor resultProcessor;
+    private transient DefaultServiceRegistry testServices;
+    private transient URLClassLoader sessionClassLoader;
+
+    @Override
+    public void execute(WorkerProcessContext workerProcessContext) {
+        LOGGER.info("{} started.", workerProcessContext.getDisplayName());
+
+        this.workerProcessContext = workerProcessContext;
+        completed = new CountDownLatch(1);
+
+        System.setProperty(TestWorker.WORKER_ID_SYS_PROPERTY, workerProcessContext.getWorkerId().toString());
+
+        ObjectConnection serverConnection = workerProcessContext.getServerConnection();
+        serverConnection.useParameterSerializers(TestEventSerializer.create());
+        client = serverConnection.addOutgoing(ReusableTestWorkerClient.class);
+        serverConnection.addIncoming(RemoteReusableTestWorker.class, this);
+        serverConnection.connect();
+
+        try {
+            completed.await();
+        } catch (InterruptedException e) {
+            throw new UncheckedException(e);
+        } finally {
+            LOGGER.info("{} finished.", workerProcessContext.getDisplayName());
+            closeSession();
+        }
+    }
+
+    @Override
+    public void startSession(WorkerTestClassProcessorFactory factory, List<URL> applicationClasspath) {
+        Thread.currentThread().setName("Test worker");
+        LOGGER.info("{} started executing tests.", workerProcessContext.getDisplayName());
+
+        sessionClassLoader = new URLClassLoader(applicationClasspath.toArray(new URL[0]), workerProcessContext.getApplicationClassLoader());
+        testServices = new TestWorker.TestFrameworkServiceRegistry(workerProcessContext);
+
+        TestClassProcessor targetProcessor = factory.create(testServices);
+        IdGenerator<Object> idGenerator = testServices.get(IdGenerator.class);
+        targetProcessor = new WorkerTestClassProcessor(targetProcessor, idGenerator.generateId(),
+                workerProcessContext.getDisplayName(), testServices.get(TimeProvider.class));
+        processor = new ContextClassLoaderProxy<TestClassProcessor>(TestClassProcessor.class, targetProcessor, sessionClassLoader).getSource();
+        resultProcessor = new BatchingTestResultProcessor(client);
+    }
+
+    @Override
+    public void startProcessing() {
+        Thread.currentThread().setName("Test worker");
+        processor.startProcessing(resultProcessor);
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        Thread.currentThread().setName("Test worker");
+        try {
+            processor.processTestClass(testClass);
+        } finally {
+            // Clean the interrupted status
+            Thread.interrupted();
+            // Send the results of the test class before asking for the next one
+            resultProcessor.flush();
+            client.requestTestClass();
+        }
+    }
+
+    @Override
+    public void stopSession() {
+        Thread.currentThread().setName("Test worker");
+        try {
+            processor.stop();
+        } finally {
+            LOGGER.info("{} finished executing tests.", workerProcessContext.getDisplayName());
+            closeSession();
+            client.sessionStopped();
+        }
+    }
+
+    @Override
+    public void stop() {
+        completed.countDown();
+    }
+
+    private void closeSession() {
+        // Clean out any security manager the tests might have installed
+        System.setSecurityManager(null);
+        try {
+            // Stopping the result processor sends the remaining results of the session
+            CompositeStoppable.stoppable(resultProcessor, testServices, sessionClassLoader).stop();
+        } finally {
+            processor = null;
+            resultProcessor = null;
+            testServices = null;
+            sessionClassLoader = null;
+        }
+    }
+}
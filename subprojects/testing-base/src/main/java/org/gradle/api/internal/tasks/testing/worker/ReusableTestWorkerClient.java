@@ -0,0 +1,27 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.worker;
+
+/**
+ * Receives the results of a {@link ReusableTestWorker}. Results, test class requests and the end of a session share a single
+ * interface so that the end of a session is received after all of its results.
+ */
+public interface ReusableTestWorkerClient extends TestWorkerClient {
+    /**
+     * Called when the worker has finished the current session and can start another. Does not block.
+     */
+    void sessionStopped();
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+/**
+ * A batch of test events sent by a test worker, in the compact encoding of {@link BatchingTestResultProcessor}.
+ */
+public class TestEventBatch {
+    static final int END = 0;
+    static final int STARTED = 1;
+    static final int COMPLETED = 2;
+    static final int OUTPUT = 3;
+    static final int FAILURE = 4;
+
+    static final int OTHER_DESCRIPTOR = 0;
+    static final int CLASS_DESCRIPTOR = 1;
+    static final int METHOD_DESCRIPTOR = 2;
+    static final int TEST_DESCRIPTOR = 3;
+
+    private final byte[] events;
+
+    public TestEventBatch(byte[] events) {
+        this.events = events;
+    }
+
+    public byte[] getEvents() {
+        return events;
+    }
+}
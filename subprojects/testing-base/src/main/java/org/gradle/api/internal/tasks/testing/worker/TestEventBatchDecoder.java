@@ -0,0 +1,129 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassDescriptor;
+import org.gradle.api.internal.tasks.testing.DefaultTestDescriptor;
+import org.gradle.api.internal.tasks.testing.DefaultTestMethodDescriptor;
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.api.tasks.testing.TestResult;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes the batches of test events sent by a {@link BatchingTestResultProcessor} and passes the events on to a result processor.
+ * Batches are decoded on the thread that receives them from the worker connection. One decoder is used per worker session,
+ * as names are only sent once per session.
+ */
+public class TestEventBatchDecoder implements RemoteTestEventSink {
+    private final TestResultProcessor resultProcessor;
+    private final Serializer<Object> otherSerializer = TestEventSerializer.create().build(Object.class);
+    private final List<String> names = new ArrayList<String>();
+
+    public TestEventBatchDecoder(TestResultProcessor resultProcessor) {
+        this.resultProcessor = resultProcessor;
+    }
+
+    @Override
+    public void process(TestEventBatch batch) {
+        Decoder decoder = new KryoBackedDecoder(new ByteArrayInputStream(batch.getEvents()));
+        try {
+            for (int type = decoder.readSmallInt(); type != TestEventBatch.END; type = decoder.readSmallInt()) {
+                processEvent(type, decoder);
+            }
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private void processEvent(int type, Decoder decoder) throws Exception {
+        switch (type) {
+            case TestEventBatch.STARTED:
+                TestDescriptorInternal test = readDescriptor(decoder);
+                long startTime = decoder.readLong();
+                resultProcessor.started(test, new TestStartEvent(startTime, readId(decoder)));
+                break;
+            case TestEventBatch.COMPLETED:
+                Object completedId = readId(decoder);
+                long endTime = decoder.readLong();
+                int resultType = decoder.readSmallInt();
+                resultProcessor.completed(completedId, new TestCompleteEvent(endTime, resultType == 0 ? null : TestResult.ResultType.values()[resultType - 1]));
+                break;
+            case TestEventBatch.OUTPUT:
+                Object outputId = readId(decoder);
+                TestOutputEvent.Destination destination = TestOutputEvent.Destination.values()[decoder.readSmallInt()];
+                resultProcessor.output(outputId, new DefaultTestOutputEvent(destination, decoder.readString()));
+                break;
+            case TestEventBatch.FAILURE:
+                Object failureId = readId(decoder);
+                resultProcessor.failure(failureId, (Throwable) otherSerializer.read(decoder));
+                break;
+            default:
+                throw new IllegalArgumentException(String.format("Unexpected test event type %d found.", type));
+        }
+    }
+
+    private TestDescriptorInternal readDescriptor(Decoder decoder) throws Exception {
+        int type = decoder.readSmallInt();
+        switch (type) {
+            case TestEventBatch.METHOD_DESCRIPTOR:
+                Object methodId = readId(decoder);
+                String methodClassName = readName(decoder);
+                return new DefaultTestMethodDescriptor(methodId, methodClassName, readName(decoder));
+            case TestEventBatch.TEST_DESCRIPTOR:
+                Object testId = readId(decoder);
+                String testClassName = readName(decoder);
+                return new DefaultTestDescriptor(testId, testClassName, readName(decoder));
+            case TestEventBatch.CLASS_DESCRIPTOR:
+                Object classId = readId(decoder);
+                return new DefaultTestClassDescriptor(classId, readName(decoder));
+            case TestEventBatch.OTHER_DESCRIPTOR:
+                return (TestDescriptorInternal) otherSerializer.read(decoder);
+            default:
+                throw new IllegalArgumentException(String.format("Unexpected test descriptor type %d found.", type));
+        }
+    }
+
+    private Object readId(Decoder decoder) throws Exception {
+        if (!decoder.readBoolean()) {
+            return null;
+        }
+        return otherSerializer.read(decoder);
+    }
+
+    private String readName(Decoder decoder) throws Exception {
+        int index = decoder.readSmallInt();
+        if (index < names.size()) {
+            return names.get(index);
+        }
+        String name = decoder.readString();
+        names.add(name);
+        return name;
+    }
+}
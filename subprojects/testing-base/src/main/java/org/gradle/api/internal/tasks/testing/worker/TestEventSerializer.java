@@ -37,6 +37,7 @@ public class TestEventSerializer {
         registry.register(TestCompleteEvent.class, new TestCompleteEventSerializer());
         registry.register(DefaultTestOutputEvent.class, new DefaultTestOutputEventSerializer());
         registry.register(Throwable.class, factory.getSerializerFor(Throwable.class));
+        registry.register(TestEventBatch.class, new TestEventBatchSerializer());
         return registry;
     }
 
@@ -123,6 +124,18 @@ public class TestEventSerializer {
         }
     }
 
+    private static class TestEventBatchSerializer implements Serializer<TestEventBatch> {
+        @Override
+        public TestEventBatch read(Decoder decoder) throws Exception {
+            return new TestEventBatch(decoder.readBinary());
+        }
+
+        @Override
+        public void write(Encoder encoder, TestEventBatch value) throws Exception {
+            encoder.writeBinary(value.getEvents());
+        }
+    }
+
     private static class DefaultTestOutputEventSerializer implements Serializer<DefaultTestOutputEvent> {
         private final Serializer<TestOutputEvent.Destination> destinationSerializer = new BaseSerializerFactory().getSerializerFor(TestOutputEvent.Destination.class);
 
@@ -0,0 +1,549 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.worker;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import org.gradle.api.Action;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.dispatch.StreamCompletion;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.internal.time.TimeProvider;
+import org.gradle.internal.time.TrueTimeProvider;
+import org.gradle.process.JavaForkOptions;
+import org.gradle.process.internal.ExecException;
+import org.gradle.process.internal.JavaExecHandleBuilder;
+import org.gradle.process.internal.worker.WorkerProcess;
+import org.gradle.process.internal.worker.WorkerProcessBuilder;
+import org.gradle.process.internal.worker.WorkerProcessFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * A pool of test worker processes that are kept running between Test tasks, so that a task whose worker configuration matches an
+ * idle worker does not pay for the start-up of a new JVM. The pool lives as long as the build session, so workers are also
+ * reused by the builds of a continuous build.
+ *
+ * <p>Two workers are compatible when they are started with the same JVM, JVM arguments, environment and working directory and
+ * have the same test framework classes in their application ClassLoader. The rest of the test runtime classpath is loaded in a
+ * fresh ClassLoader for each task, see {@link ReusableTestWorker}.</p>
+ *
+ * <p>The pool is disabled unless the {@value #ENABLED_PROPERTY} system property is set to {@code true}. Idle workers are stopped
+ * once they have been idle for longer than {@value #MAX_IDLE_TIME_PROPERTY} seconds. The maximum heap sizes of all workers of the
+ * pool, idle or in use, add up to at most {@value #MAX_MEMORY_PROPERTY} megabytes. Idle workers are stopped to make room for a new
+ * worker, and a new worker that still does not fit is not added to the pool, but stopped at the end of its session.</p>
+ */
+public class TestWorkerPool implements Stoppable {
+    private static final Logger LOGGER = Logging.getLogger(TestWorkerPool.class);
+
+    public static final String ENABLED_PROPERTY = "org.gradle.test.worker.pool";
+    public static final String MAX_MEMORY_PROPERTY = "org.gradle.test.worker.pool.maxMemory";
+    public static final String MAX_IDLE_TIME_PROPERTY = "org.gradle.test.worker.pool.maxIdleTime";
+
+    private static final long DEFAULT_MAX_MEMORY_MB = 2048;
+    private static final long DEFAULT_MAX_IDLE_TIME_SECONDS = 600;
+    // Assumed for workers that do not set a maximum heap size
+    private static final long DEFAULT_MAX_HEAP_SIZE = 512L * 1024 * 1024;
+
+    private final WorkerProcessFactory workerFactory;
+    private final TimeProvider timeProvider;
+    private final boolean enabled;
+    private final long maxMemory;
+    private final long maxIdleTime;
+    private final Object lock = new Object();
+    private final List<PooledTestWorker> allWorkers = new ArrayList<PooledTestWorker>();
+    private final List<PooledTestWorker> idleWorkers = new ArrayList<PooledTestWorker>();
+    // The memory of the pooled workers that are being started
+    private long startingMemory;
+    private final ConcurrentMap<List<Object>, Boolean> sharedPackageEntries = new ConcurrentHashMap<List<Object>, Boolean>();
+
+    public TestWorkerPool(WorkerProcessFactory workerFactory) {
+        this(workerFactory, new TrueTimeProvider(), Boolean.getBoolean(ENABLED_PROPERTY),
+            Long.getLong(MAX_MEMORY_PROPERTY, DEFAULT_MAX_MEMORY_MB) * 1024 * 1024,
+            TimeUnit.SECONDS.toMillis(Long.getLong(MAX_IDLE_TIME_PROPERTY, DEFAULT_MAX_IDLE_TIME_SECONDS)));
+    }
+
+    TestWorkerPool(WorkerProcessFactory workerFactory, TimeProvider timeProvider, boolean enabled, long maxMemory, long maxIdleTime) {
+        this.workerFactory = workerFactory;
+        this.timeProvider = timeProvider;
+        this.enabled = enabled;
+        this.maxMemory = maxMemory;
+        this.maxIdleTime = maxIdleTime;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts a session on an idle compatible worker, or on a new worker when there is none. The worker goes back to the pool
+     * when the session is stopped.
+     *
+     * @param testClassSource Notified when the worker has processed a test class.
+     * @param completion Notified when the worker stops unexpectedly.
+     */
+    public RemoteTestClassProcessor startSession(WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath,
+                                                 Action<WorkerProcessBuilder> buildConfigAction, List<URL> implementationClasspath,
+                                                 TestResultProcessor resultProcessor, RemoteTestClassSource testClassSource, StreamCompletion completion) {
+        WorkerProcessBuilder builder = workerFactory.create(new ReusableTestWorker());
+        builder.setBaseName("Gradle Test Executor");
+        builder.setImplementationClasspath(implementationClasspath);
+        options.copyTo(builder.getJavaCommand());
+        buildConfigAction.execute(builder);
+
+        List<File> frameworkClasspath = new ArrayList<File>();
+        List<URL> sessionClasspath = new ArrayList<URL>();
+        for (File file : classPath) {
+            if (containsSharedPackage(file, builder.getSharedPackages())) {
+                frameworkClasspath.add(file);
+            } else {
+                sessionClasspath.add(toUrl(file));
+            }
+        }
+        builder.applicationClasspath(frameworkClasspath);
+
+        List<Object> key = keyOf(builder, frameworkClasspath);
+        PooledTestWorker worker = reserveIdleWorker(key);
+        if (worker == null) {
+            worker = startWorker(builder, key, maxHeapSizeOf(options));
+        }
+        worker.startSession(processorFactory, sessionClasspath, resultProcessor, testClassSource, completion);
+        return worker;
+    }
+
+    private PooledTestWorker reserveIdleWorker(List<Object> key) {
+        List<PooledTestWorker> evicted = new ArrayList<PooledTestWorker>();
+        PooledTestWorker reserved = null;
+        synchronized (lock) {
+            evictStaleWorkers(evicted);
+            Iterator<PooledTestWorker> it = idleWorkers.iterator();
+            while (it.hasNext()) {
+                PooledTestWorker candidate = it.next();
+                if (candidate.key.equals(key)) {
+                    it.remove();
+                    reserved = candidate;
+                    break;
+                }
+            }
+        }
+        CompositeStoppable.stoppable(evicted).stop();
+        if (reserved != null) {
+            LOGGER.info("Reusing an idle test worker from the test worker pool.");
+        }
+        return reserved;
+    }
+
+    private PooledTestWorker startWorker(WorkerProcessBuilder builder, List<Object> key, long maxHeapSize) {
+        List<PooledTestWorker> evicted = new ArrayList<PooledTestWorker>();
+        boolean pooled;
+        synchronized (lock) {
+            // The workers in use count towards the maximum, so stopping idle workers may not make enough room
+            pooled = usedMemory() - memoryOf(idleWorkers) + maxHeapSize <= maxMemory;
+            if (pooled) {
+                evictIdleWorkers(maxMemory - maxHeapSize, evicted);
+                startingMemory += maxHeapSize;
+            }
+        }
+        CompositeStoppable.stoppable(evicted).stop();
+        if (!pooled) {
+            LOGGER.info("Starting a test worker that is not added to the test worker pool, as the pooled workers already use the maximum amount of memory.");
+        }
+
+        PooledTestWorker worker = null;
+        try {
+            WorkerProcess process = builder.build();
+            process.start();
+
+            worker = new PooledTestWorker(key, maxHeapSize, process);
+            ObjectConnection connection = process.getConnection();
+            connection.useParameterSerializers(TestEventSerializer.create());
+            connection.addIncoming(ReusableTestWorkerClient.class, worker);
+            worker.remote = connection.addOutgoing(RemoteReusableTestWorker.class);
+            connection.connect();
+        } finally {
+            if (pooled) {
+                synchronized (lock) {
+                    startingMemory -= maxHeapSize;
+                    if (worker != null) {
+                        allWorkers.add(worker);
+                    }
+                }
+            }
+        }
+        return worker;
+    }
+
+    private void release(PooledTestWorker worker) {
+        List<PooledTestWorker> evicted = new ArrayList<PooledTestWorker>();
+        synchronized (lock) {
+            if (allWorkers.contains(worker)) {
+                worker.idleSince = timeProvider.getCurrentTime();
+                idleWorkers.add(worker);
+            } else {
+                // Not part of the pool, see startWorker()
+                evicted.add(worker);
+            }
+            evictStaleWorkers(evicted);
+            evictIdleWorkers(maxMemory, evicted);
+        }
+        CompositeStoppable.stoppable(evicted).stop();
+    }
+
+    /**
+     * Stops the workers that have been idle for the longest time first, until all workers of the pool use at most the given amount of memory.
+     */
+    private void evictIdleWorkers(long memory, List<PooledTestWorker> evicted) {
+        long usedMemory = usedMemory();
+        while (usedMemory > memory && !idleWorkers.isEmpty()) {
+            PooledTestWorker oldest = idleWorkers.remove(0);
+            allWorkers.remove(oldest);
+            usedMemory -= oldest.maxHeapSize;
+            evicted.add(oldest);
+        }
+    }
+
+    private long usedMemory() {
+        return startingMemory + memoryOf(allWorkers);
+    }
+
+    private static long memoryOf(List<PooledTestWorker> workers) {
+        long memory = 0;
+        for (PooledTestWorker worker : workers) {
+            memory += worker.maxHeapSize;
+        }
+        return memory;
+    }
+
+    private void discard(PooledTestWorker worker) {
+        synchronized (lock) {
+            allWorkers.remove(worker);
+        }
+        worker.stop();
+    }
+
+    private void evictStaleWorkers(List<PooledTestWorker> evicted) {
+        long now = timeProvider.getCurrentTime();
+        Iterator<PooledTestWorker> it = idleWorkers.iterator();
+        while (it.hasNext()) {
+            PooledTestWorker worker = it.next();
+            if (now - worker.idleSince > maxIdleTime || worker.isDisconnected()) {
+                it.remove();
+                allWorkers.remove(worker);
+                evicted.add(worker);
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        List<PooledTestWorker> workers;
+        synchronized (lock) {
+            workers = new ArrayList<PooledTestWorker>(allWorkers);
+            allWorkers.clear();
+            idleWorkers.clear();
+        }
+        if (!workers.isEmpty()) {
+            LOGGER.debug("Stopping {} pooled test worker(s).", workers.size());
+            CompositeStoppable.stoppable(workers).stop();
+        }
+    }
+
+    private static List<Object> keyOf(WorkerProcessBuilder builder, List<File> frameworkClasspath) {
+        JavaExecHandleBuilder javaCommand = builder.getJavaCommand();
+        return Arrays.<Object>asList(
+            javaCommand.getExecutable(),
+            javaCommand.getAllJvmArgs(),
+            javaCommand.getWorkingDir(),
+            new TreeMap<String, Object>(javaCommand.getEnvironment()),
+            new TreeSet<String>(builder.getSharedPackages()),
+            builder.getLogLevel(),
+            frameworkClasspath);
+    }
+
+    static long maxHeapSizeOf(JavaForkOptions options) {
+        String maxHeapSize = options.getMaxHeapSize();
+        if (maxHeapSize == null) {
+            return DEFAULT_MAX_HEAP_SIZE;
+        }
+        String value = maxHeapSize.trim().toLowerCase();
+        long multiplier = 1;
+        if (value.endsWith("k")) {
+            multiplier = 1024;
+        } else if (value.endsWith("m")) {
+            multiplier = 1024 * 1024;
+        } else if (value.endsWith("g")) {
+            multiplier = 1024 * 1024 * 1024;
+        }
+        if (multiplier != 1) {
+            value = value.substring(0, value.length() - 1);
+        }
+        try {
+            return Long.parseLong(value) * multiplier;
+        } catch (NumberFormatException e) {
+            return DEFAULT_MAX_HEAP_SIZE;
+        }
+    }
+
+    /**
+     * Returns true when the given classpath entry contains classes from one of the packages that are shared with the worker
+     * implementation, such as the test framework. Those entries must be loaded by the application ClassLoader of the worker.
+     */
+    private boolean containsSharedPackage(File file, Set<String> sharedPackages) {
+        if (sharedPackages.isEmpty()) {
+            return false;
+        }
+        List<Object> cacheKey = ImmutableList.<Object>of(file, file.length(), file.lastModified(), new TreeSet<String>(sharedPackages));
+        Boolean result = sharedPackageEntries.get(cacheKey);
+        if (result == null) {
+            result = scanForSharedPackage(file, sharedPackages);
+            sharedPackageEntries.put(cacheKey, result);
+        }
+        return result;
+    }
+
+    private static boolean scanForSharedPackage(File file, Set<String> sharedPackages) {
+        List<String> prefixes = Lists.newArrayList();
+        for (String sharedPackage : sharedPackages) {
+            prefixes.add(sharedPackage.replace('.', '/') + "/");
+        }
+        if (file.isDirectory()) {
+            for (String prefix : prefixes) {
+                if (new File(file, prefix).isDirectory()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (!file.isFile()) {
+            return false;
+        }
+        try {
+            ZipFile zipFile = new ZipFile(file);
+            try {
+                Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                while (entries.hasMoreElements()) {
+                    String name = entries.nextElement().getName();
+                    for (String prefix : prefixes) {
+                        if (name.startsWith(prefix)) {
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            } finally {
+                zipFile.close();
+            }
+        } catch (IOException e) {
+            // Not an archive, so it cannot contain classes
+            return false;
+        }
+    }
+
+    private static URL toUrl(File file) {
+        try {
+            return file.toURI().toURL();
+        } catch (MalformedURLException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A worker process of the pool. Forwards the messages of the worker to the processors of the current session.
+     */
+    private class PooledTestWorker implements RemoteTestClassProcessor, ReusableTestWorkerClient, StreamCompletion, Stoppable {
+        private final List<Object> key;
+        private final long maxHeapSize;
+        private final WorkerProcess process;
+        private final Lock sessionLock = new ReentrantLock();
+        private final Condition sessionStopped = sessionLock.newCondition();
+        private RemoteReusableTestWorker remote;
+        private long idleSince;
+        private boolean sessionActive;
+        private boolean disconnected;
+        private TestEventBatchDecoder eventDecoder;
+        private RemoteTestClassSource testClassSource;
+        private StreamCompletion completion;
+
+        PooledTestWorker(List<Object> key, long maxHeapSize, WorkerProcess process) {
+            this.key = key;
+            this.maxHeapSize = maxHeapSize;
+            this.process = process;
+        }
+
+        void startSession(WorkerTestClassProcessorFactory processorFactory, List<URL> sessionClasspath, TestResultProcessor resultProcessor,
+                          RemoteTestClassSource testClassSource, StreamCompletion completion) {
+            sessionLock.lock();
+            try {
+                // Names are sent once per session, so each session needs a new decoder
+                this.eventDecoder = new TestEventBatchDecoder(resultProcessor);
+                this.testClassSource = testClassSource;
+                this.completion = completion;
+                sessionActive = true;
+            } finally {
+                sessionLock.unlock();
+            }
+            remote.startSession(processorFactory, sessionClasspath);
+        }
+
+        @Override
+        public void startProcessing() {
+            remote.startProcessing();
+        }
+
+        @Override
+        public void processTestClass(TestClassRunInfo testClass) {
+            remote.processTestClass(testClass);
+        }
+
+        /**
+         * Stops the current session, waiting until the worker has sent all of its results, and then returns the worker to the pool.
+         */
+        @Override
+        public void stop() {
+            if (!isSessionActive()) {
+                // Not in use, so the pool is stopping the worker
+                try {
+                    remote.stop();
+                } finally {
+                    process.waitForStop();
+                }
+                return;
+            }
+
+            remote.stopSession();
+            boolean workerStopped;
+            sessionLock.lock();
+            try {
+                while (sessionActive && !disconnected) {
+                    try {
+                        sessionStopped.await();
+                    } catch (InterruptedException e) {
+                        throw UncheckedException.throwAsUncheckedException(e);
+                    }
+                }
+                workerStopped = sessionActive;
+                sessionActive = false;
+                eventDecoder = null;
+                testClassSource = null;
+                completion = null;
+            } finally {
+                sessionLock.unlock();
+            }
+
+            if (workerStopped) {
+                discard(this);
+                throw new ExecException("Pooled test worker process stopped unexpectedly.");
+            }
+            release(this);
+        }
+
+        private boolean isDisconnected() {
+            sessionLock.lock();
+            try {
+                return disconnected;
+            } finally {
+                sessionLock.unlock();
+            }
+        }
+
+        private boolean isSessionActive() {
+            sessionLock.lock();
+            try {
+                return sessionActive;
+            } finally {
+                sessionLock.unlock();
+            }
+        }
+
+        @Override
+        public void process(TestEventBatch batch) {
+            TestEventBatchDecoder eventDecoder;
+            sessionLock.lock();
+            try {
+                eventDecoder = this.eventDecoder;
+            } finally {
+                sessionLock.unlock();
+            }
+            eventDecoder.process(batch);
+        }
+
+        @Override
+        public void requestTestClass() {
+            RemoteTestClassSource testClassSource;
+            sessionLock.lock();
+            try {
+                testClassSource = this.testClassSource;
+            } finally {
+                sessionLock.unlock();
+            }
+            testClassSource.requestTestClass();
+        }
+
+        @Override
+        public void sessionStopped() {
+            sessionLock.lock();
+            try {
+                sessionActive = false;
+                sessionStopped.signalAll();
+            } finally {
+                sessionLock.unlock();
+            }
+        }
+
+        @Override
+        public void endStream() {
+            StreamCompletion completion;
+            sessionLock.lock();
+            try {
+                disconnected = true;
+                completion = sessionActive ? this.completion : null;
+                sessionStopped.signalAll();
+            } finally {
+                sessionLock.unlock();
+            }
+            if (completion != null) {
+                completion.endStream();
+            }
+        }
+    }
+}
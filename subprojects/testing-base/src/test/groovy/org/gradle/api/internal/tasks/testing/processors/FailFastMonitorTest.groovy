@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.processors
+
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import spock.lang.Specification
+
+class FailFastMonitorTest extends Specification {
+    def delegate = Mock(TestClassProcessor)
+    def resultProcessor = Mock(TestResultProcessor)
+
+    def "skips test classes once the given number of failures have been reported"() {
+        def monitor = new FailFastMonitor(2)
+        def processor = monitor.skipWhenStopped(delegate)
+        def results = monitor.countFailures(resultProcessor)
+        def test1 = Stub(TestClassRunInfo)
+        def test2 = Stub(TestClassRunInfo)
+        def failure = new RuntimeException()
+
+        when:
+        results.failure("test1", failure)
+        processor.processTestClass(test1)
+
+        then:
+        1 * resultProcessor.failure("test1", failure)
+        1 * delegate.processTestClass(test1)
+        !monitor.stopped
+
+        when:
+        results.failure("test2", failure)
+        processor.processTestClass(test2)
+        processor.stop()
+
+        then:
+        1 * resultProcessor.failure("test2", failure)
+        0 * delegate.processTestClass(_)
+        1 * delegate.stop()
+        monitor.stopped
+        monitor.failureCount == 2
+        monitor.skippedCount == 1
+    }
+
+    def "skips test classes once stopped"() {
+        def monitor = new FailFastMonitor(0)
+        def processor = monitor.skipWhenStopped(delegate)
+        def results = monitor.countFailures(resultProcessor)
+        def test1 = Stub(TestClassRunInfo)
+
+        when:
+        results.failure("test1", new RuntimeException())
+
+        then:
+        !monitor.stopped
+
+        when:
+        monitor.stop()
+        processor.processTestClass(test1)
+
+        then:
+        0 * delegate.processTestClass(_)
+        monitor.skippedCount == 1
+    }
+}
@@ -19,6 +19,7 @@ package org.gradle.api.internal.tasks.testing.processors
 import org.gradle.api.internal.tasks.testing.TestClassProcessor
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.specs.Spec
 import org.gradle.internal.actor.Actor
 import org.gradle.internal.actor.ActorFactory
 import spock.lang.Specification
@@ -71,7 +72,7 @@ class MaxNParallelTestClassProcessorTest extends Specification {
 
         then:
         1 * factory.create() >> processor1
-        1 * actorFactory.createActor(processor1) >> actor1
+        1 * actorFactory.createActor(_) >> actor1
         1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
         1 * asyncProcessor1.startProcessing(asyncResultProcessor)
         1 * asyncProcessor1.processTestClass(test)
@@ -101,7 +102,7 @@ class MaxNParallelTestClassProcessorTest extends Specification {
 
         then:
         1 * factory.create() >> processor1
-        1 * actorFactory.createActor(processor1) >> actor1
+        1 * actorFactory.createActor(_) >> actor1
         1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
         1 * asyncProcessor1.startProcessing(asyncResultProcessor)
         1 * asyncProcessor1.processTestClass(test)
@@ -111,7 +112,7 @@ class MaxNParallelTestClassProcessorTest extends Specification {
 
         then:
         1 * factory.create() >> processor2
-        1 * actorFactory.createActor(processor2) >> actor2
+        1 * actorFactory.createActor(_) >> actor2
         1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
         1 * asyncProcessor2.startProcessing(asyncResultProcessor)
         1 * asyncProcessor2.processTestClass(test)
@@ -124,47 +125,115 @@ class MaxNParallelTestClassProcessorTest extends Specification {
         1 * asyncProcessor2.stop()
     }
 
-    def roundRobinsTestClassesToProcessors() {
-        TestClassRunInfo test = Mock()
+    def queuesTestClassesUntilAProcessorIsIdle() {
+        TestClassRunInfo test1 = testClass("Test1")
+        TestClassRunInfo test2 = testClass("Test2")
+        TestClassRunInfo test3 = testClass("Test3")
+        TestClassRunInfo test4 = testClass("Test4")
         TestClassProcessor processor1 = Mock()
         TestClassProcessor processor2 = Mock()
-        TestClassProcessor asyncProcessor1 = Mock()
-        TestClassProcessor asyncProcessor2 = Mock()
-        Actor actor1 = Mock()
-        Actor actor2 = Mock()
 
+        given:
         startProcessor()
+        factory.create() >>> [processor1, processor2]
+        actorFactory.createActor(_) >> { args -> synchronousActor(args[0]) }
 
         when:
-        processor.processTestClass(test)
+        processor.processTestClass(test1)
 
         then:
-        1 * factory.create() >> processor1
-        1 * actorFactory.createActor(processor1) >> actor1
-        1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
-        1 * asyncProcessor1.startProcessing(asyncResultProcessor)
-        1 * asyncProcessor1.processTestClass(test)
+        1 * processor1.processTestClass(test1) >> { processor.processTestClass(test2) }
+        1 * processor2.processTestClass(test2) >> {
+            processor.processTestClass(test3)
+            processor.processTestClass(test4)
+        }
+
+        then:
+        1 * processor2.processTestClass(test3)
+
+        then:
+        1 * processor2.processTestClass(test4)
+        0 * processor1.processTestClass(_)
+    }
+
+    def handsOutQueuedTestClassesLongestFirst() {
+        def orderingProcessor = new MaxNParallelTestClassProcessor(1, factory, actorFactory, [Slow: 1000L, Fast: 10L, Medium: 100L])
+        TestClassProcessor processor1 = Mock()
+        def classes = ["First", "Fast", "Slow", "New", "Medium"].collect { testClass(it) }
+        def processed = []
+
+        given:
+        actorFactory.createActor(resultProcessor) >> resultProcessorActor
+        actorFactory.createActor(_) >> { args -> synchronousActor(args[0]) }
+        factory.create() >> processor1
+        processor1.processTestClass(_) >> { TestClassRunInfo test ->
+            processed << test.testClassName
+            if (test == classes[0]) {
+                classes.tail().each { orderingProcessor.processTestClass(it) }
+            }
+        }
+        orderingProcessor.startProcessing(resultProcessor)
 
         when:
-        processor.processTestClass(test)
+        orderingProcessor.processTestClass(classes[0])
 
         then:
-        1 * factory.create() >> processor2
-        1 * actorFactory.createActor(processor2) >> actor2
-        1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
-        1 * asyncProcessor2.startProcessing(asyncResultProcessor)
-        1 * asyncProcessor2.processTestClass(test)
+        processed == ["First", "New", "Slow", "Medium", "Fast"]
+    }
+
+    def handsOutQueuedTestClassesToRunFirstBeforeAllOthers() {
+        def orderingProcessor = new MaxNParallelTestClassProcessor(1, factory, actorFactory, [Slow: 1000L, Failed: 10L], { it.startsWith("Failed") || it.startsWith("Changed") } as Spec<String>)
+        TestClassProcessor processor1 = Mock()
+        def classes = ["First", "Slow", "Failed", "New", "Changed"].collect { testClass(it) }
+        def processed = []
+
+        given:
+        actorFactory.createActor(resultProcessor) >> resultProcessorActor
+        actorFactory.createActor(_) >> { args -> synchronousActor(args[0]) }
+        factory.create() >> processor1
+        processor1.processTestClass(_) >> { TestClassRunInfo test ->
+            processed << test.testClassName
+            if (test == classes[0]) {
+                classes.tail().each { orderingProcessor.processTestClass(it) }
+            }
+        }
+        orderingProcessor.startProcessing(resultProcessor)
 
         when:
-        processor.processTestClass(test)
+        orderingProcessor.processTestClass(classes[0])
 
         then:
-        1 * asyncProcessor1.processTestClass(test)
+        processed == ["First", "Changed", "Failed", "New", "Slow"]
+    }
+
+    def reusesIdleProcessorBeforeStartingAnother() {
+        TestClassRunInfo test1 = testClass("Test1")
+        TestClassRunInfo test2 = testClass("Test2")
+        TestClassProcessor processor1 = Mock()
+
+        given:
+        startProcessor()
+        actorFactory.createActor(_) >> { args -> synchronousActor(args[0]) }
 
         when:
-        processor.processTestClass(test)
+        processor.processTestClass(test1)
+        processor.processTestClass(test2)
 
         then:
-        1 * asyncProcessor2.processTestClass(test)
+        1 * factory.create() >> processor1
+        1 * processor1.processTestClass(test1)
+        1 * processor1.processTestClass(test2)
+    }
+
+    def testClass(String name) {
+        Stub(TestClassRunInfo) {
+            getTestClassName() >> name
+        }
+    }
+
+    def synchronousActor(Object target) {
+        Stub(Actor) {
+            getProxy(_) >> target
+        }
     }
 }
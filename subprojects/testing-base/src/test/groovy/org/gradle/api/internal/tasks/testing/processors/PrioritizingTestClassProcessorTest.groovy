@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.processors
+
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.specs.Spec
+import spock.lang.Specification
+
+class PrioritizingTestClassProcessorTest extends Specification {
+    def delegate = Mock(TestClassProcessor)
+    def processor = new PrioritizingTestClassProcessor(delegate, { String name -> name.startsWith("Failed") } as Spec<String>)
+
+    def "passes on the test classes to run first straight away and all others when stopped"() {
+        def resultProcessor = Mock(TestResultProcessor)
+        def other1 = testClass("OtherTest1")
+        def failed = testClass("FailedTest")
+        def other2 = testClass("OtherTest2")
+
+        when:
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(other1)
+        processor.processTestClass(failed)
+        processor.processTestClass(other2)
+
+        then:
+        1 * delegate.startProcessing(resultProcessor)
+        1 * delegate.processTestClass(failed)
+        0 * delegate._
+
+        when:
+        processor.stop()
+
+        then:
+        1 * delegate.processTestClass(other1)
+
+        then:
+        1 * delegate.processTestClass(other2)
+
+        then:
+        1 * delegate.stop()
+        0 * delegate._
+    }
+
+    def testClass(String name) {
+        Stub(TestClassRunInfo) {
+            getTestClassName() >> name
+        }
+    }
+}
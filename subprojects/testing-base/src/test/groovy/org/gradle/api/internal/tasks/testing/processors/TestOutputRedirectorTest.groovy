@@ -78,4 +78,20 @@ class TestOutputRedirectorTest extends Specification {
         })
         0 * _
     }
+
+    def "attributes output to the owner set by the thread that writes it"() {
+        redirector.setOutputOwner("1")
+        def thread = new Thread({ redirector.setOutputOwner("2") })
+        thread.start()
+        thread.join()
+
+        when:
+        redirector.outForwarder.onOutput("main")
+        new Thread({ redirector.outForwarder.onOutput("other") }).with { start(); join() }
+
+        then:
+        1 * processor.output("1", { it.message == "main" })
+        1 * processor.output("2", { it.message == "other" })
+        0 * _
+    }
 }
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassDescriptor
+import org.gradle.api.internal.tasks.testing.DefaultTestMethodDescriptor
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
+import org.gradle.api.internal.tasks.testing.DefaultTestSuiteDescriptor
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.TestStartEvent
+import org.gradle.api.tasks.testing.TestOutputEvent
+import org.gradle.api.tasks.testing.TestResult
+import org.gradle.internal.id.CompositeIdGenerator
+import spock.lang.Specification
+
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+
+class BatchingTestResultProcessorTest extends Specification {
+    def target = Mock(TestResultProcessor)
+    def decoder = new TestEventBatchDecoder(target)
+    def batches = []
+    def sink = { TestEventBatch batch ->
+        batches << batch
+        decoder.process(batch)
+    } as RemoteTestEventSink
+    def executor = Mock(ScheduledExecutorService)
+    def processor = new BatchingTestResultProcessor(sink, executor, 50)
+
+    def "sends events in a batch when flushed"() {
+        def suite = new DefaultTestSuiteDescriptor(id(1), "suite")
+        def testClass = new DefaultTestClassDescriptor(id(2), "org.gradle.FooTest")
+        def test1 = new DefaultTestMethodDescriptor(id(3), "org.gradle.FooTest", "test1")
+        def test2 = new DefaultTestMethodDescriptor(id(4), "org.gradle.FooTest", "test2")
+        def failure = new RuntimeException("broken")
+
+        when:
+        processor.started(suite, new TestStartEvent(100))
+        processor.started(testClass, new TestStartEvent(101, id(1)))
+        processor.started(test1, new TestStartEvent(102, id(2)))
+        processor.output(id(3), new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "out"))
+        processor.completed(id(3), new TestCompleteEvent(103))
+        processor.started(test2, new TestStartEvent(104, id(2)))
+        processor.failure(id(4), failure)
+        processor.completed(id(4), new TestCompleteEvent(105, TestResult.ResultType.SKIPPED))
+
+        then:
+        batches.empty
+        1 * executor.schedule(_, 50, TimeUnit.MILLISECONDS)
+        0 * target._
+
+        when:
+        processor.flush()
+
+        then:
+        batches.size() == 1
+
+        then:
+        1 * target.started({ it instanceof DefaultTestSuiteDescriptor && it.id == id(1) && it.name == "suite" }, { it.startTime == 100 && it.parentId == null })
+        then:
+        1 * target.started({ it instanceof DefaultTestClassDescriptor && it.id == id(2) && it.className == "org.gradle.FooTest" }, { it.startTime == 101 && it.parentId == id(1) })
+        then:
+        1 * target.started({ it instanceof DefaultTestMethodDescriptor && it.id == id(3) && it.className == "org.gradle.FooTest" && it.name == "test1" }, { it.parentId == id(2) })
+        then:
+        1 * target.output(id(3), new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "out"))
+        then:
+        1 * target.completed(id(3), { it.endTime == 103 && it.resultType == null })
+        then:
+        1 * target.started({ it.id == id(4) && it.className == "org.gradle.FooTest" && it.name == "test2" }, _)
+        then:
+        1 * target.failure(id(4), { it instanceof RuntimeException && it.message == "broken" })
+        then:
+        1 * target.completed(id(4), { it.endTime == 105 && it.resultType == TestResult.ResultType.SKIPPED })
+        0 * target._
+    }
+
+    def "sends each name once"() {
+        def test = new DefaultTestMethodDescriptor(id(3), "org.gradle.SomeTestClassWithALongName", "someTestMethodWithALongName")
+
+        when:
+        processor.started(test, new TestStartEvent(100))
+        processor.flush()
+        def firstSize = batches[0].events.length
+        processor.started(test, new TestStartEvent(100))
+        processor.flush()
+
+        then:
+        batches.size() == 2
+        batches[1].events.length < firstSize - "org.gradle.SomeTestClassWithALongName".length()
+        2 * target.started({ it.className == "org.gradle.SomeTestClassWithALongName" && it.name == "someTestMethodWithALongName" }, _)
+    }
+
+    def "schedules a flush for the first event of a batch"() {
+        def flush = null
+
+        when:
+        processor.output(id(1), new DefaultTestOutputEvent(TestOutputEvent.Destination.StdErr, "1"))
+        processor.output(id(1), new DefaultTestOutputEvent(TestOutputEvent.Destination.StdErr, "2"))
+
+        then:
+        1 * executor.schedule(_, 50, TimeUnit.MILLISECONDS) >> { flush = it[0]; null }
+
+        when:
+        flush.run()
+
+        then:
+        batches.size() == 1
+        2 * target.output(id(1), _)
+
+        when:
+        processor.output(id(1), new DefaultTestOutputEvent(TestOutputEvent.Destination.StdErr, "3"))
+
+        then:
+        1 * executor.schedule(_, 50, TimeUnit.MILLISECONDS)
+    }
+
+    def "sends a batch when it gets large"() {
+        def message = "x" * 1024
+
+        when:
+        100.times {
+            processor.output(id(1), new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, message))
+        }
+
+        then:
+        batches.size() == 1
+        batches[0].events.length < 70 * 1024
+    }
+
+    def "sends remaining and later events when stopped"() {
+        when:
+        processor.output(id(1), new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "1"))
+        processor.stop()
+
+        then:
+        1 * target.output(id(1), _)
+        1 * executor.shutdownNow()
+
+        when:
+        processor.output(id(1), new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "2"))
+
+        then:
+        1 * target.output(id(1), _)
+        0 * executor._
+    }
+
+    def id(long id) {
+        return new CompositeIdGenerator.CompositeId(1L, id)
+    }
+}
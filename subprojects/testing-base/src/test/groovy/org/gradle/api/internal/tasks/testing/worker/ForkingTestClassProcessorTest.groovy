@@ -25,6 +25,7 @@ import org.gradle.internal.classpath.ClassPath
 import org.gradle.internal.operations.BuildOperationWorkerRegistry
 import org.gradle.internal.remote.ObjectConnection
 import org.gradle.process.JavaForkOptions
+import org.gradle.process.internal.ExecException
 import org.gradle.process.internal.worker.WorkerProcess
 import org.gradle.process.internal.worker.WorkerProcessBuilder
 import org.gradle.process.internal.worker.WorkerProcessFactory
@@ -55,11 +56,28 @@ class ForkingTestClassProcessorTest extends Specification {
 
         then:
         1 * processor.forkProcess() >> remoteProcessor
-        1 * remoteProcessor.processTestClass(test1)
-        1 * remoteProcessor.processTestClass(test2)
+        1 * remoteProcessor.processTestClass(test1) >> { processor.requestTestClass() }
+        1 * remoteProcessor.processTestClass(test2) >> { processor.requestTestClass() }
         0 * remoteProcessor._
     }
 
+    def "fails when worker process disconnects while processing a test class"() {
+        def test = Mock(TestClassRunInfo) {
+            getTestClassName() >> "SomeTest"
+        }
+        def remoteProcessor = Mock(RemoteTestClassProcessor)
+        owner.operationStart() >> Mock(BuildOperationWorkerRegistry.Completion)
+        processor.forkProcess() >> remoteProcessor
+
+        when:
+        processor.processTestClass(test)
+
+        then:
+        1 * remoteProcessor.processTestClass(test) >> { processor.endStream() }
+        def e = thrown(ExecException)
+        e.message == "Test worker process stopped unexpectedly while processing test class 'SomeTest'."
+    }
+
     def "starts process with a limited implementation classpath"() {
         setup:
         1 * workerProcessFactory.create(_) >> workerProcessBuilder
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.Action
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
+import org.gradle.api.logging.LogLevel
+import org.gradle.internal.dispatch.StreamCompletion
+import org.gradle.internal.remote.ObjectConnection
+import org.gradle.internal.time.TimeProvider
+import org.gradle.process.JavaForkOptions
+import org.gradle.process.internal.ExecException
+import org.gradle.process.internal.JavaExecHandleBuilder
+import org.gradle.process.internal.worker.WorkerProcess
+import org.gradle.process.internal.worker.WorkerProcessBuilder
+import org.gradle.process.internal.worker.WorkerProcessFactory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class TestWorkerPoolTest extends Specification {
+    static final long MB = 1024 * 1024
+
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    WorkerProcessFactory workerFactory = Mock(WorkerProcessFactory)
+    WorkerTestClassProcessorFactory processorFactory = Mock(WorkerTestClassProcessorFactory)
+    long now = 0
+    List<String> jvmArgs = ["-ea"]
+    List<Object> classpath = []
+    List<Map<String, Object>> workers = []
+    TestWorkerPool pool = new TestWorkerPool(workerFactory, Stub(TimeProvider) { getCurrentTime() >> { now } }, true, 200 * MB, 1000)
+
+    def setup() {
+        _ * workerFactory.create(_) >> { createBuilder() }
+    }
+
+    def "reuses an idle worker with the same configuration"() {
+        when:
+        startSession().stop()
+        startSession().stop()
+
+        then:
+        workers.size() == 1
+        workers[0].sessions == 2
+    }
+
+    def "does not reuse a worker that is in use"() {
+        when:
+        startSession()
+        startSession()
+
+        then:
+        workers.size() == 2
+    }
+
+    def "does not reuse a worker with different JVM arguments"() {
+        when:
+        startSession().stop()
+        jvmArgs = ["-ea", "-Dsome.property=value"]
+        startSession().stop()
+
+        then:
+        workers.size() == 2
+    }
+
+    def "stops the workers that have been idle the longest to make room for a new worker"() {
+        given:
+        startSession("64m").stop()
+        jvmArgs = ["-ea", "-Dsome.property=value"]
+        startSession("64m").stop()
+        jvmArgs = ["-ea", "-Dsome.property=other"]
+
+        when:
+        startSession("128m")
+
+        then:
+        1 * workers[0].remote.stop()
+        1 * workers[0].process.waitForStop()
+        0 * workers[1].remote.stop()
+        workers.size() == 3
+    }
+
+    def "counts workers in use towards the maximum memory and does not pool a worker that does not fit"() {
+        given:
+        def first = startSession("128m")
+        def second = startSession("128m")
+
+        when:
+        second.stop()
+
+        then:
+        1 * workers[1].remote.stop()
+        1 * workers[1].process.waitForStop()
+
+        when:
+        first.stop()
+        startSession("128m")
+
+        then:
+        0 * workers[0].remote.stop()
+        workers.size() == 2
+        workers[0].sessions == 2
+    }
+
+    def "stops workers that have been idle for too long"() {
+        given:
+        startSession().stop()
+        now = 2000
+
+        when:
+        startSession()
+
+        then:
+        1 * workers[0].remote.stop()
+        1 * workers[0].process.waitForStop()
+        workers.size() == 2
+    }
+
+    def "does not reuse a worker that stopped unexpectedly"() {
+        given:
+        startSession().stop()
+        disconnect(workers[0])
+
+        when:
+        startSession()
+
+        then:
+        workers.size() == 2
+    }
+
+    def "fails when the worker stops unexpectedly during a session"() {
+        given:
+        def completion = Mock(StreamCompletion)
+        def session = pool.startSession(processorFactory, Stub(JavaForkOptions), classpath, Stub(Action), [], Stub(TestResultProcessor), Stub(RemoteTestClassSource), completion)
+
+        when:
+        disconnect(workers[0])
+
+        then:
+        1 * completion.endStream()
+
+        when:
+        session.stop()
+
+        then:
+        def e = thrown(ExecException)
+        e.message == "Pooled test worker process stopped unexpectedly."
+        1 * workers[0].remote.stop()
+
+        when:
+        startSession()
+
+        then:
+        workers.size() == 2
+    }
+
+    def "loads the test framework in the application ClassLoader of the worker and the other classpath entries for each session"() {
+        def frameworkDir = tmpDir.createDir("framework")
+        frameworkDir.createDir("org/junit")
+        def classesDir = tmpDir.createDir("classes")
+        classesDir.createDir("org/gradle")
+        def missingFile = tmpDir.file("missing.jar")
+        classpath = [frameworkDir, classesDir, missingFile]
+
+        when:
+        startSession()
+
+        then:
+        workers[0].applicationClasspath == [frameworkDir]
+        workers[0].sessionClasspath == [classesDir.toURI().toURL(), missingFile.toURI().toURL()]
+    }
+
+    def "stops all workers when stopped"() {
+        given:
+        startSession().stop()
+        startSession()
+
+        when:
+        pool.stop()
+
+        then:
+        1 * workers[0].remote.stop()
+        1 * workers[0].process.waitForStop()
+        1 * workers[1].remote.stop()
+        1 * workers[1].process.waitForStop()
+    }
+
+    def "determines maximum heap size of worker"() {
+        expect:
+        TestWorkerPool.maxHeapSizeOf(Stub(JavaForkOptions) { getMaxHeapSize() >> value }) == expected
+
+        where:
+        value     | expected
+        "1024"    | 1024
+        "256k"    | 256 * 1024
+        "512m"    | 512 * MB
+        "2G"      | 2048 * MB
+        null      | 512 * MB
+        "invalid" | 512 * MB
+    }
+
+    def disconnect(Map<String, Object> worker) {
+        worker.disconnected = true
+        worker.client.endStream()
+    }
+
+    def startSession(String maxHeapSize = "64m") {
+        def options = Stub(JavaForkOptions) {
+            getMaxHeapSize() >> maxHeapSize
+        }
+        return pool.startSession(processorFactory, options, classpath, Stub(Action), [], Stub(TestResultProcessor), Stub(RemoteTestClassSource), Stub(StreamCompletion))
+    }
+
+    def createBuilder() {
+        def worker = [sessions: 0, disconnected: false]
+        def javaCommand = Stub(JavaExecHandleBuilder) {
+            getExecutable() >> "java"
+            getAllJvmArgs() >> { jvmArgs }
+            getWorkingDir() >> new File("work")
+            getEnvironment() >> [:]
+        }
+        def remote = Mock(RemoteReusableTestWorker) {
+            _ * startSession(_, _) >> { worker.sessions++; worker.sessionClasspath = it[1] }
+            _ * stopSession() >> {
+                if (!worker.disconnected) {
+                    worker.client.sessionStopped()
+                }
+            }
+        }
+        def connection = Stub(ObjectConnection) {
+            addIncoming(ReusableTestWorkerClient, _) >> { worker.client = it[1] }
+            addOutgoing(RemoteReusableTestWorker) >> remote
+        }
+        def process = Mock(WorkerProcess) {
+            _ * getConnection() >> connection
+        }
+        return Stub(WorkerProcessBuilder) {
+            getJavaCommand() >> javaCommand
+            getSharedPackages() >> (["org.junit"] as Set)
+            getLogLevel() >> LogLevel.LIFECYCLE
+            applicationClasspath(_) >> {
+                worker.applicationClasspath = it[0]
+                return null
+            }
+            build() >> {
+                worker.process = process
+                worker.remote = remote
+                workers << worker
+                process
+            }
+        }
+    }
+}
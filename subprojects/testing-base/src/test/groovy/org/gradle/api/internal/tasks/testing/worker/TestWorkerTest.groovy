@@ -17,10 +17,13 @@
 
 package org.gradle.api.internal.tasks.testing.worker
 
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
 import org.gradle.api.internal.tasks.testing.TestClassProcessor
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestResultProcessor
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
+import org.gradle.api.tasks.testing.TestOutputEvent
+import org.gradle.internal.id.CompositeIdGenerator
 import org.gradle.internal.remote.ObjectConnection
 import org.gradle.process.internal.worker.WorkerProcessContext
 import org.gradle.test.fixtures.concurrent.ConcurrentSpec
@@ -34,7 +37,7 @@ public class TestWorkerTest extends ConcurrentSpec {
     def factory = Mock(WorkerTestClassProcessorFactory)
     def processor = Mock(TestClassProcessor)
     def test = Mock(TestClassRunInfo)
-    def resultProcessor = Mock(TestResultProcessor)
+    def client = Mock(TestWorkerClient)
     def worker = new TestWorker(factory)
 
     def setup() {
@@ -55,7 +58,7 @@ public class TestWorkerTest extends ConcurrentSpec {
 
         and:
         1 * factory.create(_) >> processor
-        1 * connection.addOutgoing(TestResultProcessor) >> resultProcessor
+        1 * connection.addOutgoing(TestWorkerClient) >> client
         1 * connection.addIncoming(RemoteTestClassProcessor, worker)
         1 * connection.useParameterSerializers(_)
         1 * connection.connect() >> {
@@ -69,6 +72,38 @@ public class TestWorkerTest extends ConcurrentSpec {
         }
         1 * processor.startProcessing(_)
         1 * processor.processTestClass(test)
+        1 * client.requestTestClass()
         1 * processor.stop()
     }
+
+    def sendsResultsOfTestClassBeforeRequestingTheNextOne() {
+        given:
+        TestResultProcessor resultProcessor = null
+        def calls = []
+        _ * client.process(_) >> { calls << "results" }
+        _ * client.requestTestClass() >> { calls << "request" }
+
+        when:
+        async {
+            worker.execute(workerContext)
+        }
+
+        then:
+        1 * factory.create(_) >> processor
+        1 * connection.addOutgoing(TestWorkerClient) >> client
+        1 * connection.connect() >> {
+            start {
+                worker.startProcessing()
+                worker.processTestClass(test)
+                worker.stop()
+            }
+        }
+        1 * processor.startProcessing(_) >> { resultProcessor = it[0] }
+        1 * processor.processTestClass(test) >> {
+            resultProcessor.output(new CompositeIdGenerator.CompositeId(1L, 1L), new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "out"))
+        }
+
+        and:
+        calls.take(2) == ["results", "request"]
+    }
 }
@@ -16,38 +16,47 @@
 
 package org.gradle.api.internal.tasks.testing.detection;
 
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.StringUtils;
 import org.gradle.api.GradleException;
+import org.gradle.api.Nullable;
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.internal.Factory;
 import org.gradle.util.internal.Java9ClassReader;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStream;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.gradle.internal.FileUtils.hasExtension;
 
+/**
+ * Detects test classes by scanning their class files, and those of their super classes. Detection of separate test classes may happen
+ * concurrently, see {@link #detectTestClass(File)}.
+ */
 public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor> implements TestFrameworkDetector {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractTestFrameworkDetector.class);
     protected static final String TEST_CASE = "junit/framework/TestCase";
     protected static final String GROOVY_TEST_CASE = "groovy/util/GroovyTestCase";
     protected static final String JAVA_LANG_OBJECT = "java/lang/Object";
 
     private List<File> testClassDirectories;
     private final ClassFileExtractionManager classFileExtractionManager;
-    private final Map<File, Boolean> superClasses;
+    private final ConcurrentMap<String, Boolean> superClasses;
     private TestClassProcessor testClassProcessor;
     private final List<String> knownTestCaseClassNames;
+    private TestClassScanCache scanCache;
 
     private File testClassesDirectory;
     private Set<File> testClasspath;
@@ -55,60 +64,42 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
     protected AbstractTestFrameworkDetector(ClassFileExtractionManager classFileExtractionManager) {
         assert classFileExtractionManager != null;
         this.classFileExtractionManager = classFileExtractionManager;
-        this.superClasses = new HashMap<File, Boolean>();
-        this.knownTestCaseClassNames = new ArrayList<String>();
+        this.superClasses = new ConcurrentHashMap<String, Boolean>();
+        this.knownTestCaseClassNames = new CopyOnWriteArrayList<String>();
         addKnownTestCaseClassNames(TEST_CASE, GROOVY_TEST_CASE);
     }
 
     protected abstract T createClassVisitor();
 
-    protected File getSuperTestClassFile(String superClassName) {
-        prepareClasspath();
-        if (StringUtils.isEmpty(superClassName)) {
-            throw new IllegalArgumentException("superClassName is empty!");
-        }
-
-        final Iterator<File> testClassDirectoriesIt = testClassDirectories.iterator();
-
-        File superTestClassFile = null;
-        while (superTestClassFile == null && testClassDirectoriesIt.hasNext()) {
-            final File testClassDirectory = testClassDirectoriesIt.next();
-            final File superTestClassFileCandidate = new File(testClassDirectory, superClassName + ".class");
-            if (superTestClassFileCandidate.exists()) {
-                superTestClassFile = superTestClassFileCandidate;
-            }
-        }
-
-        if (superTestClassFile != null) {
-            return superTestClassFile;
-        } else if (JAVA_LANG_OBJECT.equals(superClassName)) {
-            // java.lang.Object found, which is not a test class
-            return null;
-        } else {
-            // super test class file not in test class directories
-            return classFileExtractionManager.getLibraryClassFile(superClassName);
-        }
+    /**
+     * Whether a class that extends the given class is a test, regardless of what the super class itself looks like.
+     */
+    protected boolean isKnownTestCase(String superClassName) {
+        return false;
     }
 
-    private void prepareClasspath() {
+    private synchronized List<File> prepareClasspath() {
         if (testClassDirectories != null) {
-            return;
+            return testClassDirectories;
         }
 
-        testClassDirectories = new ArrayList<File>();
+        List<File> directories = new ArrayList<File>();
 
         if (testClassesDirectory != null) {
-            testClassDirectories.add(testClassesDirectory);
+            directories.add(testClassesDirectory);
         }
         if (testClasspath != null) {
             for (File file : testClasspath) {
                 if (file.isDirectory()) {
-                    testClassDirectories.add(file);
+                    directories.add(file);
                 } else if (file.isFile() && hasExtension(file, ".jar")) {
                     classFileExtractionManager.addLibraryJar(file);
                 }
             }
         }
+
+        testClassDirectories = directories;
+        return directories;
     }
 
     @Override
@@ -121,55 +112,107 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         this.testClasspath = testClasspath;
     }
 
-    protected TestClassVisitor classVisitor(final File testClassFile) {
-        final TestClassVisitor classVisitor = createClassVisitor();
+    @Override
+    public void setScanCache(@Nullable TestClassScanCache scanCache) {
+        this.scanCache = scanCache;
+    }
 
-        InputStream classStream = null;
-        try {
-            classStream = new BufferedInputStream(new FileInputStream(testClassFile));
-            final ClassReader classReader = new Java9ClassReader(IOUtils.toByteArray(classStream));
-            classReader.accept(classVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
-        } catch (Throwable e) {
-            throw new GradleException("failed to read class file " + testClassFile.getAbsolutePath(), e);
-        } finally {
-            IOUtils.closeQuietly(classStream);
+    private ScannedClass scanClassFile(final File classFile) {
+        if (scanCache == null) {
+            return scanClass(classFile);
         }
-
-        return classVisitor;
+        return scanCache.get(classFile, getClass().getName(), new Factory<ScannedClass>() {
+            @Override
+            public ScannedClass create() {
+                return scanClass(classFile);
+            }
+        });
     }
 
-    @Override
-    public boolean processTestClass(File testClassFile) {
-        return processTestClass(testClassFile, false);
+    private ScannedClass scanClass(File classFile) {
+        byte[] classBytes;
+        try {
+            classBytes = FileUtils.readFileToByteArray(classFile);
+        } catch (IOException e) {
+            throw new GradleException("failed to read class file " + classFile.getAbsolutePath(), e);
+        }
+        return scanClass(classBytes, classFile.getAbsolutePath());
     }
 
-    protected abstract boolean processTestClass(File testClassFile, boolean superClass);
+    private ScannedClass scanClass(byte[] classBytes, String location) {
+        final TestClassVisitor classVisitor = createClassVisitor();
+        try {
+            final ClassReader classReader = new Java9ClassReader(classBytes);
+            classReader.accept(classVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+        } catch (Throwable e) {
+            throw new GradleException("failed to read class file " + location, e);
+        }
+        return new ScannedClass(classVisitor.getClassName(), classVisitor.getSuperClassName(), classVisitor.isTest(), classVisitor.isAbstract());
+    }
 
-    protected boolean processSuperClass(File testClassFile) {
-        boolean isTest = false;
+    /**
+     * Returns whether the scanned class is a test. If the class is not a test itself, this goes up the inheritance tree to check whether
+     * a super class is a test class. When a super class is a test class, all the extending classes are test classes.
+     */
+    private boolean isTest(ScannedClass scannedClass) {
+        if (scannedClass.isTest()) {
+            return true;
+        }
 
-        Boolean isSuperTest = superClasses.get(testClassFile);
+        String superClassName = scannedClass.getSuperClassName();
+        if (StringUtils.isEmpty(superClassName) || JAVA_LANG_OBJECT.equals(superClassName)) {
+            return false;
+        }
+        if (isKnownTestCase(superClassName)) {
+            return true;
+        }
 
+        Boolean isSuperTest = superClasses.get(superClassName);
         if (isSuperTest == null) {
-            isTest = processTestClass(testClassFile, true);
+            ScannedClass superClass = scanSuperClass(superClassName);
+            if (superClass == null) {
+                LOGGER.debug("test-class-scan : failed to scan parent class {}, could not find the class file", superClassName);
+                isSuperTest = false;
+            } else {
+                isSuperTest = isTest(superClass);
+            }
+            superClasses.put(superClassName, isSuperTest);
+        }
+        return isSuperTest;
+    }
 
-            superClasses.put(testClassFile, isTest);
-        } else {
-            isTest = isSuperTest;
+    @Nullable
+    private ScannedClass scanSuperClass(String superClassName) {
+        for (File testClassDirectory : prepareClasspath()) {
+            File superClassFile = new File(testClassDirectory, superClassName + ".class");
+            if (superClassFile.exists()) {
+                return scanClassFile(superClassFile);
+            }
         }
 
-        return isTest;
+        // super class not in test class directories
+        byte[] classBytes = classFileExtractionManager.getLibraryClass(superClassName);
+        return classBytes == null ? null : scanClass(classBytes, superClassName);
     }
 
-    /**
-     * In none super class mode a test class is published when the class is a test and it is not abstract. In super class mode it must not publish the class otherwise it will get published multiple
-     * times (for each extending class).
-     */
-    protected void publishTestClass(boolean isTest, TestClassVisitor classVisitor, boolean superClass) {
-        if (isTest && !classVisitor.isAbstract() && !superClass) {
-            String className = Type.getObjectType(classVisitor.getClassName()).getClassName();
-            testClassProcessor.processTestClass(new DefaultTestClassRunInfo(className));
+    @Nullable
+    @Override
+    public TestClassRunInfo detectTestClass(File testClassFile) {
+        ScannedClass scannedClass = scanClassFile(testClassFile);
+        if (isTest(scannedClass) && !scannedClass.isAbstract()) {
+            return new DefaultTestClassRunInfo(Type.getObjectType(scannedClass.getClassName()).getClassName());
         }
+        return null;
+    }
+
+    @Override
+    public boolean processTestClass(File testClassFile) {
+        ScannedClass scannedClass = scanClassFile(testClassFile);
+        boolean isTest = isTest(scannedClass);
+        if (isTest && !scannedClass.isAbstract()) {
+            testClassProcessor.processTestClass(new DefaultTestClassRunInfo(Type.getObjectType(scannedClass.getClassName()).getClassName()));
+        }
+        return isTest;
     }
 
     @Override
@@ -22,31 +22,52 @@ import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
 
 import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * The default test class scanner. Depending on the availability of a test framework detector,
  * a detection or filename scan is performed to find test classes.
+ *
+ * <p>When an executor factory is given, class files are inspected by the test framework detector concurrently. The detected test
+ * classes are still handed to the test class processor one at a time and in the order in which their class files are found, as soon as
+ * they and all the class files found before them have been inspected.</p>
  */
 public class DefaultTestClassScanner implements Runnable {
     private final FileTree candidateClassFiles;
     private final TestFrameworkDetector testFrameworkDetector;
     private final TestClassProcessor testClassProcessor;
+    private final ExecutorFactory executorFactory;
 
     public DefaultTestClassScanner(FileTree candidateClassFiles, TestFrameworkDetector testFrameworkDetector,
                                    TestClassProcessor testClassProcessor) {
+        this(candidateClassFiles, testFrameworkDetector, testClassProcessor, null);
+    }
+
+    public DefaultTestClassScanner(FileTree candidateClassFiles, TestFrameworkDetector testFrameworkDetector,
+                                   TestClassProcessor testClassProcessor, ExecutorFactory executorFactory) {
         this.candidateClassFiles = candidateClassFiles;
         this.testFrameworkDetector = testFrameworkDetector;
         this.testClassProcessor = testClassProcessor;
+        this.executorFactory = executorFactory;
     }
 
     @Override
     public void run() {
         if (testFrameworkDetector == null) {
             filenameScan();
-        } else {
+        } else if (executorFactory == null) {
             detectionScan();
+        } else {
+            parallelDetectionScan();
         }
     }
 
@@ -59,6 +80,50 @@ public class DefaultTestClassScanner implements Runnable {
         });
     }
 
+    private void parallelDetectionScan() {
+        testFrameworkDetector.startDetection(testClassProcessor);
+        final Queue<Future<TestClassRunInfo>> pending = new ArrayDeque<Future<TestClassRunInfo>>();
+        final StoppableExecutor executor = executorFactory.create("Test class scanner", Runtime.getRuntime().availableProcessors());
+        try {
+            candidateClassFiles.visit(new ClassFileVisitor() {
+                public void visitClassFile(FileVisitDetails fileDetails) {
+                    final File file = fileDetails.getFile();
+                    pending.add(executor.submit(new Callable<TestClassRunInfo>() {
+                        @Override
+                        public TestClassRunInfo call() {
+                            return testFrameworkDetector.detectTestClass(file);
+                        }
+                    }));
+                    while (!pending.isEmpty() && pending.peek().isDone()) {
+                        publish(pending.remove());
+                    }
+                }
+            });
+            while (!pending.isEmpty()) {
+                publish(pending.remove());
+            }
+        } finally {
+            for (Future<TestClassRunInfo> future : pending) {
+                future.cancel(false);
+            }
+            executor.stop();
+        }
+    }
+
+    private void publish(Future<TestClassRunInfo> detection) {
+        TestClassRunInfo testClass;
+        try {
+            testClass = detection.get();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
+        if (testClass != null) {
+            testClassProcessor.processTestClass(testClass);
+        }
+    }
+
     private void filenameScan() {
         candidateClassFiles.visit(new ClassFileVisitor() {
             public void visitClassFile(FileVisitDetails fileDetails) {
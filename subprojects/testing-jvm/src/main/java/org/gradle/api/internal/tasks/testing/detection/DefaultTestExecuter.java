@@ -17,80 +17,147 @@
 package org.gradle.api.internal.tasks.testing.detection;
 
 import com.google.common.collect.ImmutableSet;
+import org.gradle.api.BuildCancelledException;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.internal.classpath.ModuleRegistry;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestFramework;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.api.internal.tasks.testing.processors.FailFastMonitor;
 import org.gradle.api.internal.tasks.testing.processors.MaxNParallelTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.processors.PrioritizingTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.RestartEveryNTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.processors.SelectingTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.TestMainAction;
 import org.gradle.api.internal.tasks.testing.worker.ForkingTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerPool;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.testing.Test;
+import org.gradle.initialization.BuildCancellationToken;
 import org.gradle.internal.Factory;
 import org.gradle.internal.actor.ActorFactory;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.operations.BuildOperationWorkerRegistry;
 import org.gradle.internal.progress.BuildOperationExecutor;
 import org.gradle.internal.time.TrueTimeProvider;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * The default test class scanner factory.
  */
 public class DefaultTestExecuter implements TestExecuter {
+    private static final Logger LOGGER = Logging.getLogger(DefaultTestExecuter.class);
+
     private final WorkerProcessFactory workerFactory;
     private final ActorFactory actorFactory;
     private final ModuleRegistry moduleRegistry;
     private final BuildOperationWorkerRegistry buildOperationWorkerRegistry;
     private final BuildOperationExecutor buildOperationExecutor;
+    private final Map<String, Long> previousTestClassDurations;
+    private final TestWorkerPool workerPool;
+    private final Spec<? super String> testClassSelection;
+    private final TestClassScanCache scanCache;
+    private final ExecutorFactory executorFactory;
+    private final Spec<? super String> runFirst;
+    private final BuildCancellationToken cancellationToken;
 
     public DefaultTestExecuter(WorkerProcessFactory workerFactory, ActorFactory actorFactory, ModuleRegistry moduleRegistry, BuildOperationWorkerRegistry buildOperationWorkerRegistry, BuildOperationExecutor buildOperationExecutor) {
+        this(workerFactory, actorFactory, moduleRegistry, buildOperationWorkerRegistry, buildOperationExecutor, new TestSchedulingOptions());
+    }
+
+    public DefaultTestExecuter(WorkerProcessFactory workerFactory, ActorFactory actorFactory, ModuleRegistry moduleRegistry, BuildOperationWorkerRegistry buildOperationWorkerRegistry, BuildOperationExecutor buildOperationExecutor, TestSchedulingOptions options) {
         this.workerFactory = workerFactory;
         this.actorFactory = actorFactory;
         this.moduleRegistry = moduleRegistry;
         this.buildOperationWorkerRegistry = buildOperationWorkerRegistry;
         this.buildOperationExecutor = buildOperationExecutor;
+        this.previousTestClassDurations = options.getPreviousTestClassDurations();
+        this.workerPool = options.getWorkerPool();
+        this.testClassSelection = options.getTestClassSelection();
+        this.scanCache = options.getScanCache();
+        this.executorFactory = options.getExecutorFactory();
+        this.runFirst = options.getRunFirst();
+        this.cancellationToken = options.getCancellationToken();
     }
 
     @Override
     public void execute(final Test testTask, TestResultProcessor testResultProcessor) {
+        final FailFastMonitor failFastMonitor = new FailFastMonitor(testTask.getFailFastThreshold());
         final TestFramework testFramework = testTask.getTestFramework();
         final WorkerTestClassProcessorFactory testInstanceFactory = testFramework.getProcessorFactory();
         final BuildOperationWorkerRegistry.Operation currentOperation = buildOperationWorkerRegistry.getCurrent();
         final Set<File> classpath = ImmutableSet.copyOf(testTask.getClasspath());
+        // Tasks that restart their workers or wait for a debugger keep dedicated workers
+        final TestWorkerPool pool = workerPool != null && workerPool.isEnabled() && testTask.getForkEvery() == 0 && !testTask.getDebug() ? workerPool : null;
         final Factory<TestClassProcessor> forkingProcessorFactory = new Factory<TestClassProcessor>() {
             public TestClassProcessor create() {
                 return new ForkingTestClassProcessor(workerFactory, testInstanceFactory, testTask,
-                    classpath, testFramework.getWorkerConfigurationAction(), moduleRegistry, currentOperation);
+                    classpath, testFramework.getWorkerConfigurationAction(), moduleRegistry, currentOperation, pool);
             }
         };
         Factory<TestClassProcessor> reforkingProcessorFactory = new Factory<TestClassProcessor>() {
             public TestClassProcessor create() {
-                return new RestartEveryNTestClassProcessor(forkingProcessorFactory, testTask.getForkEvery());
+                return failFastMonitor.skipWhenStopped(new RestartEveryNTestClassProcessor(forkingProcessorFactory, testTask.getForkEvery()));
             }
         };
 
-        TestClassProcessor processor = new MaxNParallelTestClassProcessor(testTask.getMaxParallelForks(),
-            reforkingProcessorFactory, actorFactory);
+        // Keep the order in which test classes are found when they all run in the same process
+        Map<String, Long> expectedDurations = testTask.getMaxParallelForks() > 1 ? previousTestClassDurations : Collections.<String, Long>emptyMap();
+        TestClassProcessor processor;
+        if (runFirst == null) {
+            processor = new MaxNParallelTestClassProcessor(testTask.getMaxParallelForks(),
+                reforkingProcessorFactory, actorFactory, expectedDurations);
+        } else {
+            processor = new PrioritizingTestClassProcessor(new MaxNParallelTestClassProcessor(testTask.getMaxParallelForks(),
+                reforkingProcessorFactory, actorFactory, expectedDurations, runFirst), runFirst);
+        }
 
         final FileTree testClassFiles = testTask.getCandidateClassFiles();
+        TestClassProcessor detectedClassProcessor = testClassSelection == null ? processor : new SelectingTestClassProcessor(processor, testClassSelection);
 
         Runnable detector;
         if (testTask.isScanForTestClasses()) {
             TestFrameworkDetector testFrameworkDetector = testTask.getTestFramework().getDetector();
             testFrameworkDetector.setTestClassesDirectory(testTask.getTestClassesDir());
             testFrameworkDetector.setTestClasspath(classpath);
-            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor);
+            testFrameworkDetector.setScanCache(scanCache);
+            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, detectedClassProcessor, executorFactory);
         } else {
-            detector = new DefaultTestClassScanner(testClassFiles, null, processor);
+            detector = new DefaultTestClassScanner(testClassFiles, null, detectedClassProcessor);
         }
 
         final Object testTaskOperationId = buildOperationExecutor.getCurrentOperation().getId();
 
-        new TestMainAction(detector, processor, testResultProcessor, new TrueTimeProvider(), testTaskOperationId, testTask.getPath(), "Gradle Test Run " + testTask.getIdentityPath()).run();
+        Runnable cancellationHandler = new Runnable() {
+            @Override
+            public void run() {
+                failFastMonitor.stop();
+            }
+        };
+        if (cancellationToken != null) {
+            cancellationToken.addCallback(cancellationHandler);
+        }
+        try {
+            new TestMainAction(detector, processor, failFastMonitor.countFailures(testResultProcessor), new TrueTimeProvider(), testTaskOperationId, testTask.getPath(), "Gradle Test Run " + testTask.getIdentityPath()).run();
+        } finally {
+            if (cancellationToken != null) {
+                cancellationToken.removeCallback(cancellationHandler);
+            }
+        }
+
+        if (cancellationToken != null && cancellationToken.isCancellationRequested()) {
+            throw new BuildCancelledException();
+        }
+        if (failFastMonitor.isStopped() && failFastMonitor.getSkippedCount() > 0) {
+            LOGGER.lifecycle("Skipped {} test classes after {} test failures.", failFastMonitor.getSkippedCount(), failFastMonitor.getFailureCount());
+        }
     }
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.detection;
+
+import org.gradle.api.Nullable;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+
+/**
+ * What a {@link TestClassVisitor} found out about a single class file, without looking at its super classes.
+ */
+public class ScannedClass {
+    private final String className;
+    private final String superClassName;
+    private final boolean test;
+    private final boolean isAbstract;
+
+    public ScannedClass(String className, @Nullable String superClassName, boolean test, boolean isAbstract) {
+        this.className = className;
+        this.superClassName = superClassName;
+        this.test = test;
+        this.isAbstract = isAbstract;
+    }
+
+    /**
+     * The internal name of the class, such as {@code org/gradle/SomeTest}.
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * The internal name of the super class, or null for {@code java.lang.Object}.
+     */
+    @Nullable
+    public String getSuperClassName() {
+        return superClassName;
+    }
+
+    /**
+     * Whether the class itself is a test class, regardless of its super classes.
+     */
+    public boolean isTest() {
+        return test;
+    }
+
+    public boolean isAbstract() {
+        return isAbstract;
+    }
+
+    public static class Serializer implements org.gradle.internal.serialize.Serializer<ScannedClass> {
+        @Override
+        public ScannedClass read(Decoder decoder) throws Exception {
+            return new ScannedClass(decoder.readString(), decoder.readNullableString(), decoder.readBoolean(), decoder.readBoolean());
+        }
+
+        @Override
+        public void write(Encoder encoder, ScannedClass value) throws Exception {
+            encoder.writeString(value.className);
+            encoder.writeNullableString(value.superClassName);
+            encoder.writeBoolean(value.test);
+            encoder.writeBoolean(value.isAbstract);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.detection;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import org.gradle.api.internal.cache.MinimalPersistentCache;
+import org.gradle.api.internal.hash.FileHasher;
+import org.gradle.cache.CacheRepository;
+import org.gradle.internal.Factory;
+import org.gradle.internal.serialize.HashCodeSerializer;
+
+import java.io.File;
+
+/**
+ * Cross-build, global cache of the results of scanning class files for tests, keyed by the hash of the class file and the kind of scan.
+ */
+public class TestClassScanCache extends MinimalPersistentCache<HashCode, ScannedClass> {
+    private final FileHasher hasher;
+
+    public TestClassScanCache(CacheRepository cacheRepository, FileHasher hasher) {
+        super(cacheRepository, "test class scan", new HashCodeSerializer(), new ScannedClass.Serializer());
+        this.hasher = hasher;
+    }
+
+    /**
+     * Returns the result of scanning the given class file, using the given scanner only when a class file with the same content
+     * has not been scanned by the same kind of scanner before.
+     */
+    public ScannedClass get(File classFile, String scannerType, Factory<ScannedClass> scanner) {
+        HashCode key = Hashing.md5().newHasher()
+            .putBytes(hasher.hash(classFile).asBytes())
+            .putString(scannerType, Charsets.UTF_8)
+            .hash();
+        return get(key, scanner);
+    }
+}
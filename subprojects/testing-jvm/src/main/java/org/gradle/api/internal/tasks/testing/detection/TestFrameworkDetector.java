@@ -15,7 +15,9 @@
  */
 package org.gradle.api.internal.tasks.testing.detection;
 
+import org.gradle.api.Nullable;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 
 import java.io.File;
 import java.util.Set;
@@ -25,7 +27,19 @@ public interface TestFrameworkDetector {
 
     boolean processTestClass(File testClassFile);
 
+    /**
+     * Returns the test class to run for the given class file, or null when the class file does not contain a test class to run.
+     * Unlike {@link #processTestClass(File)}, this method may be called concurrently for different class files.
+     */
+    @Nullable
+    TestClassRunInfo detectTestClass(File testClassFile);
+
     void setTestClassesDirectory(File testClassesDir);
 
     void setTestClasspath(Set<File> classpath);
+
+    /**
+     * Sets the cache to reuse the results of scanning unchanged class files from, or null to scan every class file.
+     */
+    void setScanCache(@Nullable TestClassScanCache scanCache);
 }
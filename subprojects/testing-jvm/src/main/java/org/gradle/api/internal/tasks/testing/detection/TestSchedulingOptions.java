@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.detection;
+
+import org.gradle.api.Nullable;
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerPool;
+import org.gradle.api.specs.Spec;
+import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.internal.concurrent.ExecutorFactory;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The optional inputs that control how a {@link DefaultTestExecuter} finds and schedules test classes. Each input that is not set turns off
+ * the corresponding behaviour.
+ */
+public class TestSchedulingOptions {
+    private Map<String, Long> previousTestClassDurations = Collections.emptyMap();
+    private TestWorkerPool workerPool;
+    private Spec<? super String> testClassSelection;
+    private TestClassScanCache scanCache;
+    private ExecutorFactory executorFactory;
+    private Spec<? super String> runFirst;
+    private BuildCancellationToken cancellationToken;
+
+    /**
+     * The durations of the test classes in the previous execution of the task, by class name. Used to run the slowest test classes first when tests run in parallel.
+     */
+    public Map<String, Long> getPreviousTestClassDurations() {
+        return previousTestClassDurations;
+    }
+
+    public TestSchedulingOptions setPreviousTestClassDurations(Map<String, Long> previousTestClassDurations) {
+        this.previousTestClassDurations = previousTestClassDurations;
+        return this;
+    }
+
+    /**
+     * The pool of reusable test workers, or null to always start dedicated test workers.
+     */
+    @Nullable
+    public TestWorkerPool getWorkerPool() {
+        return workerPool;
+    }
+
+    public TestSchedulingOptions setWorkerPool(@Nullable TestWorkerPool workerPool) {
+        this.workerPool = workerPool;
+        return this;
+    }
+
+    /**
+     * The names of the detected test classes to run, or null to run all of them.
+     */
+    @Nullable
+    public Spec<? super String> getTestClassSelection() {
+        return testClassSelection;
+    }
+
+    public TestSchedulingOptions setTestClassSelection(@Nullable Spec<? super String> testClassSelection) {
+        this.testClassSelection = testClassSelection;
+        return this;
+    }
+
+    /**
+     * The cache of class file scan results to use when detecting test classes, or null to scan all class files.
+     */
+    @Nullable
+    public TestClassScanCache getScanCache() {
+        return scanCache;
+    }
+
+    public TestSchedulingOptions setScanCache(@Nullable TestClassScanCache scanCache) {
+        this.scanCache = scanCache;
+        return this;
+    }
+
+    /**
+     * Used to scan class files for test classes concurrently, or null to scan them one at a time.
+     */
+    @Nullable
+    public ExecutorFactory getExecutorFactory() {
+        return executorFactory;
+    }
+
+    public TestSchedulingOptions setExecutorFactory(@Nullable ExecutorFactory executorFactory) {
+        this.executorFactory = executorFactory;
+        return this;
+    }
+
+    /**
+     * The names of the test classes to run before all others, or null to run the test classes in the order they are found.
+     */
+    @Nullable
+    public Spec<? super String> getRunFirst() {
+        return runFirst;
+    }
+
+    public TestSchedulingOptions setRunFirst(@Nullable Spec<? super String> runFirst) {
+        this.runFirst = runFirst;
+        return this;
+    }
+
+    /**
+     * Stops starting test classes when the build is cancelled, or null to run all test classes.
+     */
+    @Nullable
+    public BuildCancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
+    public TestSchedulingOptions setCancellationToken(@Nullable BuildCancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+        return this;
+    }
+}
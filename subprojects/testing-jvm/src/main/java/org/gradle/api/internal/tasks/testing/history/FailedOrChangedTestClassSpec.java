@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.history;
+
+import org.gradle.api.internal.hash.FileHasher;
+import org.gradle.api.specs.Spec;
+
+import java.io.File;
+
+/**
+ * Selects the test classes that failed in their last execution, and those whose class file has been added or changed since. Selects
+ * all test classes when there is no history, so that none of them is held back.
+ */
+public class FailedOrChangedTestClassSpec implements Spec<String> {
+    private final TestHistory history;
+    private final File testClassesDir;
+    private final FileHasher hasher;
+
+    public FailedOrChangedTestClassSpec(TestHistory history, File testClassesDir, FileHasher hasher) {
+        this.history = history;
+        this.testClassesDir = testClassesDir;
+        this.hasher = hasher;
+    }
+
+    @Override
+    public boolean isSatisfiedBy(String testClassName) {
+        if (history.isEmpty()) {
+            return true;
+        }
+        TestHistory.TestClassHistory testClass = history.get(testClassName);
+        if (testClass == null || testClass.isFailed()) {
+            return true;
+        }
+        File classFile = TestHistory.classFile(testClassesDir, testClassName);
+        return !classFile.isFile() || !hasher.hash(classFile).equals(testClass.getClassFileHash());
+    }
+}
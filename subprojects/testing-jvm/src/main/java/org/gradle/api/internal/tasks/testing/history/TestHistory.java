@@ -0,0 +1,147 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.history;
+
+import com.google.common.hash.HashCode;
+import org.gradle.api.Nullable;
+import org.gradle.api.internal.hash.FileHasher;
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.HashCodeSerializer;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * The outcomes and durations of the test classes of a Test task, as of their last execution, together with the hashes of the class
+ * files that were executed.
+ */
+public class TestHistory {
+    private final Map<String, TestClassHistory> testClasses;
+
+    public TestHistory(Map<String, TestClassHistory> testClasses) {
+        this.testClasses = testClasses;
+    }
+
+    public static TestHistory empty() {
+        return new TestHistory(Collections.<String, TestClassHistory>emptyMap());
+    }
+
+    @Nullable
+    public TestClassHistory get(String className) {
+        return testClasses.get(className);
+    }
+
+    public boolean isEmpty() {
+        return testClasses.isEmpty();
+    }
+
+    public Map<String, Long> getDurations() {
+        Map<String, Long> durations = new HashMap<String, Long>(testClasses.size());
+        for (Map.Entry<String, TestClassHistory> entry : testClasses.entrySet()) {
+            durations.put(entry.getKey(), entry.getValue().getDuration());
+        }
+        return durations;
+    }
+
+    /**
+     * Returns the history after the given test class results, keeping the history of the test classes that were not executed as long
+     * as their class files still exist.
+     */
+    public TestHistory update(Iterable<TestClassResult> results, File testClassesDir, FileHasher hasher) {
+        Map<String, TestClassHistory> updated = new HashMap<String, TestClassHistory>(testClasses);
+        for (TestClassResult result : results) {
+            updated.put(result.getClassName(), new TestClassHistory(result.getFailuresCount() > 0, result.getDuration(), null));
+        }
+        Iterator<Map.Entry<String, TestClassHistory>> iterator = updated.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, TestClassHistory> entry = iterator.next();
+            File classFile = classFile(testClassesDir, entry.getKey());
+            if (!classFile.isFile()) {
+                iterator.remove();
+            } else if (entry.getValue().getClassFileHash() == null) {
+                TestClassHistory executed = entry.getValue();
+                entry.setValue(new TestClassHistory(executed.isFailed(), executed.getDuration(), hasher.hash(classFile)));
+            }
+        }
+        return new TestHistory(updated);
+    }
+
+    static File classFile(File testClassesDir, String className) {
+        return new File(testClassesDir, className.replace('.', '/') + ".class");
+    }
+
+    public static class TestClassHistory {
+        private final boolean failed;
+        private final long duration;
+        private final HashCode classFileHash;
+
+        public TestClassHistory(boolean failed, long duration, @Nullable HashCode classFileHash) {
+            this.failed = failed;
+            this.duration = duration;
+            this.classFileHash = classFileHash;
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+
+        public long getDuration() {
+            return duration;
+        }
+
+        @Nullable
+        public HashCode getClassFileHash() {
+            return classFileHash;
+        }
+    }
+
+    public static class Serializer implements org.gradle.internal.serialize.Serializer<TestHistory> {
+        private final HashCodeSerializer hashCodeSerializer = new HashCodeSerializer();
+
+        @Override
+        public TestHistory read(Decoder decoder) throws Exception {
+            int count = decoder.readSmallInt();
+            Map<String, TestClassHistory> testClasses = new HashMap<String, TestClassHistory>(count);
+            for (int i = 0; i < count; i++) {
+                String className = decoder.readString();
+                boolean failed = decoder.readBoolean();
+                long duration = decoder.readSmallLong();
+                HashCode classFileHash = hashCodeSerializer.read(decoder);
+                testClasses.put(className, new TestClassHistory(failed, duration, classFileHash));
+            }
+            return new TestHistory(testClasses);
+        }
+
+        @Override
+        public void write(Encoder encoder, TestHistory value) throws Exception {
+            encoder.writeSmallInt(value.testClasses.size());
+            for (Map.Entry<String, TestClassHistory> entry : value.testClasses.entrySet()) {
+                TestClassHistory testClass = entry.getValue();
+                encoder.writeString(entry.getKey());
+                encoder.writeBoolean(testClass.failed);
+                encoder.writeSmallLong(testClass.duration);
+                hashCodeSerializer.write(encoder, testClass.classFileHash);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.history;
+
+import org.gradle.api.internal.cache.SingleOperationPersistentStore;
+import org.gradle.cache.CacheRepository;
+
+//Keeps the test history of the last execution of the given Test task
+public class TestHistoryStore {
+
+    private final SingleOperationPersistentStore<TestHistory> store;
+
+    public TestHistoryStore(CacheRepository cacheRepository, Object scope) {
+        store = new SingleOperationPersistentStore<TestHistory>(cacheRepository, scope, "test history", new TestHistory.Serializer());
+    }
+
+    public void put(TestHistory history) {
+        store.putAndClose(history);
+    }
+
+    public TestHistory get() {
+        TestHistory history = store.getAndClose();
+        return history == null ? TestHistory.empty() : history;
+    }
+}
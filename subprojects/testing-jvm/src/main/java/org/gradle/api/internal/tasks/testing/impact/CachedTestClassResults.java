@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import com.google.common.hash.HashCode;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.tasks.testing.junit.result.CachedTestClassResult;
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResultCache;
+import org.gradle.api.internal.tasks.testing.junit.result.TestOutputStore;
+import org.gradle.api.internal.tasks.testing.junit.result.TestReportDataCollector;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.specs.Spec;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Skips the test classes that have passed before with the same {@link TestClassDependencyHasher hash}, and replays their results instead.
+ * Test classes that pass in this execution are added to the cache.
+ */
+public class CachedTestClassResults implements Spec<String> {
+    private static final Logger LOGGER = Logging.getLogger(CachedTestClassResults.class);
+
+    private final TestClassResultCache cache;
+    private final TestClassDependencyHasher hasher;
+    private final Map<String, CachedTestClassResult> cachedResults = new HashMap<String, CachedTestClassResult>();
+    private final Map<String, HashCode> executedTestClasses = new HashMap<String, HashCode>();
+
+    public CachedTestClassResults(TestClassResultCache cache, TestClassDependencyHasher hasher) {
+        this.cache = cache;
+        this.hasher = hasher;
+    }
+
+    /**
+     * Returns true when the given test class has to be executed, false when its result is taken from the cache.
+     */
+    @Override
+    public boolean isSatisfiedBy(String testClassName) {
+        HashCode hash = hasher.hash(testClassName);
+        if (hash == null) {
+            return true;
+        }
+        CachedTestClassResult cachedResult = cache.getIfPresent(hash);
+        synchronized (this) {
+            if (cachedResult != null) {
+                cachedResults.put(testClassName, cachedResult);
+                return false;
+            }
+            executedTestClasses.put(testClassName, hash);
+            return true;
+        }
+    }
+
+    /**
+     * Adds the results of the test classes that have been skipped to the given collector.
+     */
+    public synchronized void replayResults(TestReportDataCollector collector) {
+        if (!cachedResults.isEmpty()) {
+            LOGGER.info("Using the cached results of {} test classes.", cachedResults.size());
+        }
+        for (CachedTestClassResult cachedResult : cachedResults.values()) {
+            collector.replay(cachedResult);
+        }
+    }
+
+    /**
+     * Caches the results of the executed test classes that have passed.
+     */
+    public synchronized void storeResults(Iterable<TestClassResult> results, TestOutputStore outputStore) {
+        TestOutputStore.Reader outputReader = outputStore.reader();
+        try {
+            for (TestClassResult result : results) {
+                HashCode hash = executedTestClasses.get(result.getClassName());
+                if (hash != null && result.getFailuresCount() == 0) {
+                    cache.put(hash, CachedTestClassResult.capture(result, outputReader));
+                }
+            }
+        } finally {
+            try {
+                outputReader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
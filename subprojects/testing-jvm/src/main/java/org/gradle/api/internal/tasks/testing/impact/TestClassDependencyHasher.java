@@ -0,0 +1,156 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.gradle.api.Nullable;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
+import org.gradle.api.tasks.testing.TestFilter;
+import org.gradle.api.tasks.testing.junit.JUnitOptions;
+import org.gradle.process.JavaForkOptions;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Hashes a test class together with everything on the test runtime classpath that it may use: the classes it transitively depends on,
+ * the classes that may be inlined into other classes and all resources. Two test classes with the same hash run the same bytecode.
+ */
+public class TestClassDependencyHasher {
+    private final Map<String, HashCode> classHashes;
+    private final SetMultimap<String, String> dependencies = HashMultimap.create();
+    private final HashCode sharedHash;
+
+    /**
+     * @param settingsHash a hash of the settings the test classes are executed with, for example the JVM arguments and the test framework options
+     */
+    public TestClassDependencyHasher(TestImpactClasspathSnapshot snapshot, HashCode settingsHash) {
+        this.classHashes = snapshot.getClassHashes();
+
+        // The analysis knows the dependents of each class, invert it to find the dependencies of a test class
+        ClassSetAnalysisData data = snapshot.getAnalysis().getData();
+        SortedSet<String> dependenciesOfAll = new TreeSet<String>();
+        for (String className : classHashes.keySet()) {
+            DependentsSet dependents = data.getDependents(className);
+            if (dependents == null) {
+                continue;
+            }
+            if (dependents.isDependencyToAll()) {
+                dependenciesOfAll.add(className);
+                continue;
+            }
+            for (String dependent : dependents.getDependentClasses()) {
+                dependencies.put(dependent, className);
+            }
+        }
+
+        Hasher hasher = Hashing.md5().newHasher();
+        hasher.putBytes(settingsHash.asBytes());
+        for (String className : dependenciesOfAll) {
+            putClass(hasher, className);
+        }
+        for (Map.Entry<String, HashCode> entry : new TreeMap<String, HashCode>(snapshot.getResourceHashes()).entrySet()) {
+            putString(hasher, entry.getKey());
+            hasher.putBytes(entry.getValue().asBytes());
+        }
+        this.sharedHash = hasher.hash();
+    }
+
+    /**
+     * Hashes the settings that JUnit test classes are executed with.
+     */
+    public static HashCode hashSettings(JavaForkOptions forkOptions, JUnitOptions options, TestFilter filter) {
+        Hasher hasher = Hashing.md5().newHasher();
+        putString(hasher, forkOptions.getExecutable());
+        putString(hasher, forkOptions.getWorkingDir().getAbsolutePath());
+        List<String> jvmArgs = forkOptions.getAllJvmArgs();
+        hasher.putInt(jvmArgs.size());
+        for (String jvmArg : jvmArgs) {
+            putString(hasher, jvmArg);
+        }
+        hasher.putInt(forkOptions.getEnvironment().size());
+        for (Map.Entry<String, Object> entry : new TreeMap<String, Object>(forkOptions.getEnvironment()).entrySet()) {
+            putString(hasher, entry.getKey());
+            putString(hasher, String.valueOf(entry.getValue()));
+        }
+        putStrings(hasher, "includeCategories", options.getIncludeCategories());
+        putStrings(hasher, "excludeCategories", options.getExcludeCategories());
+        hasher.putInt(options.getMaxParallelTestsPerFork());
+        putStrings(hasher, "includePatterns", filter.getIncludePatterns());
+        return hasher.hash();
+    }
+
+    private static void putStrings(Hasher hasher, String name, Set<String> values) {
+        putString(hasher, name);
+        hasher.putInt(values.size());
+        for (String value : new TreeSet<String>(values)) {
+            putString(hasher, value);
+        }
+    }
+
+    /**
+     * @return the hash of the given test class, or null when the class is not on the test runtime classpath
+     */
+    @Nullable
+    public HashCode hash(String testClassName) {
+        if (!classHashes.containsKey(testClassName)) {
+            return null;
+        }
+        SortedSet<String> visited = new TreeSet<String>();
+        Deque<String> queue = new ArrayDeque<String>();
+        queue.add(testClassName);
+        while (!queue.isEmpty()) {
+            String className = queue.removeFirst();
+            if (visited.add(className)) {
+                queue.addAll(dependencies.get(className));
+            }
+        }
+
+        Hasher hasher = Hashing.md5().newHasher();
+        hasher.putBytes(sharedHash.asBytes());
+        putString(hasher, testClassName);
+        for (String className : visited) {
+            putClass(hasher, className);
+        }
+        return hasher.hash();
+    }
+
+    /**
+     * Hashes the length of the given value before its characters, so that adjacent values cannot run into each other.
+     */
+    private static void putString(Hasher hasher, String value) {
+        hasher.putInt(value.length());
+        hasher.putUnencodedChars(value);
+    }
+
+    private void putClass(Hasher hasher, String className) {
+        putString(hasher, className);
+        hasher.putBytes(classHashes.get(className).asBytes());
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import org.gradle.api.Action;
+import org.gradle.api.internal.tasks.testing.junit.result.CachedTestClassResult;
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
+import org.gradle.api.internal.tasks.testing.junit.result.TestOutputStore;
+import org.gradle.api.internal.tasks.testing.junit.result.TestReportDataCollector;
+import org.gradle.api.internal.tasks.testing.junit.result.TestResultSerializer;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.specs.Spec;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The test classes selected to run by {@link TestImpactAnalyzer}. Remembers which test classes have been selected, so that those that do not pass
+ * are selected again by the next execution. The results of the last execution are replayed for the test classes that are not selected, so that
+ * the reports always cover all test classes.
+ */
+public class TestClassSelection implements Spec<String> {
+    private static final Logger LOGGER = Logging.getLogger(TestClassSelection.class);
+
+    private final TestImpactStateStore store;
+    private final TestImpactClasspathSnapshot snapshot;
+    private final Set<String> affectedClasses;
+    private final Set<String> pendingTestClasses;
+    private final Set<String> selectedTestClasses = Collections.synchronizedSet(new HashSet<String>());
+    private final Set<String> skippedTestClasses = Collections.synchronizedSet(new HashSet<String>());
+    private Map<String, CachedTestClassResult> previousResults;
+
+    /**
+     * @param affectedClasses the classes that may be affected by the changes, or null to select all test classes
+     * @param pendingTestClasses the test classes that did not pass in the last execution, or null to select all test classes
+     */
+    TestClassSelection(TestImpactStateStore store, TestImpactClasspathSnapshot snapshot, Set<String> affectedClasses, Set<String> pendingTestClasses) {
+        this.store = store;
+        this.snapshot = snapshot;
+        this.affectedClasses = affectedClasses;
+        this.pendingTestClasses = pendingTestClasses;
+    }
+
+    /**
+     * Reads the results of the last execution from the given directory, so that they can be replayed for the test classes that are not selected.
+     * Once loaded, a test class without a previous result is selected even when it is not affected. Must be called before the test classes are
+     * selected and before the results are deleted.
+     */
+    public void loadPreviousResults(File binaryResultsDir) {
+        final Map<String, CachedTestClassResult> results = new HashMap<String, CachedTestClassResult>();
+        if (affectedClasses != null) {
+            try {
+                final TestOutputStore.Reader outputReader = new TestOutputStore(binaryResultsDir).reader();
+                try {
+                    new TestResultSerializer(binaryResultsDir).read(new Action<TestClassResult>() {
+                        @Override
+                        public void execute(TestClassResult result) {
+                            results.put(result.getClassName(), CachedTestClassResult.capture(result, outputReader));
+                        }
+                    });
+                } finally {
+                    outputReader.close();
+                }
+            } catch (Exception e) {
+                // Run the test classes instead of replaying their results
+                LOGGER.info("Could not read the test results of the last execution from {}.", binaryResultsDir, e);
+                results.clear();
+            }
+        }
+        previousResults = results;
+    }
+
+    @Override
+    public boolean isSatisfiedBy(String testClassName) {
+        if (affectedClasses == null || pendingTestClasses.contains(testClassName) || affectedClasses.contains(testClassName) || affectedClasses.contains(topLevelClassName(testClassName))
+            || (previousResults != null && !previousResults.containsKey(testClassName))) {
+            selectedTestClasses.add(testClassName);
+            return true;
+        }
+        skippedTestClasses.add(testClassName);
+        return false;
+    }
+
+    private static String topLevelClassName(String className) {
+        // The dependency analysis reports nested classes through their top level class
+        int index = className.indexOf('$');
+        return index < 0 ? className : className.substring(0, index);
+    }
+
+    /**
+     * Adds the results of the last execution of the test classes that have not been selected to the given collector.
+     */
+    public void replayResults(TestReportDataCollector collector) {
+        if (previousResults == null) {
+            return;
+        }
+        synchronized (skippedTestClasses) {
+            if (!skippedTestClasses.isEmpty()) {
+                LOGGER.info("Using the results of the last execution for {} test classes that are not affected by the changes.", skippedTestClasses.size());
+            }
+            for (String testClassName : skippedTestClasses) {
+                collector.replay(previousResults.get(testClassName));
+            }
+        }
+    }
+
+    /**
+     * Stores the state for the next execution, given the results of the selected test classes.
+     */
+    public void storeResults(Iterable<TestClassResult> results) {
+        Set<String> pending = new HashSet<String>(selectedTestClasses);
+        for (TestClassResult result : results) {
+            if (result.getFailuresCount() == 0) {
+                pending.remove(result.getClassName());
+            }
+        }
+        store.put(new TestImpactState(snapshot.getClassHashes(), snapshot.getResourceHashes(), pending));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import com.google.common.hash.HashCode;
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Selects the test classes that may be affected by the changes to the test runtime classpath since the last execution of a Test task.
+ *
+ * <p>A test class is selected when it, or a class it transitively depends on, has been added, changed or removed, or when it did not
+ * pass in the last execution. All test classes are selected when there is no usable state from the last execution, when a resource has
+ * changed or when a changed class may be inlined into other classes, for example a class with constants.</p>
+ *
+ * <p>Only dependencies that can be seen in the bytecode are considered.</p>
+ */
+public class TestImpactAnalyzer {
+    private static final Logger LOGGER = Logging.getLogger(TestImpactAnalyzer.class);
+
+    private final TestImpactStateStore store;
+    private final TestImpactClasspathSnapshotter snapshotter;
+
+    public TestImpactAnalyzer(TestImpactStateStore store, TestImpactClasspathSnapshotter snapshotter) {
+        this.store = store;
+        this.snapshotter = snapshotter;
+    }
+
+    /**
+     * @param incremental whether the state of the last execution can be used, that is whether only the files of the task have changed since then.
+     */
+    public TestClassSelection selectTestClasses(Iterable<File> classpath, boolean incremental) {
+        return selectTestClasses(snapshotter.snapshot(classpath), incremental);
+    }
+
+    /**
+     * @param current the snapshot of the current test runtime classpath
+     * @param incremental whether the state of the last execution can be used, that is whether only the files of the task have changed since then.
+     */
+    public TestClassSelection selectTestClasses(TestImpactClasspathSnapshot current, boolean incremental) {
+        TestImpactState previous = incremental ? store.get() : null;
+        if (previous == null) {
+            LOGGER.info("Running all test classes, as there is no test impact state from a previous execution.");
+            return new TestClassSelection(store, current, null, null);
+        }
+        if (!previous.getResourceHashes().equals(current.getResourceHashes())) {
+            LOGGER.info("Running all test classes, as resources on the test runtime classpath have changed.");
+            return new TestClassSelection(store, current, null, null);
+        }
+
+        Set<String> changedClasses = changedClasses(previous.getClassHashes(), current.getClassHashes());
+        DependentsSet dependents = current.getAnalysis().getRelevantDependents(changedClasses);
+        if (dependents.isDependencyToAll()) {
+            LOGGER.info("Running all test classes, as a changed class may be inlined into other classes.");
+            return new TestClassSelection(store, current, null, null);
+        }
+
+        Set<String> affectedClasses = new HashSet<String>(changedClasses);
+        affectedClasses.addAll(dependents.getDependentClasses());
+        LOGGER.info("{} classes on the test runtime classpath have changed, {} classes may be affected and {} test classes did not pass in the last execution.",
+            changedClasses.size(), affectedClasses.size(), previous.getPendingTestClasses().size());
+        return new TestClassSelection(store, current, affectedClasses, previous.getPendingTestClasses());
+    }
+
+    private static Set<String> changedClasses(Map<String, HashCode> previous, Map<String, HashCode> current) {
+        Set<String> changed = new HashSet<String>();
+        for (Map.Entry<String, HashCode> entry : current.entrySet()) {
+            if (!entry.getValue().equals(previous.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (String className : previous.keySet()) {
+            if (!current.containsKey(className)) {
+                changed.add(className);
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import com.google.common.hash.HashCode;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysis;
+
+import java.util.Map;
+
+/**
+ * The classes and resources of a test runtime classpath, along with the dependencies between the classes.
+ */
+public class TestImpactClasspathSnapshot {
+    private final Map<String, HashCode> classHashes;
+    private final Map<String, HashCode> resourceHashes;
+    private final ClassSetAnalysis analysis;
+
+    /**
+     * @param classHashes hashes of the classes, by class name
+     * @param resourceHashes hashes of the other files, by path relative to the classpath entry
+     * @param analysis of the dependencies between the classes
+     */
+    public TestImpactClasspathSnapshot(Map<String, HashCode> classHashes, Map<String, HashCode> resourceHashes, ClassSetAnalysis analysis) {
+        this.classHashes = classHashes;
+        this.resourceHashes = resourceHashes;
+        this.analysis = analysis;
+    }
+
+    public Map<String, HashCode> getClassHashes() {
+        return classHashes;
+    }
+
+    public Map<String, HashCode> getResourceHashes() {
+        return resourceHashes;
+    }
+
+    public ClassSetAnalysis getAnalysis() {
+        return analysis;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import com.google.common.collect.Lists;
+import com.google.common.hash.HashCode;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.gradle.api.internal.file.FileOperations;
+import org.gradle.api.internal.hash.FileHasher;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.CachingClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisCache;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFilesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysis;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
+import org.gradle.api.internal.tasks.compile.incremental.jar.CachingJarSnapshotter;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarArchive;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshot;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotCache;
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.gradle.internal.FileUtils.hasExtension;
+
+/**
+ * Snapshots the classes and resources of a test runtime classpath. The class dependencies of directories and jars are
+ * analyzed the same way as for incremental Java compilation, so their analysis is shared with it through the same caches.
+ */
+public class TestImpactClasspathSnapshotter {
+    private final FileOperations fileOperations;
+    private final FileHasher hasher;
+    private final ClassDependenciesAnalyzer analyzer;
+    private final JarSnapshotter jarSnapshotter;
+
+    public TestImpactClasspathSnapshotter(FileOperations fileOperations, FileHasher hasher, ClassAnalysisCache classAnalysisCache, JarSnapshotCache jarSnapshotCache) {
+        this.fileOperations = fileOperations;
+        this.hasher = hasher;
+        this.analyzer = new CachingClassDependenciesAnalyzer(new DefaultClassDependenciesAnalyzer(), hasher, classAnalysisCache);
+        this.jarSnapshotter = new CachingJarSnapshotter(hasher, analyzer, jarSnapshotCache);
+    }
+
+    public TestImpactClasspathSnapshot snapshot(Iterable<File> classpath) {
+        // The first entry that contains a class or resource wins, the same as for class loading
+        Map<String, HashCode> classHashes = new HashMap<String, HashCode>();
+        Map<String, HashCode> resourceHashes = new HashMap<String, HashCode>();
+        List<ClassSetAnalysisData> analyses = Lists.newArrayList();
+        for (File file : classpath) {
+            if (file.isDirectory()) {
+                analyses.add(snapshotDirectory(file, classHashes, resourceHashes));
+            } else if (hasExtension(file, ".jar") || hasExtension(file, ".zip")) {
+                analyses.add(snapshotJar(file, classHashes, resourceHashes));
+            } else if (file.isFile()) {
+                putIfAbsent(resourceHashes, file.getAbsolutePath(), hasher.hash(file));
+            }
+        }
+        return new TestImpactClasspathSnapshot(classHashes, resourceHashes, new ClassSetAnalysis(ClassSetAnalysisData.merge(analyses)));
+    }
+
+    private ClassSetAnalysisData snapshotDirectory(File dir, final Map<String, HashCode> classHashes, final Map<String, HashCode> resourceHashes) {
+        final ClassFilesAnalyzer classFilesAnalyzer = new ClassFilesAnalyzer(analyzer);
+        fileOperations.fileTree(dir).visit(new FileVisitor() {
+            @Override
+            public void visitDir(FileVisitDetails dirDetails) {
+            }
+
+            @Override
+            public void visitFile(FileVisitDetails fileDetails) {
+                HashCode hash = hasher.hash(fileDetails);
+                if (hasExtension(fileDetails.getFile(), ".class")) {
+                    classFilesAnalyzer.visitFile(fileDetails);
+                    putIfAbsent(classHashes, fileDetails.getPath().replaceAll("/", ".").replaceAll("\\.class$", ""), hash);
+                } else {
+                    putIfAbsent(resourceHashes, fileDetails.getPath(), hash);
+                }
+            }
+        });
+        return classFilesAnalyzer.getAnalysis();
+    }
+
+    private ClassSetAnalysisData snapshotJar(File jar, Map<String, HashCode> classHashes, Map<String, HashCode> resourceHashes) {
+        JarSnapshot jarSnapshot = jarSnapshotter.createSnapshot(new JarArchive(jar, fileOperations.zipTree(jar), fileOperations.getFileResolver().getPatternSetFactory()));
+        for (Map.Entry<String, HashCode> entry : jarSnapshot.getHashes().entrySet()) {
+            putIfAbsent(classHashes, entry.getKey(), entry.getValue());
+        }
+        // Resources are compared by the checksums of the archive, which is enough to notice that they have changed
+        try {
+            ZipFile zipFile = new ZipFile(jar);
+            try {
+                Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                while (entries.hasMoreElements()) {
+                    ZipEntry entry = entries.nextElement();
+                    if (!entry.isDirectory() && !entry.getName().endsWith(".class")) {
+                        putIfAbsent(resourceHashes, entry.getName(), HashCode.fromLong(entry.getCrc()));
+                    }
+                }
+            } finally {
+                zipFile.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not read resources of '%s'.", jar), e);
+        }
+        return jarSnapshot.getAnalysis().getData();
+    }
+
+    private static void putIfAbsent(Map<String, HashCode> hashes, String key, HashCode hash) {
+        if (!hashes.containsKey(key)) {
+            hashes.put(key, hash);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import com.google.common.hash.HashCode;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.HashCodeSerializer;
+import org.gradle.internal.serialize.MapSerializer;
+import org.gradle.internal.serialize.SetSerializer;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.gradle.internal.serialize.BaseSerializerFactory.STRING_SERIALIZER;
+
+/**
+ * What the last execution of a Test task knew about its test runtime classpath, and the test classes it still has to run.
+ */
+public class TestImpactState {
+    private final Map<String, HashCode> classHashes;
+    private final Map<String, HashCode> resourceHashes;
+    private final Set<String> pendingTestClasses;
+
+    /**
+     * @param pendingTestClasses test classes that were selected but did not pass, because they failed or were filtered out
+     */
+    public TestImpactState(Map<String, HashCode> classHashes, Map<String, HashCode> resourceHashes, Set<String> pendingTestClasses) {
+        this.classHashes = classHashes;
+        this.resourceHashes = resourceHashes;
+        this.pendingTestClasses = pendingTestClasses;
+    }
+
+    public Map<String, HashCode> getClassHashes() {
+        return classHashes;
+    }
+
+    public Map<String, HashCode> getResourceHashes() {
+        return resourceHashes;
+    }
+
+    public Set<String> getPendingTestClasses() {
+        return pendingTestClasses;
+    }
+
+    public static class Serializer implements org.gradle.internal.serialize.Serializer<TestImpactState> {
+        private final MapSerializer<String, HashCode> hashesSerializer = new MapSerializer<String, HashCode>(STRING_SERIALIZER, new HashCodeSerializer());
+        private final SetSerializer<String> classesSerializer = new SetSerializer<String>(STRING_SERIALIZER, false);
+
+        @Override
+        public TestImpactState read(Decoder decoder) throws Exception {
+            Map<String, HashCode> classHashes = hashesSerializer.read(decoder);
+            Map<String, HashCode> resourceHashes = hashesSerializer.read(decoder);
+            Set<String> pendingTestClasses = classesSerializer.read(decoder);
+            return new TestImpactState(classHashes, resourceHashes, pendingTestClasses);
+        }
+
+        @Override
+        public void write(Encoder encoder, TestImpactState value) throws Exception {
+            hashesSerializer.write(encoder, value.classHashes);
+            hashesSerializer.write(encoder, value.resourceHashes);
+            classesSerializer.write(encoder, value.pendingTestClasses);
+        }
+    }
+}
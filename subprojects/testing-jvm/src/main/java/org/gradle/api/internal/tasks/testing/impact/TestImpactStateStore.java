@@ -0,0 +1,38 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact;
+
+import org.gradle.api.internal.cache.SingleOperationPersistentStore;
+import org.gradle.cache.CacheRepository;
+
+//Keeps the test impact state of the last execution of the given Test task
+public class TestImpactStateStore {
+
+    private final SingleOperationPersistentStore<TestImpactState> store;
+
+    public TestImpactStateStore(CacheRepository cacheRepository, Object scope) {
+        store = new SingleOperationPersistentStore<TestImpactState>(cacheRepository, scope, "test impact state", new TestImpactState.Serializer());
+    }
+
+    public void put(TestImpactState state) {
+        store.putAndClose(state);
+    }
+
+    public TestImpactState get() {
+        return store.getAndClose();
+    }
+}
@@ -22,11 +22,17 @@ public class JUnitSpec implements Serializable {
     private final Set<String> includeCategories;
     private final Set<String> excludeCategories;
     private final Set<String> includedTests;
+    private final int maxParallelTests;
 
     public JUnitSpec(Set<String> includeCategories, Set<String> excludeCategories, Set<String> includedTests) {
+        this(includeCategories, excludeCategories, includedTests, 1);
+    }
+
+    public JUnitSpec(Set<String> includeCategories, Set<String> excludeCategories, Set<String> includedTests, int maxParallelTests) {
         this.includeCategories = includeCategories;
         this.excludeCategories = excludeCategories;
         this.includedTests = includedTests;
+        this.maxParallelTests = maxParallelTests;
     }
 
     public Set<String> getIncludeCategories() {
@@ -44,4 +50,8 @@ public class JUnitSpec implements Serializable {
     public Set<String> getIncludedTests() {
         return includedTests;
     }
-}
\ No newline at end of file
+
+    public int getMaxParallelTests() {
+        return maxParallelTests;
+    }
+}
@@ -18,6 +18,7 @@ package org.gradle.api.internal.tasks.testing.junit;
 
 import org.gradle.api.GradleException;
 import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.Nullable;
 import org.gradle.api.Transformer;
 import org.gradle.api.internal.tasks.testing.filter.TestSelectionMatcher;
 import org.gradle.internal.concurrent.ThreadSafe;
@@ -34,19 +35,29 @@ import org.junit.runner.notification.RunNotifier;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 public class JUnitTestClassExecuter {
     private final ClassLoader applicationClassLoader;
     private final RunListener listener;
     private final JUnitSpec options;
     private final TestClassExecutionListener executionListener;
+    private final ExecutorService testExecutor;
 
     public JUnitTestClassExecuter(ClassLoader applicationClassLoader, JUnitSpec spec, RunListener listener, TestClassExecutionListener executionListener) {
+        this(applicationClassLoader, spec, listener, executionListener, null);
+    }
+
+    /**
+     * @param testExecutor The executor to run the tests of each class on concurrently, or null to run them on the calling thread.
+     */
+    public JUnitTestClassExecuter(ClassLoader applicationClassLoader, JUnitSpec spec, RunListener listener, TestClassExecutionListener executionListener, @Nullable ExecutorService testExecutor) {
         assert executionListener instanceof ThreadSafe;
         this.applicationClassLoader = applicationClassLoader;
         this.listener = listener;
         this.options = spec;
         this.executionListener = executionListener;
+        this.testExecutor = testExecutor;
     }
 
     public void execute(String testClassName) {
@@ -109,6 +120,11 @@ public class JUnitTestClassExecuter {
             return;
         }
 
+        if (testExecutor != null) {
+            verifyJUnitSchedulerSupport();
+            ParallelRunnerScheduler.apply(runner, testExecutor, applicationClassLoader);
+        }
+
         RunNotifier notifier = new RunNotifier();
         notifier.addListener(listener);
         runner.run(notifier);
@@ -122,6 +138,14 @@ public class JUnitTestClassExecuter {
         }
     }
 
+    private void verifyJUnitSchedulerSupport() {
+        try {
+            applicationClassLoader.loadClass("org.junit.runners.model.RunnerScheduler");
+        } catch (ClassNotFoundException e) {
+            throw new GradleException("Parallel test execution within a test process requires JUnit 4.7 or later.");
+        }
+    }
+
     private boolean allTestsFiltered(Runner runner, List<Filter> filters) {
         LinkedList<Description> queue = new LinkedList<Description>();
         queue.add(runner.getDescription());
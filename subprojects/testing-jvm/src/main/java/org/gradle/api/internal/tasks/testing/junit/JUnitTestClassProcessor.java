@@ -24,6 +24,9 @@ import org.gradle.internal.time.TimeProvider;
 import org.gradle.internal.id.IdGenerator;
 import org.gradle.internal.actor.Actor;
 import org.gradle.internal.actor.ActorFactory;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,15 +35,18 @@ public class JUnitTestClassProcessor implements TestClassProcessor {
     private final IdGenerator<?> idGenerator;
     private final ActorFactory actorFactory;
     private final TimeProvider timeProvider;
+    private final ExecutorFactory executorFactory;
     private final JUnitSpec spec;
     private JUnitTestClassExecuter executer;
     private Actor resultProcessorActor;
+    private StoppableExecutor testExecutor;
 
-    public JUnitTestClassProcessor(JUnitSpec spec, IdGenerator<?> idGenerator, ActorFactory actorFactory, TimeProvider timeProvider) {
+    public JUnitTestClassProcessor(JUnitSpec spec, IdGenerator<?> idGenerator, ActorFactory actorFactory, TimeProvider timeProvider, ExecutorFactory executorFactory) {
         this.idGenerator = idGenerator;
         this.spec = spec;
         this.actorFactory = actorFactory;
         this.timeProvider = timeProvider;
+        this.executorFactory = executorFactory;
     }
 
     @Override
@@ -55,9 +61,15 @@ public class JUnitTestClassProcessor implements TestClassProcessor {
         TestResultProcessor threadSafeResultProcessor = resultProcessorActor.getProxy(TestResultProcessor.class);
         TestClassExecutionListener threadSafeTestClassListener = resultProcessorActor.getProxy(TestClassExecutionListener.class);
 
+        // Run the tests of each class concurrently, if requested. The JUnit adaptor and the result processor chain are thread-safe,
+        // and the output of each test is attributed to it by the thread that writes it
+        if (spec.getMaxParallelTests() > 1) {
+            testExecutor = executorFactory.create("Test worker executor", spec.getMaxParallelTests());
+        }
+
         // Build the JUnit adaptor stuff
         JUnitTestEventAdapter junitEventAdapter = new JUnitTestEventAdapter(threadSafeResultProcessor, timeProvider, idGenerator);
-        executer = new JUnitTestClassExecuter(applicationClassLoader, spec, junitEventAdapter, threadSafeTestClassListener);
+        executer = new JUnitTestClassExecuter(applicationClassLoader, spec, junitEventAdapter, threadSafeTestClassListener, testExecutor);
     }
 
     @Override
@@ -68,6 +80,6 @@ public class JUnitTestClassProcessor implements TestClassProcessor {
 
     @Override
     public void stop() {
-        resultProcessorActor.stop();
+        CompositeStoppable.stoppable(testExecutor, resultProcessorActor).stop();
     }
 }
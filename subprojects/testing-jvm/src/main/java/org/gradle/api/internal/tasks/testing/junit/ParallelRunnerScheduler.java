@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.junit;
+
+import org.gradle.internal.UncheckedException;
+import org.junit.runner.Runner;
+import org.junit.runners.ParentRunner;
+import org.junit.runners.model.RunnerScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the children of a JUnit {@link ParentRunner} concurrently on the given executor. For a test class, the children are its test
+ * methods, and for a suite, the children are its test classes.
+ *
+ * <p>This class refers to JUnit classes that were added in JUnit 4.7, so it must only be loaded once the JUnit version has been checked.</p>
+ */
+class ParallelRunnerScheduler implements RunnerScheduler {
+    private final ExecutorService executor;
+    private final ClassLoader applicationClassLoader;
+    private final List<Future<?>> children = new ArrayList<Future<?>>();
+
+    private ParallelRunnerScheduler(ExecutorService executor, ClassLoader applicationClassLoader) {
+        this.executor = executor;
+        this.applicationClassLoader = applicationClassLoader;
+    }
+
+    /**
+     * Makes the given runner run its children on the given executor, if it supports this.
+     */
+    static void apply(Runner runner, ExecutorService executor, ClassLoader applicationClassLoader) {
+        if (runner instanceof ParentRunner) {
+            ((ParentRunner<?>) runner).setScheduler(new ParallelRunnerScheduler(executor, applicationClassLoader));
+        }
+    }
+
+    @Override
+    public void schedule(final Runnable childStatement) {
+        children.add(executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                Thread thread = Thread.currentThread();
+                ClassLoader previous = thread.getContextClassLoader();
+                thread.setContextClassLoader(applicationClassLoader);
+                try {
+                    childStatement.run();
+                } finally {
+                    thread.setContextClassLoader(previous);
+                }
+            }
+        }));
+    }
+
+    @Override
+    public void finished() {
+        // The children report their test failures to the run notifier, so anything thrown here is unexpected
+        Throwable failure = null;
+        for (Future<?> child : children) {
+            try {
+                child.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+        children.clear();
+        if (failure != null) {
+            throw UncheckedException.throwAsUncheckedException(failure);
+        }
+    }
+}
@@ -15,11 +15,14 @@
  */
 package org.gradle.api.internal.tasks.testing.junit.report;
 
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
 import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
 import org.gradle.api.internal.tasks.testing.junit.result.TestFailure;
 import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult;
+import org.gradle.api.internal.tasks.testing.junit.result.TestReportFileHashes;
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
@@ -31,10 +34,14 @@ import org.gradle.internal.time.Timers;
 import org.gradle.reporting.HtmlReportBuilder;
 import org.gradle.reporting.HtmlReportRenderer;
 import org.gradle.reporting.ReportRenderer;
+import org.gradle.util.GradleVersion;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 import static org.gradle.api.tasks.testing.TestResult.ResultType.SKIPPED;
 
@@ -51,15 +58,26 @@ public class DefaultTestReport implements TestReporter {
         LOG.info("Generating HTML test report...");
 
         Timer clock = Timers.startTimer();
-        AllTestResults model = loadModelFromProvider(resultsProvider);
-        generateFiles(model, resultsProvider, reportDir);
+        Map<String, HashCode> classHashes = new HashMap<String, HashCode>();
+        AllTestResults model = loadModelFromProvider(resultsProvider, classHashes);
+        generateFiles(model, classHashes, resultsProvider, reportDir);
         LOG.info("Finished generating test html results ({}) into: {}", clock.getElapsed(), reportDir);
     }
 
-    private AllTestResults loadModelFromProvider(TestResultsProvider resultsProvider) {
+    private AllTestResults loadModelFromProvider(final TestResultsProvider resultsProvider, final Map<String, HashCode> classHashes) {
         final AllTestResults model = new AllTestResults();
         resultsProvider.visitClasses(new Action<TestClassResult>() {
             public void execute(TestClassResult classResult) {
+                Hasher hasher = TestReportFileHashes.newHasher();
+                HashCode previousResultHash = classHashes.get(classResult.getClassName());
+                if (previousResultHash != null) {
+                    // Results of the same class from several result directories end up on the same page
+                    hasher.putBytes(previousResultHash.asBytes());
+                }
+                TestReportFileHashes.putClassResult(hasher, classResult);
+                TestReportFileHashes.putAllOutput(hasher, resultsProvider, classResult.getId());
+                classHashes.put(classResult.getClassName(), hasher.hash());
+
                 model.addTestClass(classResult.getId(), classResult.getClassName());
                 List<TestMethodResult> collectedResults = classResult.getResults();
                 for (TestMethodResult collectedResult : collectedResults) {
@@ -78,8 +96,9 @@ public class DefaultTestReport implements TestReporter {
         return model;
     }
 
-    private void generateFiles(AllTestResults model, final TestResultsProvider resultsProvider, File reportDir) {
+    private void generateFiles(AllTestResults model, final Map<String, HashCode> classHashes, final TestResultsProvider resultsProvider, File reportDir) {
         try {
+            final TestReportFileHashes fileHashes = new TestReportFileHashes(reportDir);
             HtmlReportRenderer htmlRenderer = new HtmlReportRenderer();
             htmlRenderer.render(model, new ReportRenderer<AllTestResults, HtmlReportBuilder>() {
                 @Override
@@ -87,22 +106,44 @@ public class DefaultTestReport implements TestReporter {
                     buildOperationProcessor.run(new Action<BuildOperationQueue<HtmlReportFileGenerator<? extends CompositeTestResults>>>() {
                         @Override
                         public void execute(BuildOperationQueue<HtmlReportFileGenerator<? extends CompositeTestResults>> queue) {
-                            queue.add(generator("index.html", model, new OverviewPageRenderer(), output));
+                            // Each page is rewritten when its own results or the results of the pages below it have changed
+                            Hasher overviewHasher = newPageHasher();
                             for (PackageTestResults packageResults : model.getPackages()) {
-                                queue.add(generator(packageResults.getBaseUrl(), packageResults, new PackagePageRenderer(), output));
+                                Hasher packageHasher = newPageHasher();
                                 for (ClassTestResults classResults : packageResults.getClasses()) {
-                                    queue.add(generator(classResults.getBaseUrl(), classResults, new ClassPageRenderer(resultsProvider), output));
+                                    HashCode classHash = newPageHasher().putBytes(classHashes.get(classResults.getName()).asBytes()).hash();
+                                    if (!fileHashes.isUpToDate(classResults.getBaseUrl(), classHash)) {
+                                        queue.add(generator(classResults.getBaseUrl(), classResults, new ClassPageRenderer(resultsProvider), output));
+                                    }
+                                    packageHasher.putBytes(classHash.asBytes());
+                                }
+                                HashCode packageHash = packageHasher.hash();
+                                if (!fileHashes.isUpToDate(packageResults.getBaseUrl(), packageHash)) {
+                                    queue.add(generator(packageResults.getBaseUrl(), packageResults, new PackagePageRenderer(), output));
                                 }
+                                overviewHasher.putBytes(packageHash.asBytes());
+                            }
+                            if (!fileHashes.isUpToDate("index.html", overviewHasher.hash())) {
+                                queue.add(generator("index.html", model, new OverviewPageRenderer(), output));
                             }
                         }
                     });
                 }
             }, reportDir);
+            fileHashes.store();
         } catch (Exception e) {
             throw new GradleException(String.format("Could not generate test report to '%s'.", reportDir), e);
         }
     }
 
+    private static Hasher newPageHasher() {
+        // The pages contain the Gradle version and locale specific formatting
+        Hasher hasher = TestReportFileHashes.newHasher();
+        TestReportFileHashes.putString(hasher, GradleVersion.current().getVersion());
+        TestReportFileHashes.putString(hasher, Locale.getDefault().toString());
+        return hasher;
+    }
+
     public static <T extends CompositeTestResults> HtmlReportFileGenerator<T> generator(String fileUrl, T results, PageRenderer<T> renderer, HtmlReportBuilder output) {
         return new HtmlReportFileGenerator<T>(fileUrl, results, renderer, output);
     }
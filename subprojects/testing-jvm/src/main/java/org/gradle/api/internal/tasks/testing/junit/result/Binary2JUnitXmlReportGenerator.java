@@ -16,6 +16,8 @@
 
 package org.gradle.api.internal.tasks.testing.junit.result;
 
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
 import org.apache.commons.io.IOUtils;
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
@@ -27,14 +29,18 @@ import org.gradle.internal.operations.BuildOperationQueue;
 import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.internal.time.Timer;
 import org.gradle.internal.time.Timers;
+import org.gradle.util.GradleVersion;
 
 import java.io.File;
 import java.io.FileOutputStream;
+import java.util.TimeZone;
 
 public class Binary2JUnitXmlReportGenerator {
 
     private final File testResultsDir;
     private final TestResultsProvider testResultsProvider;
+    private final TestOutputAssociation outputAssociation;
+    private final String hostName;
     private JUnitXmlResultWriter xmlWriter;
     private final BuildOperationProcessor buildOperationProcessor;
     private final static Logger LOG = Logging.getLogger(Binary2JUnitXmlReportGenerator.class);
@@ -42,6 +48,8 @@ public class Binary2JUnitXmlReportGenerator {
     public Binary2JUnitXmlReportGenerator(File testResultsDir, TestResultsProvider testResultsProvider, TestOutputAssociation outputAssociation, BuildOperationProcessor buildOperationProcessor, String hostName) {
         this.testResultsDir = testResultsDir;
         this.testResultsProvider = testResultsProvider;
+        this.outputAssociation = outputAssociation;
+        this.hostName = hostName;
         this.xmlWriter = new JUnitXmlResultWriter(hostName, testResultsProvider, outputAssociation);
         this.buildOperationProcessor = buildOperationProcessor;
     }
@@ -49,21 +57,43 @@ public class Binary2JUnitXmlReportGenerator {
     public void generate() {
         Timer clock = Timers.startTimer();
 
+        final TestReportFileHashes fileHashes = new TestReportFileHashes(testResultsDir);
         buildOperationProcessor.run(new Action<BuildOperationQueue<JUnitXmlReportFileGenerator>>() {
             @Override
             public void execute(final BuildOperationQueue<JUnitXmlReportFileGenerator> queue) {
                 testResultsProvider.visitClasses(new Action<TestClassResult>() {
                     public void execute(final TestClassResult result) {
-                        final File reportFile = new File(testResultsDir, getReportFileName(result));
-                        queue.add(new JUnitXmlReportFileGenerator(result, reportFile, xmlWriter));
+                        String reportFileName = getReportFileName(result);
+                        if (!fileHashes.isUpToDate(reportFileName, hash(result))) {
+                            queue.add(new JUnitXmlReportFileGenerator(result, new File(testResultsDir, reportFileName), xmlWriter));
+                        }
                     }
                 });
             }
         });
+        fileHashes.store();
 
         LOG.info("Finished generating test XML results ({}) into: {}", clock.getElapsed(), testResultsDir);
     }
 
+    private HashCode hash(TestClassResult result) {
+        Hasher hasher = TestReportFileHashes.newHasher();
+        // The XML format may differ between Gradle versions
+        TestReportFileHashes.putString(hasher, GradleVersion.current().getVersion());
+        TestReportFileHashes.putString(hasher, hostName);
+        // The timestamps are formatted in the default time zone
+        TestReportFileHashes.putString(hasher, TimeZone.getDefault().getID());
+        TestReportFileHashes.putClassResult(hasher, result);
+        if (outputAssociation.equals(TestOutputAssociation.WITH_SUITE)) {
+            hasher.putBoolean(true);
+            TestReportFileHashes.putAllOutput(hasher, testResultsProvider, result.getId());
+        } else {
+            hasher.putBoolean(false);
+            TestReportFileHashes.putOutputPerTest(hasher, testResultsProvider, result);
+        }
+        return hasher.hash();
+    }
+
     private String getReportFileName(TestClassResult result) {
         return "TEST-" + FileUtils.toSafeFileName(result.getClassName()) + ".xml";
     }
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.junit.result;
+
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of a test class along with its output, as kept by a {@link TestClassResultCache}.
+ */
+public class CachedTestClassResult {
+    private final TestClassResult result;
+    private final List<Output> output;
+
+    public CachedTestClassResult(TestClassResult result, List<Output> output) {
+        this.result = result;
+        this.output = output;
+    }
+
+    /**
+     * Captures the result of a test class, along with the output it has written to the given store.
+     */
+    public static CachedTestClassResult capture(TestClassResult result, TestOutputStore.Reader outputReader) {
+        List<Output> output = new ArrayList<Output>();
+        for (TestOutputEvent.Destination destination : TestOutputEvent.Destination.values()) {
+            StringWriter writer = new StringWriter();
+            outputReader.writeNonTestOutput(result.getId(), destination, writer);
+            addOutput(output, 0, destination, writer);
+            for (TestMethodResult methodResult : result.getResults()) {
+                writer = new StringWriter();
+                outputReader.writeTestOutput(result.getId(), methodResult.getId(), destination, writer);
+                addOutput(output, methodResult.getId(), destination, writer);
+            }
+        }
+        return new CachedTestClassResult(result, output);
+    }
+
+    private static void addOutput(List<Output> output, long testId, TestOutputEvent.Destination destination, StringWriter writer) {
+        if (writer.getBuffer().length() > 0) {
+            output.add(new Output(testId, new DefaultTestOutputEvent(destination, writer.toString())));
+        }
+    }
+
+    public TestClassResult getResult() {
+        return result;
+    }
+
+    public List<Output> getOutput() {
+        return Collections.unmodifiableList(output);
+    }
+
+    /**
+     * Output written by a test class, or by one of its tests.
+     */
+    public static class Output {
+        private final long testId;
+        private final TestOutputEvent event;
+
+        /**
+         * @param testId the id of the test that has written the output, or 0 for output written outside of a test
+         */
+        public Output(long testId, TestOutputEvent event) {
+            this.testId = testId;
+            this.event = event;
+        }
+
+        public long getTestId() {
+            return testId;
+        }
+
+        public TestOutputEvent getEvent() {
+            return event;
+        }
+    }
+
+    public static class Serializer implements org.gradle.internal.serialize.Serializer<CachedTestClassResult> {
+        @Override
+        public CachedTestClassResult read(Decoder decoder) throws Exception {
+            TestClassResult result = TestResultSerializer.readClassResult(decoder);
+            int count = decoder.readSmallInt();
+            List<Output> output = new ArrayList<Output>(count);
+            for (int i = 0; i < count; i++) {
+                long testId = decoder.readSmallLong();
+                TestOutputEvent.Destination destination = TestOutputEvent.Destination.values()[decoder.readSmallInt()];
+                output.add(new Output(testId, new DefaultTestOutputEvent(destination, decoder.readString())));
+            }
+            return new CachedTestClassResult(result, output);
+        }
+
+        @Override
+        public void write(Encoder encoder, CachedTestClassResult value) throws Exception {
+            TestResultSerializer.write(value.result, encoder);
+            encoder.writeSmallInt(value.output.size());
+            for (Output output : value.output) {
+                encoder.writeSmallLong(output.testId);
+                encoder.writeSmallInt(output.event.getDestination().ordinal());
+                encoder.writeString(output.event.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.junit.result;
+
+import com.google.common.hash.HashCode;
+import org.gradle.api.internal.cache.MinimalPersistentCache;
+import org.gradle.cache.CacheRepository;
+import org.gradle.internal.Factory;
+import org.gradle.internal.serialize.HashCodeSerializer;
+
+/**
+ * Cross-build, global cache of the results of test classes that have passed, keyed by a hash of everything that may affect the outcome of the test class.
+ */
+public class TestClassResultCache extends MinimalPersistentCache<HashCode, CachedTestClassResult> {
+    public TestClassResultCache(CacheRepository cacheRepository) {
+        super(cacheRepository, "test class results", new HashCodeSerializer(), new CachedTestClassResult.Serializer());
+    }
+
+    public CachedTestClassResult getIfPresent(final HashCode key) {
+        return getCacheAccess().useCache("Loading test class result", new Factory<CachedTestClassResult>() {
+            public CachedTestClassResult create() {
+                return getCache().get(key);
+            }
+        });
+    }
+
+    public void put(final HashCode key, final CachedTestClassResult result) {
+        getCacheAccess().useCache("Storing test class result", new Runnable() {
+            public void run() {
+                getCache().put(key, result);
+            }
+        });
+    }
+}
@@ -16,22 +16,44 @@
 
 package org.gradle.api.internal.tasks.testing.junit.result;
 
-import com.esotericsoftware.kryo.io.Input;
-import com.esotericsoftware.kryo.io.Output;
-import com.google.common.collect.ImmutableMap;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.tasks.testing.TestOutputEvent;
-import org.gradle.internal.io.RandomAccessFileInputStream;
 import org.gradle.internal.UncheckedException;
-import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.os.OperatingSystem;
 import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Stores the output of tests in a data file, with an index file that maps each class and test to the regions of the data file that
+ * contain its output.
+ *
+ * <p>Each output event is stored in the data file as a fixed size header, followed by the message encoded as UTF-8. The header holds
+ * the destination of the event, as a boolean, the class id and the test id, as longs, and the length of the message, as an int.</p>
+ *
+ * <p>The index file holds one fixed size record for each class and test with output, sorted by class id and test id, so that the reader
+ * can look up the regions with a binary search of the file rather than loading the whole index into memory. Each record holds the class id,
+ * the test id, and the start and end of the stdout and stderr regions, all as longs. A start of -1 means there is no output.</p>
+ *
+ * <p>Both files are memory-mapped when read, except on Windows where a mapped file cannot be deleted or rewritten until the mapping is
+ * garbage collected.</p>
+ */
 public class TestOutputStore {
+    private static final int HEADER_SIZE = 1 + 8 + 8 + 4;
+    private static final int INDEX_RECORD_SIZE = 6 * 8;
 
     private final File resultsDir;
     private final Charset messageStorageCharset;
@@ -62,15 +84,35 @@ public class TestOutputStore {
             this.start = start;
             this.stop = stop;
         }
+
+        void include(long start, long stop) {
+            if (start < 0) {
+                return;
+            }
+            if (this.start < 0 || start < this.start) {
+                this.start = start;
+            }
+            if (stop > this.stop) {
+                this.stop = stop;
+            }
+        }
     }
 
     private static class TestCaseRegion {
-        Region stdOutRegion = new Region();
-        Region stdErrRegion = new Region();
+        final long classId;
+        final long testId;
+        final Region stdOutRegion = new Region();
+        final Region stdErrRegion = new Region();
+
+        TestCaseRegion(long classId, long testId) {
+            this.classId = classId;
+            this.testId = testId;
+        }
     }
 
     public class Writer implements Closeable {
         private final KryoBackedEncoder output;
+        private long position;
 
         private final Map<Long, Map<Long, TestCaseRegion>> index = new LinkedHashMap<Long, Map<Long, TestCaseRegion>>();
 
@@ -94,11 +136,6 @@ public class TestOutputStore {
 
         public void onOutput(long classId, long testId, TestOutputEvent outputEvent) {
             boolean stdout = outputEvent.getDestination() == TestOutputEvent.Destination.StdOut;
-            mark(classId, testId, stdout);
-
-            output.writeBoolean(stdout);
-            output.writeSmallLong(classId);
-            output.writeSmallLong(testId);
 
             byte[] bytes;
             try {
@@ -106,63 +143,64 @@ public class TestOutputStore {
             } catch (UnsupportedEncodingException e) {
                 throw UncheckedException.throwAsUncheckedException(e);
             }
-            output.writeSmallInt(bytes.length);
+
+            output.writeBoolean(stdout);
+            output.writeLong(classId);
+            output.writeLong(testId);
+            output.writeInt(bytes.length);
             output.writeBytes(bytes, 0, bytes.length);
-        }
 
-        private void mark(long classId, long testId, boolean isStdout) {
-            if (!index.containsKey(classId)) {
-                index.put(classId, new LinkedHashMap<Long, TestCaseRegion>());
-            }
+            long start = position;
+            position += HEADER_SIZE + bytes.length;
+            mark(classId, testId, stdout, start, position);
+        }
 
+        private void mark(long classId, long testId, boolean isStdout, long start, long stop) {
             Map<Long, TestCaseRegion> testCaseRegions = index.get(classId);
-            if (!testCaseRegions.containsKey(testId)) {
-                TestCaseRegion region = new TestCaseRegion();
-                testCaseRegions.put(testId, region);
+            if (testCaseRegions == null) {
+                testCaseRegions = new LinkedHashMap<Long, TestCaseRegion>();
+                index.put(classId, testCaseRegions);
             }
 
             TestCaseRegion region = testCaseRegions.get(testId);
+            if (region == null) {
+                region = new TestCaseRegion(classId, testId);
+                testCaseRegions.put(testId, region);
+            }
 
             Region streamRegion = isStdout ? region.stdOutRegion : region.stdErrRegion;
-
-            int total = output.getWritePosition();
-            if (streamRegion.start < 0) {
-                streamRegion.start = total;
-            }
-            streamRegion.stop = total;
+            streamRegion.include(start, stop);
         }
 
         private void writeIndex() {
-            Output indexOutput;
-            try {
-                indexOutput = new Output(new FileOutputStream(getIndexFile()));
-            } catch (FileNotFoundException e) {
-                throw new UncheckedIOException(e);
+            List<TestCaseRegion> regions = new ArrayList<TestCaseRegion>();
+            for (Map<Long, TestCaseRegion> testCaseRegions : index.values()) {
+                regions.addAll(testCaseRegions.values());
             }
-
+            Collections.sort(regions, new Comparator<TestCaseRegion>() {
+                @Override
+                public int compare(TestCaseRegion o1, TestCaseRegion o2) {
+                    int diff = compareIds(o1.classId, o2.classId);
+                    return diff != 0 ? diff : compareIds(o1.testId, o2.testId);
+                }
+            });
 
             try {
-                indexOutput.writeInt(index.size(), true);
-
-                for (Map.Entry<Long, Map<Long, TestCaseRegion>> classEntry : index.entrySet()) {
-                    Long classId = classEntry.getKey();
-                    Map<Long, TestCaseRegion> regions = classEntry.getValue();
-
-                    indexOutput.writeLong(classId, true);
-                    indexOutput.writeInt(regions.size(), true);
-
-                    for (Map.Entry<Long, TestCaseRegion> testCaseEntry : regions.entrySet()) {
-                        long id = testCaseEntry.getKey();
-                        TestCaseRegion region = testCaseEntry.getValue();
-                        indexOutput.writeLong(id, true);
+                DataOutputStream indexOutput = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(getIndexFile())));
+                try {
+                    for (TestCaseRegion region : regions) {
+                        indexOutput.writeLong(region.classId);
+                        indexOutput.writeLong(region.testId);
                         indexOutput.writeLong(region.stdOutRegion.start);
                         indexOutput.writeLong(region.stdOutRegion.stop);
                         indexOutput.writeLong(region.stdErrRegion.start);
                         indexOutput.writeLong(region.stdErrRegion.stop);
                     }
+                } finally {
+                    indexOutput.close();
                 }
-            } finally {
-                indexOutput.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
         }
     }
@@ -171,55 +209,82 @@ public class TestOutputStore {
         return new Writer();
     }
 
-    private static class Index {
-        final ImmutableMap<Long, Index> children;
-        final Region stdOut;
-        final Region stdErr;
+    private static int compareIds(long id1, long id2) {
+        return id1 < id2 ? -1 : (id1 == id2 ? 0 : 1);
+    }
 
-        private Index(Region stdOut, Region stdErr) {
-            this.children = ImmutableMap.of();
-            this.stdOut = stdOut;
-            this.stdErr = stdErr;
+    /**
+     * Provides access to the contents of a file through buffers that cover a window of the file at a time.
+     */
+    private static class FileWindow implements Closeable {
+        private static final int MAPPED_WINDOW_SIZE = 32 * 1024 * 1024;
+        private static final int READ_WINDOW_SIZE = 64 * 1024;
+
+        private final File file;
+        private final RandomAccessFile randomAccessFile;
+        private final FileChannel channel;
+        private final long size;
+        private final boolean mapped;
+        private ByteBuffer window;
+        private long windowStart;
+
+        FileWindow(File file, boolean mapped) throws IOException {
+            this.file = file;
+            this.randomAccessFile = new RandomAccessFile(file, "r");
+            this.channel = randomAccessFile.getChannel();
+            this.size = channel.size();
+            this.mapped = mapped;
         }
 
-        private Index(ImmutableMap<Long, Index> children, Region stdOut, Region stdErr) {
-            this.children = children;
-            this.stdOut = stdOut;
-            this.stdErr = stdErr;
+        long size() {
+            return size;
         }
-    }
-
-    private static class IndexBuilder {
-        final Region stdOut = new Region();
-        final Region stdErr = new Region();
-
-        private final ImmutableMap.Builder<Long, Index> children = ImmutableMap.builder();
 
-        void add(long key, Index index) {
-            if (stdOut.start < 0) {
-                stdOut.start = index.stdOut.start;
+        /**
+         * Returns a buffer containing the given region of the file, positioned at the start of the region.
+         */
+        ByteBuffer read(long position, int length) throws IOException {
+            if (position < 0 || length < 0 || position + length > size) {
+                throw new IOException(String.format("Unexpected end of file '%s'.", file));
             }
-            if (stdErr.start < 0) {
-                stdErr.start = index.stdErr.start;
+            if (window == null || position < windowStart || position + length > windowStart + window.limit()) {
+                int windowSize = (int) Math.max(length, Math.min(mapped ? MAPPED_WINDOW_SIZE : READ_WINDOW_SIZE, size - position));
+                window = load(position, windowSize);
+                windowStart = position;
             }
-            if (index.stdOut.stop > stdOut.stop) {
-                stdOut.stop = index.stdOut.stop;
+            ByteBuffer buffer = window.duplicate();
+            buffer.position((int) (position - windowStart));
+            buffer.limit(buffer.position() + length);
+            return buffer;
+        }
+
+        private ByteBuffer load(long position, int length) throws IOException {
+            if (mapped) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
             }
-            if (index.stdErr.stop > stdErr.stop) {
-                stdErr.stop = index.stdErr.stop;
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new EOFException();
+                }
             }
-
-            children.put(key, index);
+            buffer.flip();
+            return buffer;
         }
 
-        Index build() {
-            return new Index(children.build(), stdOut, stdErr);
+        @Override
+        public void close() throws IOException {
+            window = null;
+            randomAccessFile.close();
         }
     }
 
     public class Reader implements Closeable {
-        private final Index index;
-        private final RandomAccessFile dataFile;
+        private final FileWindow index;
+        private final FileWindow dataFile;
+        private final long indexRecords;
+        private final CharsetDecoder charsetDecoder;
+        private final CharBuffer chars = CharBuffer.allocate(8192);
 
         public Reader() {
             File indexFile = getIndexFile();
@@ -230,43 +295,23 @@ public class TestOutputStore {
                     throw new IllegalStateException(String.format("Test outputs data file '%s' exists but the index file '%s' does not", outputsFile, indexFile));
                 }
 
-                Input input;
+                boolean mapped = !OperatingSystem.current().isWindows();
                 try {
-                    input = new Input(new FileInputStream(indexFile));
-                } catch (FileNotFoundException e) {
+                    index = new FileWindow(indexFile, mapped);
+                } catch (IOException e) {
                     throw new UncheckedIOException(e);
                 }
-
-                IndexBuilder rootBuilder = null;
                 try {
-                    int numClasses = input.readInt(true);
-                    rootBuilder = new IndexBuilder();
-
-                    for (int classCounter = 0; classCounter < numClasses; ++classCounter) {
-                        long classId = input.readLong(true);
-                        IndexBuilder classBuilder = new IndexBuilder();
-
-                        int numEntries = input.readInt(true);
-                        for (int entryCounter = 0; entryCounter < numEntries; ++entryCounter) {
-                            long testId = input.readLong(true);
-                            Region stdOut = new Region(input.readLong(), input.readLong());
-                            Region stdErr = new Region(input.readLong(), input.readLong());
-                            classBuilder.add(testId, new Index(stdOut, stdErr));
-                        }
-
-                        rootBuilder.add(classId, classBuilder.build());
+                    dataFile = new FileWindow(outputsFile, mapped);
+                } catch (IOException e) {
+                    try {
+                        index.close();
+                    } catch (IOException ignored) {
+                        // Ignore
                     }
-                } finally {
-                    input.close();
-                }
-
-                index = rootBuilder.build();
-
-                try {
-                    dataFile = new RandomAccessFile(getOutputsFile(), "r");
-                } catch (FileNotFoundException e) {
                     throw new UncheckedIOException(e);
                 }
+                indexRecords = index.size() / INDEX_RECORD_SIZE;
             } else { // no outputs file
                 if (indexFile.exists()) {
                     throw new IllegalStateException(String.format("Test outputs data file '%s' does not exist but the index file '%s' does", outputsFile, indexFile));
@@ -274,13 +319,22 @@ public class TestOutputStore {
 
                 index = null;
                 dataFile = null;
+                indexRecords = 0;
             }
+
+            charsetDecoder = messageStorageCharset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
         }
 
         @Override
         public void close() throws IOException {
             if (dataFile != null) {
-                dataFile.close();
+                try {
+                    dataFile.close();
+                } finally {
+                    index.close();
+                }
             }
         }
 
@@ -289,12 +343,10 @@ public class TestOutputStore {
                 return false;
             }
 
-            Index classIndex = index.children.get(classId);
-            if (classIndex == null) {
-                return false;
-            } else {
-                Region region = destination == TestOutputEvent.Destination.StdOut ? classIndex.stdOut : classIndex.stdErr;
-                return region.start >= 0;
+            try {
+                return findClassRegion(classId, destination == TestOutputEvent.Destination.StdOut).start >= 0;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
         }
 
@@ -315,71 +367,110 @@ public class TestOutputStore {
                 return;
             }
 
-            Index targetIndex = index.children.get(classId);
-            if (targetIndex != null && testId != 0) {
-                targetIndex = targetIndex.children.get(testId);
-            }
-
-            if (targetIndex == null) {
-                return;
-            }
-
             boolean stdout = destination == TestOutputEvent.Destination.StdOut;
-            Region region = stdout ? targetIndex.stdOut : targetIndex.stdErr;
-
-            if (region.start < 0) {
-                return;
-            }
-
             boolean ignoreClassLevel = !allClassOutput && testId != 0;
             boolean ignoreTestLevel = !allClassOutput && testId == 0;
 
             try {
-                dataFile.seek(region.start);
-                long maxPos = region.stop - region.start;
-                KryoBackedDecoder decoder = new KryoBackedDecoder(new RandomAccessFileInputStream(dataFile));
-                while (decoder.getReadPosition() <= maxPos) {
-                    boolean readStdout = decoder.readBoolean();
-                    long readClassId = decoder.readSmallLong();
-                    long readTestId = decoder.readSmallLong();
-                    int readLength = decoder.readSmallInt();
+                Region region = allClassOutput ? findClassRegion(classId, stdout) : findTestRegion(classId, testId, stdout);
+                long position = region.start;
+                if (position < 0) {
+                    return;
+                }
 
-                    boolean isClassLevel = readTestId == 0;
+                while (position < region.stop) {
+                    ByteBuffer header = dataFile.read(position, HEADER_SIZE);
+                    boolean readStdout = header.get() != 0;
+                    long readClassId = header.getLong();
+                    long readTestId = header.getLong();
+                    int readLength = header.getInt();
+                    position += HEADER_SIZE;
 
-                    if (stdout != readStdout || classId != readClassId) {
-                        decoder.skipBytes(readLength);
-                        continue;
+                    boolean isClassLevel = readTestId == 0;
+                    boolean matches = stdout == readStdout
+                        && classId == readClassId
+                        && !(ignoreClassLevel && isClassLevel)
+                        && !(ignoreTestLevel && !isClassLevel)
+                        && (testId == 0 || testId == readTestId);
+                    if (matches) {
+                        writeMessage(dataFile.read(position, readLength), writer);
                     }
+                    position += readLength;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
 
-                    if (ignoreClassLevel && isClassLevel) {
-                        decoder.skipBytes(readLength);
-                        continue;
-                    }
+        /**
+         * Decodes the given message straight into the writer, without creating a string for it.
+         */
+        private void writeMessage(ByteBuffer bytes, java.io.Writer writer) throws IOException {
+            charsetDecoder.reset();
+            while (true) {
+                CoderResult result = charsetDecoder.decode(bytes, chars, true);
+                writeChars(writer);
+                if (result.isUnderflow()) {
+                    break;
+                }
+            }
+            while (charsetDecoder.flush(chars).isOverflow()) {
+                writeChars(writer);
+            }
+            writeChars(writer);
+        }
 
-                    if (ignoreTestLevel && !isClassLevel) {
-                        decoder.skipBytes(readLength);
-                        continue;
-                    }
+        private void writeChars(java.io.Writer writer) throws IOException {
+            chars.flip();
+            writer.write(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+            chars.clear();
+        }
 
-                    if (testId == 0 || testId == readTestId) {
-                        byte[] stringBytes = new byte[readLength];
-                        decoder.readBytes(stringBytes);
-                        String message;
-                        try {
-                            message = new String(stringBytes, messageStorageCharset.name());
-                        } catch (UnsupportedEncodingException e) {
-                            // shouldn't happen
-                            throw UncheckedException.throwAsUncheckedException(e);
-                        }
-
-                        writer.write(message);
-                    } else {
-                        decoder.skipBytes(readLength);
-                    }
+        private Region findTestRegion(long classId, long testId, boolean stdout) throws IOException {
+            long record = findRecord(classId, testId);
+            if (record >= indexRecords || readIndex(record, 0) != classId || readIndex(record, 1) != testId) {
+                return new Region();
+            }
+            return readRegion(record, stdout);
+        }
+
+        private Region findClassRegion(long classId, boolean stdout) throws IOException {
+            Region region = new Region();
+            for (long record = findRecord(classId, Long.MIN_VALUE); record < indexRecords && readIndex(record, 0) == classId; record++) {
+                Region testRegion = readRegion(record, stdout);
+                region.include(testRegion.start, testRegion.stop);
+            }
+            return region;
+        }
+
+        /**
+         * Returns the first index record that is not less than the given ids.
+         */
+        private long findRecord(long classId, long testId) throws IOException {
+            long low = 0;
+            long high = indexRecords;
+            while (low < high) {
+                long mid = (low + high) >>> 1;
+                int diff = compareIds(readIndex(mid, 0), classId);
+                if (diff == 0) {
+                    diff = compareIds(readIndex(mid, 1), testId);
+                }
+                if (diff < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
                 }
-            } catch (IOException e1) {
-                throw new UncheckedIOException(e1);
             }
+            return low;
+        }
+
+        private Region readRegion(long record, boolean stdout) throws IOException {
+            int field = stdout ? 2 : 4;
+            return new Region(readIndex(record, field), readIndex(record, field + 1));
+        }
+
+        private long readIndex(long record, int field) throws IOException {
+            return index.read(record * INDEX_RECORD_SIZE + field * 8, 8).getLong();
         }
     }
 
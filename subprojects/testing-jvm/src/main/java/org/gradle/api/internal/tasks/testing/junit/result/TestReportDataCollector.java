@@ -83,6 +83,33 @@ public class TestReportDataCollector implements TestListener, TestOutputListener
         classResult.add(methodResult);
     }
 
+    /**
+     * Adds the result and output of a test class that has not been executed, because its result has been taken from a {@link TestClassResultCache}.
+     */
+    public void replay(CachedTestClassResult cachedResult) {
+        TestClassResult cachedClassResult = cachedResult.getResult();
+        TestClassResult classResult = new TestClassResult(internalIdCounter++, cachedClassResult.getClassName(), cachedClassResult.getStartTime());
+        Map<Long, Long> testIds = new HashMap<Long, Long>();
+        for (TestMethodResult cachedMethodResult : cachedClassResult.getResults()) {
+            TestMethodResult methodResult = new TestMethodResult(internalIdCounter++, cachedMethodResult.getName(), cachedMethodResult.getResultType(), cachedMethodResult.getDuration(), cachedMethodResult.getEndTime());
+            for (TestFailure failure : cachedMethodResult.getFailures()) {
+                methodResult.addFailure(failure.getMessage(), failure.getStackTrace(), failure.getExceptionType());
+            }
+            testIds.put(cachedMethodResult.getId(), methodResult.getId());
+            classResult.add(methodResult);
+        }
+        results.put(classResult.getClassName(), classResult);
+
+        for (CachedTestClassResult.Output output : cachedResult.getOutput()) {
+            Long testId = testIds.get(output.getTestId());
+            if (testId == null) {
+                outputWriter.onOutput(classResult.getId(), output.getEvent());
+            } else {
+                outputWriter.onOutput(classResult.getId(), testId, output.getEvent());
+            }
+        }
+    }
+
     private String failureMessage(Throwable throwable) {
         try {
             return throwable.toString();
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.junit.result;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.serialize.HashCodeSerializer;
+import org.gradle.internal.serialize.MapSerializer;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.gradle.internal.serialize.BaseSerializerFactory.STRING_SERIALIZER;
+
+/**
+ * Hashes of the inputs of each file of a test report, so that a report generator only rewrites the files whose inputs have changed.
+ * The hashes of the last generation are kept in a file in the report directory.
+ */
+public class TestReportFileHashes {
+    private static final Logger LOGGER = Logging.getLogger(TestReportFileHashes.class);
+    private static final String HASHES_FILE_NAME = ".report-hashes.bin";
+
+    private final File reportDir;
+    private final Map<String, HashCode> previousHashes;
+    private final Map<String, HashCode> currentHashes = new HashMap<String, HashCode>();
+    private final MapSerializer<String, HashCode> serializer = new MapSerializer<String, HashCode>(STRING_SERIALIZER, new HashCodeSerializer());
+
+    /**
+     * Reads the hashes of the last generation of the report in the given directory. The hashes are removed until {@link #store()} is
+     * called, so that an interrupted generation is not mistaken for a complete one.
+     */
+    public TestReportFileHashes(File reportDir) {
+        this.reportDir = reportDir;
+        this.previousHashes = read();
+    }
+
+    private Map<String, HashCode> read() {
+        File hashesFile = new File(reportDir, HASHES_FILE_NAME);
+        if (!hashesFile.isFile()) {
+            return Collections.emptyMap();
+        }
+        try {
+            InputStream inputStream = new FileInputStream(hashesFile);
+            try {
+                return serializer.read(new KryoBackedDecoder(inputStream));
+            } finally {
+                inputStream.close();
+            }
+        } catch (Exception e) {
+            // The hashes only avoid work, so regenerate the whole report without them
+            LOGGER.debug("Could not read test report hashes from {}.", hashesFile, e);
+            return Collections.emptyMap();
+        } finally {
+            hashesFile.delete();
+        }
+    }
+
+    /**
+     * Records the hash of the inputs of the given report file, and returns whether the file has already been generated from the same inputs.
+     */
+    public boolean isUpToDate(String fileName, HashCode hash) {
+        currentHashes.put(fileName, hash);
+        return hash.equals(previousHashes.get(fileName)) && new File(reportDir, fileName).isFile();
+    }
+
+    /**
+     * Stores the hashes of the report files, once all of them have been generated.
+     */
+    public void store() {
+        reportDir.mkdirs();
+        try {
+            OutputStream outputStream = new FileOutputStream(new File(reportDir, HASHES_FILE_NAME));
+            try {
+                KryoBackedEncoder encoder = new KryoBackedEncoder(outputStream);
+                serializer.write(encoder, currentHashes);
+                encoder.flush();
+            } finally {
+                outputStream.close();
+            }
+        } catch (Exception e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static Hasher newHasher() {
+        return Hashing.md5().newHasher();
+    }
+
+    /**
+     * Hashes everything about the given test class result, except for its id.
+     */
+    public static void putClassResult(Hasher hasher, TestClassResult result) {
+        putString(hasher, result.getClassName());
+        hasher.putLong(result.getStartTime());
+        hasher.putInt(result.getResults().size());
+        for (TestMethodResult methodResult : result.getResults()) {
+            putString(hasher, methodResult.getName());
+            hasher.putInt(methodResult.getResultType() == null ? -1 : methodResult.getResultType().ordinal());
+            hasher.putLong(methodResult.getDuration());
+            hasher.putLong(methodResult.getEndTime());
+            hasher.putInt(methodResult.getFailures().size());
+            for (TestFailure failure : methodResult.getFailures()) {
+                putString(hasher, failure.getExceptionType());
+                putString(hasher, failure.getMessage());
+                putString(hasher, failure.getStackTrace());
+            }
+        }
+    }
+
+    /**
+     * Hashes all output of the given test class.
+     */
+    public static void putAllOutput(Hasher hasher, TestResultsProvider provider, long classId) {
+        for (TestOutputEvent.Destination destination : TestOutputEvent.Destination.values()) {
+            hasher.putBoolean(provider.hasOutput(classId, destination));
+            HashingWriter writer = new HashingWriter(hasher);
+            provider.writeAllOutput(classId, destination, writer);
+            hasher.putLong(writer.length);
+        }
+    }
+
+    /**
+     * Hashes the output of the given test class that has not been written by one of its tests, and the output of each of its tests.
+     */
+    public static void putOutputPerTest(Hasher hasher, TestResultsProvider provider, TestClassResult result) {
+        for (TestOutputEvent.Destination destination : TestOutputEvent.Destination.values()) {
+            HashingWriter writer = new HashingWriter(hasher);
+            provider.writeNonTestOutput(result.getId(), destination, writer);
+            hasher.putLong(writer.length);
+            for (TestMethodResult methodResult : result.getResults()) {
+                writer = new HashingWriter(hasher);
+                provider.writeTestOutput(result.getId(), methodResult.getId(), destination, writer);
+                hasher.putLong(writer.length);
+            }
+        }
+    }
+
+    public static void putString(Hasher hasher, String value) {
+        if (value == null) {
+            hasher.putInt(-1);
+        } else {
+            hasher.putInt(value.length());
+            hasher.putUnencodedChars(value);
+        }
+    }
+
+    private static class HashingWriter extends Writer {
+        private final Hasher hasher;
+        private long length;
+
+        HashingWriter(Hasher hasher) {
+            this.hasher = hasher;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            hasher.putUnencodedChars(CharBuffer.wrap(cbuf, off, len));
+            length += len;
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            hasher.putUnencodedChars(str.subSequence(off, off + len));
+            length += len;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -63,7 +63,7 @@ public class TestResultSerializer {
         }
     }
 
-    private void write(TestClassResult classResult, Encoder encoder) throws IOException {
+    static void write(TestClassResult classResult, Encoder encoder) throws IOException {
         encoder.writeSmallLong(classResult.getId());
         encoder.writeString(classResult.getClassName());
         encoder.writeLong(classResult.getStartTime());
@@ -73,7 +73,7 @@ public class TestResultSerializer {
         }
     }
 
-    private void write(TestMethodResult methodResult, Encoder encoder) throws IOException {
+    private static void write(TestMethodResult methodResult, Encoder encoder) throws IOException {
         encoder.writeSmallLong(methodResult.getId());
         encoder.writeString(methodResult.getName());
         encoder.writeSmallInt(methodResult.getResultType().ordinal());
@@ -120,7 +120,7 @@ public class TestResultSerializer {
         }
     }
 
-    private TestClassResult readClassResult(Decoder decoder) throws IOException, ClassNotFoundException {
+    static TestClassResult readClassResult(Decoder decoder) throws IOException, ClassNotFoundException {
         long id = decoder.readSmallLong();
         String className = decoder.readString();
         long startTime = decoder.readLong();
@@ -133,7 +133,7 @@ public class TestResultSerializer {
         return result;
     }
 
-    private TestMethodResult readMethodResult(Decoder decoder) throws ClassNotFoundException, IOException {
+    private static TestMethodResult readMethodResult(Decoder decoder) throws ClassNotFoundException, IOException {
         long id = decoder.readSmallLong();
         String name = decoder.readString();
         TestResult.ResultType resultType = TestResult.ResultType.values()[decoder.readSmallInt()];
@@ -54,7 +54,7 @@ public class TestNGTestFramework implements TestFramework {
         this.filter = filter;
         options = instantiator.newInstance(TestNGOptions.class, testTask.getProject().getProjectDir());
         conventionMapOutputDirectory(options, testTask.getReports().getHtml());
-        detector = new TestNGDetector(new ClassFileExtractionManager(testTask.getTemporaryDirFactory()));
+        detector = new TestNGDetector(new ClassFileExtractionManager());
         classLoaderFactory = new TestClassLoaderFactory(classLoaderCache, testTask);
     }
 
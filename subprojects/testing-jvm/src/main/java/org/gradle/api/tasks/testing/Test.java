@@ -16,6 +16,7 @@
 
 package org.gradle.api.tasks.testing;
 
+import com.google.common.hash.HashCode;
 import groovy.lang.Closure;
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
@@ -26,23 +27,40 @@ import org.gradle.api.file.FileTree;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.internal.ClosureBackedAction;
 import org.gradle.api.internal.ConventionTask;
+import org.gradle.api.internal.changedetection.state.CachingFileHasher;
 import org.gradle.api.internal.classpath.ModuleRegistry;
+import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.file.FileResolver;
+import org.gradle.api.internal.hash.FileHasher;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
+import org.gradle.api.internal.tasks.compile.incremental.cache.GeneralCompileCaches;
 import org.gradle.api.internal.tasks.options.Option;
 import org.gradle.api.internal.tasks.testing.DefaultTestTaskReports;
 import org.gradle.api.internal.tasks.testing.NoMatchingTestsReporter;
 import org.gradle.api.internal.tasks.testing.TestFramework;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.detection.DefaultTestExecuter;
+import org.gradle.api.internal.tasks.testing.detection.TestClassScanCache;
 import org.gradle.api.internal.tasks.testing.detection.TestExecuter;
+import org.gradle.api.internal.tasks.testing.detection.TestSchedulingOptions;
 import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter;
+import org.gradle.api.internal.tasks.testing.history.FailedOrChangedTestClassSpec;
+import org.gradle.api.internal.tasks.testing.history.TestHistory;
+import org.gradle.api.internal.tasks.testing.history.TestHistoryStore;
+import org.gradle.api.internal.tasks.testing.impact.CachedTestClassResults;
+import org.gradle.api.internal.tasks.testing.impact.TestClassDependencyHasher;
+import org.gradle.api.internal.tasks.testing.impact.TestClassSelection;
+import org.gradle.api.internal.tasks.testing.impact.TestImpactAnalyzer;
+import org.gradle.api.internal.tasks.testing.impact.TestImpactClasspathSnapshot;
+import org.gradle.api.internal.tasks.testing.impact.TestImpactClasspathSnapshotter;
+import org.gradle.api.internal.tasks.testing.impact.TestImpactStateStore;
 import org.gradle.api.internal.tasks.testing.junit.JUnitTestFramework;
 import org.gradle.api.internal.tasks.testing.junit.report.DefaultTestReport;
 import org.gradle.api.internal.tasks.testing.junit.report.TestReporter;
 import org.gradle.api.internal.tasks.testing.junit.result.Binary2JUnitXmlReportGenerator;
 import org.gradle.api.internal.tasks.testing.junit.result.InMemoryTestResultsProvider;
 import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResultCache;
 import org.gradle.api.internal.tasks.testing.junit.result.TestOutputAssociation;
 import org.gradle.api.internal.tasks.testing.junit.result.TestOutputStore;
 import org.gradle.api.internal.tasks.testing.junit.result.TestReportDataCollector;
@@ -58,10 +76,12 @@ import org.gradle.api.internal.tasks.testing.results.StateTrackingTestResultProc
 import org.gradle.api.internal.tasks.testing.results.TestListenerAdapter;
 import org.gradle.api.internal.tasks.testing.results.TestListenerInternal;
 import org.gradle.api.internal.tasks.testing.testng.TestNGTestFramework;
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerPool;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.reporting.DirectoryReport;
 import org.gradle.api.reporting.Reporting;
 import org.gradle.api.specs.Spec;
+import org.gradle.api.specs.Specs;
 import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.Classpath;
 import org.gradle.api.tasks.Input;
@@ -74,11 +94,15 @@ import org.gradle.api.tasks.PathSensitive;
 import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.api.tasks.VerificationTask;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.api.tasks.testing.logging.TestLogging;
 import org.gradle.api.tasks.testing.logging.TestLoggingContainer;
 import org.gradle.api.tasks.util.PatternFilterable;
+import org.gradle.cache.CacheRepository;
+import org.gradle.initialization.BuildCancellationToken;
 import org.gradle.internal.actor.ActorFactory;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.event.ListenerBroadcast;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.jvm.UnsupportedJavaRuntimeException;
@@ -91,6 +115,7 @@ import org.gradle.internal.operations.BuildOperationWorkerRegistry;
 import org.gradle.internal.progress.BuildOperationExecutor;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.internal.remote.internal.inet.InetAddressFactory;
+import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.listener.ClosureBackedMethodInvocationDispatch;
 import org.gradle.process.JavaForkOptions;
 import org.gradle.process.ProcessForkOptions;
@@ -163,6 +188,8 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
     private final DefaultTestFilter filter;
 
     private TestExecuter testExecuter;
+    private TestClassSelection testClassSelection;
+    private CachedTestClassResults cachedTestClassResults;
     private File testClassesDir;
     private File binResultsDir;
     private PatternFilterable patternSet;
@@ -172,6 +199,10 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
     private boolean scanForTestClasses = true;
     private long forkEvery;
     private int maxParallelForks = 1;
+    private boolean failedTestsFirst;
+    private int failFastThreshold;
+    private boolean affectedTestsOnly;
+    private boolean reuseTestResults;
     private TestReporter testReporter;
     private final TestTaskReports reports;
 
@@ -578,6 +609,34 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
     }
 
     @TaskAction
+    protected void executeTests(IncrementalTaskInputs inputs) {
+        // TestNG suites may pick their own test classes, so only cache the results of JUnit test classes
+        boolean resultCaching = reuseTestResults && getTestFramework() instanceof JUnitTestFramework;
+        if (!affectedTestsOnly && !resultCaching) {
+            executeTests();
+            return;
+        }
+        ServiceRegistry services = getServices();
+        GeneralCompileCaches compileCaches = services.get(GeneralCompileCaches.class);
+        TestImpactClasspathSnapshotter snapshotter = new TestImpactClasspathSnapshotter(services.get(FileOperations.class), services.get(CachingFileHasher.class),
+            compileCaches.getClassAnalysisCache(), compileCaches.getJarSnapshotCache());
+        TestImpactClasspathSnapshot snapshot = snapshotter.snapshot(getClasspath());
+        if (affectedTestsOnly) {
+            TestImpactAnalyzer analyzer = new TestImpactAnalyzer(new TestImpactStateStore(services.get(CacheRepository.class), this), snapshotter);
+            testClassSelection = analyzer.selectTestClasses(snapshot, inputs.isIncremental());
+        }
+        if (resultCaching) {
+            HashCode settingsHash = TestClassDependencyHasher.hashSettings(this, ((JUnitTestFramework) getTestFramework()).getOptions(), getFilter());
+            cachedTestClassResults = new CachedTestClassResults(services.get(TestClassResultCache.class), new TestClassDependencyHasher(snapshot, settingsHash));
+        }
+        try {
+            executeTests();
+        } finally {
+            testClassSelection = null;
+            cachedTestClassResults = null;
+        }
+    }
+
     public void executeTests() {
         LogLevel currentLevel = determineCurrentLogLevel();
         TestLogging levelLogging = testLogging.get(currentLevel);
@@ -590,6 +649,25 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         }
 
         File binaryResultsDir = getBinResultsDir();
+        Map<String, Long> previousTestClassDurations = readTestClassDurations(binaryResultsDir);
+        File testClassesDir = getTestClassesDir();
+        FileHasher fileHasher = getServices().get(CachingFileHasher.class);
+        // The history is only recorded when failed tests run first, as recording it hashes every executed test class file
+        boolean recordHistory = failedTestsFirst && testClassesDir != null;
+        TestHistoryStore testHistoryStore = null;
+        TestHistory testHistory = null;
+        if (recordHistory || previousTestClassDurations.isEmpty()) {
+            testHistoryStore = new TestHistoryStore(getServices().get(CacheRepository.class), this);
+            testHistory = testHistoryStore.get();
+        }
+        if (previousTestClassDurations.isEmpty()) {
+            // The previous results may have been deleted, for example by a clean build
+            previousTestClassDurations = testHistory.getDurations();
+        }
+        Spec<? super String> runFirst = recordHistory ? new FailedOrChangedTestClassSpec(testHistory, testClassesDir, fileHasher) : null;
+        if (testClassSelection != null) {
+            testClassSelection.loadPreviousResults(binaryResultsDir);
+        }
         getProject().delete(binaryResultsDir);
         getProject().mkdir(binaryResultsDir);
 
@@ -610,7 +688,15 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         TestResultProcessor resultProcessor = new StateTrackingTestResultProcessor(testListenerInternalBroadcaster.getSource());
 
         if (testExecuter == null) {
-            testExecuter = new DefaultTestExecuter(getProcessBuilderFactory(), getActorFactory(), getModuleRegistry(), getServices().get(BuildOperationWorkerRegistry.class), getServices().get(BuildOperationExecutor.class));
+            TestSchedulingOptions schedulingOptions = new TestSchedulingOptions()
+                .setPreviousTestClassDurations(previousTestClassDurations)
+                .setWorkerPool(getServices().get(TestWorkerPool.class))
+                .setTestClassSelection(createTestClassSpec())
+                .setScanCache(getServices().get(TestClassScanCache.class))
+                .setExecutorFactory(getServices().get(ExecutorFactory.class))
+                .setRunFirst(runFirst)
+                .setCancellationToken(getServices().get(BuildCancellationToken.class));
+            testExecuter = new DefaultTestExecuter(getProcessBuilderFactory(), getActorFactory(), getModuleRegistry(), getServices().get(BuildOperationWorkerRegistry.class), getServices().get(BuildOperationExecutor.class), schedulingOptions);
         }
 
         JavaVersion javaVersion = getJavaVersion();
@@ -620,6 +706,12 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
 
         try {
             testExecuter.execute(this, resultProcessor);
+            if (testClassSelection != null) {
+                testClassSelection.replayResults(testReportDataCollector);
+            }
+            if (cachedTestClassResults != null) {
+                cachedTestClassResults.replayResults(testReportDataCollector);
+            }
         } finally {
             testExecuter = null;
             testListenerBroadcaster.removeAll();
@@ -629,6 +721,15 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         }
 
         new TestResultSerializer(binaryResultsDir).write(results.values());
+        if (recordHistory) {
+            testHistoryStore.put(testHistory.update(results.values(), testClassesDir, fileHasher));
+        }
+        if (testClassSelection != null) {
+            testClassSelection.storeResults(results.values());
+        }
+        if (cachedTestClassResults != null) {
+            cachedTestClassResults.storeResults(results.values(), testOutputStore);
+        }
 
         TestResultsProvider testResultsProvider = new InMemoryTestResultsProvider(results.values(), testOutputStore);
 
@@ -663,6 +764,34 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         }
     }
 
+    private Spec<? super String> createTestClassSpec() {
+        // Apply the selection first, as the cache replays the results of each test class that it is asked about
+        if (cachedTestClassResults == null) {
+            return testClassSelection;
+        }
+        if (testClassSelection == null) {
+            return cachedTestClassResults;
+        }
+        return Specs.<String>intersect(testClassSelection, cachedTestClassResults);
+    }
+
+    private Map<String, Long> readTestClassDurations(File binaryResultsDir) {
+        final Map<String, Long> durations = new HashMap<String, Long>();
+        try {
+            new TestResultSerializer(binaryResultsDir).read(new Action<TestClassResult>() {
+                @Override
+                public void execute(TestClassResult result) {
+                    durations.put(result.getClassName(), result.getDuration());
+                }
+            });
+        } catch (Exception e) {
+            // The durations are only used to order the test classes, so carry on without them
+            getLogger().debug("Could not read test class durations from previous results in {}.", binaryResultsDir, e);
+            durations.clear();
+        }
+        return durations;
+    }
+
     /**
      * Registers a test listener with this task. Consider also the following handy methods for quicker hooking into test execution: {@link #beforeTest(groovy.lang.Closure)}, {@link
      * #afterTest(groovy.lang.Closure)}, {@link #beforeSuite(groovy.lang.Closure)}, {@link #afterSuite(groovy.lang.Closure)} <p> This listener will NOT be notified of tests executed by other tasks. To
@@ -1111,6 +1240,82 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         this.maxParallelForks = maxParallelForks;
     }
 
+    /**
+     * Returns whether the test classes that failed in the last execution of this task, and the test classes whose class files have been
+     * added or changed since, run before all other test classes. The default value is {@code false}, which runs the test classes in the
+     * order in which they are found.
+     *
+     * <p>The test classes that run first are started as soon as they are found, and all other test classes once the scan for test
+     * classes has finished. Combine this with {@link #getFailFastThreshold()} to learn about known failures as early as possible.</p>
+     */
+    @Incubating
+    @Internal
+    public boolean isFailedTestsFirst() {
+        return failedTestsFirst;
+    }
+
+    @Incubating
+    public void setFailedTestsFirst(boolean failedTestsFirst) {
+        this.failedTestsFirst = failedTestsFirst;
+    }
+
+    /**
+     * Returns the number of test failures after which no further test classes are started. Test classes that have already started run to
+     * completion, and the remaining test classes are skipped. The default value is 0, which runs all test classes regardless of failures.
+     */
+    @Incubating
+    @Internal
+    public int getFailFastThreshold() {
+        return failFastThreshold;
+    }
+
+    @Incubating
+    public void setFailFastThreshold(int failFastThreshold) {
+        if (failFastThreshold < 0) {
+            throw new IllegalArgumentException("Cannot set failFastThreshold to a value less than 0.");
+        }
+        this.failFastThreshold = failFastThreshold;
+    }
+
+    /**
+     * Returns whether only the test classes that may be affected by the changes to the test runtime classpath since the last execution of this
+     * task are run. The default value is {@code false}, which runs all test classes.
+     *
+     * <p>A test class is run when it, or a class it depends on, has been added, changed or removed, or when it did not pass in the last
+     * execution. The results of the last execution are reported for all other test classes. All test classes are run when a resource or a
+     * class that may be inlined into other classes, such as a class with constants, has changed. Only dependencies that can be seen in the
+     * bytecode are considered.</p>
+     */
+    @Incubating
+    @Input
+    public boolean isAffectedTestsOnly() {
+        return affectedTestsOnly;
+    }
+
+    @Incubating
+    public void setAffectedTestsOnly(boolean affectedTestsOnly) {
+        this.affectedTestsOnly = affectedTestsOnly;
+    }
+
+    /**
+     * Returns whether JUnit test classes that have passed before are skipped, and their previous results reported instead. The default value
+     * is {@code false}, which runs all test classes.
+     *
+     * <p>A test class is skipped when it passed with the same bytecode, the same bytecode of the classes it depends on, the same resources
+     * on the test runtime classpath and the same test settings, in any earlier execution of any test task that uses the same Gradle user
+     * home. Only dependencies that can be seen in the bytecode are considered.</p>
+     */
+    @Incubating
+    @Input
+    public boolean isReuseTestResults() {
+        return reuseTestResults;
+    }
+
+    @Incubating
+    public void setReuseTestResults(boolean reuseTestResults) {
+        this.reuseTestResults = reuseTestResults;
+    }
+
     /**
      * Returns the classes files to scan for test classes.
      *
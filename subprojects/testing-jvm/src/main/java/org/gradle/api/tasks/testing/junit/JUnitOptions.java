@@ -31,6 +31,8 @@ public class JUnitOptions extends TestFrameworkOptions {
 
     private Set<String> excludeCategories = new LinkedHashSet<String>();
 
+    private int maxParallelTestsPerFork = 1;
+
     @Incubating
     public JUnitOptions includeCategories(String... includeCategories) {
         this.includeCategories.addAll(Arrays.asList(includeCategories));
@@ -68,5 +70,26 @@ public class JUnitOptions extends TestFrameworkOptions {
         this.excludeCategories = excludeCategories;
     }
 
+    /**
+     * The maximum number of tests to run concurrently in each test process. The default is 1, which runs the tests one at a time.
+     *
+     * <p>When greater than 1, the test methods of each test class, or the test classes of each suite, run concurrently on a pool of this
+     * many threads, so the tests must be thread-safe. Test classes still run one at a time, and the output of each test is attributed
+     * to it by the thread that writes the output. This requires JUnit 4.7 or later.</p>
+     *
+     * <p>This is a cheaper alternative to {@link org.gradle.api.tasks.testing.Test#getMaxParallelForks()} for tests that are CPU-bound,
+     * as all the tests share one JVM.</p>
+     */
+    @Incubating
+    public int getMaxParallelTestsPerFork() {
+        return maxParallelTestsPerFork;
+    }
 
+    @Incubating
+    public void setMaxParallelTestsPerFork(int maxParallelTestsPerFork) {
+        if (maxParallelTestsPerFork < 1) {
+            throw new IllegalArgumentException("Cannot set maxParallelTestsPerFork to a value less than 1.");
+        }
+        this.maxParallelTestsPerFork = maxParallelTestsPerFork;
+    }
 }
@@ -16,9 +16,15 @@
 
 package org.gradle.jvm.test.internal.services;
 
+import org.gradle.api.internal.changedetection.state.CachingFileHasher;
+import org.gradle.api.internal.tasks.testing.detection.TestClassScanCache;
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResultCache;
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerPool;
+import org.gradle.cache.CacheRepository;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.PluginServiceRegistry;
 import org.gradle.jvm.test.internal.JUnitTestSuiteBinaryRenderer;
+import org.gradle.process.internal.worker.WorkerProcessFactory;
 
 public class JvmTestingServices implements PluginServiceRegistry {
     @Override
@@ -28,7 +34,7 @@ public class JvmTestingServices implements PluginServiceRegistry {
 
     @Override
     public void registerBuildSessionServices(ServiceRegistration registration) {
-
+        registration.addProvider(new BuildSessionScopeServices());
     }
 
     @Override
@@ -38,11 +44,27 @@ public class JvmTestingServices implements PluginServiceRegistry {
 
     @Override
     public void registerGradleServices(ServiceRegistration registration) {
-
+        registration.addProvider(new GradleScopeServices());
     }
 
     @Override
     public void registerProjectServices(ServiceRegistration registration) {
 
     }
+
+    private static class BuildSessionScopeServices {
+        TestWorkerPool createTestWorkerPool(WorkerProcessFactory workerProcessFactory) {
+            return new TestWorkerPool(workerProcessFactory);
+        }
+    }
+
+    private static class GradleScopeServices {
+        TestClassResultCache createTestClassResultCache(CacheRepository cacheRepository) {
+            return new TestClassResultCache(cacheRepository);
+        }
+
+        TestClassScanCache createTestClassScanCache(CacheRepository cacheRepository, CachingFileHasher fileHasher) {
+            return new TestClassScanCache(cacheRepository, fileHasher);
+        }
+    }
 }
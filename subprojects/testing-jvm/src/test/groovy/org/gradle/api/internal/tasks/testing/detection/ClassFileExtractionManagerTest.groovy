@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.detection
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class ClassFileExtractionManagerTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final manager = new ClassFileExtractionManager()
+
+    def "reads classes from the first library jar that contains them"() {
+        def jar1 = jar("lib1.jar", "org/gradle/Base.class": "base 1")
+        def jar2 = jar("lib2.jar", "org/gradle/Base.class": "base 2", "org/gradle/Other.class": "other")
+
+        when:
+        manager.addLibraryJar(jar1)
+        manager.addLibraryJar(jar2)
+
+        then:
+        new String(manager.getLibraryClass("org/gradle/Base")) == "base 1"
+        new String(manager.getLibraryClass("org/gradle/Other")) == "other"
+        manager.getLibraryClass("org/gradle/Missing") == null
+    }
+
+    private File jar(String name, Map<String, String> entries) {
+        def contents = tmpDir.createDir("${name}-contents")
+        entries.each { path, text ->
+            contents.file(path).text = text
+        }
+        def jar = tmpDir.file(name)
+        contents.zipTo(jar)
+        return jar
+    }
+}
@@ -20,7 +20,9 @@ package org.gradle.api.internal.tasks.testing.detection
 import org.gradle.api.file.FileTree
 import org.gradle.api.file.FileVisitDetails
 import org.gradle.api.file.FileVisitor
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.junit.Test
 import spock.lang.Specification
 
@@ -52,4 +54,55 @@ public class DefaultTestClassScannerTest extends Specification {
 
         0 * _._
     }
+
+    def "detects test classes concurrently and processes them in the order their class files are found"() {
+        def executorFactory = new DefaultExecutorFactory()
+        def scanner = new DefaultTestClassScanner(files, detector, processor, executorFactory)
+        def processed = []
+
+        given:
+        files.visit(_) >> { FileVisitor visitor ->
+            visitor.visitFile({new File('class1.class')} as FileVisitDetails)
+            visitor.visitFile({new File('class2.class')} as FileVisitDetails)
+            visitor.visitFile({new File('class3.class')} as FileVisitDetails)
+        }
+        detector.detectTestClass(new File('class1.class')) >> {
+            Thread.sleep(100)
+            new DefaultTestClassRunInfo('class1')
+        }
+        detector.detectTestClass(new File('class2.class')) >> null
+        detector.detectTestClass(new File('class3.class')) >> new DefaultTestClassRunInfo('class3')
+        processor.processTestClass(_) >> { args -> processed << args[0].testClassName }
+
+        when:
+        scanner.run()
+
+        then:
+        processed == ['class1', 'class3']
+
+        cleanup:
+        executorFactory.stop()
+    }
+
+    def "propagates failure to detect a test class"() {
+        def executorFactory = new DefaultExecutorFactory()
+        def scanner = new DefaultTestClassScanner(files, detector, processor, executorFactory)
+        def failure = new RuntimeException("broken")
+
+        given:
+        files.visit(_) >> { FileVisitor visitor ->
+            visitor.visitFile({new File('class1.class')} as FileVisitDetails)
+        }
+        detector.detectTestClass(new File('class1.class')) >> { throw failure }
+
+        when:
+        scanner.run()
+
+        then:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+
+        cleanup:
+        executorFactory.stop()
+    }
 }
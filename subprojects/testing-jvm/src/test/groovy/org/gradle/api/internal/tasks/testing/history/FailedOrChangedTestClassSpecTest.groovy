@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.history
+
+import org.gradle.api.internal.hash.DefaultFileHasher
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult
+import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult
+import org.gradle.api.tasks.testing.TestResult
+import org.gradle.internal.serialize.InputStreamBackedDecoder
+import org.gradle.internal.serialize.OutputStreamBackedEncoder
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class FailedOrChangedTestClassSpecTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final hasher = new DefaultFileHasher()
+    final classesDir = tmpDir.createDir("classes")
+
+    def "selects everything when there is no history"() {
+        classesDir.file("org/gradle/FooTest.class").text = "foo"
+
+        expect:
+        spec(TestHistory.empty()).isSatisfiedBy("org.gradle.FooTest")
+        spec(TestHistory.empty()).isSatisfiedBy("org.gradle.MissingTest")
+    }
+
+    def "selects test classes that failed or whose class files have been added or changed"() {
+        classesDir.file("org/gradle/PassedTest.class").text = "passed"
+        classesDir.file("org/gradle/FailedTest.class").text = "failed"
+        classesDir.file("org/gradle/ChangedTest.class").text = "changed"
+        def history = TestHistory.empty().update([result(1, "org.gradle.PassedTest", TestResult.ResultType.SUCCESS),
+                                                  result(2, "org.gradle.FailedTest", TestResult.ResultType.FAILURE),
+                                                  result(3, "org.gradle.ChangedTest", TestResult.ResultType.SUCCESS)], classesDir, hasher)
+
+        when:
+        classesDir.file("org/gradle/ChangedTest.class").text = "changed again"
+        classesDir.file("org/gradle/NewTest.class").text = "new"
+        def spec = spec(serialized(history))
+
+        then:
+        !spec.isSatisfiedBy("org.gradle.PassedTest")
+        spec.isSatisfiedBy("org.gradle.FailedTest")
+        spec.isSatisfiedBy("org.gradle.ChangedTest")
+        spec.isSatisfiedBy("org.gradle.NewTest")
+    }
+
+    def "keeps the history of test classes that did not run as long as their class files exist"() {
+        classesDir.file("org/gradle/FailedTest.class").text = "failed"
+        classesDir.file("org/gradle/RemovedTest.class").text = "removed"
+        def history = TestHistory.empty().update([result(1, "org.gradle.FailedTest", TestResult.ResultType.FAILURE),
+                                                  result(2, "org.gradle.RemovedTest", TestResult.ResultType.FAILURE)], classesDir, hasher)
+
+        when:
+        classesDir.file("org/gradle/RemovedTest.class").delete()
+        history = history.update([], classesDir, hasher)
+
+        then:
+        history.get("org.gradle.FailedTest").failed
+        history.get("org.gradle.RemovedTest") == null
+    }
+
+    def spec(TestHistory history) {
+        return new FailedOrChangedTestClassSpec(history, classesDir, hasher)
+    }
+
+    def result(long id, String className, TestResult.ResultType resultType) {
+        return new TestClassResult(id, className, 100).add(new TestMethodResult(id, "test", resultType, 10, 110))
+    }
+
+    def serialized(TestHistory history) {
+        def serializer = new TestHistory.Serializer()
+        def bytes = new ByteArrayOutputStream()
+        serializer.write(new OutputStreamBackedEncoder(bytes), history)
+        return serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(bytes.toByteArray())))
+    }
+}
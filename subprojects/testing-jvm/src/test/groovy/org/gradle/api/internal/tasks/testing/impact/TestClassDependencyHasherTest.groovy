@@ -0,0 +1,113 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.impact
+
+import com.google.common.hash.HashCode
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysis
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData
+import org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter
+import org.gradle.api.tasks.testing.junit.JUnitOptions
+import org.gradle.process.internal.DefaultJavaForkOptions
+import spock.lang.Specification
+
+import static org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet.dependents
+
+class TestClassDependencyHasherTest extends Specification {
+    def settings = HashCode.fromInt(1)
+    def dependents = ["FooTest": dependents(), "BarTest": dependents(), "Foo": dependents("FooTest"), "Bar": dependents("Foo"), "Baz": dependents("BarTest")]
+    def classHashes = ["FooTest": "1", "BarTest": "1", "Foo": "1", "Bar": "1", "Baz": "1"]
+
+    def "hash changes when a transitive dependency changes"() {
+        def hasher = hasher(classHashes)
+
+        expect:
+        hasher(classHashes + ["Bar": "2"]).hash("FooTest") != hasher.hash("FooTest")
+        hasher(classHashes + ["Bar": "2"]).hash("BarTest") == hasher.hash("BarTest")
+        hasher(classHashes + ["Baz": "2"]).hash("FooTest") == hasher.hash("FooTest")
+        hasher(classHashes + ["Baz": "2"]).hash("BarTest") != hasher.hash("BarTest")
+    }
+
+    def "hash changes when a class that may be inlined changes"() {
+        def allDependents = dependents + ["Constants": new DefaultDependentsSet(true, [])]
+        def hasher = hasher(classHashes + ["Constants": "1"], allDependents)
+
+        expect:
+        hasher(classHashes + ["Constants": "2"], allDependents).hash("FooTest") != hasher.hash("FooTest")
+        hasher(classHashes + ["Constants": "2"], allDependents).hash("BarTest") != hasher.hash("BarTest")
+    }
+
+    def "hash changes when a resource or the settings change"() {
+        def hasher = hasher(classHashes)
+
+        expect:
+        hasher(classHashes, dependents, ["config.properties": "2"]).hash("FooTest") != hasher.hash("FooTest")
+        new TestClassDependencyHasher(snapshot(classHashes, dependents, [:]), HashCode.fromInt(2)).hash("FooTest") != hasher.hash("FooTest")
+    }
+
+    def "settings hash depends on the framework options and the filter"() {
+        def forkOptions = new DefaultJavaForkOptions(TestFiles.resolver())
+        def options = new JUnitOptions()
+        def filter = new DefaultTestFilter()
+        def hash = TestClassDependencyHasher.hashSettings(forkOptions, options, filter)
+
+        expect:
+        TestClassDependencyHasher.hashSettings(forkOptions, new JUnitOptions(), new DefaultTestFilter()) == hash
+        TestClassDependencyHasher.hashSettings(forkOptions, new JUnitOptions().includeCategories("Fast"), filter) != hash
+        TestClassDependencyHasher.hashSettings(forkOptions, new JUnitOptions().excludeCategories("Fast"), filter) != hash
+        TestClassDependencyHasher.hashSettings(forkOptions, options, new DefaultTestFilter().includeTestsMatching("*Foo*")) != hash
+    }
+
+    def "settings hash distinguishes adjacent values"() {
+        def options = new JUnitOptions()
+        def filter = new DefaultTestFilter()
+        def splitArgs = new DefaultJavaForkOptions(TestFiles.resolver())
+        splitArgs.jvmArgs("-Da", "b")
+        def joinedArgs = new DefaultJavaForkOptions(TestFiles.resolver())
+        joinedArgs.jvmArgs("-Dab")
+
+        expect:
+        TestClassDependencyHasher.hashSettings(splitArgs, options, filter) != TestClassDependencyHasher.hashSettings(joinedArgs, options, filter)
+    }
+
+    def "hashes test classes that depend on each other"() {
+        def cyclicDependents = ["FooTest": dependents("Foo"), "Foo": dependents("FooTest")]
+        def hasher = hasher(["FooTest": "1", "Foo": "1"], cyclicDependents)
+
+        expect:
+        hasher(["FooTest": "1", "Foo": "2"], cyclicDependents).hash("FooTest") != hasher.hash("FooTest")
+    }
+
+    def "does not hash classes that are not on the classpath"() {
+        expect:
+        hasher(classHashes).hash("MissingTest") == null
+    }
+
+    def hasher(Map<String, String> classHashes, Map<String, Object> dependents = this.dependents, Map<String, String> resourceHashes = [:]) {
+        return new TestClassDependencyHasher(snapshot(classHashes, dependents, resourceHashes), settings)
+    }
+
+    def snapshot(Map<String, String> classHashes, Map<String, Object> dependents, Map<String, String> resourceHashes) {
+        return new TestImpactClasspathSnapshot(hashes(classHashes), hashes(resourceHashes), new ClassSetAnalysis(new ClassSetAnalysisData(dependents)))
+    }
+
+    def hashes(Map<String, String> values) {
+        return values.collectEntries { key, value -> [key, HashCode.fromInt(value as int)] }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.impact
+
+import com.google.common.hash.HashCode
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysis
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData
+import org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult
+import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult
+import org.gradle.api.internal.tasks.testing.junit.result.TestOutputStore
+import org.gradle.api.internal.tasks.testing.junit.result.TestReportDataCollector
+import org.gradle.api.internal.tasks.testing.junit.result.TestResultSerializer
+import org.gradle.api.tasks.testing.TestOutputEvent
+import org.gradle.api.tasks.testing.TestResult
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import static org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet.dependents
+
+class TestImpactAnalyzerTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def store = Mock(TestImpactStateStore)
+    def snapshotter = Stub(TestImpactClasspathSnapshotter)
+    def classpath = [new File("classes")]
+    def analyzer = new TestImpactAnalyzer(store, snapshotter)
+
+    def setup() {
+        snapshotter.snapshot(classpath) >> snapshot(
+            ["FooTest": "1", "BarTest": "1", "BarTest\$Nested": "1", "Foo": "1", "Bar": "2", "Constants": "1"],
+            ["FooTest": dependents(), "BarTest": dependents(), "BarTest\$Nested": dependents("BarTest"), "Foo": dependents("FooTest"),
+             "Bar": dependents("BarTest\$Nested"), "Constants": new DefaultDependentsSet(true, [])])
+    }
+
+    def "selects all test classes when not incremental"() {
+        when:
+        def selection = analyzer.selectTestClasses(classpath, false)
+
+        then:
+        0 * store.get()
+        selection.isSatisfiedBy("FooTest")
+        selection.isSatisfiedBy("BarTest")
+    }
+
+    def "selects all test classes when there is no previous state"() {
+        when:
+        def selection = analyzer.selectTestClasses(classpath, true)
+
+        then:
+        1 * store.get() >> null
+        selection.isSatisfiedBy("FooTest")
+        selection.isSatisfiedBy("BarTest")
+    }
+
+    def "selects test classes that depend on changed classes"() {
+        given:
+        store.get() >> state(["FooTest": "1", "BarTest": "1", "BarTest\$Nested": "1", "Foo": "1", "Bar": "1", "Constants": "1"])
+
+        when:
+        def selection = analyzer.selectTestClasses(classpath, true)
+
+        then:
+        !selection.isSatisfiedBy("FooTest")
+        selection.isSatisfiedBy("BarTest")
+        selection.isSatisfiedBy("BarTest\$Nested")
+    }
+
+    def "selects test classes that depend on removed classes"() {
+        given:
+        store.get() >> state(["FooTest": "1", "BarTest": "1", "BarTest\$Nested": "1", "Foo": "1", "Bar": "2", "Constants": "1", "Removed": "1"])
+
+        when:
+        def selection = analyzer.selectTestClasses(classpath, true)
+
+        then:
+        snapshotter.snapshot(classpath) >> snapshot(["FooTest": "1", "Foo": "1"], ["Removed": dependents("Foo"), "Foo": dependents("FooTest"), "FooTest": dependents()])
+        selection.isSatisfiedBy("FooTest")
+    }
+
+    def "selects test classes that did not pass in the previous execution"() {
+        given:
+        store.get() >> state(["FooTest": "1", "BarTest": "1", "BarTest\$Nested": "1", "Foo": "1", "Bar": "2", "Constants": "1"], [:], ["FooTest"])
+
+        when:
+        def selection = analyzer.selectTestClasses(classpath, true)
+
+        then:
+        selection.isSatisfiedBy("FooTest")
+        !selection.isSatisfiedBy("BarTest")
+    }
+
+    def "selects all test classes when a class that may be inlined has changed"() {
+        given:
+        store.get() >> state(["FooTest": "1", "BarTest": "1", "BarTest\$Nested": "1", "Foo": "1", "Bar": "2", "Constants": "2"])
+
+        when:
+        def selection = analyzer.selectTestClasses(classpath, true)
+
+        then:
+        selection.isSatisfiedBy("FooTest")
+        selection.isSatisfiedBy("BarTest")
+    }
+
+    def "selects all test classes when a resource has changed"() {
+        given:
+        store.get() >> state(["FooTest": "1", "BarTest": "1", "BarTest\$Nested": "1", "Foo": "1", "Bar": "2", "Constants": "1"], ["some.properties": "1"])
+
+        when:
+        def selection = analyzer.selectTestClasses(classpath, true)
+
+        then:
+        selection.isSatisfiedBy("FooTest")
+        selection.isSatisfiedBy("BarTest")
+    }
+
+    def "stores the selected test classes that did not pass"() {
+        given:
+        store.get() >> state(["FooTest": "1", "BarTest": "1", "BarTest\$Nested": "1", "Foo": "2", "Bar": "3", "Constants": "1"])
+        def selection = analyzer.selectTestClasses(classpath, true)
+        selection.isSatisfiedBy("FooTest")
+        selection.isSatisfiedBy("BarTest")
+        selection.isSatisfiedBy("OtherTest")
+
+        when:
+        selection.storeResults([result("FooTest", TestResult.ResultType.SUCCESS), result("BarTest", TestResult.ResultType.FAILURE)])
+
+        then:
+        1 * store.put({ TestImpactState state ->
+            state.pendingTestClasses == ["BarTest"] as Set && state.classHashes.Bar == HashCode.fromInt(2) && state.resourceHashes.isEmpty()
+        })
+    }
+
+    def "replays the previous results of test classes that are not selected"() {
+        given:
+        def resultsDir = tmpDir.createDir("results")
+        def outputWriter = new TestOutputStore(resultsDir).writer()
+        outputWriter.onOutput(1, 1, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "foo output"))
+        outputWriter.close()
+        new TestResultSerializer(resultsDir).write([result("FooTest", TestResult.ResultType.SUCCESS)])
+        store.get() >> state(["FooTest": "1", "BarTest": "1", "BarTest\$Nested": "1", "Foo": "1", "Bar": "1", "Constants": "1"])
+        def selection = analyzer.selectTestClasses(classpath, true)
+        def results = [:]
+        def collectorOutput = Mock(TestOutputStore.Writer)
+
+        when:
+        selection.loadPreviousResults(resultsDir)
+
+        then:
+        !selection.isSatisfiedBy("FooTest")
+        selection.isSatisfiedBy("BarTest")
+
+        when:
+        selection.replayResults(new TestReportDataCollector(results, collectorOutput))
+
+        then:
+        results.keySet() == ["FooTest"] as Set
+        results.FooTest.results*.name == ["test"]
+        1 * collectorOutput.onOutput(_, _, { it.message == "foo output" })
+    }
+
+    def "selects test classes without a previous result"() {
+        given:
+        store.get() >> state(["FooTest": "1", "BarTest": "1", "BarTest\$Nested": "1", "Foo": "1", "Bar": "1", "Constants": "1"])
+        def selection = analyzer.selectTestClasses(classpath, true)
+
+        when:
+        selection.loadPreviousResults(tmpDir.createDir("results"))
+
+        then:
+        selection.isSatisfiedBy("FooTest")
+    }
+
+    def snapshot(Map<String, String> classHashes, Map<String, Object> dependents) {
+        return new TestImpactClasspathSnapshot(hashes(classHashes), [:], new ClassSetAnalysis(new ClassSetAnalysisData(dependents)))
+    }
+
+    def state(Map<String, String> classHashes, Map<String, String> resourceHashes = [:], List<String> pending = []) {
+        return new TestImpactState(hashes(classHashes), hashes(resourceHashes), pending as Set)
+    }
+
+    def hashes(Map<String, String> values) {
+        return values.collectEntries { key, value -> [key, HashCode.fromInt(value as int)] }
+    }
+
+    def result(String className, TestResult.ResultType resultType) {
+        def result = new TestClassResult(1, className, 0)
+        result.add(new TestMethodResult(1, "test", resultType, 1, 1))
+        return result
+    }
+}
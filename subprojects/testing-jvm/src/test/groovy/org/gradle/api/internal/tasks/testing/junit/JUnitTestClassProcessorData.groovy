@@ -33,6 +33,9 @@ import org.junit.runners.Parameterized
 import org.junit.runners.Suite
 import org.junit.runners.model.RunnerBuilder
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
 import static org.junit.Assume.assumeTrue
 
 public class ATestClass {
@@ -305,6 +308,19 @@ public class ATestClassWithSeveralMethods {
     @Test public void passSlowly2() {}
     @Test public void fail() { throw new RuntimeException("Boo!") }
 }
+public class ATestClassWithConcurrentMethods {
+    static CountDownLatch running = new CountDownLatch(2)
+
+    @Test public void first() { awaitOther() }
+    @Test public void second() { awaitOther() }
+
+    private static void awaitOther() {
+        running.countDown()
+        if (!running.await(20, TimeUnit.SECONDS)) {
+            throw new RuntimeException("Tests did not run concurrently.")
+        }
+    }
+}
 public class ATestClassWithSlowMethods {
     @Test public void pass() {}
     @Test public void passSlowly() {}
@@ -17,9 +17,11 @@
 package org.gradle.api.internal.tasks.testing.junit
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.internal.time.TrueTimeProvider
 import org.gradle.internal.id.LongIdGenerator
 import org.gradle.internal.actor.TestActorFactory
+import org.gradle.internal.actor.internal.DefaultActorFactory
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
 import spock.lang.Issue
@@ -39,7 +41,7 @@ class JUnitTestClassProcessorTest extends Specification {
     @Subject classProcessor = withSpec(spec)
 
     JUnitTestClassProcessor withSpec(spec) {
-        new JUnitTestClassProcessor(spec, new LongIdGenerator(), new TestActorFactory(), new TrueTimeProvider())
+        new JUnitTestClassProcessor(spec, new LongIdGenerator(), new TestActorFactory(), new TrueTimeProvider(), new DefaultExecutorFactory())
     }
 
     void process(Class ... clazz) {
@@ -451,4 +453,20 @@ class JUnitTestClassProcessorTest extends Specification {
         then: 1 * processor.completed(1, { it.resultType == null })
         0 * processor._
     }
+
+    def "executes the tests of a class concurrently"() {
+        def executorFactory = new DefaultExecutorFactory()
+        // The test actor factory does not serialize the events of concurrent tests
+        classProcessor = new JUnitTestClassProcessor(new JUnitSpec([] as Set, [] as Set, [] as Set, 2), new LongIdGenerator(), new DefaultActorFactory(executorFactory), new TrueTimeProvider(), executorFactory)
+
+        when: process(ATestClassWithConcurrentMethods)
+
+        then: 1 * processor.started({ it.id == 1 && it.className == ATestClassWithConcurrentMethods.name }, { it.parentId == null })
+        then:
+        1 * processor.started({ it.className == ATestClassWithConcurrentMethods.name && it.name == "first" }, { it.parentId == 1 })
+        1 * processor.started({ it.className == ATestClassWithConcurrentMethods.name && it.name == "second" }, { it.parentId == 1 })
+        2 * processor.completed({ it != 1 }, { it.resultType == null })
+        then: 1 * processor.completed(1, { it.resultType == null })
+        0 * processor._
+    }
 }
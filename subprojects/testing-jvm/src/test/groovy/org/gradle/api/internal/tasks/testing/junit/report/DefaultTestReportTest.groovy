@@ -523,6 +523,39 @@ class DefaultTestReportTest extends Specification {
         testClassFile.assertHasStandardError('err:\u0102')
     }
 
+    def onlyRegeneratesPagesWhoseResultsHaveChanged() {
+        given:
+        report = reportWithMaxThreads(1)
+        report.generateReport(passingBuildResults(), reportDir)
+        def passedFile = reportDir.file('classes/org.gradle.passing.Passed.html')
+        def alsoPassedFile = reportDir.file('classes/org.gradle.passing.subpackage.AlsoPassed.html')
+        def passedPackageFile = reportDir.file('packages/org.gradle.passing.html')
+        passedFile.text = 'unchanged'
+        alsoPassedFile.text = 'unchanged'
+        passedPackageFile.text = 'unchanged'
+        indexFile.text = 'unchanged'
+
+        when:
+        report.generateReport(passingBuildResults(), reportDir)
+
+        then:
+        passedFile.text == 'unchanged'
+        alsoPassedFile.text == 'unchanged'
+        passedPackageFile.text == 'unchanged'
+        indexFile.text == 'unchanged'
+
+        when:
+        def testTestResults = passingBuildResults()
+        testTestResults.testClasses.values().find { it.className == 'org.gradle.passing.subpackage.AlsoPassed' }.stdout 'more output'
+        report.generateReport(testTestResults, reportDir)
+
+        then:
+        passedFile.text == 'unchanged'
+        passedPackageFile.text == 'unchanged'
+        alsoPassedFile.text != 'unchanged'
+        indexFile.text != 'unchanged'
+    }
+
     TestResultsProvider buildResults(Closure closure) {
         ConfigureUtil.configure(closure, new BuildableTestResultsProvider())
     }
@@ -90,4 +90,60 @@ class Binary2JUnitXmlReportGeneratorSpec extends Specification {
         ex.causes[0].message.startsWith('Could not write XML test results for FooTest')
         ex.causes[0].cause.message == "Boo!"
     }
+
+    def "only rewrites the files of test classes whose results have changed"() {
+        generator = generatorWithMaxThreads(1)
+
+        def fooTest = new TestClassResult(1, 'FooTest', 100)
+            .add(new TestMethodResult(1, "foo"))
+        def barTest = new TestClassResult(2, 'BarTest', 100)
+            .add(new TestMethodResult(2, "bar"))
+        def changedBarTest = new TestClassResult(2, 'BarTest', 200)
+            .add(new TestMethodResult(2, "bar"))
+
+        def results = [fooTest, barTest]
+        resultsProvider.visitClasses(_) >> { Action action ->
+            results.each { action.execute(it) }
+        }
+
+        when:
+        generator.generate()
+
+        then:
+        1 * generator.xmlWriter.write(fooTest, _)
+        1 * generator.xmlWriter.write(barTest, _)
+
+        when:
+        generator.generate()
+
+        then:
+        0 * generator.xmlWriter._
+
+        when:
+        results = [fooTest, changedBarTest]
+        generator.generate()
+
+        then:
+        1 * generator.xmlWriter.write(changedBarTest, _)
+        0 * generator.xmlWriter._
+    }
+
+    def "rewrites files that have been removed since they were generated"() {
+        generator = generatorWithMaxThreads(1)
+
+        def fooTest = new TestClassResult(1, 'FooTest', 100)
+            .add(new TestMethodResult(1, "foo"))
+
+        resultsProvider.visitClasses(_) >> { Action action ->
+            action.execute(fooTest)
+        }
+
+        when:
+        generator.generate()
+        temp.testDirectory.file("TEST-FooTest.xml").delete()
+        generator.generate()
+
+        then:
+        2 * generator.xmlWriter.write(fooTest, _)
+    }
 }
@@ -145,6 +145,48 @@ class TestOutputStoreSpec extends WorkspaceTest {
         reader.close()
     }
 
+    def "looks up output of many classes and tests written in any order"() {
+        when:
+        def writer = output.writer()
+        [7, 3, 11, 1, 5].each { classId ->
+            writer.onOutput(classId, output(StdOut, "[class-$classId]"))
+            [4, 2].each { testId ->
+                writer.onOutput(classId, testId, output(StdOut, "[test-$classId-$testId]"))
+            }
+        }
+        writer.close()
+        def reader = output.reader()
+
+        then:
+        collectAllOutput(reader, 5, StdOut) == "[class-5][test-5-4][test-5-2]"
+        collectOutput(reader, 11, StdOut) == "[class-11]"
+        collectOutput(reader, 3, 2, StdOut) == "[test-3-2]"
+        collectOutput(reader, 3, 3, StdOut) == ""
+        reader.hasOutput(7, StdOut)
+        !reader.hasOutput(4, StdOut)
+        !reader.hasOutput(12, StdOut)
+
+        cleanup:
+        reader.close()
+    }
+
+    def "reads large messages with multi-byte characters"() {
+        def message = ("\u0107\u0256x" * 10000)
+
+        when:
+        def writer = output.writer()
+        writer.onOutput(1, 1, output(StdErr, message))
+        writer.onOutput(1, 1, output(StdErr, "[end]"))
+        writer.close()
+        def reader = output.reader()
+
+        then:
+        collectOutput(reader, 1, 1, StdErr) == message + "[end]"
+
+        cleanup:
+        reader.close()
+    }
+
     def "can open empty reader"() {
         // neither file
         expect:
@@ -219,4 +219,30 @@ class TestReportDataCollectorSpec extends Specification {
         then:
         results.get("FooTest").startTime == 100
     }
+
+    def "replays cached test class results with new ids"() {
+        def cachedResult = new TestClassResult(10, "FooTest", 100)
+            .add(new TestMethodResult(11, "testMethod", SUCCESS, 50, 150))
+        def test = new DefaultTestDescriptor("1.1.1", "BarTest", "testMethod")
+
+        when:
+        collector.beforeTest(test)
+        collector.afterTest(test, new DefaultTestResult(SUCCESS, 100, 200, 1, 1, 0, asList()))
+        collector.replay(new CachedTestClassResult(cachedResult, [
+            new CachedTestClassResult.Output(0, new DefaultTestOutputEvent(StdOut, "class-out")),
+            new CachedTestClassResult.Output(11, new DefaultTestOutputEvent(StdErr, "test-err"))]))
+
+        then:
+        results.size() == 2
+        def fooTest = results["FooTest"]
+        fooTest.id != results["BarTest"].id
+        fooTest.startTime == 100
+        fooTest.results.size() == 1
+        fooTest.results[0].name == "testMethod"
+        fooTest.results[0].duration == 50
+        fooTest.results[0].id != fooTest.id
+        1 * writer.onOutput({ it == results["FooTest"].id }, new DefaultTestOutputEvent(StdOut, "class-out"))
+        1 * writer.onOutput({ it == results["FooTest"].id }, { it == results["FooTest"].results[0].id }, new DefaultTestOutputEvent(StdErr, "test-err"))
+        0 * writer._
+    }
 }